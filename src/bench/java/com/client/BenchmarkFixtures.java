@@ -0,0 +1,377 @@
+package com.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.client.cache.MappedCacheStore;
+import com.client.utilities.settings.Settings;
+
+/**
+ * Generates the data the benchmarks run on, so the suites don't need a client cache: archives in
+ * the {@link StreamLoader} format for fonts, textures and items, a cache written through
+ * {@link Decompressor#write}, and the models shipped under data/custom_models.
+ *
+ * Everything is generated from fixed seeds so runs are comparable between releases.
+ */
+final class BenchmarkFixtures {
+
+	static final String FONT_NAME = "p12_full";
+	static final int WIDTH = 512;
+	static final int HEIGHT = 334;
+	static final int FOCAL_LENGTH = 512;
+	static final int TEXTURE_SIZE = 64;
+	/**
+	 * The note template of the generated items, like the real cache's.
+	 */
+	static final int NOTE_TEMPLATE = 799;
+
+	private BenchmarkFixtures() {
+	}
+
+	/**
+	 * Packs files into a gzipped archive, the layout {@link StreamLoader} reads when the block size is 0.
+	 */
+	static StreamLoader archive(Map<String, byte[]> files) throws IOException {
+		ByteArrayOutputStream raw = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(raw);
+		out.writeShort(files.size());
+		for (Map.Entry<String, byte[]> file : files.entrySet()) {
+			out.writeInt(nameHash(file.getKey()));
+			write3Bytes(out, file.getValue().length);
+			write3Bytes(out, file.getValue().length);
+		}
+		for (byte[] data : files.values()) {
+			out.write(data);
+		}
+		byte[] data = raw.toByteArray();
+		ByteArrayOutputStream packed = new ByteArrayOutputStream();
+		write3Bytes(packed, data.length);
+		write3Bytes(packed, 0);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(packed)) {
+			gzip.write(data);
+		}
+		if (packed.size() - 6 > data.length) {
+			// StreamLoader reads the compressed bytes into a buffer the size of the uncompressed ones
+			throw new IOException("archive doesn't compress");
+		}
+		return new StreamLoader(packed.toByteArray(), "benchmark");
+	}
+
+	/**
+	 * A font of 256 glyphs between 4 and 8 pixels wide, for {@link RSFont}.
+	 */
+	static StreamLoader fontArchive() throws IOException {
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		ByteArrayOutputStream pixels = new ByteArrayOutputStream();
+		DataOutputStream indexOut = new DataOutputStream(index);
+		// Sprite sheet size and a palette of one colour besides transparent
+		indexOut.writeShort(0);
+		indexOut.writeShort(0);
+		indexOut.writeByte(2);
+		write3Bytes(indexOut, 0xffffff);
+		pixels.write(0);
+		pixels.write(0);
+		int height = 12;
+		for (int glyph = 0; glyph < 256; glyph++) {
+			int width = 4 + glyph % 5;
+			indexOut.writeByte(0);
+			indexOut.writeByte(0);
+			indexOut.writeShort(width);
+			indexOut.writeShort(height);
+			indexOut.writeByte(0);
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					pixels.write((x + y + glyph) % 3 == 0 ? 1 : 0);
+				}
+			}
+		}
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put(FONT_NAME + ".dat", pixels.toByteArray());
+		files.put("index.dat", index.toByteArray());
+		return archive(files);
+	}
+
+	/**
+	 * A textures archive for {@link Rasterizer#method368}, every texture a 64x64 pattern of 15 colours so
+	 * models draw whichever textures they use. Odd textures have holes, so they're drawn as transparent.
+	 */
+	static StreamLoader textureArchive(int count) throws IOException {
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		DataOutputStream indexOut = new DataOutputStream(index);
+		indexOut.writeShort(TEXTURE_SIZE);
+		indexOut.writeShort(TEXTURE_SIZE);
+		indexOut.writeByte(16);
+		for (int colour = 1; colour < 16; colour++) {
+			write3Bytes(indexOut, colour * 0x0f0b07);
+		}
+		indexOut.writeByte(0);
+		indexOut.writeByte(0);
+		indexOut.writeShort(TEXTURE_SIZE);
+		indexOut.writeShort(TEXTURE_SIZE);
+		indexOut.writeByte(0);
+		byte[] pixels = new byte[2 + TEXTURE_SIZE * TEXTURE_SIZE];
+		byte[] holes = new byte[pixels.length];
+		for (int y = 0; y < TEXTURE_SIZE; y++) {
+			for (int x = 0; x < TEXTURE_SIZE; x++) {
+				pixels[2 + x + y * TEXTURE_SIZE] = (byte) (1 + ((x >> 3) + (y >> 3) + x * y) % 15);
+				holes[2 + x + y * TEXTURE_SIZE] = (x + y) % 7 == 0 ? 0 : pixels[2 + x + y * TEXTURE_SIZE];
+			}
+		}
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		for (int texture = 0; texture < count; texture++) {
+			files.put(texture + ".dat", texture % 2 == 0 ? pixels : holes);
+		}
+		files.put("index.dat", index.toByteArray());
+		return archive(files);
+	}
+
+	/**
+	 * A config archive of items with a model, name, description and actions. Odd ids are notes of the
+	 * id before them, except {@link #NOTE_TEMPLATE}.
+	 */
+	static StreamLoader itemArchive(int count) throws IOException {
+		ByteArrayOutputStream index = new ByteArrayOutputStream();
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		DataOutputStream indexOut = new DataOutputStream(index);
+		DataOutputStream dataOut = new DataOutputStream(data);
+		indexOut.writeShort(count);
+		dataOut.writeShort(count);
+		for (int id = 0; id < count; id++) {
+			int start = data.size();
+			if (id % 2 == 1 && id != NOTE_TEMPLATE) {
+				dataOut.writeByte(97);
+				dataOut.writeShort(id - 1);
+				dataOut.writeByte(98);
+				dataOut.writeShort(NOTE_TEMPLATE);
+			} else {
+				dataOut.writeByte(1);
+				dataOut.writeShort(id % 5000);
+				dataOut.writeByte(2);
+				writeString(dataOut, "Item " + id);
+				dataOut.writeByte(3);
+				writeString(dataOut, "It's item " + id + ".");
+				dataOut.writeByte(4);
+				dataOut.writeShort(1200);
+				dataOut.writeByte(5);
+				dataOut.writeShort(id % 2048);
+				dataOut.writeByte(12);
+				dataOut.writeInt(id * 7);
+				dataOut.writeByte(36);
+				writeString(dataOut, "Wield");
+				if (id % 4 == 0) {
+					dataOut.writeByte(40);
+					dataOut.writeByte(2);
+					for (int colour = 0; colour < 4; colour++) {
+						dataOut.writeShort(id * 31 + colour & 0xffff);
+					}
+				}
+			}
+			dataOut.writeByte(0);
+			indexOut.writeShort(data.size() - start);
+		}
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		files.put("obj.dat", data.toByteArray());
+		files.put("obj.idx", index.toByteArray());
+		return archive(files);
+	}
+
+	/**
+	 * A cache of one index in the given directory, both read straight from the files and through a
+	 * {@link MappedCacheStore}.
+	 */
+	static final class Cache {
+		final Decompressor files;
+		final Decompressor mapped;
+		final int fileCount;
+		private final RandomAccessFile data;
+		private final RandomAccessFile index;
+
+		Cache(File directory, int fileCount, long seed) throws IOException {
+			this.fileCount = fileCount;
+			data = new RandomAccessFile(new File(directory, "main_file_cache.dat"), "rw");
+			index = new RandomAccessFile(new File(directory, "main_file_cache.idx0"), "rw");
+			data.setLength(0);
+			index.setLength(0);
+			Decompressor writer = new Decompressor(data, index, 1);
+			Random random = new Random(seed);
+			for (int file = 0; file < fileCount; file++) {
+				// Mostly small config and model files, with the odd map or sprite
+				int size = random.nextInt(8) == 0 ? 20_000 + random.nextInt(60_000) : 200 + random.nextInt(6_000);
+				byte[] bytes = new byte[size];
+				random.nextBytes(bytes);
+				if (!writer.write(size, bytes, file)) {
+					throw new IOException("unable to write file " + file);
+				}
+			}
+			files = writer;
+			MappedCacheStore store = MappedCacheStore.open(data, new RandomAccessFile[] { index });
+			mapped = store == null ? null : new Decompressor(data, index, 1, store);
+		}
+
+		void close() throws IOException {
+			data.close();
+			index.close();
+		}
+	}
+
+	/**
+	 * The models shipped with the client, and any in the extra directories, grouped by the format
+	 * {@link Model} would decode them with.
+	 */
+	static Map<String, List<byte[]>> models(File... directories) throws IOException {
+		Map<String, List<byte[]>> models = new LinkedHashMap<>();
+		for (String format : Arrays.asList("type1", "type2", "type3", "oldFormat")) {
+			models.put(format, new ArrayList<>());
+		}
+		for (File directory : directories) {
+			File[] files = directory.listFiles();
+			if (files == null) {
+				continue;
+			}
+			Arrays.sort(files);
+			for (File file : files) {
+				if (file.isDirectory()) {
+					models(file).forEach((format, data) -> models.get(format).addAll(data));
+					continue;
+				}
+				byte[] data = Files.readAllBytes(file.toPath());
+				if (file.getName().endsWith(".gz")) {
+					try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+						data = readAll(in);
+					}
+				}
+				if (data.length >= 18) {
+					models.get(format(data)).add(data);
+				}
+			}
+		}
+		return models;
+	}
+
+	/**
+	 * The format of a model, from its last two bytes, see the {@link Model} constructor.
+	 */
+	static String format(byte[] data) {
+		if (data[data.length - 2] != -1) {
+			return "oldFormat";
+		}
+		switch (data[data.length - 1]) {
+			case -1:
+				return "type1";
+			case -2:
+				return "type2";
+			case -3:
+				return "type3";
+			default:
+				return "oldFormat";
+		}
+	}
+
+	/**
+	 * The models shipped with the client and those in the directory -Dbenchmark.models names, by format.
+	 */
+	static Map<String, List<byte[]>> models() throws IOException {
+		List<File> directories = new ArrayList<>();
+		directories.add(new File("data/custom_models"));
+		String extra = System.getProperty("benchmark.models");
+		if (extra != null) {
+			directories.add(new File(extra));
+		}
+		return models(directories.toArray(new File[0]));
+	}
+
+	static Model decode(String format, byte[] data) {
+		Model model = new Model();
+		switch (format) {
+			case "type1":
+				ModelLoader.decodeType1(model, data);
+				break;
+			case "type2":
+				ModelLoader.decodeType2(model, data);
+				break;
+			case "type3":
+				ModelLoader.decodeType3(model, data);
+				break;
+			default:
+				ModelLoader.decodeOldFormat(model, data);
+				break;
+		}
+		return model;
+	}
+
+	/**
+	 * @return whether every face of a model is made of its vertices and uses a texture the client has.
+	 * Some of the shipped models aren't in the format their trailer says, or use newer textures.
+	 */
+	static boolean valid(Model model) {
+		for (int face = 0; face < model.face_count; face++) {
+			if (model.trianglesX[face] < 0 || model.trianglesX[face] >= model.vertex_count
+					|| model.trianglesY[face] < 0 || model.trianglesY[face] >= model.vertex_count
+					|| model.trianglesZ[face] < 0 || model.trianglesZ[face] >= model.vertex_count) {
+				return false;
+			}
+			if (model.materials != null && model.materials[face] >= Rasterizer.textureAmount) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Points the 2D and 3D drawing at a game screen sized canvas, with textures loaded.
+	 */
+	static void viewport() throws IOException {
+		Client.setUserSettings(Settings.getDefault());
+		DrawingArea.initDrawingArea(HEIGHT, WIDTH, new int[WIDTH * HEIGHT], null);
+		Rasterizer.depthBuffer = new float[WIDTH * HEIGHT];
+		Rasterizer.method365(WIDTH, HEIGHT);
+		Rasterizer.method368(textureArchive(Rasterizer.textureAmount));
+		Rasterizer.method367();
+		Rasterizer.setBrightness(0.8);
+		WorldController.focalLength = FOCAL_LENGTH;
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		for (int read; (read = in.read(chunk)) != -1;) {
+			out.write(chunk, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private static int nameHash(String name) {
+		int hash = 0;
+		name = name.toUpperCase();
+		for (int index = 0; index < name.length(); index++) {
+			hash = hash * 61 + name.charAt(index) - 32;
+		}
+		return hash;
+	}
+
+	private static void write3Bytes(OutputStream out, int value) throws IOException {
+		out.write(value >> 16);
+		out.write(value >> 8);
+		out.write(value);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.write(value.getBytes(StandardCharsets.ISO_8859_1));
+		out.write(10);
+	}
+}
@@ -0,0 +1,36 @@
+package com.client;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the client's hot paths: triangle fills, model decoding, lighting and
+ * drawing, buffer reads, cache reads, text and item definitions. The data comes from
+ * {@link BenchmarkFixtures}.
+ *
+ * Arguments: the JSON file to write, benchmarks.json by default, and optionally a regular expression
+ * of the benchmarks to run, e.g. {@code Rasterizer} or {@code ModelBenchmark.light}. More models can
+ * be decoded by pointing -Dbenchmark.models at a directory of them. For JMH's own options run
+ * {@code org.openjdk.jmh.Main} instead.
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.include(args.length > 1 ? args[1] : "com\\.client\\.")
+				.resultFormat(ResultFormatType.JSON)
+				.result(args.length > 0 ? args[0] : "benchmarks.json");
+		String models = System.getProperty("benchmark.models");
+		if (models != null) {
+			// The benchmarks run in a forked VM
+			options.jvmArgsAppend("-Dbenchmark.models=" + models);
+		}
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,89 @@
+package com.client;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Buffer} reads over a 4kb packet of random bytes, each operation reading all of it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class BufferBenchmark {
+
+	/**
+	 * The field widths of player and npc updating.
+	 */
+	private static final int[] WIDTHS = { 1, 2, 1, 3, 5, 8, 11, 14, 1, 15, 7, 1, 1, 2, 5, 5 };
+
+	private byte[] data;
+	private Buffer buffer;
+
+	@Setup
+	public void setup() {
+		data = new byte[4096];
+		new Random(377).nextBytes(data);
+		for (int index = 0; index < data.length; index += 64) {
+			// Strings for readString to stop at
+			data[index + 63] = 10;
+		}
+		buffer = new Buffer(data);
+	}
+
+	/**
+	 * A packet's worth of mixed reads, like the opcode handlers do.
+	 */
+	@Benchmark
+	public long read() {
+		buffer.currentOffset = 0;
+		long total = 0;
+		while (buffer.currentOffset < data.length - 64) {
+			total += buffer.readUnsignedByte();
+			total += buffer.readUShort();
+			total += buffer.readSignedWord();
+			total += buffer.read3Bytes();
+			total += buffer.readDWord();
+			total += buffer.readUSmart();
+			total += buffer.readQWord();
+			total += buffer.readSignedByte();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long readString() {
+		buffer.currentOffset = 0;
+		long total = 0;
+		while (buffer.currentOffset < data.length) {
+			total += buffer.readString().length();
+		}
+		return total;
+	}
+
+	@Benchmark
+	public long readBits() {
+		buffer.currentOffset = 0;
+		buffer.initBitAccess();
+		long total = 0;
+		int limit = (data.length - 4) * 8;
+		for (int index = 0; buffer.bitPosition < limit; index++) {
+			total += buffer.readBits(WIDTHS[index & 15]);
+		}
+		buffer.finishBitAccess();
+		return total;
+	}
+}
@@ -0,0 +1,70 @@
+package com.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading files from a cache written to a temporary directory, straight from the files and through
+ * the mapped store. Files are read in a scattered order, like the ondemand requests of a map region.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class DecompressorBenchmark {
+
+	private File directory;
+	private BenchmarkFixtures.Cache cache;
+	private int[] order;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("benchmark-cache").toFile();
+		cache = new BenchmarkFixtures.Cache(directory, 2048, 527);
+		order = new int[cache.fileCount];
+		Random random = new Random(1);
+		for (int index = 0; index < order.length; index++) {
+			order[index] = random.nextInt(cache.fileCount);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		cache.close();
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	public byte[] read() {
+		return cache.files.read(order[next++ % order.length]);
+	}
+
+	@Benchmark
+	public byte[] readMapped() {
+		if (cache.mapped == null) {
+			throw new IllegalStateException("the cache could not be mapped");
+		}
+		return cache.mapped.read(order[next++ % order.length]);
+	}
+}
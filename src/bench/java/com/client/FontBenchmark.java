@@ -0,0 +1,58 @@
+package com.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measuring and drawing {@link RSFont} text, plain and with colour tags.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class FontBenchmark {
+
+	private static final String PLAIN = "Welcome to the server, there are 1,337 players online.";
+	private static final String TAGGED = "<col=ff9040>Attack</col> <col=ffff00>Goblin</col><col=ff00> (level-2)</col> / 12 more options";
+
+	private RSFont font;
+
+	@Setup
+	public void setup() throws IOException {
+		BenchmarkFixtures.viewport();
+		font = new RSFont(false, BenchmarkFixtures.FONT_NAME, BenchmarkFixtures.fontArchive());
+	}
+
+	@Benchmark
+	public int getTextWidth() {
+		return font.getTextWidth(PLAIN);
+	}
+
+	@Benchmark
+	public int getTextWidthTagged() {
+		return font.getTextWidth(TAGGED);
+	}
+
+	@Benchmark
+	public void drawBasicString() {
+		font.drawBasicString(PLAIN, 4, 100, 0xffff00, 0);
+	}
+
+	@Benchmark
+	public void drawBasicStringTagged() {
+		font.drawBasicString(TAGGED, 4, 120, 0xffffff, 0);
+	}
+}
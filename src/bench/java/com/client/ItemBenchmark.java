@@ -0,0 +1,86 @@
+package com.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.client.definitions.ItemDefinition;
+
+/**
+ * Looking up item definitions that aren't cached. Twice as many definitions as the cache holds are
+ * generated, so going through them in order misses every time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemBenchmark {
+
+	private static final int COUNT = 20_000;
+
+	private final List<Integer> plain = new ArrayList<>();
+	private final List<Integer> notes = new ArrayList<>();
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		ItemDefinition.unpackConfig(BenchmarkFixtures.itemArchive(COUNT));
+
+		// Some of the client's custom items load sprites from the cache directory, those are left out
+		PrintStream err = System.err;
+		System.setErr(new PrintStream(new ByteArrayOutputStream()));
+		try {
+			for (int id = 0; id < COUNT; id += 2) {
+				if (loads(id)) {
+					plain.add(id);
+					// Notes look the item up again, so are only kept when the item loads
+					if (loads(id + 1)) {
+						(id + 1 == BenchmarkFixtures.NOTE_TEMPLATE ? plain : notes).add(id + 1);
+					}
+				}
+			}
+		} finally {
+			System.setErr(err);
+		}
+		ItemDefinition.getCache().clear();
+	}
+
+	@Benchmark
+	public ItemDefinition forIdMiss() {
+		return ItemDefinition.forID(plain.get(next++ % plain.size()));
+	}
+
+	@Benchmark
+	public ItemDefinition forIdNoteMiss() {
+		return ItemDefinition.forID(notes.get(next++ % notes.size()));
+	}
+
+	/**
+	 * @return whether an item decodes from an empty definition cache.
+	 */
+	private static boolean loads(int id) {
+		ItemDefinition.getCache().clear();
+		try {
+			ItemDefinition.forID(id);
+			return true;
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lighting and drawing the decoded models, going through all of them in turn.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+	private static final int PITCH = 128;
+
+	private final List<Model> decoded = new ArrayList<>();
+	private final List<Model> lit = new ArrayList<>();
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		for (Map.Entry<String, List<byte[]>> format : BenchmarkFixtures.models().entrySet()) {
+			for (byte[] data : format.getValue()) {
+				Model model = BenchmarkFixtures.decode(format.getKey(), data);
+				if (BenchmarkFixtures.valid(model)) {
+					decoded.add(model);
+				}
+			}
+		}
+		if (decoded.isEmpty()) {
+			throw new IllegalStateException("no models to light and draw");
+		}
+		BenchmarkFixtures.viewport();
+		for (Model model : decoded) {
+			Model copy = new Model(false, false, false, model);
+			copy.light(64, 768, -50, -10, -50, true);
+			lit.add(copy);
+		}
+	}
+
+	@Benchmark
+	public Model light() {
+		Model model = new Model(false, false, false, decoded.get(next++ % decoded.size()));
+		model.light(64, 768, -50, -10, -50, true);
+		return model;
+	}
+
+	@Benchmark
+	public void renderAtPoint() {
+		int index = next++;
+		Model model = lit.get(index % lit.size());
+		// Turned a bit each time, in front of the camera
+		model.renderAtPoint(index * 64 & 0x7ff, Model.SINE[PITCH], Model.COSINE[PITCH], 0, 0x10000, 0, 200, 1600, 0);
+	}
+}
@@ -0,0 +1,49 @@
+package com.client;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding models in each of the formats {@link ModelLoader} reads. A format without any models in
+ * data/custom_models or -Dbenchmark.models fails its setup and is left out of the results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelDecodeBenchmark {
+
+	@Param({ "type1", "type2", "type3", "oldFormat" })
+	public String format;
+
+	private List<byte[]> models;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		models = BenchmarkFixtures.models().get(format);
+		if (models.isEmpty()) {
+			throw new IllegalStateException("no models in the " + format + " format");
+		}
+	}
+
+	@Benchmark
+	public Model decode() {
+		return BenchmarkFixtures.decode(format, models.get(next++ % models.size()));
+	}
+}
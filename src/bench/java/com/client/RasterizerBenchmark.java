@@ -0,0 +1,83 @@
+package com.client;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Rasterizer}'s triangle fills, one triangle per operation, drawn straight to the frame.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class RasterizerBenchmark {
+
+	private static final int COUNT = 1024;
+
+	private int[][] triangles;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		BenchmarkFixtures.viewport();
+
+		// Triangles up to 128 pixels across, projected from camera space so the textured fill gets
+		// matching texture coordinates
+		Random random = new Random(317);
+		triangles = new int[COUNT][];
+		for (int index = 0; index < COUNT; index++) {
+			int centreX = random.nextInt(600) - 300;
+			int centreY = random.nextInt(400) - 200;
+			int centreZ = 600 + random.nextInt(800);
+			int[] triangle = new int[16];
+			for (int vertex = 0; vertex < 3; vertex++) {
+				int x = centreX + random.nextInt(128) - 64;
+				int y = centreY + random.nextInt(128) - 64;
+				int z = centreZ + random.nextInt(64) - 32;
+				triangle[vertex] = Rasterizer.textureInt2 + y * BenchmarkFixtures.FOCAL_LENGTH / z;
+				triangle[3 + vertex] = Rasterizer.textureInt1 + x * BenchmarkFixtures.FOCAL_LENGTH / z;
+				triangle[6 + vertex] = x;
+				triangle[9 + vertex] = y;
+				triangle[12 + vertex] = z;
+			}
+			triangle[15] = random.nextInt(0x10000);
+			triangles[index] = triangle;
+		}
+	}
+
+	@Benchmark
+	public void flatTriangle() {
+		int[] t = triangles[next++ & COUNT - 1];
+		Rasterizer.drawFlatTriangle(t[0], t[1], t[2], t[3], t[4], t[5], Rasterizer.hslToRgb[t[15]], t[12], t[13],
+				t[14]);
+	}
+
+	@Benchmark
+	public void gouraudTriangle() {
+		int[] t = triangles[next++ & COUNT - 1];
+		int hsl = t[15] & ~0x7f;
+		Rasterizer.drawGouraudTriangle(t[0], t[1], t[2], t[3], t[4], t[5], hsl | 20, hsl | 60, hsl | 100, t[12],
+				t[13], t[14]);
+	}
+
+	@Benchmark
+	public void texturedTriangle() {
+		int[] t = triangles[next++ & COUNT - 1];
+		Rasterizer.drawTexturedTriangle(t[0], t[1], t[2], t[3], t[4], t[5], 32, 64, 96, t[6], t[7], t[8], t[9],
+				t[10], t[11], t[12], t[13], t[14], 0);
+	}
+}
@@ -0,0 +1,208 @@
+package com.client;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.client.utilities.settings.Settings;
+
+/**
+ * Checks that the {@link BinnedRasterizer} draws exactly what {@link Rasterizer} draws directly.
+ *
+ * Every case draws the same triangles twice, once straight to the frame and once queued and
+ * rasterized in bands, and compares the pixels and depth buffers. The triangles are projected from
+ * camera space like the scene's, and the cases cover each triangle type, triangles crossing the
+ * frame's edges, transparency, textures with and without holes, and HD materials at every mipmap
+ * level their size picks.
+ *
+ * Run {@code com.client.RasterizerCheck}, it exits with an error on the first difference. Bands are
+ * only used with more than one core. Like the benchmarks it needs a display for the client's setup.
+ */
+public final class RasterizerCheck {
+
+	private static final int WIDTH = 512;
+	private static final int HEIGHT = 334;
+	private static final int FOCAL_LENGTH = 512;
+	private static final int TRIANGLES = 600;
+
+	private interface Draw {
+		void triangle(int[] t);
+	}
+
+	private RasterizerCheck() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (!BinnedRasterizer.enabled) {
+			throw new IllegalStateException("binned rasterization needs more than one core");
+		}
+		Settings settings = Settings.getDefault();
+		Client.setUserSettings(settings);
+		int[] pixels = new int[WIDTH * HEIGHT];
+		DrawingArea.initDrawingArea(HEIGHT, WIDTH, pixels, null);
+		Rasterizer.depthBuffer = new float[WIDTH * HEIGHT];
+		Rasterizer.method365(WIDTH, HEIGHT);
+		Rasterizer.method368(BenchmarkFixtures.textureArchive(Rasterizer.textureAmount));
+		Rasterizer.method367();
+		Rasterizer.setBrightness(0.8);
+		Rasterizer.useGPU = false;
+		WorldController.focalLength = FOCAL_LENGTH;
+		for (int texture = 0; texture < 8; texture++) {
+			Texture.decode(texture, material(texture));
+		}
+
+		int cases = 0;
+		for (boolean edges : new boolean[] { false, true }) {
+			for (int alpha : new int[] { 0, 100 }) {
+				for (boolean saveDepth : new boolean[] { false, true }) {
+					Rasterizer.saveDepth = saveDepth;
+					Rasterizer.alpha = alpha;
+					String setup = (edges ? "crossing the edges" : "inside the frame") + ", alpha " + alpha
+							+ (saveDepth ? ", depth" : "");
+					int[][] triangles = triangles(edges, 317 + cases);
+
+					compare("flat " + setup, pixels, triangles, t -> Rasterizer.drawFlatTriangle(t[0], t[1], t[2],
+							t[3], t[4], t[5], Rasterizer.hslToRgb[t[15]], t[12], t[13], t[14]));
+					for (boolean smooth : new boolean[] { false, true }) {
+						settings.setSmoothShading(smooth);
+						compare((smooth ? "smooth " : "") + "gouraud " + setup, pixels, triangles, t -> {
+							int hsl = t[15] & ~0x7f;
+							Rasterizer.drawGouraudTriangle(t[0], t[1], t[2], t[3], t[4], t[5], hsl | 20, hsl | 60,
+									hsl | 100, t[12], t[13], t[14]);
+						});
+					}
+					settings.setSmoothShading(false);
+					// Even textures are opaque, odd ones have holes
+					compare("textured " + setup, pixels, triangles, t -> Rasterizer.drawTexturedTriangle(t[0], t[1],
+							t[2], t[3], t[4], t[5], 32, 64, 96, t[6], t[7], t[8], t[9], t[10], t[11], t[12], t[13],
+							t[14], t[16]));
+					compare("old textured " + setup, pixels, triangles, t -> Rasterizer.drawTexturedTriangleold(t[0],
+							t[1], t[2], t[3], t[4], t[5], 32, 64, 96, t[6], t[7], t[8], t[9], t[10], t[11], t[12],
+							t[13], t[14], t[16], t[12], t[13], t[14]));
+					Rasterizer.enableHDTextures = true;
+					compare("material " + setup, pixels, triangles, t -> {
+						int hsl = t[15] & ~0x7f;
+						Rasterizer.drawMaterializedTriangle(t[0], t[1], t[2], t[3], t[4], t[5], hsl | 20, hsl | 60,
+								hsl | 100, t[6], t[7], t[8], t[9], t[10], t[11], t[12], t[13], t[14], t[16], t[12],
+								t[13], t[14]);
+					});
+					Rasterizer.enableHDTextures = false;
+					cases += 6;
+				}
+			}
+		}
+		Rasterizer.alpha = 0;
+		Rasterizer.textureOutOfDrawingBounds = false;
+		System.out.println("BinnedRasterizer matched Rasterizer in " + cases + " cases");
+	}
+
+	/**
+	 * A 64x64 HD texture in the format {@link Texture#decode} reads, a different pattern per id.
+	 */
+	private static byte[] material(int id) {
+		byte[] data = new byte[4 + 64 * 64 * 3];
+		data[1] = 64;
+		data[3] = 64;
+		int offset = 4;
+		for (int y = 0; y < 64; y++) {
+			for (int x = 0; x < 64; x++) {
+				int rgb = ((x ^ y) * (id + 3) & 0xff) << 16 | (x * 4 & 0xff) << 8 | (y * 4 + id * 32 & 0xff);
+				data[offset++] = (byte) (rgb >> 16);
+				data[offset++] = (byte) (rgb >> 8);
+				data[offset++] = (byte) rgb;
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Triangles up to 160 pixels across with screen and camera coordinates, a colour and a texture.
+	 * Triangles crossing the edges are drawn with {@link Rasterizer#textureOutOfDrawingBounds} set,
+	 * as the scene sets it.
+	 */
+	private static int[][] triangles(boolean edges, long seed) {
+		Random random = new Random(seed);
+		int[][] triangles = new int[TRIANGLES][];
+		for (int index = 0; index < TRIANGLES; index++) {
+			int centreZ = 600 + random.nextInt(800);
+			// Far enough out that some corners fall outside the frame
+			int spreadX = edges ? WIDTH * centreZ / FOCAL_LENGTH : 500;
+			int spreadY = edges ? HEIGHT * centreZ / FOCAL_LENGTH : 320;
+			int centreX = random.nextInt(spreadX) - spreadX / 2;
+			int centreY = random.nextInt(spreadY) - spreadY / 2;
+			int[] triangle = new int[17];
+			for (int vertex = 0; vertex < 3; vertex++) {
+				int x = centreX + random.nextInt(160) - 80;
+				int y = centreY + random.nextInt(160) - 80;
+				int z = centreZ + random.nextInt(64) - 32;
+				triangle[vertex] = Rasterizer.textureInt2 + y * FOCAL_LENGTH / z;
+				triangle[3 + vertex] = Rasterizer.textureInt1 + x * FOCAL_LENGTH / z;
+				triangle[6 + vertex] = x;
+				triangle[9 + vertex] = y;
+				triangle[12 + vertex] = z;
+			}
+			triangle[15] = random.nextInt(0x10000);
+			triangle[16] = random.nextInt(8);
+			triangles[index] = triangle;
+		}
+		return triangles;
+	}
+
+	private static void compare(String name, int[] pixels, int[][] triangles, Draw draw) {
+		clear(pixels);
+		for (int[] triangle : triangles) {
+			restrictEdges(triangle);
+			draw.triangle(triangle);
+		}
+		int[] direct = pixels.clone();
+		float[] directDepth = Rasterizer.depthBuffer.clone();
+
+		clear(pixels);
+		BinnedRasterizer.begin();
+		if (!BinnedRasterizer.recording) {
+			throw new IllegalStateException("the binned rasterizer didn't start");
+		}
+		for (int[] triangle : triangles) {
+			restrictEdges(triangle);
+			draw.triangle(triangle);
+		}
+		BinnedRasterizer.end();
+
+		int drawn = 0;
+		for (int index = 0; index < pixels.length; index++) {
+			if (direct[index] != pixels[index]) {
+				throw new AssertionError(name + ": pixel " + index % WIDTH + ", " + index / WIDTH + " is "
+						+ Integer.toHexString(pixels[index]) + " binned and " + Integer.toHexString(direct[index])
+						+ " direct");
+			}
+			if (direct[index] != background(index)) {
+				drawn++;
+			}
+		}
+		if (!Arrays.equals(directDepth, Rasterizer.depthBuffer)) {
+			throw new AssertionError(name + ": depth buffers differ");
+		}
+		if (drawn < pixels.length / 4) {
+			throw new AssertionError(name + ": only " + drawn + " pixels drawn, nothing to compare");
+		}
+		System.out.println(name + ": " + drawn + " pixels match");
+	}
+
+	private static void restrictEdges(int[] t) {
+		Rasterizer.textureOutOfDrawingBounds = Math.min(t[3], Math.min(t[4], t[5])) < 0
+				|| Math.max(t[3], Math.max(t[4], t[5])) > DrawingArea.lastX;
+	}
+
+	/**
+	 * Fills the frame with a pattern rather than black, so transparency blends with something.
+	 */
+	private static void clear(int[] pixels) {
+		for (int index = 0; index < pixels.length; index++) {
+			pixels[index] = background(index);
+		}
+		Arrays.fill(Rasterizer.depthBuffer, 10000F);
+	}
+
+	private static int background(int index) {
+		return (index * 0x010203 ^ index >> 4) & 0xffffff;
+	}
+}
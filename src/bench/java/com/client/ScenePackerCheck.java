@@ -0,0 +1,127 @@
+package com.client;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Checks the buffers {@link ScenePacker} packs for the GPU renderer without a GPU: the vertices of
+ * a few tiles, that only regions that changed are packed again when ground items come and go, and
+ * that the combined buffer matches the regions.
+ *
+ * Run {@code com.client.ScenePackerCheck}, it exits with an error on the first check that fails.
+ */
+public final class ScenePackerCheck {
+
+	private static final int HIDDEN = 12345678;
+	private static final int SIZE = 104;
+
+	private ScenePackerCheck() {
+	}
+
+	public static void main(String[] args) {
+		Rasterizer.setBrightness(0.8);
+		int[][][] heights = new int[4][SIZE + 1][SIZE + 1];
+		for (int x = 0; x <= SIZE; x++) {
+			for (int y = 0; y <= SIZE; y++) {
+				heights[0][x][y] = -(x * 3 + y * 5);
+			}
+		}
+		WorldController scene = new WorldController(heights, null);
+		// Two tiles in the first region, the second with its north west triangle hidden
+		addTile(scene, 1, 2, 100, 200, 300, 400);
+		addTile(scene, 3, 4, 500, 600, HIDDEN, 800);
+
+		ScenePacker packer = new ScenePacker();
+		int regions = packer.getPlaneCount() * packer.getRegionCountX() * packer.getRegionCountY();
+		check(regions == 0, "no regions before the first update");
+		int packed = packer.update(scene);
+		check(packer.getPlaneCount() == 4, "4 planes, was " + packer.getPlaneCount());
+		check(packer.getRegionCountX() == 13 && packer.getRegionCountY() == 13, "13x13 regions");
+		check(packed == 4 * 13 * 13, "every region packed by the first update, was " + packed);
+		int revision = packer.getRevision();
+
+		FloatBuffer first = packer.getRegion(0, 0, 0);
+		check(first.limit() == 9 * ScenePacker.FLOATS_PER_VERTEX, "three triangles in the first region, was "
+				+ first.limit() / ScenePacker.FLOATS_PER_VERTEX + " vertices");
+		// The first vertex is the north east corner of the tile at 1, 2
+		checkVertex(first, 0, 2 * 128, heights[0][2][3], 3 * 128, 1, 1, Rasterizer.hslToRgb[300], 1F);
+		checkVertex(first, 1, 1 * 128, heights[0][1][3], 3 * 128, 0, 1, Rasterizer.hslToRgb[400], 1F);
+		checkVertex(first, 2, 2 * 128, heights[0][2][2], 2 * 128, 1, 0, Rasterizer.hslToRgb[200], 1F);
+		for (int vertex = 0; vertex < 9; vertex++) {
+			int offset = vertex * ScenePacker.FLOATS_PER_VERTEX;
+			float nx = first.get(offset + 5);
+			float ny = first.get(offset + 6);
+			float nz = first.get(offset + 7);
+			check(Math.abs(nx * nx + ny * ny + nz * nz - 1) < 1e-4, "unit normal on vertex " + vertex);
+		}
+		check(packer.getRegion(0, 1, 0).limit() == 0, "nothing in an empty region");
+
+		check(packer.update(scene) == 0, "nothing packed when nothing changed");
+		check(packer.getRevision() == revision, "revision kept when nothing changed");
+
+		// A ground item in the region east of the first only repacks that region
+		Model item = triangle();
+		scene.method281(9, 1, item, 0, null, null, 0, 2);
+		check(packer.update(scene) == 1, "only the changed region packed for a ground item");
+		check(packer.getRevision() == revision + 1, "revision moved on");
+		check(packer.getRegionRevision(0, 1, 0) == packer.getRevision(), "changed region marked with the revision");
+		check(packer.getRegionRevision(0, 0, 0) == revision, "other regions keep their revision");
+		FloatBuffer withItem = packer.getRegion(0, 1, 0);
+		check(withItem.limit() == 3 * ScenePacker.FLOATS_PER_VERTEX, "the item's triangle packed");
+		checkVertex(withItem, 0, 9 * 128 + 64 + 10, 0, 2 * 128 + 64 + 30, 0, 0, Rasterizer.hslToRgb[1000], 1F);
+
+		scene.method295(0, 9, 2);
+		check(packer.update(scene) == 1, "only the changed region packed when the item goes");
+		check(packer.getRegion(0, 1, 0).limit() == 0, "the item's triangle gone");
+
+		int vertices = packer.getVertexCount(3);
+		check(vertices == 9, "9 vertices in the scene, was " + vertices);
+		FloatBuffer all = FloatBuffer.allocate(vertices * ScenePacker.FLOATS_PER_VERTEX);
+		packer.copyTo(all, 3);
+		all.flip();
+		check(all.equals(packer.getRegion(0, 0, 0)), "combined buffer is the regions one after another");
+
+		System.out.println("ScenePacker checks passed");
+	}
+
+	private static void addTile(WorldController scene, int x, int y, int southWest, int southEast, int northEast,
+			int northWest) {
+		scene.addTile(0, x, y, 0, 0, -1, 0, 0, 0, 0, southWest, southEast, northEast, northWest, 0, 0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * A lit model of one triangle, as ground items are drawn.
+	 */
+	private static Model triangle() {
+		Model model = new Model();
+		model.vertex_count = 3;
+		model.verticesX = new int[] { 10, 50, 10 };
+		model.verticesY = new int[] { 0, 0, -40 };
+		model.verticesZ = new int[] { 30, 30, 30 };
+		model.face_count = 1;
+		model.trianglesX = new int[] { 0 };
+		model.trianglesY = new int[] { 1 };
+		model.trianglesZ = new int[] { 2 };
+		model.colorsX = new int[] { 1000 };
+		model.colorsY = new int[] { 1000 };
+		model.colorsZ = new int[] { -1 };
+		return model;
+	}
+
+	private static void checkVertex(FloatBuffer buffer, int vertex, float x, float y, float z, float u, float v,
+			int rgb, float alpha) {
+		int offset = vertex * ScenePacker.FLOATS_PER_VERTEX;
+		String name = "vertex " + vertex;
+		check(buffer.get(offset) == x && buffer.get(offset + 1) == y && buffer.get(offset + 2) == z,
+				name + " position " + buffer.get(offset) + ", " + buffer.get(offset + 1) + ", " + buffer.get(offset + 2));
+		check(buffer.get(offset + 3) == u && buffer.get(offset + 4) == v, name + " texture coordinates");
+		check(buffer.get(offset + 8) == (rgb >> 16 & 0xff) / 255F && buffer.get(offset + 9) == (rgb >> 8 & 0xff) / 255F
+				&& buffer.get(offset + 10) == (rgb & 0xff) / 255F, name + " colour");
+		check(buffer.get(offset + 11) == alpha, name + " alpha");
+	}
+
+	private static void check(boolean passed, String what) {
+		if (!passed) {
+			throw new AssertionError(what);
+		}
+	}
+}
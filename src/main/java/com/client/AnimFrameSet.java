@@ -22,10 +22,6 @@ public class AnimFrameSet {
 
         frames = new AnimFrame[frame_count];
         AnimFrame.load_osrs_frames(stream, fileid, frame_count, class18, frames);
-
-        if(frameset[fileid] == null) {
-            frameset[fileid] = this;
-        }
     }
 
     private AnimFrameSet() {
@@ -52,6 +48,17 @@ public class AnimFrameSet {
         frameset[fileid] = new AnimFrameSet(fileid, fileData);
     }
 
+    /**
+     * Decodes a frame set without publishing it, see {@link #load_osrs(AnimFrameSet)}.
+     */
+    static AnimFrameSet decode_osrs(int fileid, byte[] fileData) {
+        return new AnimFrameSet(fileid, fileData);
+    }
+
+    static void load_osrs(AnimFrameSet set) {
+        frameset[set.fileid] = set;
+    }
+
     public static void init() {
         frameset = new AnimFrameSet[12000];
     }
@@ -0,0 +1,60 @@
+package com.client;
+
+import com.client.definitions.AnimationDefinition;
+
+/**
+ * Plays the sound effects attached to animation frames, for players and npcs alike.
+ *
+ * {@link Client#method101} reports each frame an entity's animation moves on to, once per game
+ * cycle, so a frame's sound starts when the frame is reached rather than every time the model is
+ * drawn. Entities too far from the local player to be heard are skipped, and an entity plays the
+ * same sound at most once per cycle even if several of its animations reach a frame with it.
+ */
+final class AnimationSounds {
+
+	/**
+	 * The furthest, in tiles, a frame sound is heard from.
+	 */
+	private static final int MAX_DISTANCE = 16;
+
+	private AnimationSounds() {
+	}
+
+	/**
+	 * @param frame the frame the animation just moved on to.
+	 * @param cycle the current game cycle.
+	 */
+	static void frameReached(Entity entity, AnimationDefinition animation, int frame, int cycle) {
+		play(entity, animation.getFrameSound(frame), cycle);
+	}
+
+	/**
+	 * @param frame the keyframe the skeletal animation just moved on to.
+	 * @param cycle the current game cycle.
+	 */
+	static void keyframeReached(Entity entity, AnimationDefinition animation, int frame, int cycle) {
+		if (animation.keyframe_soundeffects != null) {
+			Integer soundId = animation.keyframe_soundeffects.get(frame);
+			if (soundId != null) {
+				play(entity, soundId, cycle);
+			}
+		}
+	}
+
+	private static void play(Entity entity, int soundId, int cycle) {
+		if (soundId == -1 || Client.myPlayer == null) {
+			return;
+		}
+		if (entity.lastFrameSound == soundId && entity.lastFrameSoundCycle == cycle) {
+			return;
+		}
+		int dx = entity.x - Client.myPlayer.x >> 7;
+		int dy = entity.y - Client.myPlayer.y >> 7;
+		if (dx * dx + dy * dy > MAX_DISTANCE * MAX_DISTANCE) {
+			return;
+		}
+		entity.lastFrameSound = soundId;
+		entity.lastFrameSoundCycle = cycle;
+		entity.makeSound(soundId);
+	}
+}
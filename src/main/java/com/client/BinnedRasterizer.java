@@ -0,0 +1,349 @@
+package com.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binned (sort-middle) rasterization of the scene.
+ *
+ * While {@link WorldController#draw} walks the scene, the triangles handed to {@link Rasterizer}
+ * are queued here instead of being drawn. {@link #end()} then assigns every queued triangle to the
+ * bands of rows its vertices span and rasterizes the bands in parallel. Each worker runs
+ * {@link Rasterizer}'s own fill routines with its own {@link RasterState}, clipped to the band's
+ * rows, so bands never share pixels and the output is exactly what drawing directly gives. Each
+ * band replays its triangles in the order the scene submitted them, so painter's order is kept.
+ */
+public final class BinnedRasterizer {
+
+	static final int FLAT = 0;
+	static final int GOURAUD = 1;
+	static final int GOURAUD_HD = 2;
+	static final int TEXTURED = 3;
+	static final int TEXTURED_317 = 4;
+	static final int MATERIAL = 5;
+
+	static final int RESTRICT_EDGES = 1;
+	static final int OPAQUE_TEXTURE = 2;
+	static final int SAVE_DEPTH = 4;
+
+	/**
+	 * Layout of a queued triangle in {@link #commands}.
+	 */
+	static final int TYPE = 0;
+	static final int FLAGS = 1;
+	static final int ALPHA = 2;
+	static final int Y = 3;
+	static final int X = 6;
+	static final int COLOUR = 9;
+	static final int TEXTURE = 12;
+	static final int MIPMAP_LEVEL = 21;
+	static final int STRIDE = 22;
+
+	private static final int BAND_HEIGHT = 16;
+
+	private static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+	private static final ExecutorService bandPool = THREAD_COUNT > 1
+			? Executors.newFixedThreadPool(THREAD_COUNT - 1, r -> {
+				Thread thread = new Thread(r, "BinnedRasterizer-" + threadCounter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			})
+			: null;
+
+	/**
+	 * Whether the scene is rasterized in bands, only worthwhile with more than one core.
+	 */
+	public static boolean enabled = THREAD_COUNT > 1;
+
+	static boolean recording;
+
+	static int[] commands = new int[STRIDE * 4096];
+	static float[] depths = new float[3 * 4096];
+	static int[][] texels = new int[4096][];
+	private static int count;
+
+	private static int width;
+	private static int bottomY;
+	private static int[][] bins = new int[0][];
+	private static int[] binSizes = new int[0];
+	private static final AtomicInteger nextBand = new AtomicInteger();
+	private static final RasterState[] states = new RasterState[THREAD_COUNT];
+
+	static {
+		for (int i = 0; i < states.length; i++) {
+			states[i] = new RasterState();
+		}
+	}
+
+	private BinnedRasterizer() {
+	}
+
+	/**
+	 * Starts queueing triangles, drawn to the drawing area that's current when they're flushed.
+	 */
+	public static void begin() {
+		if (!enabled || bandPool == null || Rasterizer.useGPU) {
+			return;
+		}
+		count = 0;
+		recording = true;
+	}
+
+	/**
+	 * Rasterizes everything queued since {@link #begin()} and stops queueing.
+	 */
+	public static void end() {
+		if (!recording) {
+			return;
+		}
+		try {
+			flush();
+		} finally {
+			recording = false;
+		}
+	}
+
+	/**
+	 * Rasterizes the queued triangles now, for callers that are about to draw to the frame directly.
+	 */
+	static void flush() {
+		if (count == 0) {
+			return;
+		}
+		if (DrawingArea.pixels == null || Rasterizer.anIntArray1472 == null) {
+			count = 0;
+			return;
+		}
+		width = DrawingArea.width;
+		bottomY = DrawingArea.bottomY;
+		int bands = bin();
+		nextBand.set(0);
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int t = 1; t < THREAD_COUNT && t < bands; t++) {
+			final RasterState state = states[t];
+			tasks.add(bandPool.submit(() -> renderBands(state, bands)));
+		}
+		renderBands(states[0], bands);
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			texels[i] = null;
+		}
+		count = 0;
+	}
+
+	static void flatTriangle(int y1, int y2, int y3, int x1, int x2, int x3, int rgb, float z1, float z2, float z3) {
+		int base = queue(FLAT, y1, y2, y3, x1, x2, x3, z1, z2, z3, null);
+		commands[base + COLOUR] = rgb;
+	}
+
+	static void gouraudTriangle(int y1, int y2, int y3, int x1, int x2, int x3, int hsl1, int hsl2, int hsl3,
+			float z1, float z2, float z3, boolean hd) {
+		int base = queue(hd ? GOURAUD_HD : GOURAUD, y1, y2, y3, x1, x2, x3, z1, z2, z3, null);
+		commands[base + COLOUR] = hsl1;
+		commands[base + COLOUR + 1] = hsl2;
+		commands[base + COLOUR + 2] = hsl3;
+	}
+
+	/**
+	 * Queues a triangle for {@link Rasterizer#drawTexturedTriangle}.
+	 */
+	static void texturedTriangle(int y1, int y2, int y3, int x1, int x2, int x3, int c1, int c2, int c3, int tx1,
+			int tx2, int tx3, int ty1, int ty2, int ty3, int tz1, int tz2, int tz3, int[] texture, boolean opaque) {
+		int base = queue(TEXTURED, y1, y2, y3, x1, x2, x3, 0, 0, 0, texture);
+		queueTexture(base, c1, c2, c3, tx1, tx2, tx3, ty1, ty2, ty3, tz1, tz2, tz3, opaque);
+	}
+
+	/**
+	 * Queues a triangle for {@link Rasterizer#drawTexturedTriangleold}.
+	 */
+	static void texturedTriangle317(int y1, int y2, int y3, int x1, int x2, int x3, int c1, int c2, int c3, int tx1,
+			int tx2, int tx3, int ty1, int ty2, int ty3, int tz1, int tz2, int tz3, int[] texture, boolean opaque,
+			float z1, float z2, float z3) {
+		int base = queue(TEXTURED_317, y1, y2, y3, x1, x2, x3, z1, z2, z3, texture);
+		queueTexture(base, c1, c2, c3, tx1, tx2, tx3, ty1, ty2, ty3, tz1, tz2, tz3, opaque);
+	}
+
+	/**
+	 * Queues a triangle for {@link Rasterizer#drawMaterializedTriangle}, with the mipmap it samples.
+	 */
+	static void materialTriangle(int y1, int y2, int y3, int x1, int x2, int x3, int hsl1, int hsl2, int hsl3, int tx1,
+			int tx2, int tx3, int ty1, int ty2, int ty3, int tz1, int tz2, int tz3, int[] texture, int mipmapLevel,
+			float z1, float z2, float z3) {
+		int base = queue(MATERIAL, y1, y2, y3, x1, x2, x3, z1, z2, z3, texture);
+		queueTexture(base, hsl1, hsl2, hsl3, tx1, tx2, tx3, ty1, ty2, ty3, tz1, tz2, tz3, false);
+		commands[base + MIPMAP_LEVEL] = mipmapLevel;
+	}
+
+	private static void queueTexture(int base, int c1, int c2, int c3, int tx1, int tx2, int tx3, int ty1, int ty2,
+			int ty3, int tz1, int tz2, int tz3, boolean opaque) {
+		if (opaque) {
+			commands[base + FLAGS] |= OPAQUE_TEXTURE;
+		}
+		commands[base + COLOUR] = c1;
+		commands[base + COLOUR + 1] = c2;
+		commands[base + COLOUR + 2] = c3;
+		commands[base + TEXTURE] = tx1;
+		commands[base + TEXTURE + 1] = tx2;
+		commands[base + TEXTURE + 2] = tx3;
+		commands[base + TEXTURE + 3] = ty1;
+		commands[base + TEXTURE + 4] = ty2;
+		commands[base + TEXTURE + 5] = ty3;
+		commands[base + TEXTURE + 6] = tz1;
+		commands[base + TEXTURE + 7] = tz2;
+		commands[base + TEXTURE + 8] = tz3;
+	}
+
+	private static int queue(int type, int y1, int y2, int y3, int x1, int x2, int x3, float z1, float z2, float z3,
+			int[] texture) {
+		if (count == texels.length) {
+			int capacity = count * 2;
+			int[] grownCommands = new int[capacity * STRIDE];
+			System.arraycopy(commands, 0, grownCommands, 0, count * STRIDE);
+			commands = grownCommands;
+			float[] grownDepths = new float[capacity * 3];
+			System.arraycopy(depths, 0, grownDepths, 0, count * 3);
+			depths = grownDepths;
+			int[][] grownTexels = new int[capacity][];
+			System.arraycopy(texels, 0, grownTexels, 0, count);
+			texels = grownTexels;
+		}
+		int base = count * STRIDE;
+		commands[base + TYPE] = type;
+		commands[base + FLAGS] = (Rasterizer.textureOutOfDrawingBounds ? RESTRICT_EDGES : 0)
+				| (Rasterizer.saveDepth ? SAVE_DEPTH : 0);
+		commands[base + ALPHA] = Rasterizer.alpha;
+		commands[base + MIPMAP_LEVEL] = 0;
+		commands[base + Y] = y1;
+		commands[base + Y + 1] = y2;
+		commands[base + Y + 2] = y3;
+		commands[base + X] = x1;
+		commands[base + X + 1] = x2;
+		commands[base + X + 2] = x3;
+		depths[count * 3] = z1;
+		depths[count * 3 + 1] = z2;
+		depths[count * 3 + 2] = z3;
+		texels[count] = texture;
+		count++;
+		return base;
+	}
+
+	/**
+	 * Assigns the queued triangles to the bands of rows between their highest and lowest vertices.
+	 *
+	 * @return the number of bands.
+	 */
+	private static int bin() {
+		int bands = (bottomY + BAND_HEIGHT - 1) / BAND_HEIGHT;
+		if (bins.length < bands) {
+			bins = new int[bands][64];
+			binSizes = new int[bands];
+		}
+		for (int band = 0; band < bands; band++) {
+			binSizes[band] = 0;
+		}
+		for (int i = 0; i < count; i++) {
+			int base = i * STRIDE;
+			int y1 = commands[base + Y];
+			int y2 = commands[base + Y + 1];
+			int y3 = commands[base + Y + 2];
+			int minY = Math.min(y1, Math.min(y2, y3));
+			int maxY = Math.max(y1, Math.max(y2, y3));
+			if (maxY < 0 || minY >= bottomY) {
+				continue;
+			}
+			int lastBand = Math.min(bands - 1, maxY / BAND_HEIGHT);
+			for (int band = Math.max(0, minY / BAND_HEIGHT); band <= lastBand; band++) {
+				int size = binSizes[band];
+				if (size == bins[band].length) {
+					int[] grown = new int[size * 2];
+					System.arraycopy(bins[band], 0, grown, 0, size);
+					bins[band] = grown;
+				}
+				bins[band][size] = i;
+				binSizes[band] = size + 1;
+			}
+		}
+		return bands;
+	}
+
+	private static void renderBands(RasterState state, int bands) {
+		int band;
+		while ((band = nextBand.getAndIncrement()) < bands) {
+			int size = binSizes[band];
+			if (size == 0) {
+				continue;
+			}
+			// The outer bands keep whatever the direct routines would draw past the frame's rows
+			state.firstOffset = band == 0 ? Integer.MIN_VALUE : band * BAND_HEIGHT * width;
+			state.endOffset = band == bands - 1 ? Integer.MAX_VALUE : (band + 1) * BAND_HEIGHT * width;
+			int[] bin = bins[band];
+			for (int i = 0; i < size; i++) {
+				try {
+					draw(state, bin[i]);
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private static void draw(RasterState state, int index) {
+		int base = index * STRIDE;
+		int flags = commands[base + FLAGS];
+		state.alpha = commands[base + ALPHA];
+		state.restrictEdges = (flags & RESTRICT_EDGES) != 0;
+		state.opaqueTexture = (flags & OPAQUE_TEXTURE) != 0;
+		state.saveDepth = (flags & SAVE_DEPTH) != 0;
+		state.mipmapLevel = commands[base + MIPMAP_LEVEL];
+		int y1 = commands[base + Y];
+		int y2 = commands[base + Y + 1];
+		int y3 = commands[base + Y + 2];
+		int x1 = commands[base + X];
+		int x2 = commands[base + X + 1];
+		int x3 = commands[base + X + 2];
+		int c1 = commands[base + COLOUR];
+		int c2 = commands[base + COLOUR + 1];
+		int c3 = commands[base + COLOUR + 2];
+		float z1 = depths[index * 3];
+		float z2 = depths[index * 3 + 1];
+		float z3 = depths[index * 3 + 2];
+		int t = base + TEXTURE;
+		switch (commands[base + TYPE]) {
+		case FLAT:
+			Rasterizer.drawFlatTriangle(state, y1, y2, y3, x1, x2, x3, c1, z1, z2, z3);
+			break;
+		case GOURAUD:
+			Rasterizer.drawLDGouraudTriangle(state, y1, y2, y3, x1, x2, x3, c1, c2, c3, z1, z2, z3);
+			break;
+		case GOURAUD_HD:
+			Rasterizer.drawHDGouraudTriangle(state, y1, y2, y3, x1, x2, x3, c1, c2, c3, z1, z2, z3);
+			break;
+		case TEXTURED:
+			Rasterizer.drawTexturedTriangle(state, y1, y2, y3, x1, x2, x3, c1, c2, c3, commands[t], commands[t + 1],
+					commands[t + 2], commands[t + 3], commands[t + 4], commands[t + 5], commands[t + 6],
+					commands[t + 7], commands[t + 8], texels[index]);
+			break;
+		case TEXTURED_317:
+			Rasterizer.drawTexturedTriangleold(state, y1, y2, y3, x1, x2, x3, c1, c2, c3, commands[t], commands[t + 1],
+					commands[t + 2], commands[t + 3], commands[t + 4], commands[t + 5], commands[t + 6],
+					commands[t + 7], commands[t + 8], texels[index], z1, z2, z3);
+			break;
+		case MATERIAL:
+			Rasterizer.drawMaterializedTriangle(state, y1, y2, y3, x1, x2, x3, c1, c2, c3, commands[t],
+					commands[t + 1], commands[t + 2], commands[t + 3], commands[t + 4], commands[t + 5],
+					commands[t + 6], commands[t + 7], commands[t + 8], texels[index], z1, z2, z3);
+			break;
+		}
+	}
+}
@@ -33,6 +33,7 @@ import javax.swing.SwingUtilities;
 import ch.qos.logback.classic.Level;
 import com.client.broadcast.Broadcast;
 import com.client.broadcast.BroadcastManager;
+import com.client.cache.MappedCacheStore;
 import com.client.definitions.*;
 import com.client.definitions.server.ItemDef;
 import com.client.features.settings.Preferences;
@@ -103,10 +104,16 @@ public class Client extends RSApplet {
 	private static long lastFpsTime = System.nanoTime();
 	private static int frameCount = 0;
 	private static int currentFPS = 0;
-	// Temporary storage arrays (to avoid threading issues with shared state)
-	private int[][] tempSpriteData = new int[500][7]; // Store sprite positions per entity
-	private String[] tempTextData = new String[500];
-	private int tempEntityCount = 0;
+	private static final int ENTITY_CHUNKS_PER_THREAD = 2;
+	private static final int MIN_ENTITY_CHUNK = 64;
+	// Per-frame entity projection buffers, indexed by entity slot (see projectEntities)
+	private Entity[] projectedEntities = new Entity[512];
+	private int[] projectedX = new int[512];
+	private int[] projectedY = new int[512];
+	private int[] projectedTextWidth = new int[512];
+	private final List<Future<?>> entityBatches = new ArrayList<>();
+	private final OverheadTextLayout overheadTextLayout = new OverheadTextLayout();
+	private final MapRegionDecoder mapRegionDecoder = new MapRegionDecoder();
 	private Sprite loginBoxOverlay;
 	private Sprite videoOverlay;
 	private VideoBackground loginVideo;
@@ -973,7 +980,8 @@ public class Client extends RSApplet {
 				newBoldFont.drawCenteredString("@bla@What would you like to buy? @blu@" + amountOrNameInput + "*", 259,
 						20 + yOffset, 128, -1);
 				if (amountOrNameInput != "") {
-					grandExchangeItemSearch = new ItemSearch(amountOrNameInput, 100, true);
+					if (grandExchangeItemSearch == null || !grandExchangeItemSearch.isSearchFor(amountOrNameInput, true))
+						grandExchangeItemSearch = new ItemSearch(amountOrNameInput, 100, true);
 
 					final int xPosition = 15;
 					final int yPosition = 32 + yOffset - grandExchangeSearchScrollPostion;
@@ -1687,7 +1695,6 @@ public class Client extends RSApplet {
 			Rasterizer.method366();
 			unlinkMRUNodes();
 			scene.initToNull();
-			System.gc();
 			//load_objects();
 			for (int i = 0; i < 4; i++)
 				collisionMaps[i].setDefault();
@@ -1711,16 +1718,9 @@ public class Client extends RSApplet {
 			stream.createFrame(0);
 
 			if (!isDynamicRegion) {
-				for (int i3 = 0; i3 < k2; i3++) {
-					int i4 = (mapCoordinates[i3] >> 8) * 64 - baseX;
-					int k5 = (mapCoordinates[i3] & 0xff) * 64 - baseY;
-
-					byte abyte0[] = terrainData[i3];
-
-					if (abyte0 != null)
-						currentMapRegion.method180(abyte0, k5, i4, (currentRegionX - 6) * 8, (currentRegionY - 6) * 8,
-								collisionMaps);
-				}
+				// Terrain is read and objects are staged for all squares in parallel
+				mapRegionDecoder.decode(currentMapRegion, terrainData, objectData, mapCoordinates, baseX, baseY,
+						(currentRegionX - 6) * 8, (currentRegionY - 6) * 8, collisionMaps);
 
 				for (int j4 = 0; j4 < k2; j4++) {
 					int l5 = (mapCoordinates[j4] >> 8) * 64 - baseX;
@@ -1739,17 +1739,13 @@ public class Client extends RSApplet {
 				}
 				stream.createFrame(0);
 
-				for (int i6 = 0; i6 < k2; i6++) {
-					byte abyte1[] = objectData[i6];
-					if (abyte1 != null) {
-						int l8 = (mapCoordinates[i6] >> 8) * 64 - baseX;
-						int k9 = (mapCoordinates[i6] & 0xff) * 64 - baseY;
-						currentMapRegion.method190(l8, collisionMaps, k9, scene, abyte1);
-					}
-				}
+				mapRegionDecoder.placeObjects(currentMapRegion, collisionMaps, scene);
 
 			}
 			if (isDynamicRegion) {
+				Map<Integer, Integer> squareIndices = new HashMap<>(k2 * 2);
+				for (int l11 = 0; l11 < k2; l11++)
+					squareIndices.putIfAbsent(mapCoordinates[l11], l11);
 				for (int j3 = 0; j3 < 4; j3++) {
 					for (int k4 = 0; k4 < 13; k4++) {
 						for (int j6 = 0; j6 < 13; j6++) {
@@ -1760,13 +1756,10 @@ public class Client extends RSApplet {
 								int j10 = l7 >> 14 & 0x3ff;
 								int l10 = l7 >> 3 & 0x7ff;
 								int j11 = (j10 / 8 << 8) + l10 / 8;
-								for (int l11 = 0; l11 < mapCoordinates.length; l11++) {
-									if (mapCoordinates[l11] != j11 || terrainData[l11] == null)
-										continue;
+								Integer l11 = squareIndices.get(j11);
+								if (l11 != null && terrainData[l11] != null)
 									currentMapRegion.loadMapChunk(i9, l9, collisionMaps, k4 * 8, (j10 & 7) * 8,
 											terrainData[l11], (l10 & 7) * 8, j3, j6 * 8);
-									break;
-								}
 
 							}
 						}
@@ -1797,14 +1790,12 @@ public class Client extends RSApplet {
 								int var9 = chunkBits >> 14 & 0x3ff;
 								int var10 = chunkBits >> 3 & 0x7ff;
 								int var11 = (var9 / 8 << 8) + var10 / 8;
-								for (int var12 = 0; var12 < mapCoordinates.length; var12++) {
-									if (mapCoordinates[var12] != var11 || objectData[var12] == null)
-										continue;
+								Integer var12 = squareIndices.get(var11);
+								if (var12 != null && objectData[var12] != null) {
 									int var13 = (var9 - var3) * 8;
 									int var14 = (var10 - var4) * 8;
 									currentMapRegion.method3200(objectData[var12], var2, var3 * 8, var4 * 8, var7, (var9 & 7) * 8, (var10 & 7) * 8, var8, var13, var14, collisionMaps);
 									var18 = true;
-									break;
 								}
 
 							}
@@ -1862,7 +1853,6 @@ public class Client extends RSApplet {
 		}
 		stream.createFrame(210);
 		stream.writeDWord(0x3f008edd);
-		System.gc();
 		Rasterizer.method367();
 		onDemandFetcher.method566();
 
@@ -1896,7 +1886,6 @@ public class Client extends RSApplet {
 		ObjectDefinition.mruNodes2.unlinkAll();
 		NpcDefinition.mruNodes.unlinkAll();
 		ItemDefinition.mruNodes2.unlinkAll();
-		ItemDefinition.mruNodes1.unlinkAll();
 		Player.mruNodes.unlinkAll();
 		GraphicsDefinition.recent_models.unlinkAll();
 	}
@@ -1963,6 +1952,7 @@ public class Client extends RSApplet {
 
 	public void spawnGroundItem(int i, int j) {
 		NodeList class19 = groundItems[plane][i][j];
+		groundItemIndex.update(plane, i, j, class19);
 		if (class19 == null) {
 			scene.method295(plane, i, j);
 			return;
@@ -2896,6 +2886,45 @@ public class Client extends RSApplet {
 	}
 
 
+	/**
+	 * The features are looked up when a varp arrives rather than here, their singletons load sprites
+	 * and must not be created before the cache is downloaded and unpacked.
+	 */
+	private void subscribeVarps() {
+		varpDispatcher.subscribe(Configs.BANK_TAB_CONFIG, Bank::onConfigChanged);
+		varpDispatcher.subscribe(Configs.EVENT_CALENDAR_CONFIG,
+				(varp, value) -> EventCalendar.getCalendar().onConfigReceived(varp, value));
+		varpDispatcher.subscribe(Configs.NIGHTMARE_HEALTH_STATUS, Configs.NIGHTMARE_TOTEM_MAX_HEALTH,
+				(varp, value) -> Nightmare.instance.handleConfig(varp, value));
+		varpDispatcher.subscribe(Configs.AUTOCAST_SPELL, Configs.AUTOCAST_DEFENCE_CONFIG,
+				(varp, value) -> Autocast.getSingleton().onConfigChanged(varp, value));
+		varpDispatcher.subscribe(Configs.DAILY_REWARD_STREAK_CONFIG,
+				(varp, value) -> DailyRewards.get().onConfigReceived(varp, value));
+		varpDispatcher.subscribe(Configs.DONATOR_REWARDS_CURRENT_PROGRESS,
+				(varp, value) -> DonatorRewards.getInstance().onConfigChanged(varp, value));
+		varpDispatcher.subscribeChanges(QuestTab.CONFIG_ID, QuestTab::onConfigChanged);
+		varpDispatcher.subscribeChanges(MonsterDropViewer.CONFIG_ID, MonsterDropViewer::onConfigChanged);
+	}
+
+	/**
+	 * Stores a varp from the server and lets the features using it know. The tab area and chatbox are
+	 * only drawn again when the value changed and an interface or feature uses the varp.
+	 */
+	private void receiveVarp(int varp, int value) {
+		anIntArray1045[varp] = value;
+		varpDispatcher.received(varp, value);
+		if (variousSettings[varp] != value) {
+			varpDispatcher.changed(varp, value);
+			variousSettings[varp] = value;
+			method33(varp);
+			if (RSInterface.readsVarp(varp) || varpDispatcher.isSubscribed(varp)) {
+				needDrawTabArea = true;
+				if (dialogID != -1)
+					inputTaken = true;
+			}
+		}
+	}
+
 	public void method33(int i) {
 		if (i > Varp.cacheSize)
 			return;
@@ -2908,7 +2937,7 @@ public class Client extends RSApplet {
 			return;
 		int k = variousSettings[i];
 		if (j == 1) {
-			ItemDefinition.mruNodes1.unlinkAll();
+			ItemDefinition.clearIconCache();
 			welcomeScreenRaised = true;
 		}
 		if (j == 3) {
@@ -2971,75 +3000,44 @@ public class Client extends RSApplet {
 	}
 
 	public void updateEntities() {
-	    if (anInt1265 % 50 == 0) {
-	        //System.out.println("=== updateEntities called - using " + THREAD_COUNT + " threads ===");
-	    }
 	    try {
-	        tempEntityCount = 0;
 	        int anInt974 = 0;
-	        
-	        // PHASE 1: Calculate positions in parallel (the expensive part)
-	        List<Future<EntityRenderData>> futures = new ArrayList<>();
-	        
-	        for (int j = -1; j < playerCount + npcCount; j++) {
-	            final int entityIndex = j;
-	            
-	            futures.add(entityThreadPool.submit(() -> {
-	                return calculateEntityData(entityIndex);
-	            }));
-	        }
-	        
-	        // PHASE 2: Collect results and render (must be single-threaded for drawing)
-	        List<EntityRenderData> renderData = new ArrayList<>();
-	        for (Future<EntityRenderData> future : futures) {
-	            try {
-	                EntityRenderData data = future.get();
-	                if (data != null && data.shouldRender) {
-	                    renderData.add(data);
-	                }
-	            } catch (Exception e) {
-	                e.printStackTrace();
+
+	        // PHASE 1: Project the entities to the screen in parallel (the expensive part)
+	        int entities = playerCount + npcCount + 1;
+	        projectEntities(entities);
+
+	        // PHASE 2: Single-threaded rendering (drawing must be sequential)
+	        for (int slot = 0; slot < entities; slot++) {
+	            Entity entity = projectedEntities[slot];
+	            if (entity == null)
+	                continue;
+	            projectedEntities[slot] = null;
+	            if (entity instanceof NPC) {
+	                // Transforms decode definitions, which isn't safe off the game thread
+	                NpcDefinition entityDef = ((NPC) entity).desc;
+	                if (entityDef == null || entityDef.childrenIDs != null && entityDef.method161() == null)
+	                    continue;
 	            }
-	        }
-	        
-	        // PHASE 3: Single-threaded rendering (drawing must be sequential)
-	        for (EntityRenderData data : renderData) {
-	            renderEntityData(data, anInt974);
-	            if (data.hasOverheadText) {
-	                // Store overhead text data
-	                if (anInt974 < anInt975) {
-	                    anIntArray979[anInt974] = data.textWidth;
-	                    anIntArray978[anInt974] = data.textHeight;
-	                    anIntArray976[anInt974] = data.spriteX;
-	                    anIntArray977[anInt974] = data.spriteY;
-	                    anIntArray980[anInt974] = data.textColor;
-	                    anIntArray981[anInt974] = data.textEffect;
-	                    anIntArray982[anInt974] = data.textCycle;
-	                    aStringArray983[anInt974++] = data.overheadText;
-	                }
+	            renderEntity(entity, slot - 1, projectedX[slot], projectedY[slot]);
+	            if (projectedTextWidth[slot] >= 0 && anInt974 < anInt975) {
+	                anIntArray979[anInt974] = projectedTextWidth[slot];
+	                anIntArray978[anInt974] = chatTextDrawingArea.anInt1497;
+	                anIntArray976[anInt974] = projectedX[slot];
+	                anIntArray977[anInt974] = projectedY[slot];
+	                anIntArray980[anInt974] = entity.anInt1513;
+	                anIntArray981[anInt974] = entity.anInt1531;
+	                anIntArray982[anInt974] = entity.textCycle;
+	                aStringArray983[anInt974++] = entity.textSpoken;
 	            }
 	        }
-	        
-	        // PHASE 4: Render overhead text (unchanged from original)
+
+	        // PHASE 3: Render overhead text, each message stacked above the earlier ones it overlaps
+	        overheadTextLayout.reset();
 	        for (int k = 0; k < anInt974; k++) {
-	            int k1 = anIntArray976[k];
-	            int l1 = anIntArray977[k];
-	            int j2 = anIntArray979[k];
-	            int k2 = anIntArray978[k];
-	            boolean flag = true;
-	            while (flag) {
-	                flag = false;
-	                for (int l2 = 0; l2 < k; l2++)
-	                    if (l1 + 2 > anIntArray977[l2] - anIntArray978[l2] && l1 - k2 < anIntArray977[l2] + 2
-	                            && k1 - j2 < anIntArray976[l2] + anIntArray979[l2]
-	                            && k1 + j2 > anIntArray976[l2] - anIntArray979[l2]
-	                            && anIntArray977[l2] - anIntArray978[l2] < l1) {
-	                        l1 = anIntArray977[l2] - anIntArray978[l2];
-	                        flag = true;
-	                    }
-	            }
 	            spriteDrawX = anIntArray976[k];
-	            spriteDrawY = anIntArray977[k] = l1;
+	            spriteDrawY = anIntArray977[k] = overheadTextLayout.place(anIntArray976[k], anIntArray977[k],
+	                    anIntArray979[k], anIntArray978[k]);
 
 	            String s = aStringArray983[k];
 	            if (anInt1249 == 0) {
@@ -3129,145 +3127,128 @@ public class Client extends RSApplet {
 	    }
 	}
 
-	// ===== HELPER METHOD: Calculate entity data in parallel =====
-	private EntityRenderData calculateEntityData(int j) {
-	    try {
-	        Object obj;
-	        if (j == -1)
-	            obj = myPlayer;
-	        else if (j < playerCount)
-	            obj = players[playerIndices[j]];
-	        else
-	            obj = npcs[npcIndices[j - playerCount]];
-	            
-	        if (obj == null || !((Entity) obj).isVisible())
-	            return null;
-	            
-	        if (obj instanceof NPC) {
-	            NpcDefinition entityDef = ((NPC) obj).desc;
-	            if (entityDef.childrenIDs != null)
-	                entityDef = entityDef.method161();
-	            if (entityDef == null)
-	                return null;
-	        }
-	        
-	        EntityRenderData data = new EntityRenderData();
-	        data.entity = (Entity) obj;
-	        data.entityIndex = j;
-	        data.isPlayer = j < playerCount;
-	        data.shouldRender = true;
-	        
-	        // Calculate screen position
-	        npcScreenPos(data.entity, data.entity.height + 15);
-	        data.spriteX = spriteDrawX;
-	        data.spriteY = spriteDrawY;
-	        
-	        // Check if has overhead text
-	        if (data.entity.textSpoken != null && 
-	            (j >= playerCount || publicChatMode == 0 || publicChatMode == 3 || 
-	             publicChatMode == 1 && isFriendOrSelf(((Player) obj).displayName))) {
-	            data.hasOverheadText = true;
-	            data.overheadText = data.entity.textSpoken;
-	            data.textWidth = chatTextDrawingArea.method384(data.entity.textSpoken) / 2;
-	            data.textHeight = chatTextDrawingArea.anInt1497;
-	            data.textColor = data.entity.anInt1513;
-	            data.textEffect = data.entity.anInt1531;
-	            data.textCycle = data.entity.textCycle;
-	        }
-	        
-	        // Store player/NPC specific data
-	        if (data.isPlayer) {
-	            Player player = (Player) obj;
-	            data.headIcon = player.headIcon;
-	            data.skullIcon = player.skullIcon;
-	            data.displayName = player.displayName;
-	            data.hintIcon = player.hintIcon;
-	        } else {
-	            NPC npc = (NPC) obj;
-	            data.npcHeadIcon = npc.desc.anInt75;
+	/**
+	 * Projects the local player (slot 0), players and npcs (slot j + 1) into the projected* buffers,
+	 * split into a few contiguous chunks per thread.
+	 */
+	private void projectEntities(int entities) {
+	    if (projectedEntities.length < entities) {
+	        int capacity = Math.max(entities, projectedEntities.length * 2);
+	        projectedEntities = new Entity[capacity];
+	        projectedX = new int[capacity];
+	        projectedY = new int[capacity];
+	        projectedTextWidth = new int[capacity];
+	    }
+	    int chunks = Math.min(THREAD_COUNT * ENTITY_CHUNKS_PER_THREAD,
+	            (entities + MIN_ENTITY_CHUNK - 1) / MIN_ENTITY_CHUNK);
+	    int chunkSize = (entities + chunks - 1) / chunks;
+	    for (int from = chunkSize; from < entities; from += chunkSize) {
+	        final int start = from;
+	        final int end = Math.min(from + chunkSize, entities);
+	        entityBatches.add(entityThreadPool.submit(() -> projectEntities(start, end)));
+	    }
+	    projectEntities(0, Math.min(chunkSize, entities));
+	    for (Future<?> batch : entityBatches) {
+	        try {
+	            batch.get();
+	        } catch (Exception e) {
+	            e.printStackTrace();
 	        }
-	        
-	        // Health bar data
-	        data.loopCycleStatus = data.entity.loopCycleStatus;
-	        data.currentHealth = data.entity.currentHealth;
-	        data.maxHealth = data.entity.maxHealth;
-	        
-	        // Hitsplat data
-	        for (int i = 0; i < 4; i++) {
-	            data.hitsLoopCycle[i] = data.entity.hitsLoopCycle[i];
-	            data.hitMarkTypes[i] = data.entity.hitMarkTypes[i];
-	            data.hitArray[i] = data.entity.hitArray[i];
+	    }
+	    entityBatches.clear();
+	}
+
+	private void projectEntities(int from, int to) {
+	    for (int slot = from; slot < to; slot++) {
+	        projectedEntities[slot] = null;
+	        try {
+	            int j = slot - 1;
+	            Entity entity;
+	            if (j == -1)
+	                entity = myPlayer;
+	            else if (j < playerCount)
+	                entity = players[playerIndices[j]];
+	            else
+	                entity = npcs[npcIndices[j - playerCount]];
+	            if (entity == null || !entity.isVisible())
+	                continue;
+	            long position = screenPosition(entity.x, entity.height + 15, entity.y);
+	            projectedX[slot] = (int) (position >> 32);
+	            projectedY[slot] = (int) position;
+	            projectedTextWidth[slot] = -1;
+	            if (entity.textSpoken != null && (j >= playerCount || publicChatMode == 0 || publicChatMode == 3
+	                    || publicChatMode == 1 && isFriendOrSelf(((Player) entity).displayName)))
+	                projectedTextWidth[slot] = chatTextDrawingArea.method384(entity.textSpoken) / 2;
+	            projectedEntities[slot] = entity;
+	        } catch (Exception e) {
+	            projectedEntities[slot] = null;
 	        }
-	        
-	        return data;
-	    } catch (Exception e) {
-	        return null;
 	    }
 	}
 
-	// ===== HELPER METHOD: Render entity data (single-threaded) =====
-	private void renderEntityData(EntityRenderData data, int textIndex) {
+	// ===== HELPER METHOD: Render entity (single-threaded) =====
+	private void renderEntity(Entity entity, int j, int spriteX, int spriteY) {
 	    try {
-	        Entity entity = data.entity;
-	        int j = data.entityIndex;
 	        
 	        // Render player icons
-	        if (data.isPlayer && data.spriteX > -1) {
+	        if (j < playerCount && spriteX > -1) {
+	            Player player = (Player) entity;
 	            int l = 30;
-	            if (data.headIcon >= 0) {
-	                if (data.skullIcon < 2) {
-	                    skullIcons[data.skullIcon].drawSprite(data.spriteX - 12, data.spriteY - l);
+	            if (player.headIcon >= 0) {
+	                if (player.skullIcon < 2) {
+	                    skullIcons[player.skullIcon].drawSprite(spriteX - 12, spriteY - l);
 	                    l += 25;
 	                }
-	                if (data.headIcon < 7) {
-	                    headIcons[data.headIcon].drawSprite(data.spriteX - 12, data.spriteY - l);
+	                if (player.headIcon < 7) {
+	                    headIcons[player.headIcon].drawSprite(spriteX - 12, spriteY - l);
 	                    l += 18;
 	                }
 	            }
 	            
 	            // Hint icons
 	            if (j >= 0 && hintType == 10 && anInt933 == playerIndices[j]) {
-	                headIconsHint[data.hintIcon].drawSprite(data.spriteX - 12, data.spriteY - l);
+	                headIconsHint[player.hintIcon].drawSprite(spriteX - 12, spriteY - l);
 	            }
 	            
 	            // Player names
 	            if (Configuration.playerNames) {
-	                latoBold.drawBasicString(data.displayName, 
-	                    (data.spriteX - (data.displayName.length() * 5)) + 3, 
-	                    data.spriteY + 7, 0x6495ed, 1);
+	                latoBold.drawBasicString(player.displayName, 
+	                    (spriteX - (player.displayName.length() * 5)) + 3, 
+	                    spriteY + 7, 0x6495ed, 1);
 	            }
 	        }
 	        
 	        // Render NPC icons
-	        if (!data.isPlayer && data.npcHeadIcon >= 0 && data.npcHeadIcon < headIcons.length) {
-	            if (data.spriteX > -1) {
-	                headIcons[data.npcHeadIcon].drawSprite(data.spriteX - 12, data.spriteY - 30);
+	        int npcHeadIcon = j >= playerCount ? ((NPC) entity).desc.anInt75 : -1;
+	        if (npcHeadIcon >= 0 && npcHeadIcon < headIcons.length) {
+	            if (spriteX > -1) {
+	                headIcons[npcHeadIcon].drawSprite(spriteX - 12, spriteY - 30);
 	            }
 	            
 	            // NPC hint arrow
 	            if (hintType == 1 && anInt1222 == npcIndices[j - playerCount] && update_tick % 20 < 10) {
-	                headIconsHint[0].drawSprite(data.spriteX - 12, data.spriteY - 28);
+	                headIconsHint[0].drawSprite(spriteX - 12, spriteY - 28);
 	            }
 	        }
 	        
 	        // Health bars
-	        if (data.loopCycleStatus > update_tick && data.spriteX > -1) {
-	            int i1 = (data.currentHealth * 30) / data.maxHealth;
-	            int i2 = (data.currentHealth * 30) / data.maxHealth;
+	        if (entity.loopCycleStatus > update_tick && spriteX > -1) {
+	            int i1 = (entity.currentHealth * 30) / entity.maxHealth;
+	            int i2 = (entity.currentHealth * 30) / entity.maxHealth;
 	            if (i1 > 30) i1 = 30;
 	            
-	            if (data.maxHealth >= 255) {
-	                DrawingArea.drawPixels(5, data.spriteY - 3, data.spriteX - 15, 65280, i2);
-	                DrawingArea.drawPixels(5, data.spriteY - 3, (data.spriteX - 15) + i2, 0xff0000, 30 - i2);
+	            if (entity.maxHealth >= 255) {
+	                DrawingArea.drawPixels(5, spriteY - 3, spriteX - 15, 65280, i2);
+	                DrawingArea.drawPixels(5, spriteY - 3, (spriteX - 15) + i2, 0xff0000, 30 - i2);
 	            } else {
-	                DrawingArea.drawPixels(5, data.spriteY - 3, data.spriteX - 15, 65280, i1);
-	                DrawingArea.drawPixels(5, data.spriteY - 3, (data.spriteX - 15) + i1, 0xff0000, 30 - i1);
+	                DrawingArea.drawPixels(5, spriteY - 3, spriteX - 15, 65280, i1);
+	                DrawingArea.drawPixels(5, spriteY - 3, (spriteX - 15) + i1, 0xff0000, 30 - i1);
 	            }
 	        }
 	        
 	        // Hitsplats
 	        for (int j1 = 0; j1 < 4; j1++) {
-	            if (data.hitsLoopCycle[j1] > update_tick) {
+	            if (entity.hitsLoopCycle[j1] > update_tick) {
 	                npcScreenPos(entity, entity.height / 2);
 	                if (spriteDrawX > -1) {
 	                    int adjustedY = spriteDrawY;
@@ -3278,9 +3259,9 @@ public class Client extends RSApplet {
 	                    if (j1 == 3) { adjustedX += 15; adjustedY -= 10; }
 	                    if (j1 == 19) { adjustedX += 1; adjustedY -= 1; }
 	                    
-	                    hitMarks[data.hitMarkTypes[j1]].drawSprite(adjustedX - 12, adjustedY - 12);
-	                    smallText.drawText(0, String.valueOf(data.hitArray[j1]), adjustedY + 4, adjustedX);
-	                    smallText.drawText(0xffffff, String.valueOf(data.hitArray[j1]), adjustedY + 3, adjustedX - 1);
+	                    hitMarks[entity.hitMarkTypes[j1]].drawSprite(adjustedX - 12, adjustedY - 12);
+	                    smallText.drawText(0, String.valueOf(entity.hitArray[j1]), adjustedY + 4, adjustedX);
+	                    smallText.drawText(0xffffff, String.valueOf(entity.hitArray[j1]), adjustedY + 3, adjustedX - 1);
 	                }
 	            }
 	        }
@@ -3289,40 +3270,6 @@ public class Client extends RSApplet {
 	    }
 	}
 
-	// ===== DATA CLASS =====
-	private class EntityRenderData {
-	    Entity entity;
-	    int entityIndex;
-	    boolean isPlayer;
-	    boolean shouldRender;
-	    
-	    int spriteX, spriteY;
-	    
-	    // Player data
-	    int headIcon = -1;
-	    int skullIcon = -1;
-	    int hintIcon = -1;
-	    String displayName = "";
-	    
-	    // NPC data
-	    int npcHeadIcon = -1;
-	    
-	    // Overhead text
-	    boolean hasOverheadText = false;
-	    String overheadText = "";
-	    int textWidth, textHeight;
-	    int textColor, textEffect, textCycle;
-	    
-	    // Health
-	    int loopCycleStatus;
-	    int currentHealth, maxHealth;
-	    
-	    // Hitsplats
-	    int[] hitsLoopCycle = new int[4];
-	    int[] hitMarkTypes = new int[4];
-	    int[] hitArray = new int[4];
-	}
-
 	private void delFriend(long l) {
 		try {
 			if (l == 0L)
@@ -4047,6 +3994,7 @@ public class Client extends RSApplet {
 		if (rsAlreadyLoaded || loadingError || genericLoadingError)
 			return;
 		update_tick++;
+		scriptCache.nextFrame();
 
 		if (!loggedIn)
 			processLoginScreenInput();
@@ -4784,26 +4732,24 @@ public class Client extends RSApplet {
 		do {
 			OnDemandData onDemandData;
 			do {
-				onDemandData = onDemandFetcher.getNextNode();
+				onDemandData = onDemandDecoder.poll();
 				if (onDemandData == null)
 					return;
-				if (onDemandData.dataType == 0) {
-					Model.loadModel(onDemandData.buffer, onDemandData.ID);
+				// Decoding already happened on the OnDemandDecoder pool, only publish here
+				if (onDemandData.dataType == 0 && onDemandData.decoded instanceof ModelHeader) {
+					Model.loadModel((ModelHeader) onDemandData.decoded, onDemandData.ID);
 					needDrawTabArea = true;
 					if (backDialogID != -1)
 						inputTaken = true;
 				}
-				if (onDemandData.dataType == 1 && onDemandData.buffer != null) {
-					int magic = (onDemandData.buffer[1] & 0xff) + ((onDemandData.buffer[0] & 0xff) << 8);
-				if(magic == 420) {//load skeletal
-					AnimKeyFrameSet.load(onDemandData.ID, onDemandData.buffer);
-				} else if(magic == 710) {
-					AnimFrameSet.load_osrs(onDemandData.ID, onDemandData.buffer);
-				} /*else if (onDemandData.ID == 3366) {
-						AnimFrameSet.load_641(onDemandData.ID, onDemandData.buffer);
-					}*/
-				//641 ANIMS GO HERE
-			}
+				if (onDemandData.dataType == 1) {
+					if (onDemandData.decoded instanceof AnimKeyFrameSet) {//load skeletal
+						AnimKeyFrameSet.load((AnimKeyFrameSet) onDemandData.decoded);
+					} else if (onDemandData.decoded instanceof AnimFrameSet) {
+						AnimFrameSet.load_osrs((AnimFrameSet) onDemandData.decoded);
+					}
+					//641 ANIMS GO HERE
+				}
 				if (onDemandData.dataType == 2 && onDemandData.ID == nextSong && onDemandData.buffer != null)
 					saveMidi(songChanging, onDemandData.buffer);
 				if (onDemandData.dataType == 3 && loadingStage == 1) {
@@ -7574,12 +7520,14 @@ public class Client extends RSApplet {
 		cacheInterface = null;
 		mouseDetection = null;
 		onDemandFetcher.disable();
+		onDemandDecoder.shutdown();
 		mapIcon7 = null;
 		mapIcon8 = null;
 		mapIcon6 = null;
 		mapIcon5 = null;
 		mapIcon9 = null;
 		onDemandFetcher = null;
+		onDemandDecoder = null;
 		aStream_834 = null;
 		loginScreenGraphicsBuffer = null;
 		stream = null;
@@ -10232,6 +10180,7 @@ public class Client extends RSApplet {
 					}
 
 				}
+				groundItemIndex.rebuild(null);
 
 				spawns = new NodeList();
 				fullscreenInterfaceID = -1;
@@ -11136,7 +11085,6 @@ public class Client extends RSApplet {
 	void startUp() {
 		expTrackerPanel = new ExpTrackerPanel();
 		SettingsManager.loadSettings();
-		ClientScripts.load();
 		drawLoadingText(10, "Loading title screen - 0%");
 		if (Signlink.sunjava) {
 			super.minDelay = 5;
@@ -11144,34 +11092,50 @@ public class Client extends RSApplet {
 		getDocumentBaseHost();
 		variousSettings[304] = 1;
 		if (Signlink.cache_dat != null) {
+			MappedCacheStore cacheStore = MappedCacheStore.open(Signlink.cache_dat, Signlink.cache_idx);
 			for (int i = 0; i < 8; i++)
-				decompressors[i] = new Decompressor(Signlink.cache_dat, Signlink.cache_idx[i], i + 1);
+				decompressors[i] = new Decompressor(Signlink.cache_dat, Signlink.cache_idx[i], i + 1, cacheStore);
 		}
 
 		new CacheDownloader(this).downloadCache();
 
-		SpriteLoader1.loadSprites();
-		cacheSprite1 = SpriteLoader1.sprites;
-		SpriteLoader1.sprites = null;
-
-		SpriteLoader2.loadSprites();
-		cacheSprite2 = SpriteLoader2.sprites;
-		SpriteLoader2.sprites = null;
-
-		SpriteLoader3.loadSprites();
-		cacheSprite3 = SpriteLoader3.sprites;
-		SpriteLoader3.sprites = null;
-
-		SpriteLoader4.loadSprites();
-		cacheSprite4 = SpriteLoader4.sprites;
-		SpriteLoader4.sprites = null;
-		SpriteLoader.load474Sprites();
-		cacheSprite474 = SpriteLoader.sprites474;
-		OsrsSpriteLoader.loadSprites();
-		OsrsSprite = OsrsSpriteLoader.sprites;
-		OsrsSpriteLoader.sprites = null;
-		try {
-			ItemDef.load();
+		StreamLoader[] archives = new StreamLoader[9];
+		StartupGraph startup = new StartupGraph(this, 10, 95);
+		startup.add("client scripts", ClientScripts::load);
+		startup.add("player data", this::loadPlayerData);
+		startup.add("item data", ItemDef::load);
+		StartupGraph.Stage[] spriteArchives = {
+				startup.add("media archive 1", () -> {
+					SpriteLoader1.loadSprites();
+					cacheSprite1 = SpriteLoader1.sprites;
+					SpriteLoader1.sprites = null;
+				}),
+				startup.add("media archive 2", () -> {
+					SpriteLoader2.loadSprites();
+					cacheSprite2 = SpriteLoader2.sprites;
+					SpriteLoader2.sprites = null;
+				}),
+				startup.add("media archive 3", () -> {
+					SpriteLoader3.loadSprites();
+					cacheSprite3 = SpriteLoader3.sprites;
+					SpriteLoader3.sprites = null;
+				}),
+				startup.add("media archive 4", () -> {
+					SpriteLoader4.loadSprites();
+					cacheSprite4 = SpriteLoader4.sprites;
+					SpriteLoader4.sprites = null;
+				}),
+				startup.add("474 sprites", () -> {
+					SpriteLoader.load474Sprites();
+					cacheSprite474 = SpriteLoader.sprites474;
+				}),
+				startup.add("osrs sprites", () -> {
+					OsrsSpriteLoader.loadSprites();
+					OsrsSprite = OsrsSpriteLoader.sprites;
+					OsrsSpriteLoader.sprites = null;
+				}) };
+		// The loading bar draws with the title fonts once they're set, so they're made on its thread
+		StartupGraph.Stage fonts = startup.addOnLoader("fonts", () -> {
 			titleStreamLoader = streamLoaderForName(1, "title screen");
 			smallText = new TextDrawingArea(false, "p11_full" + fontFilter(), titleStreamLoader);
 			XPFONT = new TextDrawingArea(true, "q8_full" + fontFilter(), titleStreamLoader);
@@ -11192,14 +11156,17 @@ public class Client extends RSApplet {
 			kingthingsPetrockLight = new RSFont(true, "kingthings_petrock_light_full", titleStreamLoader);
 
 			loadTitleScreen();
-			createScreenImages();
-			StreamLoader streamLoader = streamLoaderForName(2, "config");
-			StreamLoader streamLoader_1 = streamLoaderForName(3, "interface");
-			StreamLoader streamLoader_2 = streamLoaderForName(4, "2d graphics");
-			StreamLoader streamLoader_3 = streamLoaderForName(6, "textures");
-			StreamLoader streamLoader_4 = streamLoaderForName(7, "chat system");
-			@SuppressWarnings("unused")
-			StreamLoader streamLoader_5 = streamLoaderForName(8, "sound effects");
+		});
+		StartupGraph.Stage archiveStage = startup.add("archives", () -> {
+			archives[2] = streamLoaderForName(2, "config");
+			archives[3] = streamLoaderForName(3, "interface");
+			archives[4] = streamLoaderForName(4, "2d graphics");
+			archives[5] = streamLoaderForName(5, "update list");
+			archives[6] = streamLoaderForName(6, "textures");
+			archives[7] = streamLoaderForName(7, "chat system");
+			archives[8] = streamLoaderForName(8, "sound effects");
+		});
+		startup.addOnLoader("scene", () -> {
 			byteGroundArray = new byte[4][104][104];
 			intGroundArray = new int[4][105][105];
 			scene = new WorldController(intGroundArray, parentFrame);
@@ -11207,10 +11174,11 @@ public class Client extends RSApplet {
 				collisionMaps[j] = new CollisionMap();
 
 			minimapImage = new Sprite(512, 512);
-			StreamLoader streamLoader_6 = streamLoaderForName(5, "update list");
-			drawLoadingText(60, "Connecting to update server");
+		});
+		StartupGraph.Stage updateServer = startup.addOnLoader("update server", () -> {
 			onDemandFetcher = new OnDemandFetcher();
-			onDemandFetcher.start(streamLoader_6, this);
+			onDemandFetcher.start(archives[5], this);
+			onDemandDecoder = new OnDemandDecoder(onDemandFetcher);
 
 			if (Configuration.packIndexData) {
 				repackCacheAll();
@@ -11244,16 +11212,25 @@ public class Client extends RSApplet {
 			    this.songChanging = true;
 			    onDemandFetcher.provide(2, this.nextSong);
 			}
-			
-			drawLoadingText(80, "Unpacking media");
-			mapIcon7 = new Sprite(streamLoader_2, "mapfunction", 1);
-			mapIcon8 = new Sprite(streamLoader_2, "mapfunction", 51);
-			mapIcon6 = new Sprite(streamLoader_2, "mapfunction", 74);
-			mapIcon5 = new Sprite(streamLoader_2, "mapfunction", 5);
-			mapIcon9 = new Sprite(streamLoader_2, "mapfunction", 56);
-			multiOverlay = new Sprite(streamLoader_2, "overlay_multiway", 0);
-
-			eventIcon = new Sprite(streamLoader_2, "mapfunction", 72);
+		}, archiveStage);
+		startup.add("login video", () -> {
+			try {
+			    loginVideo = new VideoBackground(Signlink.getCacheDirectory() + "sprites/Login/background.mp4", 765, 503);
+			} catch (Exception e) {
+			    e.printStackTrace();
+			    loginVideo = null;
+			}
+		});
+		StartupGraph.Stage media = startup.add("media", () -> {
+			createScreenImages();
+			mapIcon7 = new Sprite(archives[4], "mapfunction", 1);
+			mapIcon8 = new Sprite(archives[4], "mapfunction", 51);
+			mapIcon6 = new Sprite(archives[4], "mapfunction", 74);
+			mapIcon5 = new Sprite(archives[4], "mapfunction", 5);
+			mapIcon9 = new Sprite(archives[4], "mapfunction", 56);
+			multiOverlay = new Sprite(archives[4], "overlay_multiway", 0);
+
+			eventIcon = new Sprite(archives[4], "mapfunction", 72);
 			bankDivider = new Sprite("bank_divider");
 
 			// Login
@@ -11268,20 +11245,24 @@ public class Client extends RSApplet {
 			// Load the login box overlay SEPARATELY
 			loginBoxOverlay = new Sprite("loginscreen/background2"); // Your login box PNG
 
-			// Initialize video
-			try {
-			    loginVideo = new VideoBackground(Signlink.getCacheDirectory() + "sprites/Login/background.mp4", 765, 503);
-			} catch (Exception e) {
-			    e.printStackTrace();
-			    loginVideo = null;
-			}
-			
+
 			muteButtonOff = new Sprite("Login/mute_off"); // When music is playing
 			muteButtonOn = new Sprite("Login/mute_on");   // When music is muted
 			File[] file = new File(Signlink.getCacheDirectory() + "/sprites/sprites/").listFiles();
 			int size = file.length;
 			cacheSprite = new Sprite[size];
+			byte[][] cacheSpriteData = new byte[size][];
+			for (int i = 0; i < size; i++) {
+				File png = new File(Sprite.location + "sprites/" + i + ".png");
+				if (png.exists()) {
+					cacheSpriteData[i] = FileOperations.readFile(png.getPath());
+				}
+			}
+			Sprite[] decoded = SpritePack.load("cache_sprites", SpritePack.crc(cacheSpriteData), cacheSpriteData);
 			for (int i = 0; i < size; i++) {
+				if (decoded[i] != null) {
+					Sprite.cache("Sprites/" + i, decoded[i]);
+				}
 				cacheSprite[i] = new Sprite("Sprites/" + i);
 			}
 
@@ -11305,7 +11286,7 @@ public class Client extends RSApplet {
 			}
 
 			for (int c1 = 0; c1 <= 3; c1++)
-				chatButtons[c1] = new Sprite(streamLoader_2, "chatbuttons", c1);
+				chatButtons[c1] = new Sprite(archives[4], "chatbuttons", c1);
 			chatButtons[3] = new Sprite("1025_0");
 			Sprite[] clanIcons = new Sprite[9];
 			for (int index = 0; index < clanIcons.length; index++) {
@@ -11320,13 +11301,13 @@ public class Client extends RSApplet {
 
 			RSFont.unpackImages(modIcons, clanIcons, iconPack);
 
-			mapEdge = new Sprite(streamLoader_2, "mapedge", 0);
+			mapEdge = new Sprite(archives[4], "mapedge", 0);
 			mapEdge.method345();
 
 			try {
 				for (int k3 = 0; k3 < 199; k3++)
 					mapScenes[k3] = new Sprite("mapScenes/" + k3);
-					//mapScenes[k3] = new Background(streamLoader_2, "mapscene", k3);
+					//mapScenes[k3] = new Background(archives[4], "mapscene", k3);
 			} catch (Exception _ex) {
 			}
 			try {
@@ -11341,7 +11322,7 @@ public class Client extends RSApplet {
 			}
 			try {
 				for (int i4 = 0; i4 < 20; i4++) {
-					hitMarks[i4] = new Sprite(streamLoader_2, "hitmarks", i4);
+					hitMarks[i4] = new Sprite(archives[4], "hitmarks", i4);
 				}
 			} catch (Exception _ex) {
 			}
@@ -11350,34 +11331,34 @@ public class Client extends RSApplet {
 
 			try {
 				for (int h1 = 0; h1 < 6; h1++)
-					headIconsHint[h1] = new Sprite(streamLoader_2, "headicons_hint", h1);
+					headIconsHint[h1] = new Sprite(archives[4], "headicons_hint", h1);
 			} catch (Exception _ex) {
 			}
 			try {
 				for (int j4 = 0; j4 < 8; j4++)
-					headIcons[j4] = new Sprite(streamLoader_2, "headicons_prayer", j4);
+					headIcons[j4] = new Sprite(archives[4], "headicons_prayer", j4);
 				for (int j45 = 0; j45 < 3; j45++)
-					skullIcons[j45] = new Sprite(streamLoader_2, "headicons_pk", j45);
+					skullIcons[j45] = new Sprite(archives[4], "headicons_pk", j45);
 			} catch (Exception _ex) {
 			}
 			for (int i = 0; i < minimapIcons.length; i++) {
 				minimapIcons[i] = new Sprite("Mapicons/ICON " + i);
 			}
 			//loginBackground2 = 	new AnimatedSprite(new URL("https://cdn.discordapp.com/attachments/454138282780131329/454147023046836235/Ascend-CB.gif"));
-			mapFlag = new Sprite(streamLoader_2, "mapmarker", 0);
-			mapMarker = new Sprite(streamLoader_2, "mapmarker", 1);
+			mapFlag = new Sprite(archives[4], "mapmarker", 0);
+			mapMarker = new Sprite(archives[4], "mapmarker", 1);
 			for (int k4 = 0; k4 < 8; k4++)
-				crosses[k4] = new Sprite(streamLoader_2, "cross", k4);
-
-			mapDotItem = new Sprite(streamLoader_2, "mapdots", 0);
-			mapDotNPC = new Sprite(streamLoader_2, "mapdots", 1);
-			mapDotPlayer = new Sprite(streamLoader_2, "mapdots", 2);
-			mapDotFriend = new Sprite(streamLoader_2, "mapdots", 3);
-			mapDotTeam = new Sprite(streamLoader_2, "mapdots", 4);
-			mapDotClan = new Sprite(streamLoader_2, "mapdots", 5);
-			new Sprite(streamLoader_2, "mapdots", 4);
-			scrollBar1 = new Sprite(streamLoader_2, "scrollbar", 0);
-			scrollBar2 = new Sprite(streamLoader_2, "scrollbar", 1);
+				crosses[k4] = new Sprite(archives[4], "cross", k4);
+
+			mapDotItem = new Sprite(archives[4], "mapdots", 0);
+			mapDotNPC = new Sprite(archives[4], "mapdots", 1);
+			mapDotPlayer = new Sprite(archives[4], "mapdots", 2);
+			mapDotFriend = new Sprite(archives[4], "mapdots", 3);
+			mapDotTeam = new Sprite(archives[4], "mapdots", 4);
+			mapDotClan = new Sprite(archives[4], "mapdots", 5);
+			new Sprite(archives[4], "mapdots", 4);
+			scrollBar1 = new Sprite(archives[4], "scrollbar", 0);
+			scrollBar2 = new Sprite(archives[4], "scrollbar", 1);
 			for (int i = 0; i < modIcons.length; i++) {
 				modIcons[i] = new Sprite("Player/MODICONS " + i + "");
 			}
@@ -11398,11 +11379,13 @@ public class Client extends RSApplet {
 				if (mapScenes[i6] != null)
 					mapScenes[i6].method344(i5 + l5, j5 + l5, k5 + l5);
 			}
-
-			drawLoadingText(83, "Unpacking textures");
-			Rasterizer.method368(streamLoader_3);
+		}, archiveStage);
+		startup.add("textures", () -> {
+			Rasterizer.method368(archives[6]);
 			Rasterizer.method367();
-			drawLoadingText(83, "Unpacking config");
+		}, archiveStage);
+		StartupGraph.Stage definitions = startup.add("definitions", () -> {
+			StreamLoader streamLoader = archives[2];
 			AnimationDefinition.unpackConfig(streamLoader);
 			System.out.println("AnimationDefinition loaded");
 			ObjectDefinition.unpackConfig(streamLoader);
@@ -11410,6 +11393,7 @@ public class Client extends RSApplet {
 			FloorUnderlayDefinition.unpackConfig(streamLoader);
 			System.out.println("FloorUnderlayDefinition loaded");
 			ItemDefinition.unpackConfig(streamLoader);
+			ItemNameIndex.load();
 			System.out.println("ItemDefinition loaded");
 			NpcDefinition.unpackConfig(streamLoader);
 			System.out.println("NpcDefinition loaded");
@@ -11423,11 +11407,25 @@ public class Client extends RSApplet {
 			System.out.println("Varp Loaded");
 			VarBit.unpackConfig(streamLoader);
 			System.out.println("Varbit Loaded");
-				this.drawLoadingText(92,  "Unpacking sounds");
-				byte[] var36 = streamLoader_5.getArchiveData("sounds.dat");
-				Buffer soundbuffer = new Buffer(var36);
-				Sounds.unpack(soundbuffer);
-			loadPlayerData();
+		}, archiveStage);
+		startup.add("sounds", () -> {
+			byte[] var36 = archives[8].getArchiveData("sounds.dat");
+			Buffer soundbuffer = new Buffer(var36);
+			Sounds.unpack(soundbuffer);
+		}, archiveStage);
+		StartupGraph.Stage[] interfaceDependencies = Arrays.copyOf(spriteArchives, spriteArchives.length + 4);
+		interfaceDependencies[spriteArchives.length] = fonts;
+		interfaceDependencies[spriteArchives.length + 1] = media;
+		interfaceDependencies[spriteArchives.length + 2] = definitions;
+		interfaceDependencies[spriteArchives.length + 3] = updateServer;
+		// Interfaces load sprites by name and may draw, which isn't safe next to the loading bar
+		startup.addOnLoader("interfaces", () -> {
+			TextDrawingArea allFonts[] = { smallText, aTextDrawingArea_1271, chatTextDrawingArea,
+					aTextDrawingArea_1273 };
+			RSInterface.unpack(archives[3], allFonts, archives[4], new RSFont[] {newSmallFont, newRegularFont, newBoldFont, newFancyFont});
+		}, interfaceDependencies);
+		try {
+			startup.run();
 
 			if (Configuration.dumpDataLists) {
 				ItemDefinition.dumpList();
@@ -11436,11 +11434,6 @@ public class Client extends RSApplet {
 				ObjectDefinition.dumpList();
 				onDemandFetcher.dumpModels();
 			}
-
-			drawLoadingText(95, "Unpacking interfaces");
-			TextDrawingArea allFonts[] = { smallText, aTextDrawingArea_1271, chatTextDrawingArea,
-					aTextDrawingArea_1273 };
-			RSInterface.unpack(streamLoader_1, allFonts, streamLoader_2, new RSFont[] {newSmallFont, newRegularFont, newBoldFont, newFancyFont});
 			drawLoadingText(100, "Preparing game engine");
 
 			if(getUserSettings().isOldGameframe() == false) {
@@ -12086,7 +12079,7 @@ public class Client extends RSApplet {
 
 					entity.secondaryanim_loops_remaining = 1;
 					++entity.secondaryanim_frameindex;
-					play_frames_sound(secondaryAnimation, entity.primaryanim_frameindex, entity);
+					play_frames_sound(secondaryAnimation, entity.secondaryanim_frameindex, entity);
 				}
 
 				if (entity.secondaryanim_frameindex >= secondaryAnimation.anIntArray353.length) {
@@ -12110,7 +12103,7 @@ public class Client extends RSApplet {
 						entity.secondaryanim_frameindex = 0;
 					}
 
-					play_frames_sound(secondaryAnimation, entity.primaryanim_frameindex, entity);
+					play_frames_sound(secondaryAnimation, entity.secondaryanim_frameindex, entity);
 				}
 
 			} else if (secondaryAnimation.using_keyframes()) {
@@ -12118,7 +12111,7 @@ public class Client extends RSApplet {
 				int var6 = secondaryAnimation.get_keyframe_duration();
 
 				if (entity.secondaryanim_frameindex < var6) {
-					play_frames_sound(secondaryAnimation, entity.primaryanim_frameindex, entity);
+					play_keyframes_sound(entity.secondaryanim_frameindex, entity, secondaryAnimation);
 				} else {
 					if (secondaryAnimation.loop_delay > 0) {
 						entity.secondaryanim_frameindex -= secondaryAnimation.loop_delay;
@@ -12140,7 +12133,7 @@ public class Client extends RSApplet {
 						entity.secondaryanim_frameindex = 0;
 					}
 
-					play_frames_sound(secondaryAnimation, entity.primaryanim_frameindex, entity);
+					play_keyframes_sound(entity.secondaryanim_frameindex, entity, secondaryAnimation);
 				}
 			} else {
 				entity.secondaryanim = -1;
@@ -12164,7 +12157,7 @@ public class Client extends RSApplet {
 
 						entity.spotanim_loop = 1;
 						++entity.spotanimframe_index;
-						play_frames_sound(spotanim_seq, entity.primaryanim_frameindex, entity);
+						play_frames_sound(spotanim_seq, entity.spotanimframe_index, entity);
 					}
 
 					if (entity.spotanimframe_index >= spotanim_seq.anIntArray353.length &&
@@ -12177,7 +12170,7 @@ public class Client extends RSApplet {
 					int var4 = spotanim_seq.get_keyframe_duration();
 
 					if (entity.spotanimframe_index < var4) {
-						play_frames_sound(spotanim_seq, entity.primaryanim_frameindex, entity);
+						play_keyframes_sound(entity.spotanimframe_index, entity, spotanim_seq);
 					} else if (entity.spotanimframe_index < 0 || entity.spotanimframe_index >= var4) {
 						entity.spotanim = -1;
 					}
@@ -12214,7 +12207,7 @@ public class Client extends RSApplet {
 					int skeletal_duration = seqtype.get_keyframe_duration();
 
 					if (entity.primaryanim_frameindex < skeletal_duration) {
-						play_frames_sound(seqtype, entity.primaryanim_frameindex, entity);
+						play_keyframes_sound(entity.primaryanim_frameindex, entity, seqtype);
 					} else {
 						entity.primaryanim_frameindex -= seqtype.loop_delay;
 						++entity.primaryanim_replaycount;
@@ -12222,7 +12215,7 @@ public class Client extends RSApplet {
 						if (entity.primaryanim_replaycount >= seqtype.replaycount) {
 							entity.primaryanim = -1;
 						} else if (entity.primaryanim_frameindex >= 0 && entity.primaryanim_frameindex < skeletal_duration) {
-							play_frames_sound(seqtype, entity.primaryanim_frameindex, entity);
+							play_keyframes_sound(entity.primaryanim_frameindex, entity, seqtype);
 						} else {
 							entity.primaryanim = -1;
 						}
@@ -12262,15 +12255,11 @@ public class Client extends RSApplet {
 			entity.primaryanim_pause--;
 	}
 	private static void play_frames_sound(AnimationDefinition seqtype, int frameindex, Entity entity) {
-		if (seqtype.getFrameSound(frameindex) != -1) {
-			entity.makeSound(seqtype.getFrameSound(frameindex));
-		}
+		AnimationSounds.frameReached(entity, seqtype, frameindex, update_tick);
 	}
 
 	private static void play_keyframes_sound(int frameindex, Entity entity, AnimationDefinition seqtype) {
-		if (seqtype.keyframe_soundeffects != null && seqtype.keyframe_soundeffects.containsKey(frameindex)) {
-			entity.makeSound((Integer) seqtype.keyframe_soundeffects.get(frameindex));
-		}
+		AnimationSounds.keyframeReached(entity, seqtype, frameindex, update_tick);
 	}
 
 	private void drawGameScreen() {
@@ -12575,6 +12564,74 @@ public class Client extends RSApplet {
 			28023, 28024, 28025, 28026, 28027, 28028, 28001, 28022
 	};
 
+	private static final int RENDER_FLAGS_SET = 1;
+	private static final int RENDER_BOUNTY = 1 << 1;
+	private static final int RENDER_RUNE = 1 << 2;
+	private static final int RENDER_SPELL_BOX = 1 << 3;
+	private static final int RENDER_SPELL_BOX_LOWERED = 1 << 4;
+	private static final int RENDER_COUNTED_LIST = 1 << 5;
+
+	/**
+	 * @return the hardcodes {@link #drawInterface} applies to the widget, looked up in the id tables
+	 *         the first time it's drawn.
+	 */
+	private static int renderFlags(RSInterface widget) {
+		if ((widget.renderFlags & RENDER_FLAGS_SET) != 0) {
+			return widget.renderFlags;
+		}
+		int flags = RENDER_FLAGS_SET;
+		int id = widget.id;
+		for (int bountyId : BOUNTY_INTERFACE_IDS)
+			if (id == bountyId)
+				flags |= RENDER_BOUNTY;
+		if (id != 28060 && id != 28061) {
+			for (int m5 = 0; m5 < SOME_IDS.length; m5++) {
+				if (id == SOME_IDS[m5] + 1) {
+					flags |= m5 > 61 ? RENDER_SPELL_BOX : RENDER_SPELL_BOX | RENDER_SPELL_BOX_LOWERED;
+				}
+			}
+		}
+		for (int r = 0; r < runeChildren.length; r++)
+			if (id == runeChildren[r])
+				flags |= RENDER_RUNE;
+		if (id == 18143 || id == 18322 || id == 18423) {
+			flags |= RENDER_COUNTED_LIST;
+			widget.filledLines = 0;
+			for (int line = firstCountedLine(id); line <= lastCountedLine(id); line++) {
+				if (hasText(RSInterface.interfaceCache[line])) {
+					widget.filledLines++;
+				}
+			}
+		}
+		widget.renderFlags = flags;
+		return flags;
+	}
+
+	/**
+	 * @return the list whose scroll height counts the lines with text, of which this is a line, or -1.
+	 */
+	private static int countedListOf(int lineId) {
+		if (lineId >= firstCountedLine(18143) && lineId <= lastCountedLine(18143))
+			return 18143;
+		if (lineId >= firstCountedLine(18322) && lineId <= lastCountedLine(18322))
+			return 18322;
+		if (lineId >= firstCountedLine(18423) && lineId <= lastCountedLine(18423))
+			return 18423;
+		return -1;
+	}
+
+	private static int firstCountedLine(int listId) {
+		return listId == 18143 ? 18155 : listId + 1;
+	}
+
+	private static int lastCountedLine(int listId) {
+		return listId == 18143 ? 18243 : listId + 100;
+	}
+
+	private static boolean hasText(RSInterface line) {
+		return line != null && line.message != null && line.message.length() > 0;
+	}
+
 	public void drawInterface(int scrollPosition, int xPosition, RSInterface rsInterface, int yPosition) {
 		drawInterface(scrollPosition, xPosition, rsInterface, yPosition, false);
 	}
@@ -12616,28 +12673,25 @@ public class Client extends RSApplet {
 					if (class9_1.interfaceHidden)
 						continue;
 
-					if (!getUserSettings().isBountyHunter() && Arrays.stream(BOUNTY_INTERFACE_IDS).anyMatch(id -> id == class9_1.id)) {
+					int renderFlags = renderFlags(class9_1);
+
+					if ((renderFlags & RENDER_BOUNTY) != 0 && !getUserSettings().isBountyHunter()) {
 						continue;
 					}
 
 					if (class9_1.contentType > 0)
 						drawFriendsListOrWelcomeScreen(class9_1);
 
-					if (class9_1.id != 28060 && class9_1.id != 28061) {
-						for (int m5 = 0; m5 < SOME_IDS.length; m5++) {
-							if (class9_1.id == SOME_IDS[m5] + 1) {
-								if (m5 > 61) {
-									drawBlackBox(_x + 1, _y);
-								} else {
-									drawBlackBox(_x, _y + 1);
-								}
-							}
+					if ((renderFlags & RENDER_SPELL_BOX) != 0) {
+						if ((renderFlags & RENDER_SPELL_BOX_LOWERED) != 0) {
+							drawBlackBox(_x, _y + 1);
+						} else {
+							drawBlackBox(_x + 1, _y);
 						}
 					}
 
-					for (int r = 0; r < runeChildren.length; r++)
-						if (class9_1.id == runeChildren[r])
-							class9_1.modelZoom = 775;
+					if ((renderFlags & RENDER_RUNE) != 0)
+						class9_1.modelZoom = 775;
 
 					if (class9_1.type == 0) {
 						if (class9_1.scrollPosition > class9_1.scrollMax - class9_1.height)
@@ -12649,27 +12703,11 @@ public class Client extends RSApplet {
 						// Hardcodes
 						if (class9_1.scrollMax > class9_1.height) {
 							// clan chat
-							if (class9_1.id == 18143) {
-								int clanMates = 0;
-								for (int i = 18155; i < 18244; i++) {
-									RSInterface line = RSInterface.interfaceCache[i];
-									if (line.message.length() > 0) {
-										clanMates++;
-									}
-								}
-								class9_1.scrollMax = (clanMates * 14) + class9_1.height + 1;
+							if ((renderFlags & RENDER_COUNTED_LIST) != 0 && class9_1.id == 18143) {
+								class9_1.scrollMax = (class9_1.filledLines * 14) + class9_1.height + 1;
 							}
-							if (class9_1.id == 18322 || class9_1.id == 18423) {
-								int members = 0;
-								for (int i = class9_1.id + 1; i < class9_1.id + 1 + 100; i++) {
-									RSInterface line = RSInterface.interfaceCache[i];
-									if (line != null && line.message != null) {
-										if (line.message.length() > 0) {
-											members++;
-										}
-									}
-								}
-								class9_1.scrollMax = (members * 14) + 1;
+							if ((renderFlags & RENDER_COUNTED_LIST) != 0 && class9_1.id != 18143) {
+								class9_1.scrollMax = (class9_1.filledLines * 14) + 1;
 							}
 							if (rsInterface.parentID == 49000 || rsInterface.parentID == 49100 || rsInterface.parentID == 51100
 									|| rsInterface.parentID == 53100) {
@@ -12976,48 +13014,10 @@ public class Client extends RSApplet {
 									i4 = 0xffffff;
 							}
 							for (int l6 = _y + textDrawingArea.anInt1497; s.length() > 0; l6 += textDrawingArea.anInt1497) {
-								if (s.indexOf("%") != -1) {
-									do {
-										int k7 = s.indexOf("%1");
-										if (k7 == -1)
-											break;
-										if (class9_1.id < 4000 || class9_1.id > 5000 && class9_1.id != 13921
-												&& class9_1.id != 13922 && class9_1.id != 12171 && class9_1.id != 12172)
-											s = s.substring(0, k7) + methodR(extractInterfaceValues(class9_1, 0))
-													+ s.substring(k7 + 2);
-										else
-											s = s.substring(0, k7) + interfaceIntToString(extractInterfaceValues(class9_1, 0))
-													+ s.substring(k7 + 2);
-									} while (true);
-									do {
-										int l7 = s.indexOf("%2");
-										if (l7 == -1)
-											break;
-										s = s.substring(0, l7) + interfaceIntToString(extractInterfaceValues(class9_1, 1))
-												+ s.substring(l7 + 2);
-									} while (true);
-									do {
-										int i8 = s.indexOf("%3");
-										if (i8 == -1)
-											break;
-										s = s.substring(0, i8) + interfaceIntToString(extractInterfaceValues(class9_1, 2))
-												+ s.substring(i8 + 2);
-									} while (true);
-									do {
-										int j8 = s.indexOf("%4");
-										if (j8 == -1)
-											break;
-										s = s.substring(0, j8) + interfaceIntToString(extractInterfaceValues(class9_1, 3))
-												+ s.substring(j8 + 2);
-									} while (true);
-									do {
-										int k8 = s.indexOf("%5");
-										if (k8 == -1)
-											break;
-										s = s.substring(0, k8) + interfaceIntToString(extractInterfaceValues(class9_1, 4))
-												+ s.substring(k8 + 2);
-									} while (true);
-								}
+								if (s.indexOf("%") != -1)
+									s = substituteInterfaceValues(class9_1, s, class9_1.id < 4000 || class9_1.id > 5000
+											&& class9_1.id != 13921 && class9_1.id != 13922 && class9_1.id != 12171
+											&& class9_1.id != 12172);
 								int l8 = s.indexOf("\\n");
 								String s1;
 								if (l8 != -1) {
@@ -13143,43 +13143,8 @@ public class Client extends RSApplet {
 
 							TextDrawingArea textDrawingArea_2 = aTextDrawingArea_1271;
 							for (String s1 = class9_1.message; s1.length() > 0;) {
-								if (s1.indexOf("%") != -1) {
-									do {
-										int k7 = s1.indexOf("%1");
-										if (k7 == -1)
-											break;
-										s1 = s1.substring(0, k7) + interfaceIntToString(extractInterfaceValues(class9_1, 0))
-												+ s1.substring(k7 + 2);
-									} while (true);
-									do {
-										int l7 = s1.indexOf("%2");
-										if (l7 == -1)
-											break;
-										s1 = s1.substring(0, l7) + interfaceIntToString(extractInterfaceValues(class9_1, 1))
-												+ s1.substring(l7 + 2);
-									} while (true);
-									do {
-										int i8 = s1.indexOf("%3");
-										if (i8 == -1)
-											break;
-										s1 = s1.substring(0, i8) + interfaceIntToString(extractInterfaceValues(class9_1, 2))
-												+ s1.substring(i8 + 2);
-									} while (true);
-									do {
-										int j8 = s1.indexOf("%4");
-										if (j8 == -1)
-											break;
-										s1 = s1.substring(0, j8) + interfaceIntToString(extractInterfaceValues(class9_1, 3))
-												+ s1.substring(j8 + 2);
-									} while (true);
-									do {
-										int k8 = s1.indexOf("%5");
-										if (k8 == -1)
-											break;
-										s1 = s1.substring(0, k8) + interfaceIntToString(extractInterfaceValues(class9_1, 4))
-												+ s1.substring(k8 + 2);
-									} while (true);
-								}
+								if (s1.indexOf("%") != -1)
+									s1 = substituteInterfaceValues(class9_1, s1, false);
 								int l7 = s1.indexOf("\\n");
 
 								String s4;
@@ -13258,43 +13223,8 @@ public class Client extends RSApplet {
 							String s2 = class9_1.message;
 							for (int j11 = yPos + textDrawingArea_2.anInt1497 + 2; s2
 									.length() > 0; j11 += textDrawingArea_2.anInt1497 + 1) {// anInt1497
-								if (s2.indexOf("%") != -1) {
-									do {
-										int k7 = s2.indexOf("%1");
-										if (k7 == -1)
-											break;
-										s2 = s2.substring(0, k7) + interfaceIntToString(extractInterfaceValues(class9_1, 0))
-												+ s2.substring(k7 + 2);
-									} while (true);
-									do {
-										int l7 = s2.indexOf("%2");
-										if (l7 == -1)
-											break;
-										s2 = s2.substring(0, l7) + interfaceIntToString(extractInterfaceValues(class9_1, 1))
-												+ s2.substring(l7 + 2);
-									} while (true);
-									do {
-										int i8 = s2.indexOf("%3");
-										if (i8 == -1)
-											break;
-										s2 = s2.substring(0, i8) + interfaceIntToString(extractInterfaceValues(class9_1, 2))
-												+ s2.substring(i8 + 2);
-									} while (true);
-									do {
-										int j8 = s2.indexOf("%4");
-										if (j8 == -1)
-											break;
-										s2 = s2.substring(0, j8) + interfaceIntToString(extractInterfaceValues(class9_1, 3))
-												+ s2.substring(j8 + 2);
-									} while (true);
-									do {
-										int k8 = s2.indexOf("%5");
-										if (k8 == -1)
-											break;
-										s2 = s2.substring(0, k8) + interfaceIntToString(extractInterfaceValues(class9_1, 4))
-												+ s2.substring(k8 + 2);
-									} while (true);
-								}
+								if (s2.indexOf("%") != -1)
+									s2 = substituteInterfaceValues(class9_1, s2, false);
 								int l11 = s2.indexOf("\\n");
 								String s5;
 								if (l11 != -1) {
@@ -14008,6 +13938,7 @@ public class Client extends RSApplet {
 			return;
 		}
 		anInt1061++;
+		scriptCache.nextFrame();
 		if (!loggedIn) {
 			drawLoginScreen(false);
 		} else {
@@ -14073,94 +14004,88 @@ public class Client extends RSApplet {
 	}
 
 	private void displayGroundItems() {
+		String valueText = Preferences.getPreferences().groundItemTextShowMoreThan;
+		int showValue = 0;
+		try {
+			showValue = valueText.length() == 0 ? 0 : Integer.parseInt(valueText);
+		} catch (NumberFormatException e) {
+			Preferences.getPreferences().groundItemTextShowMoreThan = "";
+			if (Configuration.developerMode) {
+				e.printStackTrace();
+			}
+		}
+		String[] hide = Preferences.getPreferences().groundItemTextHide.split(",");
+		String[] show = Preferences.getPreferences().groundItemTextShow.split(",");
+		int playerX = baseX + (myPlayer.x - 6 >> 7);
+		int playerY = baseY + (myPlayer.y - 6 >> 7);
+
 		/**
-		 * Loop thru all tiles in region
+		 * Loop thru the tiles in the region that have items
 		 */
+		for (int tile = 0; tile < groundItemIndex.count(plane); tile++) {
+			int x = groundItemIndex.tileX(plane, tile);
+			int y = groundItemIndex.tileY(plane, tile);
+			GroundItemIndex.Pile pile = groundItemIndex.pile(plane, x, y, groundItems[plane][x][y]);
+			int count = 0;
 
-		for (int x = 0; x < 104; x++) {
-			for (int y = 0; y < 104; y++) {
-				NodeList class19 = groundItems[plane][x][y];
-				int count = 0;
-				if (class19 != null) {
-					Map<Integer, Long> amounts = new HashMap<>();
-					HashSet<Integer> drawn = new HashSet<>();
-
-					for (Item item = (Item) class19.getFirst(); item != null; item = (Item) class19.getNext()) {
-						amounts.put(item.ID, item.anInt1559 + amounts.getOrDefault(item.ID, 0L));
-					}
-
-					for (Item item = (Item) class19.getFirst(); item != null; item = (Item) class19.getNext()) {
-						if (drawn.contains(item.ID)) {
-							continue;
-						}
-
-						ItemDefinition itemDef = ItemDefinition.forID(item.ID);
-						long amount = amounts.get(item.ID);
-						long value = (long) itemDef.value * amount;
-						drawn.add(item.ID);
-
-						String valueText = Preferences.getPreferences().groundItemTextShowMoreThan;
-						int showValue = 0;
-						try {
-							showValue = valueText.length() == 0 ? 0 : Integer.parseInt(valueText);
-						} catch (NumberFormatException e) {
-							Preferences.getPreferences().groundItemTextShowMoreThan = "";
-							if (Configuration.developerMode) {
-								e.printStackTrace();
-							}
-						}
-
-						boolean rareDropColor = value > 100_000;
+			for (int stack = 0; stack < pile.count; stack++) {
+				ItemDefinition itemDef = ItemDefinition.forID(pile.ids[stack]);
+				long amount = pile.amounts[stack];
+				long value = pile.values[stack];
 
-						if (itemDef.searchable || !Preferences.getPreferences().groundItemAlwaysShowUntradables) {
-							String[] hide = Preferences.getPreferences().groundItemTextHide.split(",");
-							String[] show = Preferences.getPreferences().groundItemTextShow.split(",");
-							String itemNameFormatted = itemDef.name.toLowerCase();
+				boolean rareDropColor = value > 100_000;
 
-							boolean showItem = Arrays.stream(show).anyMatch(showTxt -> showTxt.length() > 0 && itemNameFormatted.contains(showTxt.trim()));
-							boolean hideItem = Arrays.stream(hide).anyMatch(hideTxt -> hideTxt.length() > 0 && itemNameFormatted.contains(hideTxt.trim()));
+				if (itemDef.searchable || !Preferences.getPreferences().groundItemAlwaysShowUntradables) {
+					String itemNameFormatted = itemDef.name.toLowerCase();
 
-							if (!showItem && (hideItem || value < showValue)) {
-								continue;
-							}
-						} else {
-							rareDropColor = true;
-						}
+					boolean showItem = Arrays.stream(show).anyMatch(showTxt -> showTxt.length() > 0 && itemNameFormatted.contains(showTxt.trim()));
+					boolean hideItem = Arrays.stream(hide).anyMatch(hideTxt -> hideTxt.length() > 0 && itemNameFormatted.contains(hideTxt.trim()));
 
-						calcEntityScreenPos((x * 128 + 64), 25, (y * 128 + 64));
+					if (!showItem && (hideItem || value < showValue)) {
+						continue;
+					}
+				} else {
+					rareDropColor = true;
+				}
 
-						int itemX = baseX + x;
-						int itemY = baseY + y;
-						int playerX = baseX + (myPlayer.x - 6 >> 7);
-						int playerY = baseY + (myPlayer.y - 6 >> 7);
+				calcEntityScreenPos((x * 128 + 64), 25, (y * 128 + 64));
 
-						/**
-						 * Fading
-						 */
-						int transparencyDistance = distanceToPoint(playerX, playerY, itemX, itemY);
-						int transparency = 256 - (transparencyDistance * 16);
+				int itemX = baseX + x;
+				int itemY = baseY + y;
 
-						if (goodDistance(itemX, itemY, playerX, playerY, 16)) {
-							int yMod = (count * 12);
+				/**
+				 * Fading
+				 */
+				int transparencyDistance = distanceToPoint(playerX, playerY, itemX, itemY);
+				int transparency = 256 - (transparencyDistance * 16);
 
-							StringBuilder builder = new StringBuilder();
-							builder.append(itemDef.name);
-							if (amount > 1) {
-								builder.append(" (" + (int) amount + ")");
-							}
-							if (value > 1 && itemDef.searchable) {
-								builder.append(" ("+ StringUtils.insertCommas(value) + " gp)");
-							}
+				if (goodDistance(itemX, itemY, playerX, playerY, 16)) {
+					int yMod = (count * 12);
 
-							latoBold.drawCenteredString(builder.toString(), spriteDrawX, spriteDrawY - yMod, rareDropColor ? 0xDA6EA2 : 0xffffff, 0x00000, transparency);
-							count++;
-						}
+					StringBuilder builder = new StringBuilder();
+					builder.append(itemDef.name);
+					if (amount > 1) {
+						builder.append(" (" + (int) amount + ")");
+					}
+					if (value > 1 && itemDef.searchable) {
+						builder.append(" ("+ StringUtils.insertCommas(value) + " gp)");
 					}
+
+					latoBold.drawCenteredString(builder.toString(), spriteDrawX, spriteDrawY - yMod, rareDropColor ? 0xDA6EA2 : 0xffffff, 0x00000, transparency);
+					count++;
 				}
 			}
 		}
+	}
 
-
+	/**
+	 * Draws a definition cache's hit and miss counts on the ::data overlay.
+	 */
+	private void drawCacheStats(String name, DefinitionCache<?> cache, int y) {
+		if (cache != null) {
+			aTextDrawingArea_1271.method385(0xffff00,
+					name + ": " + cache.getHits() + " hits, " + cache.getMisses() + " misses", y, 5);
+		}
 	}
 
 	private void draw3dScreen() {
@@ -14316,6 +14241,16 @@ public class Client extends RSApplet {
 			y = 181;
 			y += 15;
 			aTextDrawingArea_1271.method385(0xffff00, "FOV: " + WorldController.viewDistance, y,5);
+			y += 14;
+			ModelCache models = Model.getDecodedModels();
+			aTextDrawingArea_1271.method385(0xffff00,
+					"Model Cache: " + models.getHits() + " hits, " + models.getMisses() + " misses", y, 5);
+			y += 14;
+			drawCacheStats("Item Cache", ItemDefinition.getCache(), y);
+			y += 14;
+			drawCacheStats("Npc Cache", NpcDefinition.getCache(), y);
+			y += 14;
+			drawCacheStats("Object Cache", ObjectDefinition.getCache(), y);
 		}
 
 		if (openInterfaceID != -1) {
@@ -14735,137 +14670,222 @@ public class Client extends RSApplet {
 	private int extractInterfaceValues(RSInterface widget, int id) {
 		if (widget.scripts == null || id >= widget.scripts.length)
 			return -2;
+		ScriptCache.Result cached = scriptCache.get(widget, id);
+		if (cached != null)
+			return cached.value;
+		int value;
 		try {
-			int script[] = widget.scripts[id];
-			int accumulator = 0;
-			int counter = 0;
-			int operator = 0;
-			do {
-				int instruction = script[counter++];
-				int value = 0;
-				byte next = 0;
-				if (instruction == 0)
-					return accumulator;
-				if (instruction == 1)
-					value = currentStats[script[counter++]];
-				if (instruction == 2)
-					value = maxStats[script[counter++]];
-				if (instruction == 3)
-					value = currentExp[script[counter++]];
-				if (instruction == 4) { // Check for item inside interface, interfaceId = ai[l++]
-					RSInterface inventoryContainer = RSInterface.interfaceCache[script[counter++]];
-					int item = script[counter++];
-					if (item >= 0 && item < ItemDefinition.totalItems
-							&& (!ItemDefinition.forID(item).membersObject || isMembers)) {
-						int itemId = item + 1;
-						int actualItemId = item;
-						for (int slot = 0; slot < inventoryContainer.inventoryItemId.length; slot++) {
-							if (inventoryContainer.inventoryItemId[slot] == itemId)
-								value += inventoryContainer.inventoryAmounts[slot];
-						}
+			scriptCache.begin();
+			value = runInterfaceScript(widget.scripts[id]);
+		} catch (Exception _ex) {
+			return -1;
+		}
+		scriptCache.put(widget, id, value);
+		return value;
+	}
 
-						if (inventoryContainer.id == 3214) {
-							RSInterface equipment = RSInterface.interfaceCache[1688];
-							if (actualItemId == Items.NATURE_RUNE) {
-								if (equipment.hasItem(Items.BRYOPHYTAS_STAFF)) {
-									return Integer.MAX_VALUE;
-								}
-							}
-							if (actualItemId == Items.FIRE_RUNE) {
-								if (equipment.hasItem(Items.TOME_OF_FIRE)) {
-									return Integer.MAX_VALUE;
-								}
-							}
-						}
+	private int runInterfaceScript(int[] script) {
+		int accumulator = 0;
+		int counter = 0;
+		int operator = 0;
+		do {
+			int instruction = script[counter++];
+			int value = 0;
+			byte next = 0;
+			if (instruction == 0)
+				return accumulator;
+			if (instruction == 1)
+				value = scriptInput(ScriptCache.CURRENT_STAT, script[counter++]);
+			if (instruction == 2)
+				value = scriptInput(ScriptCache.MAX_STAT, script[counter++]);
+			if (instruction == 3)
+				value = scriptInput(ScriptCache.EXPERIENCE, script[counter++]);
+			if (instruction == 4) { // Check for item inside interface, interfaceId = ai[l++]
+				int containerId = script[counter++];
+				RSInterface inventoryContainer = RSInterface.interfaceCache[containerId];
+				int item = script[counter++];
+				if (item >= 0 && item < ItemDefinition.totalItems
+						&& (!ItemDefinition.forID(item).membersObject || scriptInput(ScriptCache.MEMBERS, 0) == 1)) {
+					int itemId = item + 1;
+					int actualItemId = item;
+					scriptInput(ScriptCache.CONTAINER, containerId);
+					for (int slot = 0; slot < inventoryContainer.inventoryItemId.length; slot++) {
+						if (inventoryContainer.inventoryItemId[slot] == itemId)
+							value += inventoryContainer.inventoryAmounts[slot];
+					}
 
-						if ((runePouch[0][0] + 1) == itemId) {
-							value += runePouch[0][1];
+					if (inventoryContainer.id == 3214) {
+						RSInterface equipment = RSInterface.interfaceCache[1688];
+						if (actualItemId == Items.NATURE_RUNE || actualItemId == Items.FIRE_RUNE) {
+							scriptInput(ScriptCache.CONTAINER, 1688);
 						}
-						if ((runePouch[1][0] + 1) == itemId) {
-							value += runePouch[1][1];
+						if (actualItemId == Items.NATURE_RUNE) {
+							if (equipment.hasItem(Items.BRYOPHYTAS_STAFF)) {
+								return Integer.MAX_VALUE;
+							}
 						}
-						if ((runePouch[2][0] + 1) == itemId) {
-							value += runePouch[2][1];
+						if (actualItemId == Items.FIRE_RUNE) {
+							if (equipment.hasItem(Items.TOME_OF_FIRE)) {
+								return Integer.MAX_VALUE;
+							}
 						}
 					}
-				}
-				if (instruction == 5) {
-					value = variousSettings[script[counter++]];
-				}
-				if (instruction == 6)
-					value = SKILL_EXPERIENCE[maxStats[script[counter++]] - 1];
-				if (instruction == 7)
-					value = (variousSettings[script[counter++]] * 100) / 46875;
-				if (instruction == 8)
-					value = myPlayer.combatLevel;
-				if (instruction == 9) {
-					for (int l1 = 0; l1 < Skills.SKILLS_COUNT; l1++)
-						if (Skills.SKILLS_ENABLED[l1])
-							value += maxStats[l1];
-				}
-				if (instruction == 10) {
-					RSInterface equipmentContainer = RSInterface.interfaceCache[script[counter++]];
-					int item = script[counter++] + 1;
-					if (item >= 0 && item < ItemDefinition.totalItems
-							&& (!ItemDefinition.forID(item).membersObject || isMembers)) {
-						for (int stored = 0; stored < equipmentContainer.inventoryItemId.length; stored++) {
-							if (equipmentContainer.inventoryItemId[stored] != item)
-								continue;
-							value = 0x3b9ac9ff;
-							break;
-						}
 
+					for (int slot = 0; slot < runePouch.length; slot++) {
+						if ((scriptInput(ScriptCache.RUNE_POUCH, slot * 2) + 1) == itemId) {
+							value += scriptInput(ScriptCache.RUNE_POUCH, slot * 2 + 1);
+						}
 					}
 				}
-				if (instruction == 11)
-					value = energy;
-				if (instruction == 12)
-					value = weight;
-				if (instruction == 13) {
-					int bool = variousSettings[script[counter++]];
-					int shift = script[counter++];
-					value = (bool & 1 << shift) == 0 ? 0 : 1;
-				}
-				if (instruction == 14) {
-					int index = script[counter++];
-					VarBit bits = VarBit.cache[index];
-					int setting = bits.configID;
-					int low = bits.lsb;
-					int high = bits.msb;
-					int mask = anIntArray1232[high - low];
-					value = variousSettings[setting] >> low & mask;
-				}
-				if (instruction == 15)
-					next = 1;
-				if (instruction == 16)
-					next = 2;
-				if (instruction == 17)
-					next = 3;
-				if (instruction == 18)
-					value = (myPlayer.x >> 7) + baseX;
-				if (instruction == 19)
-					value = (myPlayer.y >> 7) + baseY;
-				if (instruction == 20)
-					value = script[counter++];
-				if (next == 0) {
-					if (operator == 0)
-						accumulator += value;
-					if (operator == 1)
-						accumulator -= value;
-					if (operator == 2 && value != 0)
-						accumulator /= value;
-					if (operator == 3)
-						accumulator *= value;
-					operator = 0;
-				} else {
-					operator = next;
+			}
+			if (instruction == 5) {
+				value = scriptInput(ScriptCache.VARP, script[counter++]);
+			}
+			if (instruction == 6)
+				value = SKILL_EXPERIENCE[scriptInput(ScriptCache.MAX_STAT, script[counter++]) - 1];
+			if (instruction == 7)
+				value = (scriptInput(ScriptCache.VARP, script[counter++]) * 100) / 46875;
+			if (instruction == 8)
+				value = scriptInput(ScriptCache.COMBAT_LEVEL, 0);
+			if (instruction == 9)
+				value = scriptInput(ScriptCache.TOTAL_LEVEL, 0);
+			if (instruction == 10) {
+				int containerId = script[counter++];
+				RSInterface equipmentContainer = RSInterface.interfaceCache[containerId];
+				int item = script[counter++] + 1;
+				if (item >= 0 && item < ItemDefinition.totalItems
+						&& (!ItemDefinition.forID(item).membersObject || scriptInput(ScriptCache.MEMBERS, 0) == 1)) {
+					scriptInput(ScriptCache.CONTAINER, containerId);
+					for (int stored = 0; stored < equipmentContainer.inventoryItemId.length; stored++) {
+						if (equipmentContainer.inventoryItemId[stored] != item)
+							continue;
+						value = 0x3b9ac9ff;
+						break;
+					}
+
 				}
-			} while (true);
-		} catch (Exception _ex) {
-			return -1;
+			}
+			if (instruction == 11)
+				value = scriptInput(ScriptCache.ENERGY, 0);
+			if (instruction == 12)
+				value = scriptInput(ScriptCache.WEIGHT, 0);
+			if (instruction == 13) {
+				int bool = scriptInput(ScriptCache.VARP, script[counter++]);
+				int shift = script[counter++];
+				value = (bool & 1 << shift) == 0 ? 0 : 1;
+			}
+			if (instruction == 14) {
+				int index = script[counter++];
+				VarBit bits = VarBit.cache[index];
+				int setting = bits.configID;
+				int low = bits.lsb;
+				int high = bits.msb;
+				int mask = anIntArray1232[high - low];
+				value = scriptInput(ScriptCache.VARP, setting) >> low & mask;
+			}
+			if (instruction == 15)
+				next = 1;
+			if (instruction == 16)
+				next = 2;
+			if (instruction == 17)
+				next = 3;
+			if (instruction == 18)
+				value = scriptInput(ScriptCache.X, 0);
+			if (instruction == 19)
+				value = scriptInput(ScriptCache.Y, 0);
+			if (instruction == 20)
+				value = script[counter++];
+			if (next == 0) {
+				if (operator == 0)
+					accumulator += value;
+				if (operator == 1)
+					accumulator -= value;
+				if (operator == 2 && value != 0)
+					accumulator /= value;
+				if (operator == 3)
+					accumulator *= value;
+				operator = 0;
+			} else {
+				operator = next;
+			}
+		} while (true);
+	}
+
+	/**
+	 * Reads an input of an interface script and records it, so the result is kept until it changes.
+	 */
+	private int scriptInput(int kind, int key) {
+		int value = readScriptInput(kind, key);
+		scriptCache.record(kind, key, value);
+		return value;
+	}
+
+	private int readScriptInput(int kind, int key) {
+		switch (kind) {
+			case ScriptCache.CURRENT_STAT:
+				return currentStats[key];
+			case ScriptCache.MAX_STAT:
+				return maxStats[key];
+			case ScriptCache.EXPERIENCE:
+				return currentExp[key];
+			case ScriptCache.TOTAL_LEVEL:
+				int total = 0;
+				for (int skill = 0; skill < Skills.SKILLS_COUNT; skill++)
+					if (Skills.SKILLS_ENABLED[skill])
+						total += maxStats[skill];
+				return total;
+			case ScriptCache.VARP:
+				return variousSettings[key];
+			case ScriptCache.CONTAINER:
+				return scriptCache.revision(RSInterface.interfaceCache[key]);
+			case ScriptCache.RUNE_POUCH:
+				return runePouch[key >> 1][key & 1];
+			case ScriptCache.MEMBERS:
+				return isMembers ? 1 : 0;
+			case ScriptCache.COMBAT_LEVEL:
+				return myPlayer.combatLevel;
+			case ScriptCache.ENERGY:
+				return energy;
+			case ScriptCache.WEIGHT:
+				return weight;
+			case ScriptCache.X:
+				return (myPlayer.x >> 7) + baseX;
+			case ScriptCache.Y:
+				return (myPlayer.y >> 7) + baseY;
+			default:
+				throw new IllegalArgumentException("script input " + kind);
 		}
 	}
 
+	/**
+	 * Puts the values of the widget's scripts in place of %1 to %5 in the text.
+	 *
+	 * @param abbreviateFirst whether %1 is shortened to thousands or millions.
+	 */
+	private String substituteInterfaceValues(RSInterface widget, String text, boolean abbreviateFirst) {
+		boolean substitutes = false;
+		for (int index = 0; index < substitutedValues.length; index++) {
+			boolean used = text.contains(VALUE_PLACEHOLDERS[index]);
+			substitutedValues[index] = used ? extractInterfaceValues(widget, index) : 0;
+			substitutes |= used;
+		}
+		if (!substitutes)
+			return text;
+		String cached = scriptCache.getText(widget, text, abbreviateFirst, substitutedValues);
+		if (cached != null)
+			return cached;
+		String substituted = text;
+		for (int index = 0; index < substitutedValues.length; index++) {
+			if (substituted.contains(VALUE_PLACEHOLDERS[index])) {
+				int value = substitutedValues[index];
+				substituted = substituted.replace(VALUE_PLACEHOLDERS[index],
+						index == 0 && abbreviateFirst ? methodR(value) : interfaceIntToString(value));
+			}
+		}
+		scriptCache.putText(widget, text, abbreviateFirst, substitutedValues, substituted);
+		return substituted;
+	}
+
 	public void drawTopLeftTooltip() {
 		if (devConsole.console_open)
 			return;
@@ -14952,15 +14972,12 @@ public class Client extends RSApplet {
 			}
 
 
-			for (int k5 = 0; k5 < 104; k5++) {
-				for (int l5 = 0; l5 < 104; l5++) {
-					NodeList class19 = groundItems[plane][k5][l5];
-					if (class19 != null) {
-						int l = (k5 * 4 + 2) - myPlayer.x / 32;
-						int j3 = (l5 * 4 + 2) - myPlayer.y / 32;
-						markMinimap(mapDotItem, l, j3);
-					}
-				}
+			for (int tile = 0; tile < groundItemIndex.count(plane); tile++) {
+				int k5 = groundItemIndex.tileX(plane, tile);
+				int l5 = groundItemIndex.tileY(plane, tile);
+				int l = (k5 * 4 + 2) - myPlayer.x / 32;
+				int j3 = (l5 * 4 + 2) - myPlayer.y / 32;
+				markMinimap(mapDotItem, l, j3);
 			}
 
 			for (int i6 = 0; i6 < npcCount; i6++) {
@@ -15395,6 +15412,22 @@ public class Client extends RSApplet {
 			this.spriteDrawY = -1;
 			return;
 		}
+		long position = screenPosition(i, j, l);
+		this.spriteDrawX = (int) (position >> 32);
+		this.spriteDrawY = (int) position;
+		WorldController.focalLength = 512;
+	}
+
+	/**
+	 * Projects a world position to the screen without touching shared state, so entities can be
+	 * projected off the game thread.
+	 *
+	 * @return the screen x in the high and screen y in the low 32 bits, both -1 if not on screen.
+	 */
+	private long screenPosition(int i, int j, int l) {
+		if ((i < 128) || (l < 128) || (i > 13056) || (l > 13056)) {
+			return -1L;
+		}
 		int i1 = getCenterHeight(this.plane, l, i) - j; //getCenterHeight
 		i -= this.xCameraPos;
 		i1 -= this.zCameraPos;
@@ -15410,13 +15443,11 @@ public class Client extends RSApplet {
 		l = i1 * j1 + l * k1 >> 16;
 		i1 = j2;
 		if (l >= 50) {
-			spriteDrawX = Rasterizer.textureInt1 + (i << WorldController.viewDistance) / l;
-			spriteDrawY = Rasterizer.textureInt2 + (i1 << WorldController.viewDistance) / l;
-		}else {
-			this.spriteDrawX = -1;
-			this.spriteDrawY = -1;
+			int x = Rasterizer.textureInt1 + (i << WorldController.viewDistance) / l;
+			int y = Rasterizer.textureInt2 + (i1 << WorldController.viewDistance) / l;
+			return (long) x << 32 | y & 0xffffffffL;
 		}
-		WorldController.focalLength = 512;
+		return -1L;
 	}
 
 	public void method130(int j, int k, int l, int i1, int j1, int k1, int l1, int i2, int j2) {
@@ -16484,6 +16515,14 @@ public class Client extends RSApplet {
 	public void sendFrame126(String str, int i) {
 		RSInterface component = RSInterface.interfaceCache[i];
 		if (component != null) {
+			int listId = countedListOf(i);
+			if (listId != -1) {
+				RSInterface list = RSInterface.interfaceCache[listId];
+				// Lists count their lines on first draw, after that keep the count up to date here
+				if (list != null && (list.renderFlags & RENDER_FLAGS_SET) != 0) {
+					list.filledLines += (str != null && str.length() > 0 ? 1 : 0) - (hasText(component) ? 1 : 0);
+				}
+			}
 			component.message = str;
 			if (component.type == 4 && component.atActionType == 1) {
 				component.hoverText = str;
@@ -17177,6 +17216,7 @@ public class Client extends RSApplet {
 									groundItems[plane][x][y] = null;
 						}
 					}
+					groundItemIndex.rebuild(groundItems);
 					for (SpawnedObject object = (SpawnedObject) spawns
 							.reverseGetFirst(); object != null; object = (SpawnedObject) spawns
 							.reverseGetNext()) {
@@ -17530,7 +17570,8 @@ public class Client extends RSApplet {
 						if (variousSettings[k5] != anIntArray1045[k5]) {
 							variousSettings[k5] = anIntArray1045[k5];
 							method33(k5);
-							needDrawTabArea = true;
+							if (RSInterface.readsVarp(k5))
+								needDrawTabArea = true;
 						}
 					incomingPacket = -1;
 					return true;
@@ -17931,43 +17972,14 @@ public class Client extends RSApplet {
 				case 87:
 					int j8 = inStream.method434();
 					int l14 = inStream.method439();
-					anIntArray1045[j8] = l14;
-					Bank.onConfigChanged(j8, l14);
-					Nightmare.instance.handleConfig(j8, l14);
-					Autocast.getSingleton().onConfigChanged(j8, l14);
-					DailyRewards.get().onConfigReceived(j8, l14);
-					DonatorRewards.getInstance().onConfigChanged(j8, l14);
-					if (variousSettings[j8] != l14) {
-						QuestTab.onConfigChanged(j8, l14);
-						MonsterDropViewer.onConfigChanged(j8, l14);
-						variousSettings[j8] = l14;
-						method33(j8);
-						needDrawTabArea = true;
-						if (dialogID != -1)
-							inputTaken = true;
-					}
+					receiveVarp(j8, l14);
 					incomingPacket = -1;
 					return true;
 
 				case 36:
 					int k8 = inStream.method434();
 					byte byte0 = inStream.readSignedByte();
-					anIntArray1045[k8] = byte0;
-					Bank.onConfigChanged(k8, byte0);
-					EventCalendar.getCalendar().onConfigReceived(k8, byte0);
-					Nightmare.instance.handleConfig(k8, byte0);
-					Autocast.getSingleton().onConfigChanged(k8, byte0);
-					DailyRewards.get().onConfigReceived(k8, byte0);
-					DonatorRewards.getInstance().onConfigChanged(k8, byte0);
-					if (variousSettings[k8] != byte0) {
-						QuestTab.onConfigChanged(k8, byte0);
-						MonsterDropViewer.onConfigChanged(k8, byte0);
-						variousSettings[k8] = byte0;
-						method33(k8);
-						needDrawTabArea = true;
-						if (dialogID != -1)
-							inputTaken = true;
-					}
+					receiveVarp(k8, byte0);
 					incomingPacket = -1;
 					return true;
 
@@ -18315,8 +18327,14 @@ public class Client extends RSApplet {
 	    clearBuffersOptimized();
 
 	    // ===== MAIN SCENE RENDERING (80% OF FRAME TIME!) =====
-	    scene.draw(xCameraPos, yCameraPos, xCameraCurve, zCameraPos,
-	        inCutScene ? method121() : method120(), yCameraCurve);
+	    // Triangles are queued during the scene walk and rasterized per screen tile in parallel
+	    BinnedRasterizer.begin();
+	    try {
+	        scene.draw(xCameraPos, yCameraPos, xCameraCurve, zCameraPos,
+	            inCutScene ? method121() : method120(), yCameraCurve);
+	    } finally {
+	        BinnedRasterizer.end();
+	    }
 
 	    // ===== POST-SCENE RENDERING =====
 	    try {
@@ -18967,6 +18985,7 @@ public class Client extends RSApplet {
 	private Sprite[] chatButtons;
 
 	Client() {
+		subscribeVarps();
 		firstLoginMessage = "";
 		xpAddedPos = expAdded = 0;
 		xpLock = false;
@@ -19151,6 +19170,11 @@ public class Client extends RSApplet {
 	private int[][] anIntArrayArray825;
 	private int[] friendsNodeIDs;
 	private NodeList[][][] groundItems;
+	private final GroundItemIndex groundItemIndex = new GroundItemIndex();
+	private final VarpDispatcher varpDispatcher = new VarpDispatcher();
+	private final ScriptCache scriptCache = new ScriptCache(this::readScriptInput);
+	private static final String[] VALUE_PLACEHOLDERS = { "%1", "%2", "%3", "%4", "%5" };
+	private final int[] substitutedValues = new int[VALUE_PLACEHOLDERS.length];
 	private int[] anIntArray828;
 	private int[] anIntArray829;
 	private volatile boolean aBoolean831;
@@ -19365,6 +19389,7 @@ public class Client extends RSApplet {
 	private int mouseInvInterfaceIndex;
 	private int lastActiveInvInterface;
 	public OnDemandFetcher onDemandFetcher;
+	private OnDemandDecoder onDemandDecoder;
 	private int currentRegionX;
 	private int currentRegionY;
 	private int mapIconAmount;
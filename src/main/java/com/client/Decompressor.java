@@ -1,6 +1,9 @@
 package com.client;
 
 import java.io.*;
+import java.util.concurrent.locks.Lock;
+
+import com.client.cache.MappedCacheStore;
 
 // https://www.rune-server.ee/runescape-development/rs2-server/informative-threads/534604-explanation-simplification-runescape-cache.html
 final class Decompressor {
@@ -31,10 +34,38 @@ final class Decompressor {
 	private final RandomAccessFile indexFile;
 	private final int fileType;
 
+	/**
+	 * Mapped view used for reads, null when the cache could not be mapped.
+	 */
+	private final MappedCacheStore store;
+
 	public Decompressor(RandomAccessFile dataFile, RandomAccessFile indexFile, int fileTye) {
+		this(dataFile, indexFile, fileTye, null);
+	}
+
+	public Decompressor(RandomAccessFile dataFile, RandomAccessFile indexFile, int fileTye, MappedCacheStore store) {
 		fileType = fileTye;
 		this.dataFile = dataFile;
 		this.indexFile = indexFile;
+		this.store = store;
+	}
+
+	/**
+	 * Read a file, through the {@link MappedCacheStore} when available so the sectors are copied out
+	 * of the mapping rather than read with a seek and a system call each, otherwise through
+	 * {@link #readFromFile(int)}.
+	 *
+	 * Mapped reads of every index share the store's read lock, and only wait for {@link #write}, which
+	 * takes its write lock.
+	 *
+	 * @param fileId The file id.
+	 * @return the file data.
+	 */
+	public byte[] read(int fileId) {
+		if (store != null) {
+			return store.read(fileType - 1, fileId, fileType);
+		}
+		return readFromFile(fileId);
 	}
 
 
@@ -45,10 +76,18 @@ final class Decompressor {
 	 * sector id where this file begins. It then begins reading the data file in 520 byte sectors. The sectors
 	 * contains 8 bytes of header data first (fileId, chunkId, sectorId, typeId) then 512 bytes of file data.
 	 *
+	 * All decompressors share the data file and the static buffer, so this locks on the data file.
+	 *
 	 * @param fileId The file id.
 	 * @return the file data.
 	 */
-	public synchronized byte[] read(int fileId) {
+	private byte[] readFromFile(int fileId) {
+		synchronized (dataFile) {
+			return readLocked(fileId);
+		}
+	}
+
+	private byte[] readLocked(int fileId) {
 		try {
 			seekTo(indexFile, fileId * INDEX_SIZE); // Seek index file to position of file data
 			int read;
@@ -116,14 +155,31 @@ final class Decompressor {
 		}
 	}
 
-	public synchronized boolean write(int fileSize, byte[] data, int fileId) {
-		boolean flag = write(true, fileId, fileSize, data); // Attempt to overwrite existing index
-		if (!flag)
-			flag = write(false, fileId, fileSize, data); // Existing index doesn't exist, add a new index
-		return flag;
+	/**
+	 * Append path for files received from the update server. Writes lock on the shared data file so
+	 * concurrent writers to different indices can't interleave seeks, and hold the mapped store's write
+	 * lock so readers don't see a file until it is fully written.
+	 */
+	public boolean write(int fileSize, byte[] data, int fileId) {
+		synchronized (dataFile) {
+			Lock writeLock = store != null ? store.getWriteLock() : null;
+			if (writeLock != null) {
+				writeLock.lock();
+			}
+			try {
+				boolean flag = write(true, fileId, fileSize, data); // Attempt to overwrite existing index
+				if (!flag)
+					flag = write(false, fileId, fileSize, data); // Existing index doesn't exist, add a new index
+				return flag;
+			} finally {
+				if (writeLock != null) {
+					writeLock.unlock();
+				}
+			}
+		}
 	}
 
-	private synchronized boolean write(boolean overwrite, int fileId, int fileSize, byte[] data) {
+	private boolean write(boolean overwrite, int fileId, int fileSize, byte[] data) {
 		try {
 			int firstSectorId;
 			if (overwrite) {
@@ -246,7 +302,7 @@ final class Decompressor {
 		}
 	}
 
-	private synchronized void seekTo(RandomAccessFile randomaccessfile, int j) {
+	private void seekTo(RandomAccessFile randomaccessfile, int j) {
 		try {
 			randomaccessfile.seek(j);
 		} catch(Exception e) {
@@ -245,6 +245,8 @@ public class Entity extends Renderable {
 	public int x;
 	public int y;
 	int target_direction;
+	int lastFrameSound = -1;
+	int lastFrameSoundCycle;
 	final byte[] aBooleanArray1553;
 	int walkanim;
 	int walkanim_b;
@@ -11,6 +11,7 @@ public final class GraphicsBuffer {
 	public final int canvasHeight;
 	public BufferedImage bufferedImage;
 	public final float[] depthBuffer;
+	private final Upscaler upscaler = new Upscaler();
 
 	public void resetDepthBuffer() {
 		if (this.depthBuffer == null) {
@@ -45,24 +46,18 @@ public final class GraphicsBuffer {
 
 	public void drawGraphics(int x, Graphics graphics, int y) {
 	    if (Client.stretched && Client.instance != null && Client.instance.isStretchedEnabled()) {
-	        Graphics2D g2d = (Graphics2D) graphics;
-	        
 	        Point2D.Double scale = RSImageProducer.getStretchScale();
 	        int scaledWidth = (int)(this.canvasWidth * scale.getX());
 	        int scaledHeight = (int)(this.canvasHeight * scale.getY());
 	        
-	        // Always use fastest rendering for performance
-	        if (Client.instance.isStretchedFast()) {
-	            // Nearest neighbor - fastest, pixelated look
-	            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-	            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
-	        } else {
-	            // Bilinear - balanced quality and speed
-	            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-	            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+	        if (scaledWidth == this.canvasWidth && scaledHeight == this.canvasHeight) {
+	            graphics.drawImage(this.bufferedImage, y, x, null);
+	            return;
 	        }
 	        
-	        g2d.drawImage(this.bufferedImage, y, x, scaledWidth, scaledHeight, null);
+	        // Nearest neighbor when fast stretching is on, bilinear otherwise
+	        graphics.drawImage(this.upscaler.scale(this.canvasRaster, this.canvasWidth, this.canvasHeight,
+	                scaledWidth, scaledHeight, !Client.instance.isStretchedFast()), y, x, null);
 	    } else {
 	        graphics.drawImage(this.bufferedImage, y, x, null);
 	    }
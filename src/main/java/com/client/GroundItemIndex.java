@@ -0,0 +1,145 @@
+package com.client;
+
+import java.util.Arrays;
+
+import com.client.definitions.ItemDefinition;
+
+/**
+ * The tiles of the loaded region that have ground items on them, per plane.
+ *
+ * Lets the minimap and the ground item overlay visit just the occupied tiles instead of all
+ * 104x104 of them. Each occupied tile also keeps a summary of its pile, the amount and value of
+ * every item id on it, which is only worked out again once the tile has changed.
+ */
+final class GroundItemIndex {
+
+	private static final int SIZE = 104;
+
+	private final int[][] tiles = new int[4][SIZE * SIZE];
+	private final int[] counts = new int[4];
+	/**
+	 * Where each tile is in {@link #tiles}, -1 if it has no items.
+	 */
+	private final int[][] positions = new int[4][SIZE * SIZE];
+	private final Pile[][] piles = new Pile[4][SIZE * SIZE];
+
+	GroundItemIndex() {
+		for (int plane = 0; plane < 4; plane++) {
+			Arrays.fill(positions[plane], -1);
+		}
+	}
+
+	/**
+	 * @return the number of occupied tiles on the plane.
+	 */
+	int count(int plane) {
+		return counts[plane];
+	}
+
+	int tileX(int plane, int index) {
+		return tiles[plane][index] / SIZE;
+	}
+
+	int tileY(int plane, int index) {
+		return tiles[plane][index] % SIZE;
+	}
+
+	/**
+	 * Records that the items on a tile changed.
+	 *
+	 * @param items the tile's items now, null if there are none.
+	 */
+	void update(int plane, int x, int y, NodeList items) {
+		int tile = x * SIZE + y;
+		int position = positions[plane][tile];
+		if (items != null && items.reverseGetFirst() != null) {
+			if (position == -1) {
+				positions[plane][tile] = counts[plane];
+				tiles[plane][counts[plane]++] = tile;
+			}
+			if (piles[plane][tile] != null) {
+				piles[plane][tile].stale = true;
+			}
+		} else if (position != -1) {
+			int last = tiles[plane][--counts[plane]];
+			tiles[plane][position] = last;
+			positions[plane][last] = position;
+			positions[plane][tile] = -1;
+			piles[plane][tile] = null;
+		}
+	}
+
+	/**
+	 * Indexes the ground items from scratch, after they've been cleared or moved as a whole.
+	 */
+	void rebuild(NodeList[][][] groundItems) {
+		for (int plane = 0; plane < 4; plane++) {
+			counts[plane] = 0;
+			Arrays.fill(positions[plane], -1);
+			Arrays.fill(piles[plane], null);
+			for (int x = 0; x < SIZE; x++) {
+				for (int y = 0; y < SIZE; y++) {
+					update(plane, x, y, groundItems == null ? null : groundItems[plane][x][y]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the summary of the items on an occupied tile.
+	 */
+	Pile pile(int plane, int x, int y, NodeList items) {
+		int tile = x * SIZE + y;
+		Pile pile = piles[plane][tile];
+		if (pile == null) {
+			pile = piles[plane][tile] = new Pile();
+			pile.stale = true;
+		}
+		if (pile.stale) {
+			pile.summarize(items);
+		}
+		return pile;
+	}
+
+	/**
+	 * The items on one tile, with the stacks of each item id added together in the order they're
+	 * first found.
+	 */
+	static final class Pile {
+		int count;
+		int[] ids = new int[4];
+		long[] amounts = new long[4];
+		/**
+		 * The amount times the item's value.
+		 */
+		long[] values = new long[4];
+		long totalValue;
+		private boolean stale;
+
+		private void summarize(NodeList items) {
+			count = 0;
+			totalValue = 0;
+			for (Item item = (Item) items.getFirst(); item != null; item = (Item) items.getNext()) {
+				int index = 0;
+				while (index < count && ids[index] != item.ID)
+					index++;
+				if (index == count) {
+					if (count == ids.length) {
+						ids = Arrays.copyOf(ids, count * 2);
+						amounts = Arrays.copyOf(amounts, count * 2);
+						values = Arrays.copyOf(values, count * 2);
+					}
+					ids[count] = item.ID;
+					amounts[count] = 0;
+					count++;
+				}
+				amounts[index] += item.anInt1559;
+			}
+			for (int index = 0; index < count; index++) {
+				values[index] = (long) ItemDefinition.forID(ids[index]).value * amounts[index];
+				totalValue += values[index];
+			}
+			stale = false;
+		}
+	}
+}
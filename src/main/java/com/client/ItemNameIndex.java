@@ -0,0 +1,159 @@
+package com.client;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.client.definitions.ItemDefinition;
+
+/**
+ * Name index over the item table used by {@link ItemSearch}, so a search doesn't have to decode
+ * every item through {@link ItemDefinition#forID(int)}.
+ *
+ * Lower-cased names are kept per item id together with a trigram index: for every three-character
+ * sequence in a name the sorted ids of the items containing it. A substring query of three or more
+ * characters only verifies the items on the shortest posting list of its trigrams; shorter queries
+ * and prefix queries scan the name table. The search filters are precomputed bitsets.
+ */
+final class ItemNameIndex {
+
+	private static ItemNameIndex instance;
+
+	private final String[] names;
+	private final BitSet searchable;
+	private final BitSet swapNotes;
+	private final Map<Long, int[]> trigrams;
+
+	private ItemNameIndex(String[] names, BitSet searchable, BitSet swapNotes, Map<Long, int[]> trigrams) {
+		this.names = names;
+		this.searchable = searchable;
+		this.swapNotes = swapNotes;
+		this.trigrams = trigrams;
+	}
+
+	/**
+	 * Builds the index, called at start up once {@link ItemDefinition#unpackConfig} has run.
+	 */
+	static void load() {
+		instance = build();
+	}
+
+	/**
+	 * @return the index built by {@link #load}.
+	 */
+	static ItemNameIndex get() {
+		return instance;
+	}
+
+	private static ItemNameIndex build() {
+		int totalItems = ItemDefinition.totalItems;
+		String[] names = new String[totalItems];
+		BitSet searchable = new BitSet(totalItems);
+		BitSet swapNotes = new BitSet(totalItems);
+		Map<Long, IntList> postings = new HashMap<>();
+		for (int itemId = 0; itemId < totalItems; itemId++) {
+			ItemDefinition definition = ItemDefinition.forID(itemId);
+			if (definition == null) {
+				continue;
+			}
+			if (definition.searchable) {
+				searchable.set(itemId);
+			}
+			if (definition.stackable && definition.description != null
+					&& definition.description.startsWith("Swap this note")) {
+				swapNotes.set(itemId);
+			}
+			if (definition.name == null) {
+				continue;
+			}
+			String name = definition.name.toLowerCase();
+			names[itemId] = name;
+			for (int i = 0; i + 3 <= name.length(); i++) {
+				IntList ids = postings.computeIfAbsent(trigram(name, i), key -> new IntList());
+				// Ids are visited in order, so repeated trigrams within one name land at the end
+				if (ids.size == 0 || ids.values[ids.size - 1] != itemId) {
+					ids.add(itemId);
+				}
+			}
+		}
+		Map<Long, int[]> trigrams = new HashMap<>(postings.size() * 2);
+		for (Map.Entry<Long, IntList> entry : postings.entrySet()) {
+			trigrams.put(entry.getKey(), entry.getValue().toArray());
+		}
+		return new ItemNameIndex(names, searchable, swapNotes, trigrams);
+	}
+
+	/**
+	 * Finds items whose name contains (or starts with) the query, in item id order.
+	 *
+	 * @param query           the text to look for, case-insensitive.
+	 * @param prefix          only match names starting with the query.
+	 * @param hideUntradables only return items flagged as searchable, otherwise everything but
+	 *                        the "swap this note" placeholders.
+	 * @param out             receives the matching ids.
+	 * @return the number of ids written to {@code out}.
+	 */
+	int search(String query, boolean prefix, boolean hideUntradables, int[] out) {
+		String needle = query.toLowerCase();
+		int found = 0;
+		if (prefix || needle.length() < 3) {
+			for (int itemId = 0; itemId < names.length && found < out.length; itemId++) {
+				if (accept(itemId, needle, prefix, hideUntradables)) {
+					out[found++] = itemId;
+				}
+			}
+			return found;
+		}
+		int[] candidates = null;
+		for (int i = 0; i + 3 <= needle.length(); i++) {
+			int[] ids = trigrams.get(trigram(needle, i));
+			if (ids == null) {
+				return 0;
+			}
+			if (candidates == null || ids.length < candidates.length) {
+				candidates = ids;
+			}
+		}
+		for (int i = 0; i < candidates.length && found < out.length; i++) {
+			if (accept(candidates[i], needle, false, hideUntradables)) {
+				out[found++] = candidates[i];
+			}
+		}
+		return found;
+	}
+
+	private boolean accept(int itemId, String needle, boolean prefix, boolean hideUntradables) {
+		String name = names[itemId];
+		if (name == null) {
+			return false;
+		}
+		if (hideUntradables ? !searchable.get(itemId) : swapNotes.get(itemId)) {
+			return false;
+		}
+		return prefix ? name.startsWith(needle) : name.contains(needle);
+	}
+
+	private static long trigram(String text, int offset) {
+		return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+	}
+
+	private static final class IntList {
+		private int[] values = new int[4];
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				int[] grown = new int[size * 2];
+				System.arraycopy(values, 0, grown, 0, size);
+				values = grown;
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			int[] array = new int[size];
+			System.arraycopy(values, 0, array, 0, size);
+			return array;
+		}
+	}
+}
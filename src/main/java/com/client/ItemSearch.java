@@ -1,9 +1,5 @@
 package com.client;
 
-import java.util.Arrays;
-
-import com.client.definitions.ItemDefinition;
-
 public class ItemSearch {
 	
 	private String itemSearchName;
@@ -25,42 +21,13 @@ public class ItemSearch {
 	
 	public int[] searchForName() {
 		int[] items = new int[itemRange];
-		int position = 0;
-		for (int itemId = 0; itemId < ItemDefinition.totalItems; itemId++) {
-			ItemDefinition itemDefinitions = ItemDefinition.forID(itemId);
-			if(position >= items.length)
-				break;
-			
-			if(itemDefinitions == null)
-				continue;
-			
-			if(hideUntradables) {
-				if(!itemDefinitions.searchable)
-					continue;
-
-			} else {
-				if (itemDefinitions.stackable)
-    				if (itemDefinitions.description != null)
-    					if(itemDefinitions.description.startsWith("Swap this note"))
-    						continue;
-
-			}
-				
-    		String itemName = itemDefinitions.name;
-    		
-    		if(itemName == null)
-    			continue;
-    		
-    		if(itemName.toLowerCase().contains(itemSearchName.toLowerCase())) {
-    			if(Arrays.binarySearch(items, itemId) >= 0)
-    				continue;
-    			items[position] = itemId;
-    			position++;
-    			itemSearchResultAmount++;
-    		}
-		}
+		itemSearchResultAmount = ItemNameIndex.get().search(itemSearchName, false, hideUntradables, items);
 		return items;
 	}
+
+	public boolean isSearchFor(String name, boolean hideUntradables) {
+		return itemSearchName.equals(name) && this.hideUntradables == hideUntradables;
+	}
 	
 	public int[] getItemSearchResults() {
 		return itemSearchResults;
@@ -0,0 +1,95 @@
+package com.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes the map squares of a region in parallel for {@link Client#loadRegion()}.
+ *
+ * Each 64x64 square's terrain only touches its own window of the {@link ObjectManager} tile arrays
+ * and collision maps, so squares are read straight into those on the worker pool. Objects are only
+ * read into a staging buffer per square; adding them to the scene and collision maps happens in
+ * {@link #placeObjects} on the game thread, square by square in the original order.
+ */
+final class MapRegionDecoder {
+
+	private static final int THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+	private static final ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+		Thread thread = new Thread(r, "MapRegionDecoder-" + threadCounter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private ObjectManager.ObjectStaging[] staging = new ObjectManager.ObjectStaging[0];
+	private final List<Future<?>> tasks = new ArrayList<>();
+	private int squares;
+
+	/**
+	 * Reads the terrain of every square into the region and stages its objects.
+	 *
+	 * @param regionX the absolute x of the region's first tile, used for procedural heights.
+	 * @param regionY the absolute y of the region's first tile.
+	 */
+	void decode(ObjectManager region, byte[][] terrainData, byte[][] objectData, int[] mapCoordinates, int baseX,
+			int baseY, int regionX, int regionY, CollisionMap[] collisionMaps) {
+		squares = mapCoordinates.length;
+		if (staging.length < squares) {
+			ObjectManager.ObjectStaging[] grown = new ObjectManager.ObjectStaging[squares];
+			System.arraycopy(staging, 0, grown, 0, staging.length);
+			for (int square = staging.length; square < squares; square++) {
+				grown[square] = new ObjectManager.ObjectStaging();
+			}
+			staging = grown;
+		}
+		for (int square = 1; square < squares; square++) {
+			final int index = square;
+			tasks.add(pool.submit(() -> decodeSquare(region, terrainData, objectData, mapCoordinates, baseX, baseY,
+					regionX, regionY, collisionMaps, index)));
+		}
+		if (squares > 0) {
+			decodeSquare(region, terrainData, objectData, mapCoordinates, baseX, baseY, regionX, regionY,
+					collisionMaps, 0);
+		}
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		tasks.clear();
+	}
+
+	/**
+	 * Adds the staged objects of every square to the scene, on the game thread.
+	 */
+	void placeObjects(ObjectManager region, CollisionMap[] collisionMaps, WorldController scene) {
+		for (int square = 0; square < squares; square++) {
+			region.placeObjects(staging[square], collisionMaps, scene);
+			staging[square].count = 0;
+		}
+	}
+
+	private void decodeSquare(ObjectManager region, byte[][] terrainData, byte[][] objectData, int[] mapCoordinates,
+			int baseX, int baseY, int regionX, int regionY, CollisionMap[] collisionMaps, int square) {
+		int x = (mapCoordinates[square] >> 8) * 64 - baseX;
+		int y = (mapCoordinates[square] & 0xff) * 64 - baseY;
+		staging[square].count = 0;
+		if (terrainData[square] != null) {
+			region.method180(terrainData[square], y, x, regionX, regionY, collisionMaps);
+		}
+		if (objectData[square] != null) {
+			try {
+				ObjectManager.stageObjects(objectData[square], x, y, staging[square]);
+			} catch (RuntimeException e) {
+				// Keep the objects read before the error, the rest of the square is lost either way
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -1,16 +1,15 @@
 package com.client;
 
 import com.client.definitions.AnimationDefinition;
-import com.client.model.rt7_anims.AnimationBone;
 import com.client.model.rt7_anims.AnimationKeyFrame;
 import com.client.model.rt7_anims.AnimKeyFrameSet;
 import com.client.model.rt7_anims.SkeletalAnimBase;
-import com.jagex.jagex3.math.Matrix4f;
+import com.client.model.rt7_anims.SkinningPalette;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.IntStream;
 
 
 public class Model extends Renderable {
@@ -19,6 +18,7 @@ public class Model extends Renderable {
 
     public static void clear() {
         modelHeaders = null;
+        decodedModels.clear();
         hasAnEdgeToRestrict = null;
         outOfReach = null;
         vertexScreenY = null;
@@ -39,15 +39,34 @@ public class Model extends Renderable {
         modelLocations = null;
     }
 
-    public final int[] models662 = {60157,60158,60159,60160,60156,60154,60155,60153,60152,60148,60149,60150,60151,60147,60146,64093,60130,60131,60132,60133,60134,60135,60136,60137,60138,60139,60140,60141,60142,60143,60144,64985,63065,61393,62398,63389,63609,64952,64955,64995,64956,62115,64199,62744,61776,64813,59609,59612,62302,60980,63999,59150,63615,63050,65258,63230,63231,65233,65234,65235,65236,65237,65238,65239,65240,65241,63559,65242,65243,65244,65245,65246,63252,63253,63254,60599,62792,61183,61185,63119,61275,61276,61190,61187,60281,63991,61182,61828,61528,61539,63119,61276,61187,62753,62730,61182,61275,61185,60281,61278,61279,61182,61183,61184,61181,61280,65991,69828,69528,69539,65753,65730,64116,62138,62125,61287,61281,60672,60575,60574,60562,60561,60563,64091,64092,59811,59810,59809,60777,60776,65278,65231,65232,58550,58559,58555,59995,61558,60959,64890,62302,59610,63610,63608,59859,60301,61011,51847,63604,44733,59808,58905,65705,66259,66260,67800,61059,59988,63999,61181,53166,65544,65539,65449,65444,
+    private static final int[] models662 = {60157,60158,60159,60160,60156,60154,60155,60153,60152,60148,60149,60150,60151,60147,60146,64093,60130,60131,60132,60133,60134,60135,60136,60137,60138,60139,60140,60141,60142,60143,60144,64985,63065,61393,62398,63389,63609,64952,64955,64995,64956,62115,64199,62744,61776,64813,59609,59612,62302,60980,63999,59150,63615,63050,65258,63230,63231,65233,65234,65235,65236,65237,65238,65239,65240,65241,63559,65242,65243,65244,65245,65246,63252,63253,63254,60599,62792,61183,61185,63119,61275,61276,61190,61187,60281,63991,61182,61828,61528,61539,63119,61276,61187,62753,62730,61182,61275,61185,60281,61278,61279,61182,61183,61184,61181,61280,65991,69828,69528,69539,65753,65730,64116,62138,62125,61287,61281,60672,60575,60574,60562,60561,60563,64091,64092,59811,59810,59809,60777,60776,65278,65231,65232,58550,58559,58555,59995,61558,60959,64890,62302,59610,63610,63608,59859,60301,61011,51847,63604,44733,59808,58905,65705,66259,66260,67800,61059,59988,63999,61181,53166,65544,65539,65449,65444,
             65442,65335,61008,55594,65519,29981,10430,45248,45262,44613,65342,51285,51848,62736,62704,62742,56294,40939,
             46700,51285,51852,52948,55404,59860,59861,59988,60377,60639,62231,62693,62733,62739,62741,62744,62900,62901,
             62902,62905,63335,23892
     };
 
-    public final int[] resizeModels = {60157,60158,60159,60160,60156,60154,60155,60153,60152,60148,60149,60150,60151,60147,60146,60145,64093,60130,60131,60132,60133,60134,60135,60136,60137,60138,60139,60140,60141,60142,60143,60144,61393,62398,63389,62115,64199,61776,62730,61183,63119,61190,61187,61275,61276,61185,60281,61182,61184,61279,61181,61828,63991,61528,61539,64116,62753,62138,65753,61287,61281,62125,60672,60574,60575,60561,60562,60563,64091,64092,59811,59810,59809,59610,59808,55594,62710,62736,62744,40939,62741,62739,62693,62695,62736,62748,62742,56294,
+    private static final int[] resizeModels = {60157,60158,60159,60160,60156,60154,60155,60153,60152,60148,60149,60150,60151,60147,60146,60145,64093,60130,60131,60132,60133,60134,60135,60136,60137,60138,60139,60140,60141,60142,60143,60144,61393,62398,63389,62115,64199,61776,62730,61183,63119,61190,61187,61275,61276,61185,60281,61182,61184,61279,61181,61828,63991,61528,61539,64116,62753,62138,65753,61287,61281,62125,60672,60574,60575,60561,60562,60563,64091,64092,59811,59810,59809,59610,59808,55594,62710,62736,62744,40939,62741,62739,62693,62695,62736,62748,62742,56294,
             62709,62704,62700,30476,10430,65519
     };
+    /**
+     * Lookup sets for {@link #models662} and {@link #resizeModels}, so decoding doesn't scan the arrays.
+     */
+    private static final BitSet MODELS_662 = toBitSet(models662);
+    private static final BitSet RESIZE_MODELS = toBitSet(resizeModels);
+
+    private static BitSet toBitSet(int[] ids) {
+        BitSet set = new BitSet();
+        for (int id : ids) {
+            set.set(id);
+        }
+        return set;
+    }
+
+    /**
+     * Decoded base models, see {@link #getModel(int)}.
+     */
+    private static final ModelCache decodedModels = new ModelCache(ModelCache.DEFAULT_BUDGET);
+
     public static final int LOCAL_COORD_BITS = 7;
     public static final int LOCAL_TILE_SIZE = 1 << LOCAL_COORD_BITS; // 128 - size of a tile in local coordinates
     public static final int LOCAL_HALF_TILE_SIZE = LOCAL_TILE_SIZE / 2;
@@ -64,7 +83,7 @@ public class Model extends Renderable {
             ModelLoader.decodeType3(this, data);
         } else if (data[data.length - 1] == -2 && data[data.length - 2] == -1) {
             ModelLoader.decodeType2(this, data);
-        } else if (IntStream.of(models662).anyMatch(x -> x == modelId)) {
+        } else if (MODELS_662.get(modelId)) {
             if (data[data.length - 1] == -1 && data[data.length - 2] == -1) {
                 decode662(data, modelId);
             } else {
@@ -78,7 +97,7 @@ public class Model extends Renderable {
             ModelLoader.decodeOldFormat(this, data);
         }
 
-        if (IntStream.of(resizeModels).anyMatch(x -> x == modelId)) {
+        if (RESIZE_MODELS.get(modelId)) {
             scale(4);
             if (renderPriorities != null) {
                 Arrays.fill(renderPriorities, (byte) 10);
@@ -88,16 +107,24 @@ public class Model extends Renderable {
 
     }
     public static void loadModel(final byte[] modelData, final int modelId) {
+        loadModel(decodeHeader(modelData), modelId);
+    }
+
+    /**
+     * Parses the header of a model file without publishing it, so it can run off the game thread.
+     * The result is published through {@link #loadModel(ModelHeader, int)}.
+     */
+    static ModelHeader decodeHeader(final byte[] modelData) {
         if (modelData == null) {
-            final ModelHeader modelHeader = modelHeaders[modelId] = new ModelHeader();
+            final ModelHeader modelHeader = new ModelHeader();
             modelHeader.vertexCount = 0;
             modelHeader.triangleCount = 0;
             modelHeader.texturedTriangleCount = 0;
-            return;
+            return modelHeader;
         }
         final Buffer stream = new Buffer(modelData);
         stream.currentOffset = modelData.length - 18;
-        final ModelHeader modelHeader = modelHeaders[modelId] = new ModelHeader();
+        final ModelHeader modelHeader = new ModelHeader();
         modelHeader.data = modelData;
         modelHeader.vertexCount = stream.readUShort();
         modelHeader.triangleCount = stream.readUShort();
@@ -158,6 +185,12 @@ public class Model extends Renderable {
         offset += dataLengthY;
         modelHeader.dataOffsetZ = offset;
         offset += dataLengthZ;
+        return modelHeader;
+    }
+
+    static void loadModel(final ModelHeader modelHeader, final int modelId) {
+        modelHeaders[modelId] = modelHeader;
+        decodedModels.remove(modelId);
     }
 
     public static void init() {
@@ -166,6 +199,7 @@ public class Model extends Renderable {
 
     public static void resetModel(final int model) {
         modelHeaders[model] = null;
+        decodedModels.remove(model);
     }
     public static Model getModel(int file) {
         if (modelHeaders == null) {
@@ -185,9 +219,63 @@ public class Model extends Renderable {
             // DON'T check immediately - the fetcher needs time to load
             // Just return null and let the game try again next frame
             return null;
-        } else {
-            return new Model(file);
         }
+        Model base = decodedModels.get(file);
+        if (base == null) {
+            base = new Model(file);
+            decodedModels.put(file, base);
+        }
+        return base.sharedGeometryCopy();
+    }
+
+    /**
+     * @return the cache of decoded base models, for its hit and miss counts.
+     */
+    static ModelCache getDecodedModels() {
+        return decodedModels;
+    }
+
+    /**
+     * Copies a cached base model for a caller of {@link #getModel(int)}. Topology, labels, priorities and
+     * texture mapping are shared with the base; the arrays callers modify in place (vertices, colours,
+     * materials, alphas and draw types) are duplicated.
+     */
+    private Model sharedGeometryCopy() {
+        Model model = new Model();
+        model.singleTile = singleTile;
+        model.xMidOffset = xMidOffset;
+        model.yMidOffset = yMidOffset;
+        model.zMidOffset = zMidOffset;
+        model.vertex_count = vertex_count;
+        model.face_count = face_count;
+        model.texture_count = texture_count;
+        model.facePriority = facePriority;
+        model.verticesX = copy(verticesX);
+        model.verticesY = copy(verticesY);
+        model.verticesZ = copy(verticesZ);
+        model.colors = colors == null ? null : colors.clone();
+        model.materials = materials == null ? null : materials.clone();
+        model.face_alphas = face_alphas == null ? null : face_alphas.clone();
+        model.drawType = copy(drawType);
+        model.trianglesX = trianglesX;
+        model.trianglesY = trianglesY;
+        model.trianglesZ = trianglesZ;
+        model.renderPriorities = renderPriorities;
+        model.textures = textures;
+        model.texture_mapping_type = texture_mapping_type;
+        model.textures_mapping_p = textures_mapping_p;
+        model.textures_mapping_m = textures_mapping_m;
+        model.textures_mapping_n = textures_mapping_n;
+        model.vertex_labels = vertex_labels;
+        model.face_labels = face_labels;
+        model.vertex_bone_origins = vertex_bone_origins;
+        model.vertex_bone_scales = vertex_bone_scales;
+        model.skinning_palette = skinning_palette();
+        return model;
+    }
+
+    private static int[] copy(int[] array) {
+        return array == null ? null : array.clone();
     }
 
     public static boolean isCached(int file) {
@@ -785,6 +873,7 @@ public class Model extends Renderable {
         shared_normals = model.shared_normals;
         vertex_bone_scales = model.vertex_bone_scales;
         vertex_bone_origins = model.vertex_bone_origins;
+        skinning_palette = model.skinning_palette();
     }
 
 
@@ -845,6 +934,7 @@ public class Model extends Renderable {
         materials = model.materials;
         vertex_bone_origins = model.vertex_bone_origins;
         vertex_bone_scales = model.vertex_bone_scales;
+        skinning_palette = model.skinning_palette();
         diagonal2DAboveOrigin = model.diagonal2DAboveOrigin;
         diagonal3DAboveOrigin = model.diagonal3DAboveOrigin;
         diagonal3D = model.diagonal3D;
@@ -995,6 +1085,7 @@ public class Model extends Renderable {
         materials = model.materials;
         vertex_bone_origins = model.vertex_bone_origins;
         vertex_bone_scales = model.vertex_bone_scales;
+        skinning_palette = model.skinning_palette();
         shared_normals = model.shared_normals;
 
         vertexNormalsX = model.vertexNormalsX;
@@ -1467,39 +1558,24 @@ public class Model extends Renderable {
         invalidate();
     }
     void apply_skeletalanim_transformation(SkeletalAnimBase skeleton, int keyframe) {
-        if (this.vertex_bone_origins != null) {
-            for(int vertex = 0; vertex < this.vertex_count; ++vertex) {
-                int[] origin_bones = this.vertex_bone_origins[vertex];
-                if (origin_bones != null && origin_bones.length != 0) {
-                    int[] vertex_scale = this.vertex_bone_scales[vertex];
-                    total_skeletal_transforms.set_zero();
-
-                    for(int var6 = 0; var6 < origin_bones.length; ++var6) {
-                        int bone_index = origin_bones[var6];
-                        AnimationBone bone = skeleton.get_bone(bone_index);
-                        if (bone != null) {
-                            skeletal_scale_matrix.set_scale((float)vertex_scale[var6] / 255.0F);
-                            skeletal_transform_matrix.set(bone.get_skinning(keyframe));
-                            skeletal_transform_matrix.mul(skeletal_scale_matrix);
-                            total_skeletal_transforms.add(skeletal_transform_matrix);
-                        }
-                    }
-
-                    this.apply_skeletal_transformation_matrix_to_model(vertex, total_skeletal_transforms);
-                }
-            }
-
+        SkinningPalette palette = this.skinning_palette();
+        if (palette != null) {
+            palette.apply(skeleton, keyframe, this.verticesX, this.verticesY, this.verticesZ);
         }
     }
 
-    void apply_skeletal_transformation_matrix_to_model(int vertex, Matrix4f matrix) {
-        float vec_x = (float)this.verticesX[vertex];
-        float vec_y = (float)(-this.verticesY[vertex]);
-        float vec_z = (float)(-this.verticesZ[vertex]);
-        float vec_w = 1.0F;
-        this.verticesX[vertex] = (int)(matrix.values[0] * vec_x + matrix.values[4] * vec_y + matrix.values[8] * vec_z + matrix.values[12] * vec_w);
-        this.verticesY[vertex] = -((int)(matrix.values[1] * vec_x + matrix.values[5] * vec_y + matrix.values[9] * vec_z + matrix.values[13] * vec_w));
-        this.verticesZ[vertex] = -((int)(matrix.values[2] * vec_x + matrix.values[6] * vec_y + matrix.values[10] * vec_z + matrix.values[14] * vec_w));
+    /**
+     * @return the vertices grouped by their bones and weights, built the first time it's needed and
+     *         shared with copies of the model.
+     */
+    SkinningPalette skinning_palette() {
+        if (this.vertex_bone_origins == null) {
+            return null;
+        }
+        if (this.skinning_palette == null || !this.skinning_palette.matches(this.vertex_bone_origins, this.vertex_count)) {
+            this.skinning_palette = SkinningPalette.build(this.vertex_bone_origins, this.vertex_bone_scales, this.vertex_count);
+        }
+        return this.skinning_palette;
     }
 
     void apply_skeletalanim_transparency(AnimKeyFrameSet keyframes, int keyframe) {
@@ -1757,6 +1833,10 @@ public class Model extends Renderable {
             verticesZ[vertex] = -verticesZ[vertex];
         }
 
+        // Triangles may be shared with the cached base model, see getModel
+        trianglesX = trianglesX.clone();
+        trianglesZ = trianglesZ.clone();
+
         for (int triangle = 0; triangle < face_count; triangle++) {
             final int newTriangleC = trianglesX[triangle];
             trianglesX[triangle] = trianglesZ[triangle];
@@ -2018,6 +2098,7 @@ public class Model extends Renderable {
         model.materials = this.materials;
         model.vertex_bone_origins = this.vertex_bone_origins;
         model.vertex_bone_scales = this.vertex_bone_scales;
+        model.skinning_palette = this.skinning_palette();
         this.colorsX = model.colorsX;
         this.colorsY = model.colorsY;
         this.colorsZ = model.colorsZ;
@@ -2225,7 +2306,7 @@ public class Model extends Renderable {
         }
 
         try {
-            this.withinObject(false, false, 0L);
+            this.withinObject(false);
         } catch (final Exception ex) {
             ex.printStackTrace();
         }
@@ -2435,7 +2516,7 @@ public class Model extends Renderable {
             }
             if (withinBounds) {
                 if (this.singleTile) {
-                    hoveringObjects[objectsHovering++] = uid;
+                    addHovering(uid);
                 } else {
                     highlighted = true;
                 }
@@ -2483,8 +2564,11 @@ public class Model extends Renderable {
                 vertexMovedZ[index] = positionZ;
             }
         }
+        if (highlighted && diagonal3D < 6000 && trianglesNearCursor(5)) {
+            addHovering(uid);
+        }
         try {
-                withinObject(var25, highlighted, uid);
+                withinObject(var25);
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -2510,14 +2594,51 @@ public class Model extends Renderable {
         }
     }
 
-    final void withinObject(boolean var25, boolean highlighted, long uid) {
+    /**
+     * @return whether a drawn triangle of the model comes within {@code size} pixels of the cursor,
+     *         going by the screen positions of its last projection.
+     */
+    private boolean trianglesNearCursor(int size) {
+        for (int currentTriangle = 0; currentTriangle < this.face_count; ++currentTriangle) {
+            if (this.colorsZ[currentTriangle] == -2) {
+                continue;
+            }
+            int triX = this.trianglesX[currentTriangle];
+            int triY = this.trianglesY[currentTriangle];
+            int triZ = this.trianglesZ[currentTriangle];
+            int screenXX = vertexScreenX[triX];
+            int screenXY = vertexScreenX[triY];
+            int screenXZ = vertexScreenX[triZ];
+            if (screenXX == -5000 || screenXY == -5000 || screenXZ == -5000) {
+                continue;
+            }
+            if (inBounds(vertexScreenY[triX], vertexScreenY[triY], vertexScreenY[triZ], screenXX, screenXY, screenXZ, size)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds an object to the ones under the cursor, unless it's already there.
+     */
+    static void addHovering(long uid) {
+        for (int index = objectsHovering - 1; index >= 0; --index) {
+            if (hoveringObjects[index] == uid) {
+                return;
+            }
+        }
+        if (objectsHovering < hoveringObjects.length) {
+            hoveringObjects[objectsHovering++] = uid;
+        }
+    }
+
+    final void withinObject(boolean var25) {
         if (diagonal3D < 6000) {
             for (int diagonalIndex = 0; diagonalIndex < diagonal3D; diagonalIndex++) {
                 depth[diagonalIndex] = 0;
             }
 
-            int size = singleTile ? 20 : 5;
-
             int var15;
             int var16;
             int var18;
@@ -2534,15 +2655,7 @@ public class Model extends Renderable {
                     if (screenXX == -5000 || screenXY == -5000 || screenXZ == -5000) {
                         continue;
                     }
-                    if (highlighted && inBounds(vertexScreenY[triX], vertexScreenY[triY], vertexScreenY[triZ], screenXX, screenXY, screenXZ,size)) {
-                        hoveringObjects[objectsHovering++] = uid;
-                    }
                     if (!var25 || screenXX != -5000 && screenXY != -5000 && screenXZ != -5000) {
-                        if (highlighted && inBounds(vertexScreenY[triX], vertexScreenY[triY], vertexScreenY[triZ], screenXX, screenXY, screenXZ, size)) {
-                            hoveringObjects[objectsHovering++] = uid;
-                            highlighted = false;
-                        }
-
                         if ((screenXX - screenXY) * (vertexScreenY[triZ] - vertexScreenY[triY]) - (screenXZ - screenXY) * (vertexScreenY[triX] - vertexScreenY[triY]) > 0) {
                             outOfReach[currentTriangle] = false;
                             if (screenXX >= 0 && screenXY >= 0 && screenXZ >= 0 && screenXX <= Rasterizer.lastX && screenXY <= Rasterizer.lastX && screenXZ <= Rasterizer.lastX) {
@@ -3075,6 +3188,8 @@ public class Model extends Renderable {
 
     public int vertex_bone_scales[][];
 
+    private SkinningPalette skinning_palette;
+
     private int xMid;
     private int yMid;
     private int zMid;
@@ -3133,9 +3248,6 @@ public class Model extends Renderable {
     private FaceNormal[] faceNormals;
     static OnDemandFetcherParent aOnDemandFetcherParent_1662;
     static ModelHeader modelHeaders[];
-    static Matrix4f total_skeletal_transforms = new Matrix4f();
-    static Matrix4f skeletal_scale_matrix = new Matrix4f();
-    static Matrix4f skeletal_transform_matrix = new Matrix4f();
     static boolean hasAnEdgeToRestrict[] = new boolean[8500];
     static boolean outOfReach[] = new boolean[8500];
     static int vertexScreenX[] = new int[8500];
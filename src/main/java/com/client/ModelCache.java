@@ -0,0 +1,85 @@
+package com.client;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of decoded base models, keyed by model id and bounded by the total
+ * number of vertices and faces it holds rather than by entry count.
+ *
+ * Cached models are never handed out directly; {@link Model#getModel(int)} returns a copy that
+ * shares the base model's topology.
+ */
+final class ModelCache {
+
+	/**
+	 * Default budget, roughly 4-5 MB of decoded geometry.
+	 */
+	static final int DEFAULT_BUDGET = 400_000;
+
+	private final LinkedHashMap<Integer, Model> models = new LinkedHashMap<>(256, 0.75f, true);
+	private final int budget;
+	private int size;
+	private int hits;
+	private int misses;
+
+	ModelCache(int budget) {
+		this.budget = budget;
+	}
+
+	synchronized Model get(int id) {
+		Model model = models.get(id);
+		if (model == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return model;
+	}
+
+	synchronized void put(int id, Model model) {
+		int weight = weight(model);
+		if (weight > budget) {
+			return;
+		}
+		Model previous = models.put(id, model);
+		if (previous != null) {
+			size -= weight(previous);
+		}
+		size += weight;
+		Iterator<Map.Entry<Integer, Model>> iterator = models.entrySet().iterator();
+		while (size > budget && iterator.hasNext()) {
+			Map.Entry<Integer, Model> eldest = iterator.next();
+			if (eldest.getKey() == id) {
+				continue;
+			}
+			size -= weight(eldest.getValue());
+			iterator.remove();
+		}
+	}
+
+	synchronized void remove(int id) {
+		Model model = models.remove(id);
+		if (model != null) {
+			size -= weight(model);
+		}
+	}
+
+	synchronized void clear() {
+		models.clear();
+		size = 0;
+	}
+
+	synchronized int getHits() {
+		return hits;
+	}
+
+	synchronized int getMisses() {
+		return misses;
+	}
+
+	private static int weight(Model model) {
+		return model.vertex_count + model.face_count;
+	}
+}
@@ -1,5 +1,7 @@
 package com.client;
 
+import java.util.Arrays;
+
 import com.client.definitions.FloorOverlayDefinition;
 import com.client.definitions.FloorUnderlayDefinition;
 import com.client.definitions.ObjectDefinition;
@@ -1458,43 +1460,87 @@ final class ObjectManager {
 	}
 
 	public final void method190(int i, CollisionMap aclass11[], int j, WorldController worldController, byte abyte0[]) {
-		label0: {
-			Buffer stream = new Buffer(abyte0);
-			int l = -1;
+		ObjectStaging staging = new ObjectStaging();
+		stageObjects(abyte0, i, j, staging);
+		placeObjects(staging, aclass11, worldController);
+	}
+
+	/**
+	 * Reads the objects of a map square without placing them, so squares can be read off the game
+	 * thread.
+	 *
+	 * @param i       the x of the square within the region.
+	 * @param j       the y of the square within the region.
+	 * @param staging receives the objects, cleared first.
+	 */
+	static void stageObjects(byte abyte0[], int i, int j, ObjectStaging staging) {
+		staging.count = 0;
+		Buffer stream = new Buffer(abyte0);
+		int l = -1;
+		do {
+			int i1 = stream.method1606();
+			if (i1 == 0)
+				return;
+			l += i1;
+			int j1 = 0;
 			do {
-				int i1 = stream.method1606();
-				if (i1 == 0)
-					break label0;
-				l += i1;
-				int j1 = 0;
-				do {
-					int k1 = stream.readUShortSmart();
-					if (k1 == 0)
-						break;
-					j1 += k1 - 1;
-					int l1 = j1 & 0x3f;
-					int i2 = j1 >> 6 & 0x3f;
-					int j2 = j1 >> 12;
-					int k2 = stream.readUShortSmart();
-					int l2 = k2 >> 2;
-					int i3 = k2 & 3;
-					int j3 = i2 + i;
-					int k3 = l1 + j;
-					if (j3 > 0 && k3 > 0 && j3 < 103 && k3 < 103 && j2 >= 0 && j2 < 4) {
-						int l3 = j2;
-						if ((tileFlags[1][j3][k3] & 2) == 2)
-							l3--;
-						CollisionMap class11 = null;
-						if (l3 >= 0)
-							class11 = aclass11[l3];
-						try {
-							renderObject(k3, worldController, class11, l2, j2, j3, l, i3);
-						} catch (Exception e) {
-							e.printStackTrace();
-						}
-					}
-				} while (true);
+				int k1 = stream.readUShortSmart();
+				if (k1 == 0)
+					break;
+				j1 += k1 - 1;
+				int l1 = j1 & 0x3f;
+				int i2 = j1 >> 6 & 0x3f;
+				int j2 = j1 >> 12;
+				int k2 = stream.readUShortSmart();
+				int l2 = k2 >> 2;
+				int i3 = k2 & 3;
+				int j3 = i2 + i;
+				int k3 = l1 + j;
+				if (j3 > 0 && k3 > 0 && j3 < 103 && k3 < 103 && j2 >= 0 && j2 < 4)
+					staging.add(l, j3 | k3 << 7 | j2 << 14 | l2 << 16 | i3 << 21);
 			} while (true);
+		} while (true);
+	}
+
+	/**
+	 * Adds staged objects to the scene and collision maps, in the order they were read.
+	 */
+	final void placeObjects(ObjectStaging staging, CollisionMap aclass11[], WorldController worldController) {
+		for (int index = 0; index < staging.count; index++) {
+			int packed = staging.positions[index];
+			int x = packed & 0x7f;
+			int y = packed >> 7 & 0x7f;
+			int z = packed >> 14 & 3;
+			int l3 = z;
+			if ((tileFlags[1][x][y] & 2) == 2)
+				l3--;
+			CollisionMap class11 = null;
+			if (l3 >= 0)
+				class11 = aclass11[l3];
+			try {
+				renderObject(y, worldController, class11, packed >> 16 & 0x1f, z, x, staging.ids[index], packed >> 21 & 3);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Objects of one map square read by {@link #stageObjects}, as ids and packed x, y, plane, type
+	 * and orientation. Reused between region loads.
+	 */
+	static final class ObjectStaging {
+		int[] ids = new int[512];
+		int[] positions = new int[512];
+		int count;
+
+		void add(int id, int position) {
+			if (count == ids.length) {
+				ids = Arrays.copyOf(ids, count * 2);
+				positions = Arrays.copyOf(positions, count * 2);
+			}
+			ids[count] = id;
+			positions[count++] = position;
 		}
 	}
 
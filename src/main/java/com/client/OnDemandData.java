@@ -15,4 +15,8 @@ public final class OnDemandData extends NodeSub {
 	boolean incomplete;
 	int loopCycle;
 	public int dataID;
+	/**
+	 * Structure parsed from {@link #buffer} by {@link OnDemandDecoder}, null if the type isn't pre-parsed.
+	 */
+	Object decoded;
 }
@@ -0,0 +1,81 @@
+package com.client;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.client.model.rt7_anims.AnimKeyFrameSet;
+
+/**
+ * Inflates and pre-parses files received by the {@link OnDemandFetcher} on a worker pool, so that
+ * the game thread only has to publish finished structures in {@code Client#processOnDemandQueue}.
+ *
+ * Models are parsed into their {@link ModelHeader} and animations into their
+ * {@link AnimKeyFrameSet} / {@link AnimFrameSet}; everything else is only inflated. The parsed
+ * structure is carried in {@link OnDemandData#decoded}.
+ */
+public final class OnDemandDecoder {
+
+	private static final int THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	private static final int SKELETAL_MAGIC = 420;
+	private static final int OSRS_FRAMES_MAGIC = 710;
+
+	private final OnDemandFetcher fetcher;
+	private final Queue<OnDemandData> decoded = new ConcurrentLinkedQueue<>();
+	private final ExecutorService pool;
+
+	public OnDemandDecoder(OnDemandFetcher fetcher) {
+		this.fetcher = fetcher;
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+			Thread thread = new Thread(r, "OnDemandDecoder-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Hands every file the fetcher has received since the last call to the worker pool, then returns
+	 * the next file whose decoding has finished. Called from the game thread.
+	 *
+	 * @return the next decoded file, or null if none are ready yet.
+	 */
+	public OnDemandData poll() {
+		OnDemandData received;
+		while ((received = fetcher.pollReceived()) != null) {
+			final OnDemandData onDemandData = received;
+			pool.execute(() -> decode(onDemandData));
+		}
+		return decoded.poll();
+	}
+
+	private void decode(OnDemandData onDemandData) {
+		try {
+			if (!OnDemandFetcher.inflate(onDemandData))
+				return;
+			byte[] buffer = onDemandData.buffer;
+			if (onDemandData.dataType == 0) {
+				onDemandData.decoded = Model.decodeHeader(buffer);
+			} else if (onDemandData.dataType == 1 && buffer != null && buffer.length >= 2) {
+				int magic = (buffer[1] & 0xff) + ((buffer[0] & 0xff) << 8);
+				if (magic == SKELETAL_MAGIC) {
+					onDemandData.decoded = AnimKeyFrameSet.decode(onDemandData.ID, buffer);
+				} else if (magic == OSRS_FRAMES_MAGIC) {
+					onDemandData.decoded = AnimFrameSet.decode_osrs(onDemandData.ID, buffer);
+				}
+			}
+		} catch (RuntimeException e) {
+			System.err.println("Failed to decode [" + onDemandData.ID + "] type = " + onDemandData.dataType);
+			e.printStackTrace();
+			onDemandData.decoded = null;
+		}
+		decoded.add(onDemandData);
+	}
+
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+}
@@ -1,6 +1,5 @@
 package com.client;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -8,8 +7,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.util.zip.CRC32;
-import java.util.zip.GZIPInputStream;
 
+import com.client.cache.GzipDecompressor;
 import com.client.sign.Signlink;
 
 public final class OnDemandFetcher extends OnDemandFetcherParent implements Runnable {
@@ -414,7 +413,11 @@ public final class OnDemandFetcher extends OnDemandFetcherParent implements Runn
 		}
 	}
 
-	public OnDemandData getNextNode() {
+	/**
+	 * Pops the next received file without decompressing it, used by {@link OnDemandDecoder} to move
+	 * the inflate and parse work off the game thread.
+	 */
+	OnDemandData pollReceived() {
 		OnDemandData onDemandData;
 		synchronized (aClass19_1358) {
 			onDemandData = (OnDemandData) aClass19_1358.popHead();
@@ -424,29 +427,25 @@ public final class OnDemandFetcher extends OnDemandFetcherParent implements Runn
 		synchronized (nodeSubList) {
 			onDemandData.unlinkSub();
 		}
+		return onDemandData;
+	}
+
+	/**
+	 * Replaces the gzip container in the node's buffer with its contents.
+	 *
+	 * @return false if the container was corrupt.
+	 */
+	static boolean inflate(OnDemandData onDemandData) {
 		if (onDemandData.buffer == null)
-			return onDemandData;
-		int i = 0;
-		try (GZIPInputStream gzipinputstream = new GZIPInputStream(new ByteArrayInputStream(onDemandData.buffer))) {
-			do {
-				if (i == gzipInputBuffer.length)
-//					throw new RuntimeException("buffer overflow!");
-					break;
-				int k = gzipinputstream.read(gzipInputBuffer, i, gzipInputBuffer.length - i);
-				if (k == -1)
-					break;
-				i += k;
-			} while (true);
+			return true;
+		try {
+			onDemandData.buffer = GzipDecompressor.inflate(onDemandData.buffer);
 		} catch (IOException _ex) {
-			// RuntimeException("error unzipping");
 			System.err.println("Failed to unzip [" + onDemandData.ID + "] type = " + onDemandData.dataType);
 			_ex.printStackTrace();
-			return null;
+			return false;
 		}
-		onDemandData.buffer = new byte[i];
-		System.arraycopy(gzipInputBuffer, 0, onDemandData.buffer, 0, i);
-
-		return onDemandData;
+		return true;
 	}
 
 	public int getMapFiles(int mapType, int y, int x) {
@@ -616,7 +615,6 @@ public final class OnDemandFetcher extends OnDemandFetcherParent implements Runn
 		running = true;
 		waiting = false;
 		aClass19_1358 = new NodeList();
-		gzipInputBuffer = new byte[999999999];
 		nodeSubList = new NodeSubList();
 		versions = new int[4][];
 		aClass19_1368 = new NodeList();
@@ -646,7 +644,6 @@ public final class OnDemandFetcher extends OnDemandFetcherParent implements Runn
 	private int[] mapIndices4;
 	private boolean waiting;
 	private final NodeList aClass19_1358;
-	private final byte[] gzipInputBuffer;
 	private final NodeSubList nodeSubList;
 	private InputStream inputStream;
 	private Socket socket;
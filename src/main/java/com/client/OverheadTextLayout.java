@@ -0,0 +1,115 @@
+package com.client;
+
+import java.util.Arrays;
+
+/**
+ * Stacks overhead chat so that messages don't overlap, replacing the quadratic rescan of every
+ * earlier message in {@link Client#updateEntities()}.
+ *
+ * A message is moved up to the top of any earlier message it overlaps until it's clear. Because a
+ * message that overlaps at some height keeps overlapping until it's passed, the outcome doesn't depend
+ * on the order messages are looked at, so a single sweep over the candidates sorted by their top edge
+ * (highest first) lands on the same height as repeating the scan until nothing moves. Candidates come
+ * from a screen-space grid of columns, so only messages sharing a column are considered.
+ */
+final class OverheadTextLayout {
+
+	private static final int COLUMN_SHIFT = 6;
+	private static final int COLUMNS = 64;
+
+	private final int[][] columns = new int[COLUMNS][8];
+	private final int[] columnSizes = new int[COLUMNS];
+
+	private int[] xs = new int[64];
+	private int[] ys = new int[64];
+	private int[] halfWidths = new int[64];
+	private int[] heights = new int[64];
+	private int[] seen = new int[64];
+	private long[] candidates = new long[64];
+	private int count;
+	private int stamp;
+
+	/**
+	 * Forgets the messages placed for the previous frame.
+	 */
+	void reset() {
+		Arrays.fill(columnSizes, 0);
+		count = 0;
+	}
+
+	/**
+	 * Places a message below the ones already placed this frame.
+	 *
+	 * @param x         the horizontal centre of the message.
+	 * @param y         the baseline the message would like to be drawn at.
+	 * @param halfWidth half of the message's width.
+	 * @param height    the height of the font.
+	 * @return the baseline to draw the message at.
+	 */
+	int place(int x, int y, int halfWidth, int height) {
+		int first = column(x - halfWidth);
+		int last = column(x + halfWidth);
+		int found = 0;
+		if (++stamp == 0) {
+			Arrays.fill(seen, 0);
+			stamp = 1;
+		}
+		for (int column = first; column <= last; column++) {
+			int[] ids = columns[column];
+			for (int i = 0, size = columnSizes[column]; i < size; i++) {
+				int id = ids[i];
+				if (seen[id] == stamp) {
+					continue;
+				}
+				seen[id] = stamp;
+				if (x - halfWidth < xs[id] + halfWidths[id] && x + halfWidth > xs[id] - halfWidths[id]) {
+					if (found == candidates.length) {
+						candidates = Arrays.copyOf(candidates, found * 2);
+					}
+					candidates[found++] = (long) (ys[id] - heights[id]) << 32 | id;
+				}
+			}
+		}
+		if (found > 1) {
+			Arrays.sort(candidates, 0, found);
+		}
+		for (int i = found - 1; i >= 0; i--) {
+			int id = (int) candidates[i];
+			int top = ys[id] - heights[id];
+			if (top < y && y - height < ys[id] + 2) {
+				y = top;
+			}
+		}
+		add(x, y, halfWidth, height, first, last);
+		return y;
+	}
+
+	private void add(int x, int y, int halfWidth, int height, int first, int last) {
+		if (count == xs.length) {
+			int capacity = count * 2;
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+			halfWidths = Arrays.copyOf(halfWidths, capacity);
+			heights = Arrays.copyOf(heights, capacity);
+			seen = Arrays.copyOf(seen, capacity);
+		}
+		int id = count++;
+		xs[id] = x;
+		ys[id] = y;
+		halfWidths[id] = halfWidth;
+		heights[id] = height;
+		seen[id] = 0;
+		for (int column = first; column <= last; column++) {
+			int size = columnSizes[column];
+			if (size == columns[column].length) {
+				columns[column] = Arrays.copyOf(columns[column], size * 2);
+			}
+			columns[column][size] = id;
+			columnSizes[column] = size + 1;
+		}
+	}
+
+	private static int column(int x) {
+		return Math.max(0, Math.min(COLUMNS - 1, x >> COLUMN_SHIFT));
+	}
+}
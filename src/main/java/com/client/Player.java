@@ -7,8 +7,6 @@ import com.client.definitions.AnimationDefinition;
 import com.client.definitions.ItemDefinition;
 import com.client.definitions.NpcDefinition;
 import com.client.definitions.GraphicsDefinition;
-import com.client.sound.SoundRequest;
-import com.client.sound.SoundRequestQueue;
 
 public final class Player extends Entity {
 
@@ -184,30 +182,8 @@ public final class Player extends Entity {
 		if (super.primaryanim >= 0 && super.primaryanim_pause == 0) {
 			AnimationDefinition animation = AnimationDefinition.anims[super.primaryanim];
 			k = animation.anIntArray353[super.primaryanim_frameindex];
-			if (animation.frameSounds != null && animation.frameSounds.length > super.primaryanim_frameindex) {
-				int[] soundGroup = new int[]{animation.frameSounds[super.primaryanim_frameindex]};
-				if (soundGroup != null) {
-					for (int soundId : soundGroup) {
-						// You may adjust volume mapping here based on how your mixer handles it
-						// Queue download
-						Client.instance.onDemandFetcher.provide(6, soundId);
-						SoundRequestQueue.add(new SoundRequest(soundId, Math.max(1, 10 - com.client.sound.SoundPlayer.getVolume()), 0));
-					}
-				}
-			}
 			if (super.secondaryanim >= 0 && super.secondaryanim != super.readyanim)
 				i1 = AnimationDefinition.anims[super.secondaryanim].anIntArray353[super.secondaryanim_replaycount];
-			if (animation.frameSounds != null && animation.frameSounds.length > super.secondaryanim_replaycount) {
-				int[] soundGroup = new int[]{animation.frameSounds[super.secondaryanim_replaycount]};
-				if (soundGroup != null) {
-					for (int soundId : soundGroup) {
-						// You may adjust volume mapping here based on how your mixer handles it
-						// Queue download
-						Client.instance.onDemandFetcher.provide(6, soundId);
-						SoundRequestQueue.add(new SoundRequest(soundId, Math.max(1, 10 - com.client.sound.SoundPlayer.getVolume()), 0));
-					}
-				}
-			}
 			if (animation.shield >= 0) {
 				j1 = animation.shield;
 				l += j1 - equipment[5] << 40;
@@ -218,17 +194,6 @@ public final class Player extends Entity {
 			}
 		} else if (super.secondaryanim >= 0)
 			k = AnimationDefinition.anims[super.secondaryanim].anIntArray353[super.secondaryanim_replaycount];
-		if (AnimationDefinition.anims[super.secondaryanim].frameSounds != null && AnimationDefinition.anims[super.secondaryanim].frameSounds.length > super.secondaryanim_replaycount) {
-			int[] soundGroup = new int[]{AnimationDefinition.anims[super.secondaryanim].frameSounds[super.secondaryanim_replaycount]};
-			if (soundGroup != null) {
-				for (int soundId : soundGroup) {
-					// You may adjust volume mapping here based on how your mixer handles it
-					// Queue download
-					Client.instance.onDemandFetcher.provide(6, soundId);
-					SoundRequestQueue.add(new SoundRequest(soundId, Math.max(1, 10 - com.client.sound.SoundPlayer.getVolume()), 0));
-				}
-			}
-		}
 		Model model_1 = (Model) mruNodes.insertFromCache(l);
 		if (model_1 == null) {
 			boolean flag = false;
@@ -2,10 +2,17 @@ package com.client;
 
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RSFont extends DrawingArea {
 
+	/**
+	 * Compiled strings kept per font, chat, menus and interfaces redraw the same ones every frame.
+	 */
+	private static final int LAYOUT_CACHE_SIZE = 512;
+
 	public int baseCharacterHeight = 0;
 	public int anInt4142;
 	public int anInt4144;
@@ -17,6 +24,14 @@ public class RSFont extends DrawingArea {
 	public byte[] aByteArray4151;
 	public byte[][] fontPixels;
 	public int[] characterScreenWidths;
+	private final Map<String, TextLayout> layouts = new LinkedHashMap<String, TextLayout>(LAYOUT_CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TextLayout> eldest) {
+			return size() > LAYOUT_CACHE_SIZE;
+		}
+	};
 	public static Sprite[] chatImages;
 	public static Sprite[] clanImages;
 	public static Sprite[] iconPack;
@@ -269,7 +284,6 @@ public class RSFont extends DrawingArea {
 		}
 		if (string != null) {
 			setColorAndShadow(color, shadow);
-			string = handleOldSyntax(string);
 			transparency = trans;
 			drawBasicString(string, drawX - getTextWidth(string) / 2, drawY);
 		}
@@ -281,146 +295,135 @@ public class RSFont extends DrawingArea {
 
 	public void drawBasicString(String string, int drawX, int drawY, boolean textEffects) {
 		drawY -= baseCharacterHeight;
-		int startIndex = -1;
-		string = handleOldSyntax(string);
-		for (int currentCharacter = 0; currentCharacter < string.length(); currentCharacter++) {
-			int character = string.charAt(currentCharacter);
-			if (character > 255) {
-				character = 32;
+		if (!textEffects) {
+			string = handleOldSyntax(string);
+			for (int currentCharacter = 0; currentCharacter < string.length(); currentCharacter++) {
+				int character = string.charAt(currentCharacter);
+				drawX = drawGlyph(character > 255 ? 32 : character, drawX, drawY);
 			}
-
-			// Effect
-			if (textEffects) {
-				if (character == 60) {
-					startIndex = currentCharacter;
-				} else {
-					if (character == 62 && startIndex != -1) {
-						String effectString = string.substring(startIndex + 1, currentCharacter);
-						startIndex = -1;
-						if (effectString.equals(startEffect)) {
-							character = 60;
-						} else if (effectString.equals(endEffect)) {
-							character = 62;
-						} else if (effectString.equals(aRSString_4135)) {
-							character = 160;
-						} else if (effectString.equals(aRSString_4162)) {
-							character = 173;
-						} else if (effectString.equals(aRSString_4165)) {
-							character = 215;
-						} else if (effectString.equals(aRSString_4147)) {
-							character = 128;
-						} else if (effectString.equals(aRSString_4163)) {
-							character = 169;
-						} else if (effectString.equals(aRSString_4169)) {
-							character = 174;
-						} else {
-							if (effectString.startsWith(startImage)) {
-								try {
-									String sub = effectString.substring(4);
-									if (sub.length() > 0) {
-										int imageId = Integer.parseInt(sub);
-										if (imageId > -1) {
-											Sprite icon = chatImages[imageId];
-											int iconModY = icon.myHeight;
-											if (transparency == 256) {
-												icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY));
-											} else {
-												icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY), transparency);
-											}
-											drawX += icon.myWidth;
-										}
-									}
-								} catch (Exception exception) {
-									exception.printStackTrace();
-								}
-							} else if (effectString.startsWith(startIcon)) {
-								try {
-									String sub = effectString.substring(5);
-									if (sub.length() > 0) {
-										int imageId = Integer.parseInt(sub);
-										if (imageId > -1) {
-											Sprite icon = iconPack[imageId];
-											int iconModY = icon.myHeight;
-											if (transparency == 256) {
-												icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY));
-											} else {
-												icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY), transparency);
-											}
-											drawX += icon.myWidth;
-										}
-									}
-								} catch (Exception exception) {
-									exception.printStackTrace();
-								}
-							} else if (effectString.startsWith(startClanImage)) {
-								try {
-									String sub = effectString.substring(5);
-									if (sub.length() > 0) {
-										int imageId = Integer.parseInt(sub);
-										if (imageId > -1) {
-											Sprite icon = clanImages[imageId];
-											int iconModY = icon.myHeight + icon.anInt1443 + 1;
-											if (transparency == 256) {
-												icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY));
-											} else {
-												icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY), transparency);
-											}
-											drawX += 11;
-										}
-									}
-								} catch (Exception exception) {
-									exception.printStackTrace();
-								}
-							} else {
-								setTextEffects(effectString);
-							}
-							continue;
-						}
-					}
-				}
+			return;
+		}
+		TextLayout layout = layout(string);
+		for (int op = 0; op < layout.count; op++) {
+			int value = layout.values[op];
+			switch (layout.types[op]) {
+				case TextLayout.GLYPH:
+					drawX = drawGlyph(value, drawX, drawY);
+					break;
+				case TextLayout.IMAGE:
+				case TextLayout.ICON:
+				case TextLayout.CLAN_IMAGE:
+					drawX = drawImage(layout.types[op], value, drawX, drawY);
+					break;
+				case TextLayout.COLOR:
+					textColor = value;
+					break;
+				case TextLayout.END_COLOR:
+					textColor = defaultColor;
+					break;
+				case TextLayout.TRANSPARENCY:
+					transparency = value;
+					break;
+				case TextLayout.END_TRANSPARENCY:
+					transparency = defaultTransparency;
+					break;
+				case TextLayout.STRIKETHROUGH:
+					strikethroughColor = value;
+					break;
+				case TextLayout.DEFAULT_STRIKETHROUGH:
+					strikethroughColor = 8388608;
+					break;
+				case TextLayout.END_STRIKETHROUGH:
+					strikethroughColor = -1;
+					break;
+				case TextLayout.UNDERLINE:
+					underlineColor = value;
+					break;
+				case TextLayout.DEFAULT_UNDERLINE:
+					underlineColor = 0;
+					break;
+				case TextLayout.END_UNDERLINE:
+					underlineColor = -1;
+					break;
+				case TextLayout.SHADOW:
+					textShadowColor = value;
+					break;
+				case TextLayout.DEFAULT_SHADOW:
+					textShadowColor = 0;
+					break;
+				case TextLayout.END_SHADOW:
+					textShadowColor = defaultShadow;
+					break;
+				case TextLayout.LINE_BREAK:
+					setDefaultTextEffectValues(defaultColor, defaultShadow, defaultTransparency);
+					break;
 			}
+		}
+	}
 
-			// Draw character
-			if (startIndex == -1) {
-				int width = characterWidths[character];
-				int height = characterHeights[character];
-				if (character != 32) {
-					if (transparency == 256) {
-						if (textShadowColor != -1) {
-							drawCharacter(character, drawX + characterDrawXOffsets[character] + 1,
-									drawY + characterDrawYOffsets[character] + 1, width, height, textShadowColor,
-									true);
-						}
-						drawCharacter(character, drawX + characterDrawXOffsets[character],
-								drawY + characterDrawYOffsets[character], width, height, textColor, false);
-					} else {
-						if (textShadowColor != -1) {
-							drawTransparentCharacter(character, drawX + characterDrawXOffsets[character] + 1,
-									drawY + characterDrawYOffsets[character] + 1, width, height, textShadowColor,
-									transparency, true);
-						}
-						drawTransparentCharacter(character, drawX + characterDrawXOffsets[character],
-								drawY + characterDrawYOffsets[character], width, height, textColor, transparency,
-								false);
-					}
-				} else if (anInt4178 > 0) {
-					anInt4175 += anInt4178;
-					drawX += anInt4175 >> 8;
-					anInt4175 &= 0xff;
-				}
-				int lineWidth = characterScreenWidths[character];
-				if (strikethroughColor != -1) {
-					drawHorizontalLine(drawY + (int) ((double) baseCharacterHeight * 0.6999999999),
-							strikethroughColor, lineWidth, drawX);
-				}
-				if (underlineColor != -1) {
+	/**
+	 * @return the compiled form of the string in this font, from the cache if it was used lately.
+	 */
+	private TextLayout layout(String string) {
+		TextLayout layout = layouts.get(string);
+		if (layout == null) {
+			layout = TextLayout.compile(string, characterScreenWidths);
+			layouts.put(string, layout);
+		}
+		return layout;
+	}
+
+	private int drawImage(int type, int imageId, int drawX, int drawY) {
+		Sprite icon = TextLayout.image(type, imageId);
+		if (icon == null) {
+			return drawX;
+		}
+		int iconModY = type == TextLayout.CLAN_IMAGE ? icon.myHeight + icon.anInt1443 + 1 : icon.myHeight;
+		if (transparency == 256) {
+			icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY));
+		} else {
+			icon.drawSprite(drawX, (drawY + baseCharacterHeight - iconModY), transparency);
+		}
+		return drawX + (type == TextLayout.CLAN_IMAGE ? 11 : icon.myWidth);
+	}
 
-					drawHorizontalLine(drawX, drawY + baseCharacterHeight, lineWidth, underlineColor);
+	private int drawGlyph(int character, int drawX, int drawY) {
+		int width = characterWidths[character];
+		int height = characterHeights[character];
+		if (character != 32) {
+			if (transparency == 256) {
+				if (textShadowColor != -1) {
+					drawCharacter(character, drawX + characterDrawXOffsets[character] + 1,
+							drawY + characterDrawYOffsets[character] + 1, width, height, textShadowColor,
+							true);
 				}
-				drawX += lineWidth;
+				drawCharacter(character, drawX + characterDrawXOffsets[character],
+						drawY + characterDrawYOffsets[character], width, height, textColor, false);
+			} else {
+				if (textShadowColor != -1) {
+					drawTransparentCharacter(character, drawX + characterDrawXOffsets[character] + 1,
+							drawY + characterDrawYOffsets[character] + 1, width, height, textShadowColor,
+							transparency, true);
+				}
+				drawTransparentCharacter(character, drawX + characterDrawXOffsets[character],
+						drawY + characterDrawYOffsets[character], width, height, textColor, transparency,
+						false);
 			}
+		} else if (anInt4178 > 0) {
+			anInt4175 += anInt4178;
+			drawX += anInt4175 >> 8;
+			anInt4175 &= 0xff;
+		}
+		int lineWidth = characterScreenWidths[character];
+		if (strikethroughColor != -1) {
+			drawHorizontalLine(drawY + (int) ((double) baseCharacterHeight * 0.6999999999),
+					strikethroughColor, lineWidth, drawX);
+		}
+		if (underlineColor != -1) {
 
+			drawHorizontalLine(drawX, drawY + baseCharacterHeight, lineWidth, underlineColor);
 		}
+		return drawX + lineWidth;
 	}
 
 	public void drawRAString(String string, int drawX, int drawY, int color, int shadow) {
@@ -642,70 +645,7 @@ public class RSFont extends DrawingArea {
 		if (string == null) {
 			return 0;
 		}
-		string = handleOldSyntax(string);
-		int startIndex = -1;
-		int finalWidth = 0;
-		for (int currentCharacter = 0; currentCharacter < string.length(); currentCharacter++) {
-			int character = string.charAt(currentCharacter);
-			if (character > 255) {
-				character = 32;
-			}
-			if (character == 60) {
-				startIndex = currentCharacter;
-			} else {
-				if (character == 62 && startIndex != -1) {
-					String effectString = string.substring(startIndex + 1, currentCharacter);
-					startIndex = -1;
-					if (effectString.equals(startEffect)) {
-						character = 60;
-					} else if (effectString.equals(endEffect)) {
-						character = 62;
-					} else if (effectString.equals(aRSString_4135)) {
-						character = 160;
-					} else if (effectString.equals(aRSString_4162)) {
-						character = 173;
-					} else if (effectString.equals(aRSString_4165)) {
-						character = 215;
-					} else if (effectString.equals(aRSString_4147)) {
-						character = 128;
-					} else if (effectString.equals(aRSString_4163)) {
-						character = 169;
-					} else if (effectString.equals(aRSString_4169)) {
-						character = 174;
-					} else {
-						if (effectString.startsWith(startImage)) {
-							try {// <img=
-								int iconId = Integer.valueOf(effectString.substring(4));
-								finalWidth += chatImages[iconId].maxWidth;
-							} catch (Exception exception) {
-								exception.printStackTrace();
-							}
-						}
-						if (effectString.startsWith(startClanImage)) {
-							try {// <img=
-								int iconId = Integer.valueOf(effectString.substring(5));
-								finalWidth += clanImages[iconId].maxWidth;
-							} catch (Exception exception) {
-								exception.printStackTrace();
-							}
-						}
-						if (effectString.startsWith(startIcon)) {
-							try {// <img=
-								int iconId = Integer.valueOf(effectString.substring(5));
-								finalWidth += iconPack[iconId].maxWidth;
-							} catch (Exception exception) {
-								exception.printStackTrace();
-							}
-						}
-						continue;
-					}
-				}
-				if (startIndex == -1) {
-					finalWidth += characterScreenWidths[character];
-				}
-			}
-		}
-		return finalWidth;
+		return layout(string).width();
 	}
 
 	public void drawBasicString(String string, int drawX, int drawY, int color, int shadow) {
@@ -722,7 +662,6 @@ public class RSFont extends DrawingArea {
 	public void drawCenteredString(String string, int drawX, int drawY, int color, int shadow) {
 		if (string != null) {
 			setColorAndShadow(color, shadow);
-			string = handleOldSyntax(string);
 			drawBasicString(string, drawX - getTextWidth(string) / 2, drawY);
 		}
 	}
@@ -17,6 +17,9 @@ public final class RSImageProducer {
 	private VolatileImage volatileImage;
 	private GraphicsConfiguration gc;
 	
+	// Software stretching, see Upscaler
+	private final Upscaler upscaler = new Upscaler();
+	
 	public RSImageProducer(int width, int height, Component component) {
 		this.width = width;
 		this.height = height;
@@ -49,8 +52,11 @@ public final class RSImageProducer {
 	}
 	
 	public void draw(Graphics gfx, int x, int y) {
-		// Use GPU-accelerated rendering if available
-		if (volatileImage != null && gc != null) {
+		// Stretch in software rather than through Java2D, bicubic is still left to Java2D
+		if (Client.currentScreenMode == ScreenMode.FIXED && Client.stretched && !Client.ultraPretty) {
+			drawUpscaled(gfx, x, y);
+		} else if (volatileImage != null && gc != null) {
+			// Use GPU-accelerated rendering if available
 			drawWithVolatileImage(gfx, x, y);
 		} else {
 			// Fallback to regular rendering
@@ -82,6 +88,20 @@ public final class RSImageProducer {
 		} while (volatileImage.contentsLost());
 	}
 	
+	private void drawUpscaled(Graphics gfx, int x, int y) {
+		Point2D.Double scale = getStretchScale();
+		int stretchedWidth = (int) Math.floor((double) width * scale.getX());
+		int stretchedHeight = (int) Math.floor((double) height * scale.getY());
+		x = (int) (x * scale.getX());
+		y = (int) (y * scale.getY());
+		if (stretchedWidth == width && stretchedHeight == height) {
+			gfx.drawImage(image, x, y, null);
+			return;
+		}
+		boolean bilinear = Client.instance == null || !Client.instance.isStretchedFast();
+		gfx.drawImage(upscaler.scale(canvasRaster, width, height, stretchedWidth, stretchedHeight, bilinear), x, y, null);
+	}
+	
 	public void draw(Graphics gfx, int x, int y, int clipX, int clipY,
 			int clipWidth, int clipHeight) {
 		Shape tmp = gfx.getClip();
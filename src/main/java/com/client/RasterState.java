@@ -0,0 +1,24 @@
+package com.client;
+
+/**
+ * The per-triangle state {@link Rasterizer}'s fill routines read, kept out of its static fields so
+ * the {@link BinnedRasterizer} can run the same routines on several threads at once.
+ *
+ * Scanlines starting outside {@code [firstOffset, endOffset)} are skipped, which is how a worker
+ * keeps to its own rows of the frame.
+ */
+final class RasterState {
+
+	int alpha;
+	boolean restrictEdges;
+	boolean opaqueTexture;
+	boolean saveDepth;
+	int mipmapLevel;
+
+	/**
+	 * Pixel offsets of the first row drawn to and the row after the last.
+	 */
+	int firstOffset;
+	int endOffset = Integer.MAX_VALUE;
+
+}
@@ -12,6 +12,7 @@ public final class Rasterizer extends DrawingArea {
 	public static int textureAmount = 130;
 	static boolean textureOutOfDrawingBounds;
 	private static boolean aBoolean1463;
+	private static final RasterState directState = new RasterState();
 	public static boolean lowMem = false;
 	public static boolean aBoolean1464 = true;
 	public static int alpha;
@@ -35,6 +36,7 @@ public final class Rasterizer extends DrawingArea {
 	public static int textureLastUsed[] = new int[textureAmount];
 	public static int lastTextureRetrievalCount;
 	public static int hslToRgb[] = new int[0x10000];
+	public static double brightness;
 	private static int[][] currentPalette = new int[textureAmount][];
 	public static GPUPlugin gpuPlugin;
 	static {
@@ -170,10 +172,10 @@ public final class Rasterizer extends DrawingArea {
 	    return (r << 16) + (g << 8) + b;
 	}
 
-	public static int texelPos(int defaultIndex) {
-		int x = (defaultIndex & 127) >> mipMapLevel;
-		int y = (defaultIndex >> 7) >> mipMapLevel;
-		return x + (y << (7 - mipMapLevel));
+	public static int texelPos(int defaultIndex, int level) {
+		int x = (defaultIndex & 127) >> level;
+		int y = (defaultIndex >> 7) >> level;
+		return x + (y << (7 - level));
 	}
 
 	public static boolean enableMipmapping = true;
@@ -389,7 +391,30 @@ public final class Rasterizer extends DrawingArea {
 		return texturePixels;
 	}
 
+	/**
+	 * Loads a texture for a triangle queued by the {@link BinnedRasterizer}. Loading a texture can
+	 * recycle the pixels of a texture that queued triangles still sample, so those are drawn first.
+	 */
+	private static int[] getQueuedTexturePixels(int textureId) {
+		if (texturesPixelBuffer[textureId] == null && textureRequestBufferPointer == 0) {
+			BinnedRasterizer.flush();
+		}
+		return getTexturePixels(textureId);
+	}
+
+	/**
+	 * State for triangles drawn straight to the drawing area, taken from the fields the scene sets.
+	 */
+	private static RasterState direct() {
+		RasterState state = directState;
+		state.alpha = alpha;
+		state.restrictEdges = textureOutOfDrawingBounds;
+		state.saveDepth = saveDepth;
+		return state;
+	}
+
 	public static void setBrightness(double d) {
+		brightness = d;
 		Texture.setBrightness(d * 2);
 		int j = 0;
 		for (int k = 0; k < 512; k++) {
@@ -498,6 +523,20 @@ public final class Rasterizer extends DrawingArea {
 		}
 		setMipmapLevel(y1, y2, y3, x1, x2, x3, tex);
 		int[] texels = Texture.get(tex).mipmaps[mipMapLevel];
+		if (BinnedRasterizer.recording) {
+			BinnedRasterizer.materialTriangle(y1, y2, y3, x1, x2, x3, hsl1, hsl2, hsl3, tx1, tx2, tx3, ty1, ty2, ty3,
+					tz1, tz2, tz3, texels, mipMapLevel, z1, z2, z3);
+			return;
+		}
+		RasterState state = direct();
+		state.mipmapLevel = mipMapLevel;
+		drawMaterializedTriangle(state, y1, y2, y3, x1, x2, x3, hsl1, hsl2, hsl3, tx1, tx2, tx3, ty1, ty2, ty3, tz1, tz2,
+				tz3, texels, z1, z2, z3);
+	}
+
+	static void drawMaterializedTriangle(RasterState state, int y1, int y2, int y3, int x1, int x2, int x3, int hsl1,
+			int hsl2, int hsl3, int tx1, int tx2, int tx3, int ty1, int ty2, int ty3, int tz1, int tz2, int tz3,
+			int[] texels, float z1, float z2, float z3) {
 		tx2 = tx1 - tx2;
 		ty2 = ty1 - ty2;
 		tz2 = tz1 - tz2;
@@ -581,7 +620,7 @@ public final class Rasterizer extends DrawingArea {
 					y2 -= y1;
 					y1 = anIntArray1472[y1];
 					while (--y2 >= 0) {
-						drawMaterializedScanline(DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7,
+						drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7,
 						hsl1 >> 7, l4, k5, j6, i5, l5, k6, z1, depthSlope);
 						x3 += i8;
 						x1 += i7;
@@ -594,7 +633,7 @@ public final class Rasterizer extends DrawingArea {
 						j6 += l6;
 					}
 					while (--y3 >= 0) {
-						drawMaterializedScanline(DrawingArea.pixels, texels, y1, x3 >> 16, x2 >> 16, hsl3 >> 7,
+						drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x3 >> 16, x2 >> 16, hsl3 >> 7,
 					hsl2 >> 7, l4, k5, j6, i5, l5, k6, z1, depthSlope);
 						x3 += i8;
 						x2 += k7;
@@ -613,7 +652,7 @@ public final class Rasterizer extends DrawingArea {
 				y2 -= y1;
 				y1 = anIntArray1472[y1];
 				while (--y2 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7,
 				l4, k5, j6, i5, l5, k6, z1, depthSlope);
 					x3 += i8;
 					x1 += i7;
@@ -626,7 +665,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y3 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y1, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7,
 				l4, k5, j6, i5, l5, k6, z1, depthSlope);
 					x3 += i8;
 					x2 += k7;
@@ -667,7 +706,7 @@ public final class Rasterizer extends DrawingArea {
 				y3 -= y1;
 				y1 = anIntArray1472[y1];
 				while (--y3 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y1, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7,
 					l4, k5, j6, i5, l5, k6, z1, depthSlope);
 					x2 += i8;
 					x1 += i7;
@@ -680,7 +719,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y2 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7,
 				l4, k5, j6, i5, l5, k6, z1, depthSlope);
 					x3 += k7;
 					x1 += i7;
@@ -699,7 +738,7 @@ public final class Rasterizer extends DrawingArea {
 			y3 -= y1;
 			y1 = anIntArray1472[y1];
 			while (--y3 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y1, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, l4,
 							k5, j6, i5, l5, k6, z1, depthSlope);
 				x2 += i8;
 				x1 += i7;
@@ -712,7 +751,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y2 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, l4,
 				k5, j6, i5, l5, k6, z1, depthSlope);
 				x3 += k7;
 				x1 += i7;
@@ -765,7 +804,7 @@ public final class Rasterizer extends DrawingArea {
 					y3 -= y2;
 					y2 = anIntArray1472[y2];
 					while (--y3 >= 0) {
-						drawMaterializedScanline(DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7,
+						drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7,
 						hsl2 >> 7, l4, k5, j6, i5, l5, k6, z2, depthSlope);
 						x1 += i7;
 						x2 += k7;
@@ -778,7 +817,7 @@ public final class Rasterizer extends DrawingArea {
 						j6 += l6;
 					}
 					while (--y1 >= 0) {
-						drawMaterializedScanline(DrawingArea.pixels, texels, y2, x1 >> 16, x3 >> 16, hsl1 >> 7,
+						drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x1 >> 16, x3 >> 16, hsl1 >> 7,
 					hsl3 >> 7, l4, k5, j6, i5, l5, k6, z2, depthSlope);
 						x1 += i7;
 						x3 += i8;
@@ -797,7 +836,7 @@ public final class Rasterizer extends DrawingArea {
 				y3 -= y2;
 				y2 = anIntArray1472[y2];
 				while (--y3 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7,
 							l4, k5, j6, i5, l5, k6, z2, depthSlope);
 					x1 += i7;
 					x2 += k7;
@@ -810,7 +849,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y1 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y2, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7,
 							l4, k5, j6, i5, l5, k6, z2, depthSlope);
 					x1 += i7;
 					x3 += i8;
@@ -851,7 +890,7 @@ public final class Rasterizer extends DrawingArea {
 				y1 -= y2;
 				y2 = anIntArray1472[y2];
 				while (--y1 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y2, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7,
 					l4, k5, j6, i5, l5, k6, z2, depthSlope);
 					x3 += i7;
 					x2 += k7;
@@ -864,7 +903,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y3 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7,
 					l4, k5, j6, i5, l5, k6, z2, depthSlope);
 					x1 += i8;
 					x2 += k7;
@@ -883,7 +922,7 @@ public final class Rasterizer extends DrawingArea {
 			y1 -= y2;
 			y2 = anIntArray1472[y2];
 			while (--y1 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y2, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, l4,
 						k5, j6, i5, l5, k6, z2, depthSlope);
 				x3 += i7;
 				x2 += k7;
@@ -896,7 +935,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y3 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, l4,
 						k5, j6, i5, l5, k6, z2, depthSlope);
 				x1 += i8;
 				x2 += k7;
@@ -948,7 +987,7 @@ public final class Rasterizer extends DrawingArea {
 				y1 -= y3;
 				y3 = anIntArray1472[y3];
 				while (--y1 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7,
 					l4, k5, j6, i5, l5, k6, z3, depthSlope);
 					x2 += k7;
 					x3 += i8;
@@ -961,7 +1000,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y2 >= 0) {
-					drawMaterializedScanline(DrawingArea.pixels, texels, y3, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7,
+					drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7,
 					l4, k5, j6, i5, l5, k6, z3, depthSlope);
 					x2 += k7;
 					x1 += i7;
@@ -980,7 +1019,7 @@ public final class Rasterizer extends DrawingArea {
 			y1 -= y3;
 			y3 = anIntArray1472[y3];
 			while (--y1 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, l4,
 						k5, j6, i5, l5, k6, z3, depthSlope);
 				x2 += k7;
 				x3 += i8;
@@ -993,7 +1032,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y2 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y3, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, l4,
 						k5, j6, i5, l5, k6, z3, depthSlope);
 				x2 += k7;
 				x1 += i7;
@@ -1034,7 +1073,7 @@ public final class Rasterizer extends DrawingArea {
 			y2 -= y3;
 			y3 = anIntArray1472[y3];
 			while (--y2 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y3, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, l4,
 				k5, j6, i5, l5, k6, z3, depthSlope);
 				x1 += k7;
 				x3 += i8;
@@ -1047,7 +1086,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y1 >= 0) {
-				drawMaterializedScanline(DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, l4,
+				drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, l4,
 				k5, j6, i5, l5, k6, z3, depthSlope);
 				x2 += i7;
 				x3 += i8;
@@ -1066,7 +1105,7 @@ public final class Rasterizer extends DrawingArea {
 		y2 -= y3;
 		y3 = anIntArray1472[y3];
 		while (--y2 >= 0) {
-			drawMaterializedScanline(DrawingArea.pixels, texels, y3, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, l4, k5,
+			drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, l4, k5,
 					j6, i5, l5, k6, z3, depthSlope);
 			x1 += k7;
 			x3 += i8;
@@ -1079,7 +1118,7 @@ public final class Rasterizer extends DrawingArea {
 			j6 += l6;
 		}
 		while (--y1 >= 0) {
-			drawMaterializedScanline(DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, l4, k5,
+			drawMaterializedScanline(state, DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, l4, k5,
 					j6, i5, l5, k6, z3, depthSlope);
 			x2 += i7;
 			x3 += i8;
@@ -1094,8 +1133,11 @@ public final class Rasterizer extends DrawingArea {
 		texels = null;
 	}
 
-	private static final void drawMaterializedScanline(int[] dest, int[] texels, int offset, int x1, int x2, int hsl1,
-			int hsl2, int t1, int t2, int t3, int t4, int t5, int t6, float z1, float z2) {
+	static void drawMaterializedScanline(RasterState state, int[] dest, int[] texels, int offset, int x1, int x2,
+			int hsl1, int hsl2, int t1, int t2, int t3, int t4, int t5, int t6, float z1, float z2) {
+		if (offset < state.firstOffset || offset >= state.endOffset) {
+			return;
+		}
 		if (x2 <= x1) {
 			return;
 		}
@@ -1103,7 +1145,7 @@ public final class Rasterizer extends DrawingArea {
 		int texPos = 0;
 		int rgb = 0;
 
-		if (textureOutOfDrawingBounds) {
+		if (state.restrictEdges) {
 			if (x2 > DrawingArea.lastX) {
 				x2 = DrawingArea.lastX;
 			}
@@ -1202,7 +1244,7 @@ public final class Rasterizer extends DrawingArea {
 			if (texY < 0) texY = 0;
 			if (texY > 127) texY = 127;
 
-			int texIndex = texelPos((texY << 7) + texX);
+			int texIndex = texelPos((texY << 7) + texX, state.mipmapLevel);
 
 			// Bounds check texture array
 			if (texIndex >= 0 && texIndex < texels.length) {
@@ -1229,7 +1271,7 @@ public final class Rasterizer extends DrawingArea {
 
 			dest[offset] = hslToRgb[colorIndex];
 
-			if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+			if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 				depthBuffer[offset] = z1;
 			}
 			}
@@ -1278,6 +1320,11 @@ public final class Rasterizer extends DrawingArea {
 			return;
 		}
 
+		if (BinnedRasterizer.recording) {
+			BinnedRasterizer.gouraudTriangle(y1, y2, y3, x1, x2, x3, hsl1, hsl2, hsl3, z1, z2, z3,
+					Client.getUserSettings().isSmoothShading() && aBoolean1464);
+			return;
+		}
 		if (Client.getUserSettings().isSmoothShading() && aBoolean1464) {
 			drawHDGouraudTriangle(y1, y2, y3, x1, x2, x3, hsl1, hsl2, hsl3, z1, z2, z3);
 		} else {
@@ -1291,12 +1338,16 @@ public final class Rasterizer extends DrawingArea {
 	    if (shouldClipTriangle(z1, z2, z3)) {
 	        return;
 	    }
-	    
+	    drawLDGouraudTriangle(direct(), y1, y2, y3, x1, x2, x3, hsl1, hsl2, hsl3, z1, z2, z3);
+	}
+
+	static void drawLDGouraudTriangle(RasterState state, int y1, int y2, int y3, int x1, int x2, int x3, int hsl1,
+			int hsl2, int hsl3, float z1, float z2, float z3) {
 	    // Debug first few triangles
 	    if (z1 < 5000 && z2 < 5000 && z3 < 5000) {
 	        //System.out.println("Triangle - z1=" + z1 + ", z2=" + z2 + ", z3=" + z3);
 	    }
-		if (!saveDepth) {
+		if (!state.saveDepth) {
 			z1 = z2 = z3 = 0;
 		}
 		int dx1 = 0;
@@ -1371,7 +1422,7 @@ public final class Rasterizer extends DrawingArea {
 						return;
 					}
 					for (y1 = anIntArray1472[y1]; --y2 >= 0; y1 += DrawingArea.width) {
-						drawLDGouraudScanline(DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1,
+						drawLDGouraudScanline(state, DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1,
 						depthSlope);
 						z1 += depthScale;
 						x3 += dx3;
@@ -1380,7 +1431,7 @@ public final class Rasterizer extends DrawingArea {
 						hsl1 += dhsl1;
 					}
 					while (--y3 >= 0) {
-						drawLDGouraudScanline(DrawingArea.pixels, y1, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z1,
+						drawLDGouraudScanline(state, DrawingArea.pixels, y1, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z1,
 					depthSlope);
 						z1 += depthScale;
 						x3 += dx3;
@@ -1397,7 +1448,7 @@ public final class Rasterizer extends DrawingArea {
 					return;
 				}
 				for (y1 = anIntArray1472[y1]; --y2 >= 0; y1 += DrawingArea.width) {
-					drawLDGouraudScanline(DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1,
 					depthSlope);
 					z1 += depthScale;
 					x3 += dx3;
@@ -1406,7 +1457,7 @@ public final class Rasterizer extends DrawingArea {
 					hsl1 += dhsl1;
 				}
 				while (--y3 >= 0) {
-					drawLDGouraudScanline(DrawingArea.pixels, y1, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z1,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y1, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z1,
 							depthSlope);
 					z1 += depthScale;
 					x3 += dx3;
@@ -1441,7 +1492,7 @@ public final class Rasterizer extends DrawingArea {
 					return;
 				}
 				for (y1 = anIntArray1472[y1]; --y3 >= 0; y1 += DrawingArea.width) {
-					drawLDGouraudScanline(DrawingArea.pixels, y1, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z1,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y1, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z1,
 					depthSlope);
 					z1 += depthScale;
 					x2 += dx3;
@@ -1450,7 +1501,7 @@ public final class Rasterizer extends DrawingArea {
 					hsl1 += dhsl1;
 				}
 				while (--y2 >= 0) {
-					drawLDGouraudScanline(DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z1,
 							depthSlope);
 					z1 += depthScale;
 					x3 += dx2;
@@ -1467,7 +1518,7 @@ public final class Rasterizer extends DrawingArea {
 				return;
 			}
 			for (y1 = anIntArray1472[y1]; --y3 >= 0; y1 += DrawingArea.width) {
-				drawLDGouraudScanline(DrawingArea.pixels, y1, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z1, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y1, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z1, depthSlope);
 				z1 += depthScale;
 				x2 += dx3;
 				x1 += dx1;
@@ -1475,7 +1526,7 @@ public final class Rasterizer extends DrawingArea {
 				hsl1 += dhsl1;
 			}
 			while (--y2 >= 0) {
-				drawLDGouraudScanline(DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z1, depthSlope);
 				z1 += depthScale;
 				x3 += dx2;
 				x1 += dx1;
@@ -1521,7 +1572,7 @@ public final class Rasterizer extends DrawingArea {
 						return;
 					}
 					for (y2 = anIntArray1472[y2]; --y3 >= 0; y2 += DrawingArea.width) {
-						drawLDGouraudScanline(DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2,
+						drawLDGouraudScanline(state, DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2,
 						depthSlope);
 						z2 += depthScale;
 						x1 += dx1;
@@ -1531,7 +1582,7 @@ public final class Rasterizer extends DrawingArea {
 					}
 
 					while (--y1 >= 0) {
-						drawLDGouraudScanline(DrawingArea.pixels, y2, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z2,
+						drawLDGouraudScanline(state, DrawingArea.pixels, y2, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z2,
 					depthSlope);
 						z2 += depthScale;
 						x1 += dx1;
@@ -1548,7 +1599,7 @@ public final class Rasterizer extends DrawingArea {
 					return;
 				}
 				for (y2 = anIntArray1472[y2]; --y3 >= 0; y2 += DrawingArea.width) {
-					drawLDGouraudScanline(DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2,
 							depthSlope);
 					z2 += depthScale;
 					x1 += dx1;
@@ -1558,7 +1609,7 @@ public final class Rasterizer extends DrawingArea {
 				}
 
 				while (--y1 >= 0) {
-					drawLDGouraudScanline(DrawingArea.pixels, y2, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z2,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y2, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z2,
 							depthSlope);
 					z2 += depthScale;
 					x1 += dx1;
@@ -1593,7 +1644,7 @@ public final class Rasterizer extends DrawingArea {
 					return;
 				}
 				for (y2 = anIntArray1472[y2]; --y1 >= 0; y2 += DrawingArea.width) {
-					drawLDGouraudScanline(DrawingArea.pixels, y2, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z2,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y2, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z2,
 					depthSlope);
 					z2 += depthScale;
 					x3 += dx1;
@@ -1602,7 +1653,7 @@ public final class Rasterizer extends DrawingArea {
 					hsl2 += dhsl2;
 				}
 				while (--y3 >= 0) {
-					drawLDGouraudScanline(DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z2,
 					depthSlope);
 					z2 += depthScale;
 					x1 += dx3;
@@ -1619,7 +1670,7 @@ public final class Rasterizer extends DrawingArea {
 				return;
 			}
 			for (y2 = anIntArray1472[y2]; --y1 >= 0; y2 += DrawingArea.width) {
-				drawLDGouraudScanline(DrawingArea.pixels, y2, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z2, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y2, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z2, depthSlope);
 				z2 += depthScale;
 				x3 += dx1;
 				x2 += dx2;
@@ -1628,7 +1679,7 @@ public final class Rasterizer extends DrawingArea {
 			}
 
 			while (--y3 >= 0) {
-				drawLDGouraudScanline(DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z2, depthSlope);
 				z2 += depthScale;
 				x1 += dx3;
 				x2 += dx2;
@@ -1673,7 +1724,7 @@ public final class Rasterizer extends DrawingArea {
 					return;
 				}
 				for (y3 = anIntArray1472[y3]; --y1 >= 0; y3 += DrawingArea.width) {
-					drawLDGouraudScanline(DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3,
 					depthSlope);
 					z3 += depthScale;
 					x2 += dx2;
@@ -1682,7 +1733,7 @@ public final class Rasterizer extends DrawingArea {
 					hsl3 += dhsl3;
 				}
 				while (--y2 >= 0) {
-					drawLDGouraudScanline(DrawingArea.pixels, y3, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z3,
+					drawLDGouraudScanline(state, DrawingArea.pixels, y3, x2 >> 16, x1 >> 16, hsl2 >> 7, hsl1 >> 7, z3,
 					depthSlope);
 					z3 += depthScale;
 					x2 += dx2;
@@ -1699,7 +1750,7 @@ public final class Rasterizer extends DrawingArea {
 				return;
 			}
 			for (y3 = anIntArray1472[y3]; --y1 >= 0; y3 += DrawingArea.width) {
-				drawLDGouraudScanline(DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depthSlope);
 				z3 += depthScale;
 				x2 += dx2;
 				x3 += dx3;
@@ -1708,7 +1759,7 @@ public final class Rasterizer extends DrawingArea {
 			}
 
 			while (--y2 >= 0) {
-				drawLDGouraudScanline(DrawingArea.pixels, y3, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z3, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y3, x1 >> 16, x2 >> 16, hsl1 >> 7, hsl2 >> 7, z3, depthSlope);
 				z3 += depthScale;
 				x2 += dx2;
 				x1 += dx1;
@@ -1742,7 +1793,7 @@ public final class Rasterizer extends DrawingArea {
 				return;
 			}
 			for (y3 = anIntArray1472[y3]; --y2 >= 0; y3 += DrawingArea.width) {
-				drawLDGouraudScanline(DrawingArea.pixels, y3, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z3, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y3, x1 >> 16, x3 >> 16, hsl1 >> 7, hsl3 >> 7, z3, depthSlope);
 				z3 += depthScale;
 				x1 += dx2;
 				x3 += dx3;
@@ -1750,7 +1801,7 @@ public final class Rasterizer extends DrawingArea {
 				hsl3 += dhsl3;
 			}
 			while (--y1 >= 0) {
-				drawLDGouraudScanline(DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3, depthSlope);
+				drawLDGouraudScanline(state, DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, hsl2 >> 7, hsl3 >> 7, z3, depthSlope);
 				z3 += depthScale;
 				x2 += dx1;
 				x3 += dx3;
@@ -1766,7 +1817,7 @@ public final class Rasterizer extends DrawingArea {
 			return;
 		}
 		for (y3 = anIntArray1472[y3]; --y2 >= 0; y3 += DrawingArea.width) {
-			drawLDGouraudScanline(DrawingArea.pixels, y3, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z3, depthSlope);
+			drawLDGouraudScanline(state, DrawingArea.pixels, y3, x3 >> 16, x1 >> 16, hsl3 >> 7, hsl1 >> 7, z3, depthSlope);
 			z3 += depthScale;
 			x1 += dx2;
 			x3 += dx3;
@@ -1774,7 +1825,7 @@ public final class Rasterizer extends DrawingArea {
 			hsl3 += dhsl3;
 		}
 		while (--y1 >= 0) {
-			drawLDGouraudScanline(DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depthSlope);
+			drawLDGouraudScanline(state, DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, hsl3 >> 7, hsl2 >> 7, z3, depthSlope);
 			z3 += depthScale;
 			x2 += dx1;
 			x3 += dx3;
@@ -1783,8 +1834,11 @@ public final class Rasterizer extends DrawingArea {
 			y3 += DrawingArea.width;
 		}
 	}
-	private static void drawLDGouraudScanline(int dest[], int offset, int x1, int x2, int hsl1, int hsl2, float z1,
-			float z2) {
+	static void drawLDGouraudScanline(RasterState state, int dest[], int offset, int x1, int x2, int hsl1, int hsl2,
+			float z1, float z2) {
+		if (offset < state.firstOffset || offset >= state.endOffset) {
+			return;
+		}
 		if (x1 >= x2) {
 			return;
 		}
@@ -1794,7 +1848,7 @@ public final class Rasterizer extends DrawingArea {
 
 		if (aBoolean1464) {
 			// Calculate color delta
-			if (textureOutOfDrawingBounds) {
+			if (state.restrictEdges) {
 				if (x2 - x1 > 3) {
 					dhsl = (hsl2 - hsl1) / (x2 - x1);
 				} else {
@@ -1838,7 +1892,7 @@ public final class Rasterizer extends DrawingArea {
 				remaining = maxPixels;
 			}
 
-			if (alpha == 0) {
+			if (state.alpha == 0) {
 				// Solid rendering
 				for (int i = 0; i < remaining; i++) {
 					if (offset >= dest.length) break;
@@ -1850,7 +1904,7 @@ public final class Rasterizer extends DrawingArea {
 					rgb = hslToRgb[hslIndex];
 					dest[offset] = rgb;
 
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 
@@ -1860,8 +1914,8 @@ public final class Rasterizer extends DrawingArea {
 				}
 			} else {
 				// Alpha blending
-				int a1 = alpha;
-				int a2 = 256 - alpha;
+				int a1 = state.alpha;
+				int a2 = 256 - state.alpha;
 
 				for (int i = 0; i < remaining; i++) {
 					if (offset >= dest.length) break;
@@ -1876,7 +1930,7 @@ public final class Rasterizer extends DrawingArea {
 
 					dest[offset] = srcBlend + dstBlend;
 
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 
@@ -1912,7 +1966,7 @@ public final class Rasterizer extends DrawingArea {
 				remaining = maxPixels;
 			}
 
-			if (alpha == 0) {
+			if (state.alpha == 0) {
 				for (int i = 0; i < remaining; i++) {
 					if (offset >= dest.length) break;
 
@@ -1921,7 +1975,7 @@ public final class Rasterizer extends DrawingArea {
 
 					dest[offset] = hslToRgb[hslIndex];
 
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 
@@ -1930,8 +1984,8 @@ public final class Rasterizer extends DrawingArea {
 					offset++;
 				}
 			} else {
-				int a1 = alpha;
-				int a2 = 256 - alpha;
+				int a1 = state.alpha;
+				int a2 = 256 - state.alpha;
 
 				for (int i = 0; i < remaining; i++) {
 					if (offset >= dest.length) break;
@@ -1946,7 +2000,7 @@ public final class Rasterizer extends DrawingArea {
 
 					dest[offset] = srcBlend + dstBlend;
 
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 
@@ -1959,7 +2013,12 @@ public final class Rasterizer extends DrawingArea {
 	}
 	public static void drawHDGouraudTriangle(int y1, int y2, int y3, int x1, int x2, int x3, int hsl1, int hsl2,
 			int hsl3, float z1, float z2, float z3) {
-		if (!saveDepth) {
+		drawHDGouraudTriangle(direct(), y1, y2, y3, x1, x2, x3, hsl1, hsl2, hsl3, z1, z2, z3);
+	}
+
+	static void drawHDGouraudTriangle(RasterState state, int y1, int y2, int y3, int x1, int x2, int x3, int hsl1,
+			int hsl2, int hsl3, float z1, float z2, float z3) {
+		if (!state.saveDepth) {
 			z1 = z2 = z3 = 0;
 		}
 
@@ -2072,7 +2131,7 @@ public final class Rasterizer extends DrawingArea {
 									return;
 								}
 								for (y1 = anIntArray1472[y1]; --y2 >= 0; y1 += DrawingArea.width) {
-									drawHDGouraudScanline(DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z1,
+									drawHDGouraudScanline(state, DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z1,
 							depthSlope);
 									x3 += dx3;
 									x1 += dx1;
@@ -2085,7 +2144,7 @@ public final class Rasterizer extends DrawingArea {
 									z1 += depthScale;
 								}
 								while (--y3 >= 0) {
-									drawHDGouraudScanline(DrawingArea.pixels, y1, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z1,
+									drawHDGouraudScanline(state, DrawingArea.pixels, y1, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z1,
 							depthSlope);
 									x3 += dx3;
 									x2 += dx2;
@@ -2106,7 +2165,7 @@ public final class Rasterizer extends DrawingArea {
 								return;
 							}
 							for (y1 = anIntArray1472[y1]; --y2 >= 0; y1 += DrawingArea.width) {
-								drawHDGouraudScanline(DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z1,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z1,
 									depthSlope);
 								x3 += dx3;
 								x1 += dx1;
@@ -2119,7 +2178,7 @@ public final class Rasterizer extends DrawingArea {
 								z1 += depthScale;
 							}
 							while (--y3 >= 0) {
-								drawHDGouraudScanline(DrawingArea.pixels, y1, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z1,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y1, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z1,
 								depthSlope);
 								x3 += dx3;
 								x2 += dx2;
@@ -2168,7 +2227,7 @@ public final class Rasterizer extends DrawingArea {
 								return;
 							}
 							for (y1 = anIntArray1472[y1]; --y3 >= 0; y1 += DrawingArea.width) {
-								drawHDGouraudScanline(DrawingArea.pixels, y1, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z1,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y1, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z1,
 						depthSlope);
 								x2 += dx3;
 								x1 += dx1;
@@ -2181,7 +2240,7 @@ public final class Rasterizer extends DrawingArea {
 								z1 += depthScale;
 							}
 							while (--y2 >= 0) {
-								drawHDGouraudScanline(DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z1,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y1, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z1,
 						depthSlope);
 								x3 += dx2;
 								x1 += dx1;
@@ -2202,7 +2261,7 @@ public final class Rasterizer extends DrawingArea {
 							return;
 						}
 						for (y1 = anIntArray1472[y1]; --y3 >= 0; y1 += DrawingArea.width) {
-							drawHDGouraudScanline(DrawingArea.pixels, y1, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z1,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y1, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z1,
 								depthSlope);
 							x2 += dx3;
 							x1 += dx1;
@@ -2215,7 +2274,7 @@ public final class Rasterizer extends DrawingArea {
 							z1 += depthScale;
 						}
 						while (--y2 >= 0) {
-							drawHDGouraudScanline(DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z1,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y1, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z1,
 								depthSlope);
 							x3 += dx2;
 							x1 += dx1;
@@ -2276,7 +2335,7 @@ public final class Rasterizer extends DrawingArea {
 									return;
 								}
 								for (y2 = anIntArray1472[y2]; --y3 >= 0; y2 += DrawingArea.width) {
-									drawHDGouraudScanline(DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z2,
+									drawHDGouraudScanline(state, DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z2,
 							depthSlope);
 									x1 += dx1;
 									x2 += dx2;
@@ -2289,7 +2348,7 @@ public final class Rasterizer extends DrawingArea {
 									z2 += depthScale;
 								}
 								while (--y1 >= 0) {
-									drawHDGouraudScanline(DrawingArea.pixels, y2, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z2,
+									drawHDGouraudScanline(state, DrawingArea.pixels, y2, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z2,
 							depthSlope);
 									x1 += dx1;
 									x3 += dx3;
@@ -2310,7 +2369,7 @@ public final class Rasterizer extends DrawingArea {
 								return;
 							}
 							for (y2 = anIntArray1472[y2]; --y3 >= 0; y2 += DrawingArea.width) {
-								drawHDGouraudScanline(DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z2,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z2,
 									depthSlope);
 								x1 += dx1;
 								x2 += dx2;
@@ -2323,7 +2382,7 @@ public final class Rasterizer extends DrawingArea {
 								z2 += depthScale;
 							}
 							while (--y1 >= 0) {
-								drawHDGouraudScanline(DrawingArea.pixels, y2, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z2,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y2, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z2,
 								depthSlope);
 								x1 += dx1;
 								x3 += dx3;
@@ -2372,7 +2431,7 @@ public final class Rasterizer extends DrawingArea {
 								return;
 							}
 							for (y2 = anIntArray1472[y2]; --y1 >= 0; y2 += DrawingArea.width) {
-								drawHDGouraudScanline(DrawingArea.pixels, y2, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z2,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y2, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z2,
 						depthSlope);
 								x3 += dx1;
 								x2 += dx2;
@@ -2385,7 +2444,7 @@ public final class Rasterizer extends DrawingArea {
 								z2 += depthScale;
 							}
 							while (--y3 >= 0) {
-								drawHDGouraudScanline(DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z2,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y2, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z2,
 						depthSlope);
 								x1 += dx3;
 								x2 += dx2;
@@ -2406,7 +2465,7 @@ public final class Rasterizer extends DrawingArea {
 							return;
 						}
 						for (y2 = anIntArray1472[y2]; --y1 >= 0; y2 += DrawingArea.width) {
-							drawHDGouraudScanline(DrawingArea.pixels, y2, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z2,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y2, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z2,
 								depthSlope);
 							x3 += dx1;
 							x2 += dx2;
@@ -2419,7 +2478,7 @@ public final class Rasterizer extends DrawingArea {
 							z2 += depthScale;
 						}
 						while (--y3 >= 0) {
-							drawHDGouraudScanline(DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z2,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y2, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z2,
 								depthSlope);
 							x1 += dx3;
 							x2 += dx2;
@@ -2479,7 +2538,7 @@ public final class Rasterizer extends DrawingArea {
 								return;
 							}
 							for (y3 = anIntArray1472[y3]; --y1 >= 0; y3 += DrawingArea.width) {
-								drawHDGouraudScanline(DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z3,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z3,
 						depthSlope);
 								x2 += dx2;
 								x3 += dx3;
@@ -2492,7 +2551,7 @@ public final class Rasterizer extends DrawingArea {
 								z3 += depthScale;
 							}
 							while (--y2 >= 0) {
-								drawHDGouraudScanline(DrawingArea.pixels, y3, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z3,
+								drawHDGouraudScanline(state, DrawingArea.pixels, y3, x2 >> 16, x1 >> 16, r2, g2, b2, r1, g1, b1, z3,
 						depthSlope);
 								x2 += dx2;
 								x1 += dx1;
@@ -2513,7 +2572,7 @@ public final class Rasterizer extends DrawingArea {
 							return;
 						}
 						for (y3 = anIntArray1472[y3]; --y1 >= 0; y3 += DrawingArea.width) {
-							drawHDGouraudScanline(DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z3,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z3,
 								depthSlope);
 							x2 += dx2;
 							x3 += dx3;
@@ -2526,7 +2585,7 @@ public final class Rasterizer extends DrawingArea {
 							z3 += depthScale;
 						}
 						while (--y2 >= 0) {
-							drawHDGouraudScanline(DrawingArea.pixels, y3, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z3,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y3, x1 >> 16, x2 >> 16, r1, g1, b1, r2, g2, b2, z3,
 								depthSlope);
 							x2 += dx2;
 							x1 += dx1;
@@ -2575,7 +2634,7 @@ public final class Rasterizer extends DrawingArea {
 							return;
 						}
 						for (y3 = anIntArray1472[y3]; --y2 >= 0; y3 += DrawingArea.width) {
-							drawHDGouraudScanline(DrawingArea.pixels, y3, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z3,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y3, x1 >> 16, x3 >> 16, r1, g1, b1, r3, g3, b3, z3,
 					depthSlope);
 							x1 += dx2;
 							x3 += dx3;
@@ -2588,7 +2647,7 @@ public final class Rasterizer extends DrawingArea {
 							z3 += depthScale;
 						}
 						while (--y1 >= 0) {
-							drawHDGouraudScanline(DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z3,
+							drawHDGouraudScanline(state, DrawingArea.pixels, y3, x2 >> 16, x3 >> 16, r2, g2, b2, r3, g3, b3, z3,
 					depthSlope);
 							x2 += dx1;
 							x3 += dx3;
@@ -2609,7 +2668,7 @@ public final class Rasterizer extends DrawingArea {
 						return;
 					}
 					for (y3 = anIntArray1472[y3]; --y2 >= 0; y3 += DrawingArea.width) {
-						drawHDGouraudScanline(DrawingArea.pixels, y3, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z3, depthSlope);
+						drawHDGouraudScanline(state, DrawingArea.pixels, y3, x3 >> 16, x1 >> 16, r3, g3, b3, r1, g1, b1, z3, depthSlope);
 						x1 += dx2;
 						x3 += dx3;
 						r1 += dr2;
@@ -2621,7 +2680,7 @@ public final class Rasterizer extends DrawingArea {
 						z3 += depthScale;
 					}
 					while (--y1 >= 0) {
-						drawHDGouraudScanline(DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z3, depthSlope);
+						drawHDGouraudScanline(state, DrawingArea.pixels, y3, x3 >> 16, x2 >> 16, r3, g3, b3, r2, g2, b2, z3, depthSlope);
 						x2 += dx1;
 						x3 += dx3;
 						r2 += dr1;
@@ -2634,8 +2693,11 @@ public final class Rasterizer extends DrawingArea {
 						z3 += depthScale;
 					}
 	}
-	public static void drawHDGouraudScanline(int[] dest, int offset, int x1, int x2, int r1, int g1, int b1, int r2,
-	        int g2, int b2, float z1, float z2) {
+	static void drawHDGouraudScanline(RasterState state, int[] dest, int offset, int x1, int x2, int r1, int g1, int b1,
+			int r2, int g2, int b2, float z1, float z2) {
+	    if (offset < state.firstOffset || offset >= state.endOffset) {
+	        return;
+	    }
 	    int n = x2 - x1;
 	    if (n <= 0) {
 	        return;
@@ -2647,7 +2709,7 @@ public final class Rasterizer extends DrawingArea {
 	    int b_delta = (b2 - b1) / n;
 	    
 	    // Apply texture bounds clipping
-	    if (textureOutOfDrawingBounds) {
+	    if (state.restrictEdges) {
 	        if (x2 > DrawingArea.lastX) {
 	            n = DrawingArea.lastX - x1;
 	            x2 = DrawingArea.lastX;
@@ -2686,7 +2748,7 @@ public final class Rasterizer extends DrawingArea {
 	    int loops = n >> 2;
 	    int remainder = n & 3;
 	    
-	    if (alpha == 0) {
+	    if (state.alpha == 0) {
 	        // Solid rendering - unrolled 4 pixels at a time
 	        while (loops-- > 0) {
 	            if (offset >= dest.length) break;
@@ -2699,7 +2761,7 @@ public final class Rasterizer extends DrawingArea {
 	            finalG = Math.max(0, Math.min(255, finalG));
 	            finalB = Math.max(0, Math.min(255, finalB));
 	            dest[offset] = (finalR << 16) | (finalG << 8) | finalB;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            z1 += z2;
@@ -2717,7 +2779,7 @@ public final class Rasterizer extends DrawingArea {
 	            finalG = Math.max(0, Math.min(255, finalG));
 	            finalB = Math.max(0, Math.min(255, finalB));
 	            dest[offset] = (finalR << 16) | (finalG << 8) | finalB;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            z1 += z2;
@@ -2735,7 +2797,7 @@ public final class Rasterizer extends DrawingArea {
 	            finalG = Math.max(0, Math.min(255, finalG));
 	            finalB = Math.max(0, Math.min(255, finalB));
 	            dest[offset] = (finalR << 16) | (finalG << 8) | finalB;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            z1 += z2;
@@ -2753,7 +2815,7 @@ public final class Rasterizer extends DrawingArea {
 	            finalG = Math.max(0, Math.min(255, finalG));
 	            finalB = Math.max(0, Math.min(255, finalB));
 	            dest[offset] = (finalR << 16) | (finalG << 8) | finalB;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            z1 += z2;
@@ -2773,7 +2835,7 @@ public final class Rasterizer extends DrawingArea {
 	            finalG = Math.max(0, Math.min(255, finalG));
 	            finalB = Math.max(0, Math.min(255, finalB));
 	            dest[offset] = (finalR << 16) | (finalG << 8) | finalB;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            z1 += z2;
@@ -2784,8 +2846,8 @@ public final class Rasterizer extends DrawingArea {
 	        }
 	    } else {
 	        // Alpha blending - unrolled
-	        final int a1 = alpha;
-	        final int a2 = 256 - alpha;
+	        final int a1 = state.alpha;
+	        final int a2 = 256 - state.alpha;
 	        
 	        while (loops-- > 0) {
 	            if (offset >= dest.length) break;
@@ -2802,7 +2864,7 @@ public final class Rasterizer extends DrawingArea {
 	            int dst = dest[offset];
 	            int dstBlend = ((dst & 0xff00ff) * a1 >> 8 & 0xff00ff) + ((dst & 0xff00) * a1 >> 8 & 0xff00);
 	            dest[offset] = srcBlend + dstBlend;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            offset++;
@@ -2824,7 +2886,7 @@ public final class Rasterizer extends DrawingArea {
 	            dst = dest[offset];
 	            dstBlend = ((dst & 0xff00ff) * a1 >> 8 & 0xff00ff) + ((dst & 0xff00) * a1 >> 8 & 0xff00);
 	            dest[offset] = srcBlend + dstBlend;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            offset++;
@@ -2846,7 +2908,7 @@ public final class Rasterizer extends DrawingArea {
 	            dst = dest[offset];
 	            dstBlend = ((dst & 0xff00ff) * a1 >> 8 & 0xff00ff) + ((dst & 0xff00) * a1 >> 8 & 0xff00);
 	            dest[offset] = srcBlend + dstBlend;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            offset++;
@@ -2868,7 +2930,7 @@ public final class Rasterizer extends DrawingArea {
 	            dst = dest[offset];
 	            dstBlend = ((dst & 0xff00ff) * a1 >> 8 & 0xff00ff) + ((dst & 0xff00) * a1 >> 8 & 0xff00);
 	            dest[offset] = srcBlend + dstBlend;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            offset++;
@@ -2892,7 +2954,7 @@ public final class Rasterizer extends DrawingArea {
 	            int dst = dest[offset];
 	            int dstBlend = ((dst & 0xff00ff) * a1 >> 8 & 0xff00ff) + ((dst & 0xff00) * a1 >> 8 & 0xff00);
 	            dest[offset] = srcBlend + dstBlend;
-	            if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+	            if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 	                depthBuffer[offset] = z1;
 	            }
 	            offset++;
@@ -2909,8 +2971,16 @@ public final class Rasterizer extends DrawingArea {
 		if (shouldClipTriangle(z1, z2, z3)) {
 			return;
 		}
+		if (BinnedRasterizer.recording) {
+			BinnedRasterizer.flatTriangle(y1, y2, y3, x1, x2, x3, rgb, z1, z2, z3);
+			return;
+		}
+		drawFlatTriangle(direct(), y1, y2, y3, x1, x2, x3, rgb, z1, z2, z3);
+	}
 
-		if (!saveDepth) {
+	static void drawFlatTriangle(RasterState state, int y1, int y2, int y3, int x1, int x2, int x3, int rgb, float z1,
+			float z2, float z3) {
+		if (!state.saveDepth) {
 			z1 = z2 = z3 = 0;
 		}
 		int dx1 = 0;
@@ -2968,13 +3038,13 @@ public final class Rasterizer extends DrawingArea {
 					y3 -= y2;
 					y2 -= y1;
 					for (y1 = anIntArray1472[y1]; --y2 >= 0; y1 += DrawingArea.width) {
-						drawFlatScanline(DrawingArea.pixels, y1, rgb, x3 >> 16, x1 >> 16, z1, depthSlope);
+						drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x3 >> 16, x1 >> 16, z1, depthSlope);
 						z1 += depthScale;
 						x3 += dx3;
 						x1 += dx1;
 					}
 					while (--y3 >= 0) {
-						drawFlatScanline(DrawingArea.pixels, y1, rgb, x3 >> 16, x2 >> 16, z1, depthSlope);
+						drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x3 >> 16, x2 >> 16, z1, depthSlope);
 						z1 += depthScale;
 						x3 += dx3;
 						x2 += dx2;
@@ -2985,13 +3055,13 @@ public final class Rasterizer extends DrawingArea {
 				y3 -= y2;
 				y2 -= y1;
 				for (y1 = anIntArray1472[y1]; --y2 >= 0; y1 += DrawingArea.width) {
-					drawFlatScanline(DrawingArea.pixels, y1, rgb, x1 >> 16, x3 >> 16, z1, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x1 >> 16, x3 >> 16, z1, depthSlope);
 					z1 += depthScale;
 					x3 += dx3;
 					x1 += dx1;
 				}
 				while (--y3 >= 0) {
-					drawFlatScanline(DrawingArea.pixels, y1, rgb, x2 >> 16, x3 >> 16, z1, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x2 >> 16, x3 >> 16, z1, depthSlope);
 					z1 += depthScale;
 					x3 += dx3;
 					x2 += dx2;
@@ -3015,13 +3085,13 @@ public final class Rasterizer extends DrawingArea {
 				y2 -= y3;
 				y3 -= y1;
 				for (y1 = anIntArray1472[y1]; --y3 >= 0; y1 += DrawingArea.width) {
-					drawFlatScanline(DrawingArea.pixels, y1, rgb, x2 >> 16, x1 >> 16, z1, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x2 >> 16, x1 >> 16, z1, depthSlope);
 					z1 += depthScale;
 					x2 += dx3;
 					x1 += dx1;
 				}
 				while (--y2 >= 0) {
-					drawFlatScanline(DrawingArea.pixels, y1, rgb, x3 >> 16, x1 >> 16, z1, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x3 >> 16, x1 >> 16, z1, depthSlope);
 					z1 += depthScale;
 					x3 += dx2;
 					x1 += dx1;
@@ -3032,13 +3102,13 @@ public final class Rasterizer extends DrawingArea {
 			y2 -= y3;
 			y3 -= y1;
 			for (y1 = anIntArray1472[y1]; --y3 >= 0; y1 += DrawingArea.width) {
-				drawFlatScanline(DrawingArea.pixels, y1, rgb, x1 >> 16, x2 >> 16, z1, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x1 >> 16, x2 >> 16, z1, depthSlope);
 				z1 += depthScale;
 				x2 += dx3;
 				x1 += dx1;
 			}
 			while (--y2 >= 0) {
-				drawFlatScanline(DrawingArea.pixels, y1, rgb, x1 >> 16, x3 >> 16, z1, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y1, rgb, x1 >> 16, x3 >> 16, z1, depthSlope);
 				z1 += depthScale;
 				x3 += dx2;
 				x1 += dx1;
@@ -3074,13 +3144,13 @@ public final class Rasterizer extends DrawingArea {
 					y1 -= y3;
 					y3 -= y2;
 					for (y2 = anIntArray1472[y2]; --y3 >= 0; y2 += DrawingArea.width) {
-						drawFlatScanline(DrawingArea.pixels, y2, rgb, x1 >> 16, x2 >> 16, z2, depthSlope);
+						drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x1 >> 16, x2 >> 16, z2, depthSlope);
 						z2 += depthScale;
 						x1 += dx1;
 						x2 += dx2;
 					}
 					while (--y1 >= 0) {
-						drawFlatScanline(DrawingArea.pixels, y2, rgb, x1 >> 16, x3 >> 16, z2, depthSlope);
+						drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x1 >> 16, x3 >> 16, z2, depthSlope);
 						z2 += depthScale;
 						x1 += dx1;
 						x3 += dx3;
@@ -3091,13 +3161,13 @@ public final class Rasterizer extends DrawingArea {
 				y1 -= y3;
 				y3 -= y2;
 				for (y2 = anIntArray1472[y2]; --y3 >= 0; y2 += DrawingArea.width) {
-					drawFlatScanline(DrawingArea.pixels, y2, rgb, x2 >> 16, x1 >> 16, z2, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x2 >> 16, x1 >> 16, z2, depthSlope);
 					z2 += depthScale;
 					x1 += dx1;
 					x2 += dx2;
 				}
 				while (--y1 >= 0) {
-					drawFlatScanline(DrawingArea.pixels, y2, rgb, x3 >> 16, x1 >> 16, z2, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x3 >> 16, x1 >> 16, z2, depthSlope);
 					z2 += depthScale;
 					x1 += dx1;
 					x3 += dx3;
@@ -3121,13 +3191,13 @@ public final class Rasterizer extends DrawingArea {
 				y3 -= y1;
 				y1 -= y2;
 				for (y2 = anIntArray1472[y2]; --y1 >= 0; y2 += DrawingArea.width) {
-					drawFlatScanline(DrawingArea.pixels, y2, rgb, x3 >> 16, x2 >> 16, z2, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x3 >> 16, x2 >> 16, z2, depthSlope);
 					z2 += depthScale;
 					x3 += dx1;
 					x2 += dx2;
 				}
 				while (--y3 >= 0) {
-					drawFlatScanline(DrawingArea.pixels, y2, rgb, x1 >> 16, x2 >> 16, z2, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x1 >> 16, x2 >> 16, z2, depthSlope);
 					z2 += depthScale;
 					x1 += dx3;
 					x2 += dx2;
@@ -3138,13 +3208,13 @@ public final class Rasterizer extends DrawingArea {
 			y3 -= y1;
 			y1 -= y2;
 			for (y2 = anIntArray1472[y2]; --y1 >= 0; y2 += DrawingArea.width) {
-				drawFlatScanline(DrawingArea.pixels, y2, rgb, x2 >> 16, x3 >> 16, z2, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x2 >> 16, x3 >> 16, z2, depthSlope);
 				z2 += depthScale;
 				x3 += dx1;
 				x2 += dx2;
 			}
 			while (--y3 >= 0) {
-				drawFlatScanline(DrawingArea.pixels, y2, rgb, x2 >> 16, x1 >> 16, z2, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y2, rgb, x2 >> 16, x1 >> 16, z2, depthSlope);
 				z2 += depthScale;
 				x1 += dx3;
 				x2 += dx2;
@@ -3179,13 +3249,13 @@ public final class Rasterizer extends DrawingArea {
 				y2 -= y1;
 				y1 -= y3;
 				for (y3 = anIntArray1472[y3]; --y1 >= 0; y3 += DrawingArea.width) {
-					drawFlatScanline(DrawingArea.pixels, y3, rgb, x2 >> 16, x3 >> 16, z3, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x2 >> 16, x3 >> 16, z3, depthSlope);
 					z3 += depthScale;
 					x2 += dx2;
 					x3 += dx3;
 				}
 				while (--y2 >= 0) {
-					drawFlatScanline(DrawingArea.pixels, y3, rgb, x2 >> 16, x1 >> 16, z3, depthSlope);
+					drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x2 >> 16, x1 >> 16, z3, depthSlope);
 					z3 += depthScale;
 					x2 += dx2;
 					x1 += dx1;
@@ -3196,13 +3266,13 @@ public final class Rasterizer extends DrawingArea {
 			y2 -= y1;
 			y1 -= y3;
 			for (y3 = anIntArray1472[y3]; --y1 >= 0; y3 += DrawingArea.width) {
-				drawFlatScanline(DrawingArea.pixels, y3, rgb, x3 >> 16, x2 >> 16, z3, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x3 >> 16, x2 >> 16, z3, depthSlope);
 				z3 += depthScale;
 				x2 += dx2;
 				x3 += dx3;
 			}
 			while (--y2 >= 0) {
-				drawFlatScanline(DrawingArea.pixels, y3, rgb, x1 >> 16, x2 >> 16, z3, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x1 >> 16, x2 >> 16, z3, depthSlope);
 				z3 += depthScale;
 				x2 += dx2;
 				x1 += dx1;
@@ -3226,13 +3296,13 @@ public final class Rasterizer extends DrawingArea {
 			y1 -= y2;
 			y2 -= y3;
 			for (y3 = anIntArray1472[y3]; --y2 >= 0; y3 += DrawingArea.width) {
-				drawFlatScanline(DrawingArea.pixels, y3, rgb, x1 >> 16, x3 >> 16, z3, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x1 >> 16, x3 >> 16, z3, depthSlope);
 				z3 += depthScale;
 				x1 += dx2;
 				x3 += dx3;
 			}
 			while (--y1 >= 0) {
-				drawFlatScanline(DrawingArea.pixels, y3, rgb, x2 >> 16, x3 >> 16, z3, depthSlope);
+				drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x2 >> 16, x3 >> 16, z3, depthSlope);
 				z3 += depthScale;
 				x2 += dx1;
 				x3 += dx3;
@@ -3243,13 +3313,13 @@ public final class Rasterizer extends DrawingArea {
 		y1 -= y2;
 		y2 -= y3;
 		for (y3 = anIntArray1472[y3]; --y2 >= 0; y3 += DrawingArea.width) {
-			drawFlatScanline(DrawingArea.pixels, y3, rgb, x3 >> 16, x1 >> 16, z3, depthSlope);
+			drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x3 >> 16, x1 >> 16, z3, depthSlope);
 			z3 += depthScale;
 			x1 += dx2;
 			x3 += dx3;
 		}
 		while (--y1 >= 0) {
-			drawFlatScanline(DrawingArea.pixels, y3, rgb, x3 >> 16, x2 >> 16, z3, depthSlope);
+			drawFlatScanline(state, DrawingArea.pixels, y3, rgb, x3 >> 16, x2 >> 16, z3, depthSlope);
 			z3 += depthScale;
 			x2 += dx1;
 			x3 += dx3;
@@ -3257,12 +3327,16 @@ public final class Rasterizer extends DrawingArea {
 		}
 	}
 
-	private static void drawFlatScanline(int[] dest, int offset, int rgb, int x1, int x2, float z1, float z2) {
+	static void drawFlatScanline(RasterState state, int[] dest, int offset, int rgb, int x1, int x2, float z1,
+			float z2) {
+		if (offset < state.firstOffset || offset >= state.endOffset) {
+			return;
+		}
 		if (x1 >= x2) {
 			return;
 		}
 
-		if (textureOutOfDrawingBounds) {
+		if (state.restrictEdges) {
 			if (x2 > DrawingArea.lastX) {
 				x2 = DrawingArea.lastX;
 			}
@@ -3294,14 +3368,14 @@ public final class Rasterizer extends DrawingArea {
 			return;
 		}
 
-		if (alpha == 0) {
+		if (state.alpha == 0) {
 			// Solid fill - no alpha blending
 			for (int i = 0; i < n; i++) {
 				if (offset >= dest.length) break;
 
 				dest[offset] = rgb;
 
-				if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+				if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 					depthBuffer[offset] = z1;
 				}
 
@@ -3310,8 +3384,8 @@ public final class Rasterizer extends DrawingArea {
 			}
 		} else {
 			// Alpha blending
-			final int a1 = alpha;
-			final int a2 = 256 - alpha;
+			final int a1 = state.alpha;
+			final int a2 = 256 - state.alpha;
 
 			// Pre-calculate source blend
 			int srcBlend = ((rgb & 0xff00ff) * a2 >> 8 & 0xff00ff) + ((rgb & 0xff00) * a2 >> 8 & 0xff00);
@@ -3324,7 +3398,7 @@ public final class Rasterizer extends DrawingArea {
 
 				dest[offset] = srcBlend + dstBlend;
 
-				if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+				if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 					depthBuffer[offset] = z1;
 				}
 
@@ -4129,9 +4203,20 @@ public final class Rasterizer extends DrawingArea {
 		}
 	}
 	public static void drawTexturedTriangle(int var0, int var1, int var2, int var3, int var4, int var5, int var6, int var7, int var8, int var9, int var10, int var11, int var12, int var13, int var14, int var15, int var16, int var17, int var18) {
-		int[] texturePixels = getTexturePixels(var18);
+		if (BinnedRasterizer.recording) {
+			int[] texels = getQueuedTexturePixels(var18);
+			BinnedRasterizer.texturedTriangle(var0, var1, var2, var3, var4, var5, var6, var7, var8, var9, var10, var11,
+					var12, var13, var14, var15, var16, var17, texels, !textureIsTransparant[var18]);
+			return;
+		}
+		RasterState state = direct();
+		state.opaqueTexture = !textureIsTransparant[var18];
+		drawTexturedTriangle(state, var0, var1, var2, var3, var4, var5, var6, var7, var8, var9, var10, var11, var12,
+				var13, var14, var15, var16, var17, getTexturePixels(var18));
+	}
+
+	static void drawTexturedTriangle(RasterState state, int var0, int var1, int var2, int var3, int var4, int var5, int var6, int var7, int var8, int var9, int var10, int var11, int var12, int var13, int var14, int var15, int var16, int var17, int[] texturePixels) {
 		int var21;
-		aBoolean1463 = !textureIsTransparant[var18];
 		var21 = var4 - var3;
 		int var26 = var1 - var0;
 		int var27 = var5 - var3;
@@ -4220,7 +4305,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var4 >> 16, var5 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var4 >> 16, var5 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 										var5 += var22;
 										var4 += var30;
 										var6 += var20;
@@ -4231,7 +4316,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var3 >> 16, var5 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var3 >> 16, var5 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 								var5 += var22;
 								var3 += var29;
 								var6 += var20;
@@ -4254,7 +4339,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var5 >> 16, var4 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var5 >> 16, var4 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 										var5 += var22;
 										var4 += var30;
 										var6 += var20;
@@ -4265,7 +4350,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var5 >> 16, var3 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var5 >> 16, var3 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 								var5 += var22;
 								var3 += var29;
 								var6 += var20;
@@ -4308,7 +4393,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var3 >> 16, var5 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var3 >> 16, var5 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 										var5 += var30;
 										var3 += var29;
 										var6 += var20;
@@ -4319,7 +4404,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var3 >> 16, var4 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var3 >> 16, var4 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 								var4 += var22;
 								var3 += var29;
 								var6 += var20;
@@ -4342,7 +4427,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var5 >> 16, var3 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var5 >> 16, var3 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 										var5 += var30;
 										var3 += var29;
 										var6 += var20;
@@ -4353,7 +4438,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var0, var4 >> 16, var3 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var0, var4 >> 16, var3 >> 16, var6, var41, var24, var36, var33, var38, var39, var40);
 								var4 += var22;
 								var3 += var29;
 								var6 += var20;
@@ -4409,7 +4494,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var5 >> 16, var3 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var5 >> 16, var3 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 										var3 += var29;
 										var5 += var22;
 										var7 += var20;
@@ -4420,7 +4505,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var4 >> 16, var3 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var4 >> 16, var3 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 								var3 += var29;
 								var4 += var30;
 								var7 += var20;
@@ -4443,7 +4528,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var3 >> 16, var5 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var3 >> 16, var5 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 										var3 += var29;
 										var5 += var22;
 										var7 += var20;
@@ -4454,7 +4539,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var3 >> 16, var4 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var3 >> 16, var4 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 								var3 += var29;
 								var4 += var30;
 								var7 += var20;
@@ -4497,7 +4582,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var3 >> 16, var4 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var3 >> 16, var4 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 										var3 += var22;
 										var4 += var30;
 										var7 += var20;
@@ -4508,7 +4593,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var5 >> 16, var4 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var5 >> 16, var4 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 								var5 += var29;
 								var4 += var30;
 								var7 += var20;
@@ -4531,7 +4616,7 @@ public final class Rasterizer extends DrawingArea {
 											return;
 										}
 
-										drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var4 >> 16, var3 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+										drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var4 >> 16, var3 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 										var3 += var22;
 										var4 += var30;
 										var7 += var20;
@@ -4542,7 +4627,7 @@ public final class Rasterizer extends DrawingArea {
 									}
 								}
 
-								drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var1, var4 >> 16, var5 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
+								drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var1, var4 >> 16, var5 >> 16, var7, var41, var24, var36, var33, var38, var39, var40);
 								var5 += var29;
 								var4 += var30;
 								var7 += var20;
@@ -4597,7 +4682,7 @@ public final class Rasterizer extends DrawingArea {
 										return;
 									}
 
-									drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var4 >> 16, var3 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+									drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var4 >> 16, var3 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 									var4 += var30;
 									var3 += var29;
 									var8 += var20;
@@ -4608,7 +4693,7 @@ public final class Rasterizer extends DrawingArea {
 								}
 							}
 
-							drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var4 >> 16, var5 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+							drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var4 >> 16, var5 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 							var4 += var30;
 							var5 += var22;
 							var8 += var20;
@@ -4631,7 +4716,7 @@ public final class Rasterizer extends DrawingArea {
 										return;
 									}
 
-									drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var3 >> 16, var4 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+									drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var3 >> 16, var4 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 									var4 += var30;
 									var3 += var29;
 									var8 += var20;
@@ -4642,7 +4727,7 @@ public final class Rasterizer extends DrawingArea {
 								}
 							}
 
-							drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var5 >> 16, var4 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+							drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var5 >> 16, var4 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 							var4 += var30;
 							var5 += var22;
 							var8 += var20;
@@ -4685,7 +4770,7 @@ public final class Rasterizer extends DrawingArea {
 										return;
 									}
 
-									drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var4 >> 16, var5 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+									drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var4 >> 16, var5 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 									var4 += var29;
 									var5 += var22;
 									var8 += var20;
@@ -4696,7 +4781,7 @@ public final class Rasterizer extends DrawingArea {
 								}
 							}
 
-							drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var3 >> 16, var5 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+							drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var3 >> 16, var5 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 							var3 += var30;
 							var5 += var22;
 							var8 += var20;
@@ -4719,7 +4804,7 @@ public final class Rasterizer extends DrawingArea {
 										return;
 									}
 
-									drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var5 >> 16, var4 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+									drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var5 >> 16, var4 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 									var4 += var29;
 									var5 += var22;
 									var8 += var20;
@@ -4730,7 +4815,7 @@ public final class Rasterizer extends DrawingArea {
 								}
 							}
 
-							drawTexturedLine(DrawingArea.pixels, texturePixels, 0, 0, var2, var5 >> 16, var3 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
+							drawTexturedLine(state, DrawingArea.pixels, texturePixels, 0, 0, var2, var5 >> 16, var3 >> 16, var8, var41, var24, var36, var33, var38, var39, var40);
 							var3 += var30;
 							var5 += var22;
 							var8 += var20;
@@ -4745,8 +4830,11 @@ public final class Rasterizer extends DrawingArea {
 		}
 	}
 
-	static void drawTexturedLine(int[] var0, int[] var1, int var2, int var3, int var4, int var5, int var6, int var7, int var8, int var9, int var10, int var11, int var12, int var13, int var14) {
-		if(textureOutOfDrawingBounds) {
+	static void drawTexturedLine(RasterState state, int[] var0, int[] var1, int var2, int var3, int var4, int var5, int var6, int var7, int var8, int var9, int var10, int var11, int var12, int var13, int var14) {
+		if (var4 < state.firstOffset || var4 >= state.endOffset) {
+			return;
+		}
+		if(state.restrictEdges) {
 			if(var6 > DrawingArea.lastX) {
 				var6 = DrawingArea.lastX;
 			}
@@ -4809,7 +4897,7 @@ public final class Rasterizer extends DrawingArea {
 			var17 >>= 3;
 			var8 <<= 3;
 			var21 = var7 >> 8;
-			if(aBoolean1463) {
+			if(state.opaqueTexture) {
 				if(var17 > 0) {
 					do {
 						var3 = var1[(var2 & 4032) + (var2 >>> 26)];
@@ -5004,7 +5092,7 @@ public final class Rasterizer extends DrawingArea {
 				var17 >>= 3;
 				var8 <<= 3;
 				var21 = var7 >> 8;
-				if(aBoolean1463) {
+				if(state.opaqueTexture) {
 					if(var17 > 0) {
 						do {
 							var3 = var1[(var2 & 16256) + (var2 >>> 25)];
@@ -5165,14 +5253,27 @@ public final class Rasterizer extends DrawingArea {
 	public static void drawTexturedTriangleold(int y1, int y2, int y3, int x1, int x2, int x3, int c1, int c2, int c3,
 			int tx1, int tx2, int tx3, int ty1, int ty2, int ty3, int tz1, int tz2, int tz3, int tex, float z1, float z2,
 			float z3) {
-		if (!saveDepth) {
+		if (BinnedRasterizer.recording) {
+			int[] texels = getQueuedTexturePixels(tex);
+			BinnedRasterizer.texturedTriangle317(y1, y2, y3, x1, x2, x3, c1, c2, c3, tx1, tx2, tx3, ty1, ty2, ty3, tz1,
+					tz2, tz3, texels, !textureIsTransparant[tex], z1, z2, z3);
+			return;
+		}
+		RasterState state = direct();
+		state.opaqueTexture = !textureIsTransparant[tex];
+		drawTexturedTriangleold(state, y1, y2, y3, x1, x2, x3, c1, c2, c3, tx1, tx2, tx3, ty1, ty2, ty3, tz1, tz2, tz3,
+				getTexturePixels(tex), z1, z2, z3);
+	}
+
+	static void drawTexturedTriangleold(RasterState state, int y1, int y2, int y3, int x1, int x2, int x3, int c1,
+			int c2, int c3, int tx1, int tx2, int tx3, int ty1, int ty2, int ty3, int tz1, int tz2, int tz3,
+			int[] texels, float z1, float z2, float z3) {
+		if (!state.saveDepth) {
 			z1 = z2 = z3 = 0;
 		}
 		c1 = 0x7f - c1 << 1;
 		c2 = 0x7f - c2 << 1;
 		c3 = 0x7f - c3 << 1;
-		int texels[] = getTexturePixels(tex);
-		aBoolean1463 = !textureIsTransparant[tex];
 		tx2 = tx1 - tx2;
 		ty2 = ty1 - ty2;
 		tz2 = tz1 - tz2;
@@ -5258,7 +5359,7 @@ public final class Rasterizer extends DrawingArea {
 					y2 -= y1;
 					y1 = anIntArray1472[y1];
 					while (--y2 >= 0) {
-						drawTexturedScanline(DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5,
+						drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5,
 				l5, k6, z1, depthSlope);
 						z1 += depthScale;
 						x3 += i8;
@@ -5271,7 +5372,7 @@ public final class Rasterizer extends DrawingArea {
 						j6 += l6;
 					}
 					while (--y3 >= 0) {
-						drawTexturedScanline(DrawingArea.pixels, texels, y1, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5,
+						drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5,
 						l5, k6, z1, depthSlope);
 						z1 += depthScale;
 						x3 += i8;
@@ -5289,7 +5390,7 @@ public final class Rasterizer extends DrawingArea {
 				y2 -= y1;
 				y1 = anIntArray1472[y1];
 				while (--y2 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5, l5,
 					k6, z1, depthSlope);
 					z1 += depthScale;
 					x3 += i8;
@@ -5302,7 +5403,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y3 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y1, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5,
 					k6, z1, depthSlope);
 					z1 += depthScale;
 					x3 += i8;
@@ -5342,7 +5443,7 @@ public final class Rasterizer extends DrawingArea {
 				y3 -= y1;
 				y1 = anIntArray1472[y1];
 				while (--y3 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y1, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5,
 			k6, z1, depthSlope);
 					z1 += depthScale;
 					x2 += i8;
@@ -5355,7 +5456,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y2 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5, l5,
 					k6, z1, depthSlope);
 					z1 += depthScale;
 					x3 += k7;
@@ -5373,7 +5474,7 @@ public final class Rasterizer extends DrawingArea {
 			y3 -= y1;
 			y1 = anIntArray1472[y1];
 			while (--y3 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y1, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5, l5, k6,
 				z1, depthSlope);
 				z1 += depthScale;
 				x2 += i8;
@@ -5386,7 +5487,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y2 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y1, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5, l5, k6,
 				z1, depthSlope);
 				z1 += depthScale;
 				x3 += k7;
@@ -5438,7 +5539,7 @@ public final class Rasterizer extends DrawingArea {
 					y3 -= y2;
 					y2 = anIntArray1472[y2];
 					while (--y3 >= 0) {
-						drawTexturedScanline(DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5,
+						drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5,
 				l5, k6, z2, depthSlope);
 						z2 += depthScale;
 						x1 += i7;
@@ -5451,7 +5552,7 @@ public final class Rasterizer extends DrawingArea {
 						j6 += l6;
 					}
 					while (--y1 >= 0) {
-						drawTexturedScanline(DrawingArea.pixels, texels, y2, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5,
+						drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5,
 						l5, k6, z2, depthSlope);
 						z2 += depthScale;
 						x1 += i7;
@@ -5469,7 +5570,7 @@ public final class Rasterizer extends DrawingArea {
 				y3 -= y2;
 				y2 = anIntArray1472[y2];
 				while (--y3 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5,
 				k6, z2, depthSlope);
 					z2 += depthScale;
 					x1 += i7;
@@ -5482,7 +5583,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y1 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y2, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5, l5,
 				k6, z2, depthSlope);
 					z2 += depthScale;
 					x1 += i7;
@@ -5522,7 +5623,7 @@ public final class Rasterizer extends DrawingArea {
 				y1 -= y2;
 				y2 = anIntArray1472[y2];
 				while (--y1 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y2, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5, l5,
 			k6, z2, depthSlope);
 					z2 += depthScale;
 					x3 += i7;
@@ -5535,7 +5636,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y3 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5, l5,
 					k6, z2, depthSlope);
 					z2 += depthScale;
 					x1 += i8;
@@ -5553,7 +5654,7 @@ public final class Rasterizer extends DrawingArea {
 			y1 -= y2;
 			y2 = anIntArray1472[y2];
 			while (--y1 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y2, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5, k6,
 				z2, depthSlope);
 				z2 += depthScale;
 				x3 += i7;
@@ -5566,7 +5667,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y3 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y2, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5, k6,
 						z2, depthSlope);
 				z2 += depthScale;
 				x1 += i8;
@@ -5617,7 +5718,7 @@ public final class Rasterizer extends DrawingArea {
 				y1 -= y3;
 				y3 = anIntArray1472[y3];
 				while (--y1 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5,
 			k6, z3, depthSlope);
 					z3 += depthScale;
 					x2 += k7;
@@ -5630,7 +5731,7 @@ public final class Rasterizer extends DrawingArea {
 					j6 += l6;
 				}
 				while (--y2 >= 0) {
-					drawTexturedScanline(DrawingArea.pixels, texels, y3, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5,
+					drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x2 >> 16, x1 >> 16, c2, c1, l4, k5, j6, i5, l5,
 					k6, z3, depthSlope);
 					z3 += depthScale;
 					x2 += k7;
@@ -5648,7 +5749,7 @@ public final class Rasterizer extends DrawingArea {
 			y1 -= y3;
 			y3 = anIntArray1472[y3];
 			while (--y1 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5, l5, k6,
 				z3, depthSlope);
 				z3 += depthScale;
 				x2 += k7;
@@ -5661,7 +5762,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y2 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y3, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x1 >> 16, x2 >> 16, c1, c2, l4, k5, j6, i5, l5, k6,
 						z3, depthSlope);
 				z3 += depthScale;
 				x2 += k7;
@@ -5701,7 +5802,7 @@ public final class Rasterizer extends DrawingArea {
 			y2 -= y3;
 			y3 = anIntArray1472[y3];
 			while (--y2 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y3, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x1 >> 16, x3 >> 16, c1, c3, l4, k5, j6, i5, l5, k6,
 		z3, depthSlope);
 				z3 += depthScale;
 				x1 += k7;
@@ -5714,7 +5815,7 @@ public final class Rasterizer extends DrawingArea {
 				j6 += l6;
 			}
 			while (--y1 >= 0) {
-				drawTexturedScanline(DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5, k6,
+				drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x2 >> 16, x3 >> 16, c2, c3, l4, k5, j6, i5, l5, k6,
 				z3, depthSlope);
 				z3 += depthScale;
 				x2 += i7;
@@ -5732,7 +5833,7 @@ public final class Rasterizer extends DrawingArea {
 		y2 -= y3;
 		y3 = anIntArray1472[y3];
 		while (--y2 >= 0) {
-			drawTexturedScanline(DrawingArea.pixels, texels, y3, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5, l5, k6, z3,
+			drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x3 >> 16, x1 >> 16, c3, c1, l4, k5, j6, i5, l5, k6, z3,
 					depthSlope);
 			z3 += depthScale;
 			x1 += k7;
@@ -5745,7 +5846,7 @@ public final class Rasterizer extends DrawingArea {
 			j6 += l6;
 		}
 		while (--y1 >= 0) {
-			drawTexturedScanline(DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5, l5, k6, z3,
+			drawTexturedScanline(state, DrawingArea.pixels, texels, y3, x3 >> 16, x2 >> 16, c3, c2, l4, k5, j6, i5, l5, k6, z3,
 					depthSlope);
 			z3 += depthScale;
 			x2 += i7;
@@ -5759,8 +5860,11 @@ public final class Rasterizer extends DrawingArea {
 		}
 	}
 
-	private static void drawTexturedScanline(int dest[], int src[], int offset, int x1, int x2, int hsl1, int hsl2,
-			int t1, int t2, int t3, int t4, int t5, int t6, float z1, float z2) {
+	static void drawTexturedScanline(RasterState state, int dest[], int src[], int offset, int x1, int x2, int hsl1,
+			int hsl2, int t1, int t2, int t3, int t4, int t5, int t6, float z1, float z2) {
+		if (offset < state.firstOffset || offset >= state.endOffset) {
+			return;
+		}
 		int darken = 0;
 		int srcPos = 0;
 
@@ -5775,7 +5879,7 @@ public final class Rasterizer extends DrawingArea {
 			dl = (hsl2 - hsl1) / (x2 - x1);
 		}
 
-		if (textureOutOfDrawingBounds) {
+		if (state.restrictEdges) {
 			if (x2 > DrawingArea.lastX) {
 				x2 = DrawingArea.lastX;
 			}
@@ -5850,7 +5954,7 @@ public final class Rasterizer extends DrawingArea {
 		int loops = n >> 3;
 		int remainder = n & 7;
 
-		if (aBoolean1463) {
+		if (state.opaqueTexture) {
 			// Opaque rendering - unrolled loop for performance
 			while (loops-- > 0) {
 				// CRITICAL FIX: Bounds check texture index
@@ -5859,7 +5963,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;  // CRITICAL FIX: Clamp brightness
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -5875,7 +5979,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -5890,7 +5994,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -5905,7 +6009,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -5920,7 +6024,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -5935,7 +6039,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -5950,7 +6054,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -5965,7 +6069,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -6002,7 +6106,7 @@ public final class Rasterizer extends DrawingArea {
 					int rgb = src[texIndex];
 					int l = (hsl1 >> 16) & 0xFF;
 					dest[offset] = ((rgb & 0xff00ff) * l & ~0xff00ff) + ((rgb & 0xff00) * l & 0xff0000) >> 8;
-					if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+					if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 						depthBuffer[offset] = z1;
 					}
 				}
@@ -6021,7 +6125,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6039,7 +6143,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6056,7 +6160,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6073,7 +6177,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6090,7 +6194,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6107,7 +6211,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6124,7 +6228,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6141,7 +6245,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -6180,7 +6284,7 @@ public final class Rasterizer extends DrawingArea {
 					if (i9 != 0) {
 						int l = (hsl1 >> 16) & 0xFF;
 						dest[offset] = ((i9 & 0xff00ff) * l & ~0xff00ff) + ((i9 & 0xff00) * l & 0xff0000) >> 8;
-						if (saveDepth && depthBuffer != null && offset < depthBuffer.length) {
+						if (state.saveDepth && depthBuffer != null && offset < depthBuffer.length) {
 							depthBuffer[offset] = z1;
 						}
 					}
@@ -0,0 +1,362 @@
+package com.client;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Packs the ground tiles and static models of a {@link WorldController} into vertex buffers for
+ * the GPU renderer, one buffer per plane and {@link WorldController#REGION_SIZE} tile region.
+ *
+ * Each vertex is {@link #FLOATS_PER_VERTEX} floats: the position with the height as y, texture
+ * coordinates, the face normal and an RGBA colour, which is what the GPU plugin's shader reads.
+ * A region is only packed again once the scene says it has changed, after a region load or an
+ * object spawning or going away, so the buffers can be uploaded once instead of every frame.
+ * Nothing here needs OpenGL.
+ */
+public final class ScenePacker {
+
+	public static final int FLOATS_PER_VERTEX = 12;
+	private static final int HIDDEN = 12345678;
+
+	private WorldController scene;
+	private FloatBuffer[][][] regions;
+	private int[][][] packedRevisions;
+	private int[][][] packedAt;
+	private int revision;
+	private float[] scratch = new float[FLOATS_PER_VERTEX * 3 * 1024];
+	private int length;
+
+	/**
+	 * Packs the regions of the scene that changed since the last call.
+	 *
+	 * @return how many regions were packed.
+	 */
+	public int update(WorldController scene) {
+		if (scene != this.scene) {
+			this.scene = scene;
+			int regionsX = (scene.getWidth() + WorldController.REGION_SIZE - 1) / WorldController.REGION_SIZE;
+			int regionsY = (scene.getLength() + WorldController.REGION_SIZE - 1) / WorldController.REGION_SIZE;
+			regions = new FloatBuffer[scene.getPlaneCount()][regionsX][regionsY];
+			packedRevisions = new int[scene.getPlaneCount()][regionsX][regionsY];
+			packedAt = new int[scene.getPlaneCount()][regionsX][regionsY];
+			for (int[][] plane : packedRevisions) {
+				for (int[] row : plane) {
+					Arrays.fill(row, -1);
+				}
+			}
+		}
+		int packed = 0;
+		for (int plane = 0; plane < regions.length; plane++) {
+			for (int regionX = 0; regionX < regions[plane].length; regionX++) {
+				for (int regionY = 0; regionY < regions[plane][regionX].length; regionY++) {
+					int current = scene.getRegionRevision(plane, regionX, regionY);
+					if (regions[plane][regionX][regionY] != null && packedRevisions[plane][regionX][regionY] == current) {
+						continue;
+					}
+					regions[plane][regionX][regionY] = pack(plane, regionX, regionY);
+					packedRevisions[plane][regionX][regionY] = current;
+					packedAt[plane][regionX][regionY] = revision + 1;
+					packed++;
+				}
+			}
+		}
+		if (packed > 0) {
+			revision++;
+		}
+		return packed;
+	}
+
+	/**
+	 * @return a counter that changes whenever {@link #update} packs anything.
+	 */
+	public int getRevision() {
+		return revision;
+	}
+
+	/**
+	 * @return the {@link #getRevision revision} the region was last packed in.
+	 */
+	public int getRegionRevision(int plane, int regionX, int regionY) {
+		return packedAt[plane][regionX][regionY];
+	}
+
+	/**
+	 * @return the packed vertices of a region, from position 0 to the limit.
+	 */
+	public FloatBuffer getRegion(int plane, int regionX, int regionY) {
+		return regions[plane][regionX][regionY].duplicate();
+	}
+
+	public int getPlaneCount() {
+		return regions == null ? 0 : regions.length;
+	}
+
+	public int getRegionCountX() {
+		return regions == null ? 0 : regions[0].length;
+	}
+
+	public int getRegionCountY() {
+		return regions == null ? 0 : regions[0][0].length;
+	}
+
+	/**
+	 * @return the number of vertices in the regions of planes 0 up to {@code maxPlane}.
+	 */
+	public int getVertexCount(int maxPlane) {
+		int floats = 0;
+		for (int plane = 0; plane <= maxPlane && plane < regions.length; plane++) {
+			for (FloatBuffer[] row : regions[plane]) {
+				for (FloatBuffer region : row) {
+					floats += region.limit();
+				}
+			}
+		}
+		return floats / FLOATS_PER_VERTEX;
+	}
+
+	/**
+	 * Copies the regions of planes 0 up to {@code maxPlane} into one buffer, for renderers that draw
+	 * the scene in a single call.
+	 */
+	public void copyTo(FloatBuffer into, int maxPlane) {
+		for (int plane = 0; plane <= maxPlane && plane < regions.length; plane++) {
+			for (FloatBuffer[] row : regions[plane]) {
+				for (FloatBuffer region : row) {
+					into.put(region.duplicate());
+				}
+			}
+		}
+	}
+
+	private FloatBuffer pack(int plane, int regionX, int regionY) {
+		length = 0;
+		int[][] heights = scene.getTileHeights()[plane];
+		int maxX = Math.min(scene.getWidth(), (regionX + 1) * WorldController.REGION_SIZE);
+		int maxY = Math.min(scene.getLength(), (regionY + 1) * WorldController.REGION_SIZE);
+		for (int x = regionX * WorldController.REGION_SIZE; x < maxX; x++) {
+			for (int y = regionY * WorldController.REGION_SIZE; y < maxY; y++) {
+				Ground tile = scene.getTile(plane, x, y);
+				if (tile == null) {
+					continue;
+				}
+				if (tile.aClass43_1311 != null) {
+					packPlainTile(tile.aClass43_1311, heights, x, y);
+				}
+				if (tile.aClass40_1312 != null) {
+					packShapedTile(tile.aClass40_1312, x, y);
+				}
+				packObjects(tile, x, y);
+			}
+		}
+		FloatBuffer buffer = ByteBuffer.allocateDirect(length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		buffer.put(scratch, 0, length).flip();
+		return buffer;
+	}
+
+	/**
+	 * Packs the two triangles of a tile, in the order the software renderer draws them.
+	 */
+	private void packPlainTile(Class43 tile, int[][] heights, int x, int y) {
+		int westX = x << 7;
+		int eastX = westX + 128;
+		int southY = y << 7;
+		int northY = southY + 128;
+		int southWest = heights[x][y];
+		int southEast = heights[x + 1][y];
+		int northEast = heights[x + 1][y + 1];
+		int northWest = heights[x][y + 1];
+		int texture = tile.anInt720;
+		if (tile.anInt718 != HIDDEN) {
+			packTriangle(eastX, northEast, northY, 1, 1, colour(texture, tile.anInt718),
+					westX, northWest, northY, 0, 1, colour(texture, tile.anInt719),
+					eastX, southEast, southY, 1, 0, colour(texture, tile.anInt717), 1F);
+		}
+		if (tile.anInt716 != HIDDEN) {
+			packTriangle(westX, southWest, southY, 0, 0, colour(texture, tile.anInt716),
+					eastX, southEast, southY, 1, 0, colour(texture, tile.anInt717),
+					westX, northWest, northY, 0, 1, colour(texture, tile.anInt719), 1F);
+		}
+	}
+
+	private void packShapedTile(ShapedTile tile, int x, int y) {
+		int originX = x << 7;
+		int originY = y << 7;
+		for (int triangle = 0; triangle < tile.triangleA.length; triangle++) {
+			if (tile.triangleHslA[triangle] == HIDDEN) {
+				continue;
+			}
+			int texture = tile.triangleTexture == null ? -1 : tile.triangleTexture[triangle];
+			int a = tile.triangleA[triangle];
+			int b = tile.triangleB[triangle];
+			int c = tile.triangleC[triangle];
+			packTriangle(tile.origVertexX[a], tile.origVertexY[a], tile.origVertexZ[a],
+					(tile.origVertexX[a] - originX) / 128F, (tile.origVertexZ[a] - originY) / 128F,
+					colour(texture, tile.triangleHslA[triangle]),
+					tile.origVertexX[b], tile.origVertexY[b], tile.origVertexZ[b],
+					(tile.origVertexX[b] - originX) / 128F, (tile.origVertexZ[b] - originY) / 128F,
+					colour(texture, tile.triangleHslB[triangle]),
+					tile.origVertexX[c], tile.origVertexY[c], tile.origVertexZ[c],
+					(tile.origVertexX[c] - originX) / 128F, (tile.origVertexZ[c] - originY) / 128F,
+					colour(texture, tile.triangleHslC[triangle]), 1F);
+		}
+	}
+
+	/**
+	 * Packs the models on a tile that aren't animated. Objects spanning several tiles are packed
+	 * with the tile they start on.
+	 */
+	private void packObjects(Ground tile, int x, int y) {
+		Object1 wall = tile.obj1;
+		if (wall != null) {
+			packModel(wall.aClass30_Sub2_Sub4_278, 0, wall.anInt274, wall.anInt273, wall.anInt275);
+			packModel(wall.aClass30_Sub2_Sub4_279, 0, wall.anInt274, wall.anInt273, wall.anInt275);
+		}
+		Object2 decoration = tile.obj2;
+		if (decoration != null) {
+			if ((decoration.anInt502 & 0x300) == 0) {
+				packModel(decoration.aClass30_Sub2_Sub4_504, decoration.anInt503, decoration.anInt500,
+						decoration.anInt499, decoration.anInt501);
+			} else {
+				// Diagonal decorations are drawn on whichever side of the wall faces the camera
+				int side = decoration.anInt503;
+				if ((decoration.anInt502 & 0x100) != 0) {
+					packModel(decoration.aClass30_Sub2_Sub4_504, side * 512 + 256,
+							decoration.anInt500 + WorldController.anIntArray463[side], decoration.anInt499,
+							decoration.anInt501 + WorldController.anIntArray464[side]);
+				}
+				if ((decoration.anInt502 & 0x200) != 0) {
+					packModel(decoration.aClass30_Sub2_Sub4_504, side * 512 + 1280 & 0x7ff,
+							decoration.anInt500 + WorldController.anIntArray465[side], decoration.anInt499,
+							decoration.anInt501 + WorldController.anIntArray466[side]);
+				}
+			}
+		}
+		Object3 groundDecoration = tile.obj3;
+		if (groundDecoration != null) {
+			packModel(groundDecoration.aClass30_Sub2_Sub4_814, 0, groundDecoration.anInt812,
+					groundDecoration.anInt811, groundDecoration.anInt813);
+		}
+		Object4 items = tile.obj4;
+		if (items != null) {
+			int height = items.anInt45 - items.anInt52;
+			packModel(items.aClass30_Sub2_Sub4_48, 0, items.anInt46, height, items.anInt47);
+			packModel(items.aClass30_Sub2_Sub4_49, 0, items.anInt46, height, items.anInt47);
+			packModel(items.aClass30_Sub2_Sub4_50, 0, items.anInt46, height, items.anInt47);
+		}
+		for (int index = 0; index < tile.anInt1317; index++) {
+			StaticObject object = tile.obj5Array[index];
+			if (object != null && object.anInt523 == x && object.anInt525 == y) {
+				packModel(object.aClass30_Sub2_Sub4_521, object.anInt522, object.anInt519, object.anInt518,
+						object.anInt520);
+			}
+		}
+	}
+
+	/**
+	 * Packs a lit model's faces, turned and placed as {@link Model#renderAtPoint} would. Anything
+	 * that isn't a {@link Model} is animated or an entity and left to be drawn each frame.
+	 */
+	private void packModel(Renderable renderable, int orientation, int x, int height, int y) {
+		if (!(renderable instanceof Model)) {
+			return;
+		}
+		Model model = (Model) renderable;
+		if (model.colorsX == null || model.colorsZ == null) {
+			return;
+		}
+		int sine = orientation == 0 ? 0 : Model.SINE[orientation];
+		int cosine = orientation == 0 ? 65536 : Model.COSINE[orientation];
+		for (int face = 0; face < model.face_count; face++) {
+			int colourC = model.colorsZ[face];
+			if (colourC == -2 || model.drawType != null && model.drawType[face] == -1) {
+				continue;
+			}
+			int type = model.drawType == null ? 0 : model.drawType[face] & 3;
+			int colourA = model.colorsX[face];
+			int colourB = model.colorsY[face];
+			if (colourC == -1 || type == 1 || type == 3) {
+				colourB = colourC = colourA;
+			}
+			if (model.materials != null && model.materials[face] != -1) {
+				// Textured faces only keep their lightness
+				colourA &= 0x7f;
+				colourB &= 0x7f;
+				colourC &= 0x7f;
+			}
+			float alpha = model.face_alphas == null ? 1F : (255 - (model.face_alphas[face] & 0xff)) / 255F;
+			int a = model.trianglesX[face];
+			int b = model.trianglesY[face];
+			int c = model.trianglesZ[face];
+			packTriangle(rotateX(model, a, sine, cosine) + x, model.verticesY[a] + height,
+					rotateY(model, a, sine, cosine) + y, 0, 0, rgb(colourA),
+					rotateX(model, b, sine, cosine) + x, model.verticesY[b] + height,
+					rotateY(model, b, sine, cosine) + y, 0, 0, rgb(colourB),
+					rotateX(model, c, sine, cosine) + x, model.verticesY[c] + height,
+					rotateY(model, c, sine, cosine) + y, 0, 0, rgb(colourC), alpha);
+		}
+	}
+
+	private static int rotateX(Model model, int vertex, int sine, int cosine) {
+		return model.verticesZ[vertex] * sine + model.verticesX[vertex] * cosine >> 16;
+	}
+
+	private static int rotateY(Model model, int vertex, int sine, int cosine) {
+		return model.verticesZ[vertex] * cosine - model.verticesX[vertex] * sine >> 16;
+	}
+
+	/**
+	 * @return the RGB a tile colour is drawn with, textures are drawn as their average colour.
+	 */
+	private static int colour(int texture, int hsl) {
+		if (texture != -1 && texture <= 50) {
+			hsl = WorldController.texturedTileColour(texture, hsl);
+		}
+		return rgb(hsl);
+	}
+
+	private static int rgb(int hsl) {
+		int[] palette = Rasterizer.hslToRgb;
+		return palette == null ? 0 : palette[hsl & 0xffff];
+	}
+
+	private void packTriangle(float x1, float y1, float z1, float u1, float v1, int rgb1,
+			float x2, float y2, float z2, float u2, float v2, int rgb2,
+			float x3, float y3, float z3, float u3, float v3, int rgb3, float alpha) {
+		float nx = (y2 - y1) * (z3 - z1) - (z2 - z1) * (y3 - y1);
+		float ny = (z2 - z1) * (x3 - x1) - (x2 - x1) * (z3 - z1);
+		float nz = (x2 - x1) * (y3 - y1) - (y2 - y1) * (x3 - x1);
+		float normal = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (normal > 0) {
+			nx /= normal;
+			ny /= normal;
+			nz /= normal;
+		}
+		if (length + FLOATS_PER_VERTEX * 3 > scratch.length) {
+			scratch = Arrays.copyOf(scratch, scratch.length * 2);
+		}
+		packVertex(x1, y1, z1, u1, v1, nx, ny, nz, rgb1, alpha);
+		packVertex(x2, y2, z2, u2, v2, nx, ny, nz, rgb2, alpha);
+		packVertex(x3, y3, z3, u3, v3, nx, ny, nz, rgb3, alpha);
+	}
+
+	private void packVertex(float x, float y, float z, float u, float v, float nx, float ny, float nz, int rgb,
+			float alpha) {
+		float[] out = scratch;
+		int offset = length;
+		out[offset] = x;
+		out[offset + 1] = y;
+		out[offset + 2] = z;
+		out[offset + 3] = u;
+		out[offset + 4] = v;
+		out[offset + 5] = nx;
+		out[offset + 6] = ny;
+		out[offset + 7] = nz;
+		out[offset + 8] = (rgb >> 16 & 0xff) / 255F;
+		out[offset + 9] = (rgb >> 8 & 0xff) / 255F;
+		out[offset + 10] = (rgb & 0xff) / 255F;
+		out[offset + 11] = alpha;
+		length = offset + FLOATS_PER_VERTEX;
+	}
+}
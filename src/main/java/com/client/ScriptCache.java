@@ -0,0 +1,212 @@
+package com.client;
+
+import java.util.Arrays;
+
+import com.client.graphics.interfaces.RSInterface;
+
+/**
+ * Keeps the results of interface scripts, see {@link Client#extractInterfaceValues}.
+ *
+ * While a script runs, every input it reads (a stat, varp, container and so on) is recorded along
+ * with the value it had. A result is reused for as long as all of its inputs still read the same,
+ * which is a handful of array reads rather than running the script again, so the spellbook and
+ * prayer tabs don't recount runes and resolve items every frame. The text the results are put into
+ * is kept as well.
+ *
+ * Containers are compared against a copy taken at most once a frame and read as a revision that
+ * goes up whenever their items change, so a tab full of scripts on the same inventory compares it
+ * once.
+ */
+final class ScriptCache {
+
+	interface Inputs {
+		int read(int kind, int key);
+	}
+
+	static final int CURRENT_STAT = 0;
+	static final int MAX_STAT = 1;
+	static final int EXPERIENCE = 2;
+	static final int TOTAL_LEVEL = 3;
+	static final int VARP = 4;
+	static final int CONTAINER = 5;
+	/**
+	 * The rune pouch, the key is the slot times two, plus one for the amount.
+	 */
+	static final int RUNE_POUCH = 6;
+	static final int MEMBERS = 7;
+	static final int COMBAT_LEVEL = 8;
+	static final int ENERGY = 9;
+	static final int WEIGHT = 10;
+	static final int X = 11;
+	static final int Y = 12;
+
+	private final Inputs inputs;
+	/**
+	 * Results by widget id and script.
+	 */
+	private Result[][] results = new Result[0][];
+	private Text[] texts = new Text[0];
+	private Container[] containers = new Container[0];
+	private int frame;
+
+	/**
+	 * The inputs of the script being run, as kind, key and value.
+	 */
+	private int[] recording = new int[48];
+	private int recorded;
+
+	ScriptCache(Inputs inputs) {
+		this.inputs = inputs;
+	}
+
+	/**
+	 * Lets containers be compared again, called before every frame and game cycle.
+	 */
+	void nextFrame() {
+		frame++;
+	}
+
+	/**
+	 * @return the result of the script if none of its inputs have changed since it was run, or null.
+	 */
+	Result get(RSInterface widget, int script) {
+		if (widget.id < 0 || widget.id >= results.length || results[widget.id] == null
+				|| script >= results[widget.id].length) {
+			return null;
+		}
+		Result result = results[widget.id][script];
+		if (result == null || result.script != widget.scripts[script]) {
+			return null;
+		}
+		try {
+			for (int index = 0; index < result.inputs.length; index += 3) {
+				if (inputs.read(result.inputs[index], result.inputs[index + 1]) != result.inputs[index + 2]) {
+					return null;
+				}
+			}
+		} catch (RuntimeException e) {
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Starts recording the inputs of a script about to be run.
+	 */
+	void begin() {
+		recorded = 0;
+	}
+
+	void record(int kind, int key, int value) {
+		if (recorded + 3 > recording.length) {
+			recording = Arrays.copyOf(recording, recording.length * 2);
+		}
+		recording[recorded++] = kind;
+		recording[recorded++] = key;
+		recording[recorded++] = value;
+	}
+
+	/**
+	 * Keeps the result of the script run since {@link #begin}, with the inputs it recorded.
+	 */
+	void put(RSInterface widget, int script, int value) {
+		if (widget.id < 0) {
+			return;
+		}
+		if (widget.id >= results.length) {
+			results = Arrays.copyOf(results, Math.max(widget.id + 1, results.length * 2));
+		}
+		if (results[widget.id] == null || results[widget.id].length < widget.scripts.length) {
+			results[widget.id] = new Result[widget.scripts.length];
+		}
+		results[widget.id][script] = new Result(widget.scripts[script], value, Arrays.copyOf(recording, recorded));
+	}
+
+	/**
+	 * @return the message with its values put in, if it was last built from the same message and
+	 *         values, or null.
+	 */
+	String getText(RSInterface widget, String message, boolean abbreviated, int[] values) {
+		if (widget.id < 0 || widget.id >= texts.length) {
+			return null;
+		}
+		Text text = texts[widget.id];
+		if (text == null || text.abbreviated != abbreviated || !text.message.equals(message)
+				|| !Arrays.equals(text.values, values)) {
+			return null;
+		}
+		return text.text;
+	}
+
+	void putText(RSInterface widget, String message, boolean abbreviated, int[] values, String text) {
+		if (widget.id < 0) {
+			return;
+		}
+		if (widget.id >= texts.length) {
+			texts = Arrays.copyOf(texts, Math.max(widget.id + 1, texts.length * 2));
+		}
+		texts[widget.id] = new Text(message, abbreviated, values.clone(), text);
+	}
+
+	/**
+	 * @return a number that changes whenever the items in the container do.
+	 */
+	int revision(RSInterface container) {
+		int id = container.id;
+		if (id >= containers.length) {
+			containers = Arrays.copyOf(containers, Math.max(id + 1, containers.length * 2));
+		}
+		Container copy = containers[id];
+		if (copy == null) {
+			copy = containers[id] = new Container();
+			copy.update(container);
+			copy.frame = frame;
+		} else if (copy.frame != frame) {
+			if (!Arrays.equals(copy.items, container.inventoryItemId)
+					|| !Arrays.equals(copy.amounts, container.inventoryAmounts)) {
+				copy.update(container);
+				copy.revision++;
+			}
+			copy.frame = frame;
+		}
+		return copy.revision;
+	}
+
+	static final class Result {
+		final int[] script;
+		final int value;
+		final int[] inputs;
+
+		private Result(int[] script, int value, int[] inputs) {
+			this.script = script;
+			this.value = value;
+			this.inputs = inputs;
+		}
+	}
+
+	private static final class Text {
+		private final String message;
+		private final boolean abbreviated;
+		private final int[] values;
+		private final String text;
+
+		private Text(String message, boolean abbreviated, int[] values, String text) {
+			this.message = message;
+			this.abbreviated = abbreviated;
+			this.values = values;
+			this.text = text;
+		}
+	}
+
+	private static final class Container {
+		private int[] items;
+		private int[] amounts;
+		private int revision;
+		private int frame;
+
+		private void update(RSInterface container) {
+			items = container.inventoryItemId == null ? null : container.inventoryItemId.clone();
+			amounts = container.inventoryAmounts == null ? null : container.inventoryAmounts.clone();
+		}
+	}
+}
@@ -8,8 +8,8 @@ import java.awt.image.ColorModel;
 import java.awt.image.MemoryImageSource;
 import java.awt.image.PixelGrabber;
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.ImageIcon;
 
@@ -31,8 +31,15 @@ public class Sprite extends DrawingArea {
 	private String spriteLocation;
 	public static int loadedSprites;
 
-	private static final Map<String, Sprite> sprites = new HashMap<>();
+	private static final Map<String, Sprite> sprites = new ConcurrentHashMap<>();
 
+	/**
+	 * Registers a sprite decoded elsewhere under the name {@link #Sprite(String)} loads it by.
+	 */
+	public static void cache(String img, Sprite sprite) {
+		sprites.put(img.toLowerCase(), sprite);
+		loadedSprites++;
+	}
 
 	public Sprite(String img) {
 		try {
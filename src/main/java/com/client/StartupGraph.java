@@ -0,0 +1,191 @@
+package com.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The stages of {@link Client#startUp} and what each of them needs done first.
+ *
+ * Stages start as soon as the stages they depend on have finished, so ones that don't depend on
+ * each other (sprite archives, textures, definitions, the login video) load at the same time on a
+ * small pool. Stages that have to stay on the loading thread run there in between. As each stage
+ * finishes the loading bar moves on and its time is logged, with a summary once they're all done.
+ */
+final class StartupGraph {
+
+	/**
+	 * A part of start up, run once.
+	 */
+	interface Task {
+		void run() throws Exception;
+	}
+
+	private static final int THREAD_COUNT = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+	private final Client client;
+	private final int startProgress;
+	private final int endProgress;
+	private final List<Stage> stages = new ArrayList<>();
+	private final BlockingQueue<Stage> finished = new LinkedBlockingQueue<>();
+
+	/**
+	 * @param startProgress the loading bar percentage before the first stage.
+	 * @param endProgress   the loading bar percentage after the last stage.
+	 */
+	StartupGraph(Client client, int startProgress, int endProgress) {
+		this.client = client;
+		this.startProgress = startProgress;
+		this.endProgress = endProgress;
+	}
+
+	/**
+	 * @param name  the stage's name, shown on the loading bar and in the log.
+	 * @param after the stages that must have finished before this one starts.
+	 */
+	Stage add(String name, Task task, Stage... after) {
+		return add(name, false, task, after);
+	}
+
+	/**
+	 * Adds a stage that runs on the thread calling {@link #run}, for work that isn't safe to do
+	 * anywhere else.
+	 */
+	Stage addOnLoader(String name, Task task, Stage... after) {
+		return add(name, true, task, after);
+	}
+
+	private Stage add(String name, boolean onLoader, Task task, Stage... after) {
+		Stage stage = new Stage(name, onLoader, task);
+		for (Stage dependency : after) {
+			dependency.dependents.add(stage);
+			stage.waitingOn++;
+		}
+		stages.add(stage);
+		return stage;
+	}
+
+	/**
+	 * Runs every stage and waits for them to finish.
+	 *
+	 * @throws Exception the first exception a stage threw, the stages already started are still
+	 *                   waited for.
+	 */
+	void run() throws Exception {
+		AtomicInteger threadCounter = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+			Thread thread = new Thread(r, "Startup-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		long start = System.nanoTime();
+		Deque<Stage> loaderStages = new ArrayDeque<>();
+		int running = 0;
+		int done = 0;
+		Exception failure = null;
+		try {
+			for (Stage stage : stages) {
+				if (stage.waitingOn == 0) {
+					running += start(stage, pool, loaderStages);
+				}
+			}
+			while (running > 0 || !loaderStages.isEmpty()) {
+				while (!loaderStages.isEmpty()) {
+					Stage stage = loaderStages.poll();
+					stage.execute();
+					finished.add(stage);
+					running++;
+				}
+				Stage stage = finished.take();
+				running--;
+				done++;
+				if (stage.failure != null) {
+					if (failure == null) {
+						failure = stage.failure;
+					}
+					continue;
+				}
+				client.drawLoadingText(startProgress + (endProgress - startProgress) * done / stages.size(),
+						"Loaded " + stage.name + " - " + stage.millis() + "ms");
+				System.out.println("Startup stage '" + stage.name + "' took " + stage.millis() + "ms on "
+						+ stage.thread);
+				if (failure != null) {
+					continue;
+				}
+				for (Stage dependent : stage.dependents) {
+					if (--dependent.waitingOn == 0) {
+						running += start(dependent, pool, loaderStages);
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		long serial = 0;
+		for (Stage stage : stages) {
+			serial += stage.millis();
+		}
+		System.out.println("Started up in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+				+ "ms, " + serial + "ms of work over " + stages.size() + " stages");
+	}
+
+	/**
+	 * @return 1 if the stage was handed to the pool, 0 if it was left for the loading thread.
+	 */
+	private int start(Stage stage, ExecutorService pool, Deque<Stage> loaderStages) {
+		if (stage.onLoader) {
+			loaderStages.add(stage);
+			return 0;
+		}
+		pool.execute(() -> {
+			stage.execute();
+			finished.add(stage);
+		});
+		return 1;
+	}
+
+	static final class Stage {
+		private final String name;
+		private final boolean onLoader;
+		private final Task task;
+		private final List<Stage> dependents = new ArrayList<>();
+		private int waitingOn;
+		private long nanos;
+		private String thread;
+		private Exception failure;
+
+		private Stage(String name, boolean onLoader, Task task) {
+			this.name = name;
+			this.onLoader = onLoader;
+			this.task = task;
+		}
+
+		private void execute() {
+			thread = Thread.currentThread().getName();
+			long start = System.nanoTime();
+			try {
+				task.run();
+			} catch (Exception e) {
+				failure = e;
+			} catch (Throwable t) {
+				failure = new RuntimeException("Startup stage '" + name + "' failed", t);
+			} finally {
+				nanos = System.nanoTime() - start;
+			}
+		}
+
+		private long millis() {
+			return TimeUnit.NANOSECONDS.toMillis(nanos);
+		}
+	}
+}
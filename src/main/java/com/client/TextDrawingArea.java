@@ -171,7 +171,7 @@ public final class TextDrawingArea extends DrawingArea {
 		k -= anInt1497;
 		for (int i1 = 0; i1 < s.length(); i1++)
 			if (s.charAt(i1) == '@' && i1 + 4 < s.length() && s.charAt(i1 + 4) == '@') {
-				int j1 = getColorByName(s.substring(i1 + 1, i1 + 4));
+				int j1 = getColorByName(s, i1 + 1);
 				if (j1 != -1)
 					j = j1;
 				i1 += 4;
@@ -198,7 +198,7 @@ public final class TextDrawingArea extends DrawingArea {
 		i1 -= anInt1497;
 		for (int k1 = 0; k1 < s.length(); k1++)
 			if (s.charAt(k1) == '@' && k1 + 4 < s.length() && s.charAt(k1 + 4) == '@') {
-				int l1 = getColorByName(s.substring(k1 + 1, k1 + 4));
+				int l1 = getColorByName(s, k1 + 1);
 				if (l1 != -1)
 					j = l1;
 				k1 += 4;
@@ -216,52 +216,55 @@ public final class TextDrawingArea extends DrawingArea {
 			}
 	}
 
-	private int getColorByName(String s) {
-		if (s.equals("369"))// color code, use as @###@
+	/**
+	 * @param offset where the three letter code after the {@code @} starts in the string.
+	 */
+	private int getColorByName(String s, int offset) {
+		if (s.regionMatches(offset, "369", 0, 3))// color code, use as @###@
 			return 0x336699;// hex code
-		if (s.equals("mon"))
+		if (s.regionMatches(offset, "mon", 0, 3))
 			return 0x00ff80;
-		if (s.equals("red"))
+		if (s.regionMatches(offset, "red", 0, 3))
 			return 0xff0000;
-		if (s.equals("gre"))
+		if (s.regionMatches(offset, "gre", 0, 3))
 			return 65280;
-		if (s.equals("blu"))
+		if (s.regionMatches(offset, "blu", 0, 3))
 			return 255;
-		if (s.equals("bl2"))
+		if (s.regionMatches(offset, "bl2", 0, 3))
 			return 0x0F0085;
-		if (s.equals("bl3"))
+		if (s.regionMatches(offset, "bl3", 0, 3))
 			return 0x00AFFF;
-		if (s.equals("yel"))
+		if (s.regionMatches(offset, "yel", 0, 3))
 			return 0xffff00;
-		if (s.equals("cya"))
+		if (s.regionMatches(offset, "cya", 0, 3))
 			return 65535;
-		if (s.equals("mag"))
+		if (s.regionMatches(offset, "mag", 0, 3))
 			return 0xff00ff;
-		if (s.equals("whi"))
+		if (s.regionMatches(offset, "whi", 0, 3))
 			return 0xffffff;
-		if (s.equals("bla"))
+		if (s.regionMatches(offset, "bla", 0, 3))
 			return 0;
-		if (s.equals("lre"))
+		if (s.regionMatches(offset, "lre", 0, 3))
 			return 0xff9040;
-		if (s.equals("dre"))
+		if (s.regionMatches(offset, "dre", 0, 3))
 			return 0x800000;
-		if (s.equals("dbl"))
+		if (s.regionMatches(offset, "dbl", 0, 3))
 			return 128;
-		if (s.equals("or1"))
+		if (s.regionMatches(offset, "or1", 0, 3))
 			return 0xffb000;
-		if (s.equals("or2"))
+		if (s.regionMatches(offset, "or2", 0, 3))
 			return 0xff7000;
-		if (s.equals("or3"))
+		if (s.regionMatches(offset, "or3", 0, 3))
 			return 0xff3000;
-		if (s.equals("gr1"))
+		if (s.regionMatches(offset, "gr1", 0, 3))
 			return 0xc0ff00;
-		if (s.equals("gr2"))
+		if (s.regionMatches(offset, "gr2", 0, 3))
 			return 0x80ff00;
-		if (s.equals("gr3"))
+		if (s.regionMatches(offset, "gr3", 0, 3))
 			return 0x40ff00;
-		if (s.equals("str"))
+		if (s.regionMatches(offset, "str", 0, 3))
 			aBoolean1499 = true;
-		if (s.equals("end"))
+		if (s.regionMatches(offset, "end", 0, 3))
 			aBoolean1499 = false;
 		return -1;
 	}
@@ -0,0 +1,184 @@
+package com.client;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * A string for {@link RSFont} with its markup already worked out.
+ *
+ * The old {@code @col@} syntax is converted and every {@code <tag>} is read once, leaving a list of
+ * ops: glyphs to draw, text effect changes with their colour or value parsed, and inline images.
+ * Drawing and measuring then just walk the ops. Effects like {@code </col>} still resolve against
+ * the font's defaults when drawn, so a layout can be drawn with any colour.
+ */
+final class TextLayout {
+
+	static final int GLYPH = 0;
+	static final int COLOR = 1;
+	static final int END_COLOR = 2;
+	static final int TRANSPARENCY = 3;
+	static final int END_TRANSPARENCY = 4;
+	static final int STRIKETHROUGH = 5;
+	static final int DEFAULT_STRIKETHROUGH = 6;
+	static final int END_STRIKETHROUGH = 7;
+	static final int UNDERLINE = 8;
+	static final int DEFAULT_UNDERLINE = 9;
+	static final int END_UNDERLINE = 10;
+	static final int SHADOW = 11;
+	static final int DEFAULT_SHADOW = 12;
+	static final int END_SHADOW = 13;
+	static final int LINE_BREAK = 14;
+	static final int IMAGE = 15;
+	static final int ICON = 16;
+	static final int CLAN_IMAGE = 17;
+
+	int count;
+	int[] types;
+	int[] values;
+	/**
+	 * The width of the glyphs, images are added when measured as they can be loaded later.
+	 */
+	int glyphWidth;
+	boolean hasImages;
+
+	private TextLayout(int capacity) {
+		types = new int[capacity];
+		values = new int[capacity];
+	}
+
+	/**
+	 * @return the width of the string in the font it was compiled for, as {@link RSFont#getTextWidth}.
+	 */
+	int width() {
+		int width = glyphWidth;
+		if (hasImages) {
+			for (int op = 0; op < count; op++) {
+				Sprite image = image(types[op], values[op]);
+				if (image != null) {
+					width += image.maxWidth;
+				}
+			}
+		}
+		return width;
+	}
+
+	/**
+	 * @return the sprite an image op draws, or null if there's no such image.
+	 */
+	static Sprite image(int type, int id) {
+		Sprite[] images = type == IMAGE ? RSFont.chatImages : type == ICON ? RSFont.iconPack
+				: type == CLAN_IMAGE ? RSFont.clanImages : null;
+		if (images == null || id < 0 || id >= images.length) {
+			return null;
+		}
+		return images[id];
+	}
+
+	static TextLayout compile(String string, int[] characterScreenWidths) {
+		string = RSFont.handleOldSyntax(string);
+		TextLayout layout = new TextLayout(string.length());
+		int startIndex = -1;
+		for (int currentCharacter = 0; currentCharacter < string.length(); currentCharacter++) {
+			int character = string.charAt(currentCharacter);
+			if (character > 255) {
+				character = 32;
+			}
+			if (character == 60) {
+				startIndex = currentCharacter;
+				continue;
+			}
+			if (character == 62 && startIndex != -1) {
+				String effectString = string.substring(startIndex + 1, currentCharacter);
+				startIndex = -1;
+				if (effectString.equals(RSFont.startEffect)) {
+					character = 60;
+				} else if (effectString.equals(RSFont.endEffect)) {
+					character = 62;
+				} else if (effectString.equals(RSFont.aRSString_4135)) {
+					character = 160;
+				} else if (effectString.equals(RSFont.aRSString_4162)) {
+					character = 173;
+				} else if (effectString.equals(RSFont.aRSString_4165)) {
+					character = 215;
+				} else if (effectString.equals(RSFont.aRSString_4147)) {
+					character = 128;
+				} else if (effectString.equals(RSFont.aRSString_4163)) {
+					character = 169;
+				} else if (effectString.equals(RSFont.aRSString_4169)) {
+					character = 174;
+				} else {
+					layout.addEffect(effectString);
+					continue;
+				}
+			}
+			if (startIndex == -1) {
+				layout.add(GLYPH, character);
+				layout.glyphWidth += characterScreenWidths[character];
+			}
+		}
+		return layout;
+	}
+
+	private void addEffect(String effectString) {
+		try {
+			if (effectString.startsWith(RSFont.startImage)) {
+				addImage(IMAGE, effectString.substring(4));
+			} else if (effectString.startsWith(RSFont.startIcon)) {
+				addImage(ICON, effectString.substring(5));
+			} else if (effectString.startsWith(RSFont.startClanImage)) {
+				addImage(CLAN_IMAGE, effectString.substring(5));
+			} else if (effectString.startsWith(RSFont.startColor)) {
+				add(COLOR, color(effectString.substring(4)));
+			} else if (effectString.equals(RSFont.endColor)) {
+				add(END_COLOR, 0);
+			} else if (effectString.startsWith(RSFont.startTransparency)) {
+				add(TRANSPARENCY, Integer.parseInt(effectString.substring(6)));
+			} else if (effectString.equals(RSFont.endTransparency)) {
+				add(END_TRANSPARENCY, 0);
+			} else if (effectString.startsWith(RSFont.startStrikethrough)) {
+				add(STRIKETHROUGH, color(effectString.substring(4)));
+			} else if (effectString.equals(RSFont.defaultStrikethrough)) {
+				add(DEFAULT_STRIKETHROUGH, 0);
+			} else if (effectString.equals(RSFont.endStrikethrough)) {
+				add(END_STRIKETHROUGH, 0);
+			} else if (effectString.startsWith(RSFont.startUnderline)) {
+				add(UNDERLINE, color(effectString.substring(2)));
+			} else if (effectString.equals(RSFont.startDefaultUnderline)) {
+				add(DEFAULT_UNDERLINE, 0);
+			} else if (effectString.equals(RSFont.endUnderline)) {
+				add(END_UNDERLINE, 0);
+			} else if (effectString.startsWith(RSFont.startShadow)) {
+				add(SHADOW, color(effectString.substring(5)));
+			} else if (effectString.equals(RSFont.startDefaultShadow)) {
+				add(DEFAULT_SHADOW, 0);
+			} else if (effectString.equals(RSFont.endShadow)) {
+				add(END_SHADOW, 0);
+			} else if (effectString.equals(RSFont.lineBreak)) {
+				add(LINE_BREAK, 0);
+			}
+		} catch (Exception ignored) {
+			// Malformed tags are skipped, as they were when drawn
+		}
+	}
+
+	private void addImage(int type, String id) {
+		if (id.length() > 0) {
+			add(type, Integer.parseInt(id));
+			hasImages = true;
+		}
+	}
+
+	private static int color(String color) {
+		return color.length() < 6 ? Color.decode(color).getRGB() : Integer.parseInt(color, 16);
+	}
+
+	private void add(int type, int value) {
+		if (count == types.length) {
+			types = Arrays.copyOf(types, count * 2 + 1);
+			values = Arrays.copyOf(values, count * 2 + 1);
+		}
+		types[count] = type;
+		values[count] = value;
+		count++;
+	}
+}
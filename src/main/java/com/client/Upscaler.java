@@ -0,0 +1,155 @@
+package com.client;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stretches a canvas into an image the size of the window, for stretched mode.
+ *
+ * Java2D's scaled draws fall back to software on a lot of systems and cost more than drawing the
+ * frame, so the scaling is done here instead: the source pixel and weight of every column and row
+ * are worked out once per size, the rows are split into bands scaled on a small pool, and the
+ * result is drawn 1:1. The scaled image is kept between frames.
+ */
+final class Upscaler {
+
+	private static final int THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+	private static final ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+		Thread thread = new Thread(r, "Upscaler-" + threadCounter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private int sourceWidth;
+	private int sourceHeight;
+	private BufferedImage image;
+	private int[] raster;
+	/**
+	 * The first source column or row of each target one, for bilinear the second is the next one.
+	 */
+	private int[] sourceX;
+	private int[] sourceY;
+	/**
+	 * How much of the second source column or row to blend in, out of 256.
+	 */
+	private int[] weightX;
+	private int[] weightY;
+	private final List<Future<?>> tasks = new ArrayList<>();
+
+	/**
+	 * @param bilinear whether to blend neighbouring pixels rather than pick the nearest.
+	 * @return the scaled canvas, valid until the next call.
+	 */
+	BufferedImage scale(int[] source, int sourceWidth, int sourceHeight, int targetWidth, int targetHeight,
+			boolean bilinear) {
+		if (image == null || image.getWidth() != targetWidth || image.getHeight() != targetHeight
+				|| this.sourceWidth != sourceWidth || this.sourceHeight != sourceHeight) {
+			resize(sourceWidth, sourceHeight, targetWidth, targetHeight);
+		}
+		int band = (targetHeight + THREAD_COUNT - 1) / THREAD_COUNT;
+		for (int start = 0; start < targetHeight; start += band) {
+			final int from = start;
+			final int to = Math.min(targetHeight, start + band);
+			tasks.add(pool.submit(() -> {
+				if (bilinear) {
+					scaleBilinear(source, from, to);
+				} else {
+					scaleNearest(source, from, to);
+				}
+			}));
+		}
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		tasks.clear();
+		return image;
+	}
+
+	private void resize(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+		this.sourceWidth = sourceWidth;
+		this.sourceHeight = sourceHeight;
+		image = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+		raster = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		sourceX = new int[targetWidth];
+		weightX = new int[targetWidth];
+		sourceY = new int[targetHeight];
+		weightY = new int[targetHeight];
+		lookup(sourceWidth, targetWidth, sourceX, weightX);
+		lookup(sourceHeight, targetHeight, sourceY, weightY);
+	}
+
+	/**
+	 * Lines the pixel centres of the target up with the source's, in 16.16 fixed point.
+	 */
+	private static void lookup(int sourceSize, int targetSize, int[] source, int[] weight) {
+		long step = ((long) sourceSize << 16) / targetSize;
+		long position = step / 2 - 32768;
+		for (int index = 0; index < targetSize; index++, position += step) {
+			if (position <= 0) {
+				source[index] = 0;
+				weight[index] = 0;
+			} else if (position >= (long) (sourceSize - 1) << 16) {
+				source[index] = sourceSize - 1;
+				weight[index] = 0;
+			} else {
+				source[index] = (int) (position >> 16);
+				weight[index] = (int) (position >> 8 & 0xff);
+			}
+		}
+	}
+
+	private void scaleNearest(int[] source, int fromRow, int toRow) {
+		int width = sourceX.length;
+		for (int row = fromRow; row < toRow; row++) {
+			// Rounded to the nearest source row and column rather than the one to the left
+			int sourceRow = Math.min(sourceHeight - 1, sourceY[row] + (weightY[row] >> 7)) * sourceWidth;
+			int target = row * width;
+			for (int column = 0; column < width; column++) {
+				raster[target + column] = source[sourceRow + Math.min(sourceWidth - 1, sourceX[column]
+						+ (weightX[column] >> 7))];
+			}
+		}
+	}
+
+	private void scaleBilinear(int[] source, int fromRow, int toRow) {
+		int width = sourceX.length;
+		for (int row = fromRow; row < toRow; row++) {
+			int top = sourceY[row] * sourceWidth;
+			int bottom = Math.min(sourceHeight - 1, sourceY[row] + 1) * sourceWidth;
+			int down = weightY[row];
+			int target = row * width;
+			for (int column = 0; column < width; column++) {
+				int left = sourceX[column];
+				int right = Math.min(sourceWidth - 1, left + 1);
+				int across = weightX[column];
+				int upper = blend(source[top + left], source[top + right], across);
+				int lower = blend(source[bottom + left], source[bottom + right], across);
+				raster[target + column] = blend(upper, lower, down);
+			}
+		}
+	}
+
+	/**
+	 * Blends red and blue together and green on its own, each channel has 8 bits of headroom.
+	 */
+	private static int blend(int first, int second, int weight) {
+		if (weight == 0 || first == second) {
+			return first;
+		}
+		int inverse = 256 - weight;
+		int redBlue = ((first & 0xff00ff) * inverse + (second & 0xff00ff) * weight + 0x800080) >>> 8 & 0xff00ff;
+		int green = ((first & 0xff00) * inverse + (second & 0xff00) * weight + 0x8000) >>> 8 & 0xff00;
+		return redBlue | green;
+	}
+}
@@ -0,0 +1,87 @@
+package com.client;
+
+/**
+ * Passes the varps the server sends to the features that use them.
+ *
+ * Features subscribe to the varp ids, or ranges of ids, they handle, and are kept in tables indexed
+ * by varp id, so a varp only reaches its own listeners rather than every feature being asked about
+ * every varp. Login and minigames send hundreds of varps at once, most of which no feature handles.
+ */
+final class VarpDispatcher {
+
+	interface Listener {
+		void onVarp(int varp, int value);
+	}
+
+	/**
+	 * Listeners for every time a varp is sent, even with the value it already had, for features that
+	 * treat a resend as a request (the bank reopening a tab).
+	 */
+	private Listener[][] receivers = new Listener[0][];
+	/**
+	 * Listeners for when a varp's value changes, called before the new value is stored.
+	 */
+	private Listener[][] watchers = new Listener[0][];
+
+	void subscribe(int varp, Listener listener) {
+		subscribe(varp, varp, listener);
+	}
+
+	/**
+	 * Subscribes to every varp from first to last, inclusive.
+	 */
+	void subscribe(int first, int last, Listener listener) {
+		receivers = add(receivers, first, last, listener);
+	}
+
+	void subscribeChanges(int varp, Listener listener) {
+		watchers = add(watchers, varp, varp, listener);
+	}
+
+	void received(int varp, int value) {
+		notify(receivers, varp, value);
+	}
+
+	void changed(int varp, int value) {
+		notify(watchers, varp, value);
+	}
+
+	/**
+	 * @return whether any feature handles the varp.
+	 */
+	boolean isSubscribed(int varp) {
+		return varp < receivers.length && receivers[varp] != null || varp < watchers.length && watchers[varp] != null;
+	}
+
+	private static void notify(Listener[][] table, int varp, int value) {
+		if (varp >= table.length || table[varp] == null) {
+			return;
+		}
+		for (Listener listener : table[varp]) {
+			listener.onVarp(varp, value);
+		}
+	}
+
+	private static Listener[][] add(Listener[][] table, int first, int last, Listener listener) {
+		if (first < 0 || last < first) {
+			throw new IllegalArgumentException("varps " + first + " to " + last);
+		}
+		if (last >= table.length) {
+			Listener[][] grown = new Listener[last + 1][];
+			System.arraycopy(table, 0, grown, 0, table.length);
+			table = grown;
+		}
+		for (int varp = first; varp <= last; varp++) {
+			Listener[] listeners = table[varp];
+			if (listeners == null) {
+				table[varp] = new Listener[] { listener };
+			} else {
+				Listener[] grown = new Listener[listeners.length + 1];
+				System.arraycopy(listeners, 0, grown, 0, listeners.length);
+				grown[listeners.length] = listener;
+				table[varp] = grown;
+			}
+		}
+		return table;
+	}
+}
@@ -0,0 +1,300 @@
+package com.client;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.client.sign.Signlink;
+
+/**
+ * The tiles around the camera that can be on screen, for each of the camera pitches and yaws
+ * {@link WorldController} draws the scene with.
+ *
+ * A table depends on the viewport size, the draw distance and the focal length and takes a while
+ * to work out, so tables are kept once built, the last few in memory and the last
+ * {@value #DISK_CAPACITY} used in the cache directory, as resizing the window asks for a new one
+ * at every size it passes through. The pitch and yaw buckets of a new table are worked out in parallel, and each bucket
+ * is stored as a bitset of {@link #SIZE}x{@link #SIZE} tiles centred on the camera.
+ */
+final class VisibilityTables {
+
+	static final int SIZE = WorldController.MAX_FAR_Z * 2 + 1;
+	static final int PITCHES = 8;
+	static final int YAWS = 32;
+	/**
+	 * The longs each bucket takes, buckets start on a long.
+	 */
+	static final int BUCKET_LONGS = (SIZE * SIZE + 63) >> 6;
+
+	/**
+	 * The ray test results have a tile of padding around them for the smoothing.
+	 */
+	private static final int RAW_SIZE = SIZE + 2;
+	private static final int RAW_LONGS = (RAW_SIZE * RAW_SIZE + 63) >> 6;
+	private static final int TABLE_LONGS = PITCHES * YAWS * BUCKET_LONGS;
+	private static final int MAGIC = 0x56495354;
+	private static final int VERSION = 1;
+	private static final int MEMORY_CAPACITY = 6;
+	private static final int DISK_CAPACITY = 12;
+	private static final int THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+	private static final ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+		Thread thread = new Thread(r, "Visibility-" + threadCounter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static final Map<String, long[]> memory = new LinkedHashMap<String, long[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+			return size() > MEMORY_CAPACITY;
+		}
+	};
+
+	private VisibilityTables() {
+	}
+
+	/**
+	 * @return a table where no tile is visible.
+	 */
+	static long[] empty() {
+		return new long[TABLE_LONGS];
+	}
+
+	/**
+	 * @return the index of the first bit of a pitch and yaw's bucket.
+	 */
+	static int bucket(int pitch, int yaw) {
+		return (pitch * YAWS + yaw) * BUCKET_LONGS << 6;
+	}
+
+	/**
+	 * @param bucket see {@link #bucket}.
+	 * @param x      the tile's x, relative to the camera plus {@link WorldController#MAX_FAR_Z}.
+	 * @param y      the tile's y, relative to the camera plus {@link WorldController#MAX_FAR_Z}.
+	 */
+	static boolean visible(long[] table, int bucket, int x, int y) {
+		int bit = bucket + x * SIZE + y;
+		return (table[bit >> 6] & 1L << bit) != 0;
+	}
+
+	/**
+	 * @param minDistance  how far in front of a tile the ray test starts.
+	 * @param maxDistance  how far behind a tile the ray test ends.
+	 * @param width        the viewport width.
+	 * @param height       the viewport height.
+	 * @param pitchHeights the camera height for each pitch.
+	 */
+	static long[] get(int minDistance, int maxDistance, int width, int height, int[] pitchHeights, int farZ,
+			int focalLength) {
+		String key = width + "x" + height + "_" + farZ + "_" + focalLength + "_"
+				+ Integer.toHexString((minDistance * 31 + maxDistance) * 31 + Arrays.hashCode(pitchHeights));
+		synchronized (memory) {
+			long[] table = memory.get(key);
+			if (table != null) {
+				return table;
+			}
+		}
+		File file = new File(Signlink.getCacheDirectory() + "visibility", key + ".dat");
+		long[] table = read(file);
+		if (table != null) {
+			// The file's modified time is when it was last used, see prune
+			file.setLastModified(System.currentTimeMillis());
+		} else {
+			long start = System.nanoTime();
+			table = compute(minDistance, maxDistance, width, height, pitchHeights, farZ, focalLength);
+			System.out.println("Built visibility table " + key + " in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+			write(file, table);
+		}
+		synchronized (memory) {
+			memory.put(key, table);
+		}
+		return table;
+	}
+
+	static void clear() {
+		synchronized (memory) {
+			memory.clear();
+		}
+	}
+
+	private static long[] compute(int minDistance, int maxDistance, int width, int height, int[] pitchHeights,
+			int farZ, int focalLength) {
+		long[][] raw = new long[PITCHES * YAWS][];
+		runBuckets(bucket -> raw[bucket] = rayTest(bucket / YAWS, bucket % YAWS, minDistance, maxDistance, width,
+				height, pitchHeights[bucket / YAWS], farZ, focalLength));
+		long[] table = new long[TABLE_LONGS];
+		runBuckets(bucket -> smooth(raw, bucket / YAWS, bucket % YAWS, farZ, table));
+		return table;
+	}
+
+	private interface BucketTask {
+		void run(int bucket);
+	}
+
+	private static void runBuckets(BucketTask task) {
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int bucket = 0; bucket < PITCHES * YAWS; bucket++) {
+			final int index = bucket;
+			tasks.add(pool.submit(() -> task.run(index)));
+		}
+		for (Future<?> future : tasks) {
+			try {
+				future.get();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Marks the tiles that have a point above or below them, within the ray test range, on screen.
+	 */
+	private static long[] rayTest(int pitch, int yaw, int minDistance, int maxDistance, int width, int height,
+			int pitchHeight, int farZ, int focalLength) {
+		int upDownSine = Model.SINE[128 + pitch * 32];
+		int upDownCosine = Model.COSINE[128 + pitch * 32];
+		int leftRightSine = Model.SINE[yaw * 64];
+		int leftRightCosine = Model.COSINE[yaw * 64];
+		int maxDepth = farZ * 100;
+		long[] bits = new long[RAW_LONGS];
+		for (int tileX = -farZ; tileX <= farZ; tileX++) {
+			for (int tileY = -farZ; tileY <= farZ; tileY++) {
+				int x = tileX * 128;
+				int y = tileY * 128;
+				int sceneX = y * leftRightSine + x * leftRightCosine >> 16;
+				int sceneY = y * leftRightCosine - x * leftRightSine >> 16;
+				for (int offset = -minDistance; offset <= maxDistance; offset += 128) {
+					int z = pitchHeight + offset;
+					int depth = z * upDownSine + sceneY * upDownCosine >> 16;
+					if (depth < 50 || depth > maxDepth) {
+						continue;
+					}
+					int screenX = width / 2 + (sceneX * focalLength) / depth;
+					int screenY = height / 2 + (z * upDownCosine - sceneY * upDownSine >> 16) * focalLength / depth;
+					if (screenX >= 0 && screenX <= width && screenY >= 0 && screenY <= height) {
+						int bit = (tileX + WorldController.MAX_FAR_Z + 1) * RAW_SIZE + tileY + WorldController.MAX_FAR_Z + 1;
+						bits[bit >> 6] |= 1L << bit;
+						break;
+					}
+				}
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Marks the tiles next to a visible one in this bucket, or in the next yaw or pitch, visible, so
+	 * tiles at the edge of the screen aren't lost between buckets.
+	 */
+	private static void smooth(long[][] raw, int pitch, int yaw, int farZ, long[] table) {
+		// The wrap at 31 rather than 32 is how the tables have always been built
+		int nextYaw = (yaw + 1) % 31;
+		long[] union = raw[pitch * YAWS + yaw].clone();
+		or(union, raw[pitch * YAWS + nextYaw]);
+		if (pitch + 1 < PITCHES) {
+			or(union, raw[(pitch + 1) * YAWS + yaw]);
+			or(union, raw[(pitch + 1) * YAWS + nextYaw]);
+		}
+		int bucket = bucket(pitch, yaw);
+		for (int tileX = -farZ; tileX < farZ; tileX++) {
+			for (int tileY = -farZ; tileY < farZ; tileY++) {
+				if (anyAround(union, tileX + WorldController.MAX_FAR_Z + 1, tileY + WorldController.MAX_FAR_Z + 1)) {
+					int bit = bucket + (tileX + WorldController.MAX_FAR_Z) * SIZE + tileY + WorldController.MAX_FAR_Z;
+					table[bit >> 6] |= 1L << bit;
+				}
+			}
+		}
+	}
+
+	private static boolean anyAround(long[] bits, int x, int y) {
+		for (int dx = -1; dx <= 1; dx++) {
+			int row = (x + dx) * RAW_SIZE + y;
+			for (int dy = -1; dy <= 1; dy++) {
+				int bit = row + dy;
+				if ((bits[bit >> 6] & 1L << bit) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void or(long[] into, long[] bits) {
+		for (int index = 0; index < into.length; index++) {
+			into[index] |= bits[index];
+		}
+	}
+
+	private static long[] read(File file) {
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+			if (buffer.remaining() != 8 + TABLE_LONGS * 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+			long[] table = new long[TABLE_LONGS];
+			buffer.asLongBuffer().get(table);
+			return table;
+		} catch (IOException e) {
+			System.err.println("Unable to read visibility table " + file.getName() + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static void write(File file, long[] table) {
+		File directory = file.getParentFile();
+		if (!directory.exists() && !directory.mkdirs()) {
+			return;
+		}
+		File temp = new File(directory, file.getName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (long bits : table) {
+				out.writeLong(bits);
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to write visibility table " + file.getName() + ": " + e.getMessage());
+			temp.delete();
+			return;
+		}
+		if (file.exists()) {
+			file.delete();
+		}
+		if (!temp.renameTo(file)) {
+			temp.delete();
+		}
+		prune(directory);
+	}
+
+	/**
+	 * Deletes all but the {@value #DISK_CAPACITY} most recently used tables.
+	 */
+	private static void prune(File directory) {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(".dat"));
+		if (files == null || files.length <= DISK_CAPACITY) {
+			return;
+		}
+		Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+		for (int index = DISK_CAPACITY; index < files.length; index++) {
+			files[index].delete();
+		}
+	}
+}
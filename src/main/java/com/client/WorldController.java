@@ -21,6 +21,7 @@ public final class WorldController {
     public static final int MAX_FAR_Z = 70;
     public static final int MIN_FAR_Z = 30;
     public static int farZ = MIN_FAR_Z;
+    public static final int REGION_SIZE = 8;
     public static int renderDistanceClamp = farZ * 120;
     private static final int SCENE_THREADS = Runtime.getRuntime().availableProcessors() - 1;
     private static final ExecutorService scenePool = Executors.newFixedThreadPool(SCENE_THREADS);
@@ -40,7 +41,8 @@ public final class WorldController {
         anInt439 = i;
         groundArray = new Ground[k][j][i];
         anIntArrayArrayArray445 = new int[k][j + 1][i + 1];
-        visibilityMap = new boolean[8][32][MAX_FAR_Z * 2 + 1][MAX_FAR_Z * 2 + 1];
+        regionRevisions = new int[k][(j + REGION_SIZE - 1) / REGION_SIZE][(i + REGION_SIZE - 1) / REGION_SIZE];
+        visibilityMap = VisibilityTables.empty();
         tileHeights = ai;
         initToNull();
     }
@@ -76,15 +78,15 @@ public final class WorldController {
                             int visX = (x - Scene_cameraXTile) + MAX_FAR_Z;
                             int visY = (y - Scene_cameraYTile) + MAX_FAR_Z;
                             
-                            if (visX < 0 || visX >= aBooleanArrayArray492.length || 
-                                visY < 0 || visY >= aBooleanArrayArray492[0].length) {
+                            if (visX < 0 || visX >= VisibilityTables.SIZE || 
+                                visY < 0 || visY >= VisibilityTables.SIZE) {
                                 tile.aBoolean1322 = false;
                                 tile.aBoolean1323 = false;
                                 tile.anInt1325 = 0;
                                 continue;
                             }
                             
-                            boolean isVisible = aBooleanArrayArray492[visX][visY];
+                            boolean isVisible = isTileVisible(visX, visY);
                             
                             if (tile.anInt1321 > anInt447 || 
                                 (!isVisible && tileHeights[plane][x][y] - zCameraPos < 1)) {
@@ -118,11 +120,46 @@ public final class WorldController {
         aClass47ArrayArray474 = null;
         aClass19_477 = null;
         visibilityMap = null;
-        aBooleanArrayArray492 = null;
+        VisibilityTables.clear();
     }
     public int[][][] getTileHeights() {
         return tileHeights;
     }
+
+    Ground getTile(int plane, int x, int y) {
+        return groundArray[plane][x][y];
+    }
+
+    int getPlaneCount() {
+        return anInt437;
+    }
+
+    int getWidth() {
+        return anInt438;
+    }
+
+    int getLength() {
+        return anInt439;
+    }
+
+    /**
+     * @return a counter that changes whenever the tiles or static objects of the
+     * {@link #REGION_SIZE}x{@link #REGION_SIZE} tile region change.
+     */
+    public int getRegionRevision(int plane, int regionX, int regionY) {
+        return regionRevisions[plane][regionX][regionY];
+    }
+
+    private void markChanged(int plane, int x, int y) {
+        if (plane >= 0 && plane < anInt437 && x >= 0 && x < anInt438 && y >= 0 && y < anInt439)
+            regionRevisions[plane][x / REGION_SIZE][y / REGION_SIZE]++;
+    }
+
+    private void markChanged(int plane, int minX, int minY, int maxX, int maxY) {
+        for (int x = minX - minX % REGION_SIZE; x <= maxX; x += REGION_SIZE)
+            for (int y = minY - minY % REGION_SIZE; y <= maxY; y += REGION_SIZE)
+                markChanged(plane, x, y);
+    }
     public void initToNull() {
         for (int j = 0; j < anInt437; j++) {
             for (int k = 0; k < anInt438; k++) {
@@ -146,6 +183,10 @@ public final class WorldController {
         for (int l1 = 0; l1 < aClass28Array462.length; l1++)
             aClass28Array462[l1] = null;
 
+        for (int[][] plane : regionRevisions)
+            for (int[] row : plane)
+                for (int region = 0; region < row.length; region++)
+                    row[region]++;
     }
 
     public void method275(int i) {
@@ -160,6 +201,8 @@ public final class WorldController {
     }
 
     public void method276(int i, int j) {
+        for (int plane = 0; plane < anInt437; plane++)
+            markChanged(plane, j, i);
         Ground class30_sub3 = groundArray[0][j][i];
         for (int l = 0; l < 3; l++) {
             Ground class30_sub3_1 = groundArray[l][j][i] = groundArray[l + 1][j][i];
@@ -207,6 +250,7 @@ public final class WorldController {
     public void addTile(int i, int j, int k, int l, int i1, int j1, int k1,
                         int l1, int i2, int j2, int k2, int l2, int i3, int j3, int k3,
                         int l3, int i4, int j4, int k4, int l4) {
+        markChanged(i, j, k);
         if (l == 0) {
             Class43 class43 = new Class43(k2, l2, i3, j3, -1, k4, false);
             for (int i5 = i; i5 >= 0; i5--)
@@ -246,6 +290,7 @@ public final class WorldController {
         class49.anInt811 = j;
         class49.uid = key;
         class49.aByte816 = byte0;
+        markChanged(i, j1, k);
         if (groundArray[i][j1][k] == null)
             groundArray[i][j1][k] = new Ground(i, j1, k);
         groundArray[i][j1][k].obj3 = class49;
@@ -274,6 +319,7 @@ public final class WorldController {
 
         }
         object4.anInt52 = j1;
+        markChanged(l, i, i1);
         if (groundArray[l][i][i1] == null)
             groundArray[l][i][i1] = new Ground(l, i, i1);
         groundArray[l][i][i1].obj4 = object4;
@@ -294,6 +340,7 @@ public final class WorldController {
         object1.aClass30_Sub2_Sub4_279 = class30_sub2_sub4_1;
         object1.orientation = i;
         object1.orientation1 = j1;
+        markChanged(k1, l, k);
         for (int l1 = k1; l1 >= 0; l1--)
             if (groundArray[l1][l][k] == null)
                 groundArray[l1][l][k] = new Ground(l1, l, k);
@@ -314,6 +361,7 @@ public final class WorldController {
         class26.aClass30_Sub2_Sub4_504 = class30_sub2_sub4;
         class26.anInt502 = j2;
         class26.anInt503 = k;
+        markChanged(i1, l1, j);
         for (int k2 = i1; k2 >= 0; k2--)
             if (groundArray[k2][l1][j] == null)
                 groundArray[k2][l1][j] = new Ground(k2, l1, j);
@@ -393,6 +441,8 @@ public final class WorldController {
         class28.anInt525 = k;
         class28.anInt524 = (j + l) - 1;
         class28.anInt526 = (k + i1) - 1;
+        if (!flag)
+            markChanged(i, j, k, (j + l) - 1, (k + i1) - 1);
         for (int i3 = j; i3 < j + l; i3++) {
             for (int j3 = k; j3 < k + i1; j3++) {
                 int k3 = 0;
@@ -467,6 +517,7 @@ public final class WorldController {
             return;
         Object2 class26 = class30_sub3.obj2;
         if (class26 != null) {
+            markChanged(i1, l, i);
             int j1 = l * 128 + 64;
             int k1 = i * 128 + 64;
             class26.anInt500 = j1 + ((class26.anInt500 - j1) * k) / 16;
@@ -480,6 +531,7 @@ public final class WorldController {
             aBoolean434 = !aBoolean434;
         if (class30_sub3 != null) {
             class30_sub3.obj1 = null;
+            markChanged(j, i, k);
         }
     }
 
@@ -487,6 +539,7 @@ public final class WorldController {
         Ground class30_sub3 = groundArray[k][l][j];
         if (class30_sub3 != null) {
             class30_sub3.obj2 = null;
+            markChanged(k, l, j);
         }
     }
 
@@ -498,6 +551,7 @@ public final class WorldController {
             StaticObject class28 = class30_sub3.obj5Array[j1];
             if ((class28.uid >> 29 & 3) == 2 && class28.anInt523 == k
                     && class28.anInt525 == l) {
+                markChanged(i, class28.anInt523, class28.anInt525, class28.anInt524, class28.anInt526);
                 method289(class28);
                 return;
             }
@@ -510,12 +564,14 @@ public final class WorldController {
         if (class30_sub3 == null)
             return;
         class30_sub3.obj3 = null;
+        markChanged(i, k, j);
     }
 
     public void method295(int i, int j, int k) {
         Ground class30_sub3 = groundArray[i][j][k];
         if (class30_sub3 != null) {
             class30_sub3.obj4 = null;
+            markChanged(i, j, k);
         }
     }
 
@@ -901,135 +957,17 @@ public final class WorldController {
 
     }
 
-    	public static void method310(int i, int j, int k, int l, int ai[]) {
-    	    anInt495 = 0;
-    	    anInt496 = 0;
-    	    anInt497 = k;
-    	    anInt498 = l;
-    	    anInt493 = k / 2;
-    	    anInt494 = l / 2;
-    	    
-    	    // Always allocate for MAX_FAR_Z to ensure consistency across all modes
-    	    boolean aflag[][][][] = new boolean[9][32][MAX_FAR_Z * 2 + 3][MAX_FAR_Z * 2 + 3];
-
-    	    for (int i1 = 128; i1 <= 384; i1 += 32) {
-    	        for (int j1 = 0; j1 < 2048; j1 += 64) {
-    	            camUpDownY = Model.SINE[i1];
-    	            camUpDownX = Model.COSINE[i1];
-    	            camLeftRightY = Model.SINE[j1];
-    	            camLeftRightX = Model.COSINE[j1];
-    	            int l1 = (i1 - 128) / 32;
-    	            int j2 = j1 / 64;
-    	            
-    	            // Use current farZ for iteration but MAX_FAR_Z for array indexing
-    	            for (int l2 = -farZ; l2 <= farZ; l2++) {
-    	                for (int j3 = -farZ; j3 <= farZ; j3++) {
-    	                    int k3 = l2 * 128;
-    	                    int i4 = j3 * 128;
-    	                    boolean flag2 = false;
-    	                    
-    	                    for (int k4 = -i; k4 <= j; k4 += 128) {
-    	                        if (method311(ai[l1] + k4, i4, k3)) {
-    	                            flag2 = true;
-    	                            break;
-    	                        }
-    	                    }
-    	                    
-    	                    // Always use MAX_FAR_Z offset for array indexing
-    	                    int xIndex = l2 + MAX_FAR_Z + 1;
-    	                    int yIndex = j3 + MAX_FAR_Z + 1;
-    	                    
-    	                    if (xIndex >= 0 && xIndex < aflag[l1][j2].length &&
-    	                        yIndex >= 0 && yIndex < aflag[l1][j2][0].length) {
-    	                        aflag[l1][j2][xIndex][yIndex] = flag2;
-    	                    }
-    	                }
-    	            }
-    	        }
-    	    }
-
-    	    // Smooth visibility map edges
-    	    for (int k1 = 0; k1 < 8; k1++) {
-    	        for (int i2 = 0; i2 < 32; i2++) {
-    	            for (int k2 = -farZ; k2 < farZ; k2++) {
-    	                for (int i3 = -farZ; i3 < farZ; i3++) {
-    	                    boolean flag1 = false;
-    	                    
-    	                    label0:
-    	                    for (int l3 = -1; l3 <= 1; l3++) {
-    	                        for (int j4 = -1; j4 <= 1; j4++) {
-    	                            // Use MAX_FAR_Z for all array index calculations
-    	                            int xIdx = k2 + l3 + MAX_FAR_Z + 1;
-    	                            int yIdx = i3 + j4 + MAX_FAR_Z + 1;
-    	                            
-    	                            if (xIdx >= 0 && xIdx < aflag[k1][i2].length &&
-    	                                yIdx >= 0 && yIdx < aflag[k1][i2][0].length) {
-    	                                if (aflag[k1][i2][xIdx][yIdx]) {
-    	                                    flag1 = true;
-    	                                    break label0;
-    	                                }
-    	                            }
-    	                            
-    	                            int nextAngle = (i2 + 1) % 31;
-    	                            if (xIdx >= 0 && xIdx < aflag[k1][nextAngle].length &&
-    	                                yIdx >= 0 && yIdx < aflag[k1][nextAngle][0].length) {
-    	                                if (aflag[k1][nextAngle][xIdx][yIdx]) {
-    	                                    flag1 = true;
-    	                                    break label0;
-    	                                }
-    	                            }
-    	                            
-    	                            if (k1 + 1 < 8) {
-    	                                if (xIdx >= 0 && xIdx < aflag[k1 + 1][i2].length &&
-    	                                    yIdx >= 0 && yIdx < aflag[k1 + 1][i2][0].length) {
-    	                                    if (aflag[k1 + 1][i2][xIdx][yIdx]) {
-    	                                        flag1 = true;
-    	                                        break label0;
-    	                                    }
-    	                                }
-    	                                
-    	                                if (xIdx >= 0 && xIdx < aflag[k1 + 1][nextAngle].length &&
-    	                                    yIdx >= 0 && yIdx < aflag[k1 + 1][nextAngle][0].length) {
-    	                                    if (aflag[k1 + 1][nextAngle][xIdx][yIdx]) {
-    	                                        flag1 = true;
-    	                                        break label0;
-    	                                    }
-    	                                }
-    	                            }
-    	                        }
-    	                    }
-    	                    
-    	                    // Store in global visibility map using MAX_FAR_Z offset
-    	                    int visX = k2 + MAX_FAR_Z;
-    	                    int visY = i3 + MAX_FAR_Z;
-    	                    
-    	                    if (visX >= 0 && visX < visibilityMap[k1][i2].length &&
-    	                        visY >= 0 && visY < visibilityMap[k1][i2][0].length) {
-    	                        visibilityMap[k1][i2][visX][visY] = flag1;
-    	                    }
-    	                }
-    	            }
-    	        }
-    	    }
-    	}
-    private static boolean method311(int i, int j, int k) {
-        int l = j * camLeftRightY + k * camLeftRightX >> 16;
-        int i1 = j * camLeftRightX - k * camLeftRightY >> 16;
-        int j1 = i * camUpDownY + i1 * camUpDownX >> 16;
-        int k1 = i * camUpDownX - i1 * camUpDownY >> 16;
-        
-        // Scale render distance clamp with farZ
-        int maxDistance = farZ * 100;
-        
-        // Check if point is in valid viewing frustum
-        if (j1 < 50 || j1 > maxDistance) {
-            return false;
-        }
-        
-        int l1 = anInt493 + (l * focalLength) / j1;
-        int i2 = anInt494 + (k1 * focalLength) / j1;
-        
-        return l1 >= anInt495 && l1 <= anInt497 && i2 >= anInt496 && i2 <= anInt498;
+    public static void method310(int i, int j, int k, int l, int ai[]) {
+        visibilityMap = VisibilityTables.get(i, j, k, l, ai, farZ, focalLength);
+    }
+
+    /**
+     * @param x the tile's x, relative to the camera plus {@link #MAX_FAR_Z}.
+     * @param y the tile's y, relative to the camera plus {@link #MAX_FAR_Z}.
+     * @return whether the tile can be on screen at the current camera pitch and yaw.
+     */
+    private static boolean isTileVisible(int x, int y) {
+        return VisibilityTables.visible(visibilityMap, visibleBucket, x, y);
     }
 
     public void method312(int i, int j) {
@@ -1071,7 +1009,7 @@ public final class WorldController {
         camUpDownX = Model.COSINE[j1];
         camLeftRightY = Model.SINE[k];
         camLeftRightX = Model.COSINE[k];
-        aBooleanArrayArray492 = visibilityMap[(j1 - 128) / 32][k / 64];
+        visibleBucket = VisibilityTables.bucket((j1 - 128) / 32, k / 64);
         
         xCameraPos = i;
         zCameraPos = l;
@@ -2902,7 +2840,14 @@ public final class WorldController {
         }
     }
 
-    private int method317(int j, int k) {
+    /**
+     * @return the colour a textured tile is drawn with when textures are off.
+     */
+    static int texturedTileColour(int texture, int hsl) {
+        return method317(anIntArray485[texture], hsl);
+    }
+
+    private static int method317(int j, int k) {
         k = 127 - k;
         k = (k * (j & 0x7f)) / 160;
         if (k < 2)
@@ -2951,7 +2896,7 @@ public final class WorldController {
                 boolean flag = false;
 
                 while (k1 <= j2) {
-                    if (aBooleanArrayArray492[l][k1++]) {
+                    if (isTileVisible(l, k1++)) {
                         flag = true;
                         break;
                     }
@@ -2988,7 +2933,7 @@ public final class WorldController {
                     k2 = 50;
                 boolean flag1 = false;
                 while (l1 <= k2)
-                    if (aBooleanArrayArray492[l1++][i1]) {
+                    if (isTileVisible(l1++, i1)) {
                         flag1 = true;
                         break;
                     }
@@ -3028,7 +2973,7 @@ public final class WorldController {
                         label0:
                         for (int i4 = i3; i4 <= l3; i4++) {
                             for (int j4 = i2; j4 <= l2; j4++) {
-                                if (!aBooleanArrayArray492[i4][j4])
+                                if (!isTileVisible(i4, j4))
                                     continue;
                                 flag2 = true;
                                 break label0;
@@ -3297,6 +3242,10 @@ public final class WorldController {
     private int obj5CacheCurrPos;
     private final StaticObject[] obj5Cache;
     private final int[][][] anIntArrayArrayArray445;
+    /**
+     * See {@link #getRegionRevision}.
+     */
+    private final int[][][] regionRevisions;
     private static int anInt446;
     private static int anInt447;
     private static int anInt448;
@@ -3314,10 +3263,10 @@ public final class WorldController {
     public static int camLeftRightY;
     public static int camLeftRightX;
     private static StaticObject[] aClass28Array462 = new StaticObject[100];
-    private static final int[] anIntArray463 = {53, -53, -53, 53};
-    private static final int[] anIntArray464 = {-53, -53, 53, 53};
-    private static final int[] anIntArray465 = {-45, 45, 45, -45};
-    private static final int[] anIntArray466 = {45, 45, -45, -45};
+    static final int[] anIntArray463 = {53, -53, -53, 53};
+    static final int[] anIntArray464 = {-53, -53, 53, 53};
+    static final int[] anIntArray465 = {-45, 45, 45, -45};
+    static final int[] anIntArray466 = {45, 45, -45, -45};
     private static boolean aBoolean467;
     private static int anInt468;
     private static int anInt469;
@@ -3363,14 +3312,11 @@ public final class WorldController {
             {12, 8, 4, 0, 13, 9, 5, 1, 14, 10, 6, 2, 15, 11, 7, 3},
             {15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0},
             {3, 7, 11, 15, 2, 6, 10, 14, 1, 5, 9, 13, 0, 4, 8, 12}};
-    private static boolean[][][][] visibilityMap;
-    private static boolean[][] aBooleanArrayArray492;
-    private static int anInt493;
-    private static int anInt494;
-    private static int anInt495;
-    private static int anInt496;
-    private static int anInt497;
-    private static int anInt498;
+    private static long[] visibilityMap;
+    /**
+     * The first bit of the current camera pitch and yaw's bucket in {@link #visibilityMap}.
+     */
+    private static int visibleBucket;
     public static int focalLength = 9;
     public static int viewDistance = 9;
 
@@ -0,0 +1,123 @@
+package com.client.cache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Inflates gzip containers (RFC 1952) straight into an exactly-sized array.
+ *
+ * The output is sized from the ISIZE field at the end of the data, capped against the compressed
+ * length, and grown if that was short, so most files inflate into an exactly-sized array with no
+ * scratch buffer. The trailer is then checked where the deflate stream actually ended, so bytes
+ * after the gzip member (such as the 317 version trailer) are ignored. Each thread keeps one raw
+ * {@link Inflater} which is reset between files instead of building a new
+ * {@link java.util.zip.GZIPInputStream} (and its native inflater) per file.
+ */
+public final class GzipDecompressor {
+
+    private static final int FLAG_HCRC = 0x02;
+    private static final int FLAG_EXTRA = 0x04;
+    private static final int FLAG_NAME = 0x08;
+    private static final int FLAG_COMMENT = 0x10;
+
+    /**
+     * Trailer is CRC32 followed by ISIZE, both little-endian ints.
+     */
+    private static final int TRAILER_SIZE = 8;
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private GzipDecompressor() {
+    }
+
+    /**
+     * @param data a complete gzip container.
+     * @return the uncompressed data.
+     * @throws IOException if the data isn't a valid gzip container.
+     */
+    public static byte[] inflate(byte[] data) throws IOException {
+        if (data == null || data.length < 10 + TRAILER_SIZE) {
+            throw new IOException("Not in GZIP format");
+        }
+        if ((data[0] & 0xff) != 0x1f || (data[1] & 0xff) != 0x8b) {
+            throw new IOException("Not in GZIP format");
+        }
+        if (data[2] != 8) {
+            throw new IOException("Unsupported compression method");
+        }
+        int flags = data[3] & 0xff;
+        int offset = 10;
+        if ((flags & FLAG_EXTRA) != 0) {
+            offset += 2 + ((data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8);
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            offset = skipZeroTerminated(data, offset);
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            offset = skipZeroTerminated(data, offset);
+        }
+        if ((flags & FLAG_HCRC) != 0) {
+            offset += 2;
+        }
+        int compressedLength = data.length - TRAILER_SIZE - offset;
+        if (compressedLength < 0) {
+            throw new IOException("Truncated GZIP header");
+        }
+
+        // ISIZE is read from the end of the data to size the output, which is only right if nothing
+        // follows the gzip member, so it's capped in case of a trailer or corrupt length.
+        int size = littleEndianInt(data, data.length - 4);
+        int limit = compressedLength * 8 + 1024;
+        if (size < 0 || size > limit) {
+            size = limit;
+        }
+
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(data, offset, data.length - offset);
+        try {
+            byte[] out = new byte[size];
+            int written = 0;
+            while (!inflater.finished()) {
+                if (written == out.length) {
+                    out = Arrays.copyOf(out, Math.max(out.length * 2, 1024));
+                }
+                int n = inflater.inflate(out, written, out.length - written);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Unexpected end of GZIP stream");
+                }
+                written += n;
+            }
+            int trailer = data.length - inflater.getRemaining();
+            if (trailer + TRAILER_SIZE > data.length) {
+                throw new IOException("Truncated GZIP trailer");
+            }
+            // ISIZE is the length modulo 2^32
+            if (littleEndianInt(data, trailer + 4) != written) {
+                throw new IOException("Corrupt GZIP trailer");
+            }
+            return written == out.length ? out : Arrays.copyOf(out, written);
+        } catch (DataFormatException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            inflater.reset();
+        }
+    }
+
+    private static int littleEndianInt(byte[] data, int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16
+                | (data[offset + 3] & 0xff) << 24;
+    }
+
+    private static int skipZeroTerminated(byte[] data, int offset) throws IOException {
+        while (offset < data.length && data[offset] != 0) {
+            offset++;
+        }
+        if (offset == data.length) {
+            throw new IOException("Truncated GZIP header");
+        }
+        return offset + 1;
+    }
+}
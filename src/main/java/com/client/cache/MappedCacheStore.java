@@ -0,0 +1,228 @@
+package com.client.cache;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-only, memory-mapped view over {@code main_file_cache.dat} and its {@code .idx} files.
+ *
+ * The sector headers are read with absolute gets and the sector payload is bulk-copied from a
+ * private duplicate of the mapping straight into the destination array. Writes keep going through
+ * {@link java.io.RandomAccessFile} (see {@code Decompressor#write}); because both views share the
+ * same page cache, written sectors are visible here immediately. When a write grows a file past the
+ * mapped length the mapping is refreshed on the next read that needs it.
+ *
+ * Reads share a read lock and writers take the write lock from {@link #getWriteLock()}: a write
+ * stores the index entry before its sectors and overwrites a file's sectors in place, so a read
+ * running next to it could walk a sector chain that is half written. Reads of any index still run
+ * side by side, they only wait for a write.
+ */
+public final class MappedCacheStore {
+
+    /**
+     * Size of an entry in any index file.
+     */
+    private static final int INDEX_SIZE = 6;
+
+    /**
+     * Size of a sector inside the data file, header included.
+     */
+    private static final int SECTOR_SIZE = 520;
+
+    private final MappedFile dataFile;
+    private final MappedFile[] indexFiles;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedCacheStore(MappedFile dataFile, MappedFile[] indexFiles) {
+        this.dataFile = dataFile;
+        this.indexFiles = indexFiles;
+    }
+
+    /**
+     * Maps the given cache files.
+     *
+     * @return the store, or null if the cache cannot be mapped (missing files, or a data file
+     * larger than a single mapping can address) in which case callers should keep using the
+     * {@link RandomAccessFile} path.
+     */
+    public static MappedCacheStore open(RandomAccessFile dataFile, RandomAccessFile[] indexFiles) {
+        if (dataFile == null || indexFiles == null) {
+            return null;
+        }
+        try {
+            MappedFile[] indices = new MappedFile[indexFiles.length];
+            for (int i = 0; i < indexFiles.length; i++) {
+                if (indexFiles[i] != null) {
+                    indices[i] = new MappedFile(indexFiles[i].getChannel());
+                }
+            }
+            return new MappedCacheStore(new MappedFile(dataFile.getChannel()), indices);
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Unable to memory-map cache, falling back to file reads: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the lock to hold while writing to the cache files this store maps.
+     */
+    public Lock getWriteLock() {
+        return lock.writeLock();
+    }
+
+    /**
+     * Reads a file by walking its sector chain in the mapped data file.
+     *
+     * @param index    the index file to look the file up in (0 = idx0).
+     * @param fileId   the file id.
+     * @param fileType the type stored in each sector header, {@code index + 1}.
+     * @return the file data, or null if the file is missing or its sector chain is invalid.
+     */
+    public byte[] read(int index, int fileId, int fileType) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return readLocked(index, fileId, fileType);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private byte[] readLocked(int index, int fileId, int fileType) {
+        MappedFile indexFile = index >= 0 && index < indexFiles.length ? indexFiles[index] : null;
+        if (indexFile == null || fileId < 0) {
+            return null;
+        }
+        try {
+            long indexPosition = (long) fileId * INDEX_SIZE;
+            ByteBuffer idx = indexFile.view(indexPosition + INDEX_SIZE);
+            if (idx == null) {
+                return null;
+            }
+            int position = (int) indexPosition;
+            int fileSize = medium(idx, position);
+            int sectorId = medium(idx, position + 3);
+
+            if (sectorId <= 0) {
+                return null;
+            }
+            ByteBuffer data = dataFile.view((long) sectorId * SECTOR_SIZE);
+            if (data == null) {
+                return null;
+            }
+
+            byte[] fileData = new byte[fileSize];
+            int readerIndex = 0;
+            boolean extended = fileId > 0xffff;
+            int chunkLength = extended ? 510 : 512;
+            int headerLength = extended ? 10 : 8;
+            for (int chunk = 0; readerIndex < fileSize; chunk++) {
+                if (sectorId == 0) {
+                    return null;
+                }
+                int remaining = Math.min(fileSize - readerIndex, chunkLength);
+                long sectorEnd = (long) sectorId * SECTOR_SIZE + headerLength + remaining;
+                if (sectorEnd > data.capacity()) {
+                    // Sector was appended after the current mapping was taken.
+                    data = dataFile.view(sectorEnd);
+                    if (data == null) {
+                        return null;
+                    }
+                }
+                int sectorStart = sectorId * SECTOR_SIZE;
+
+                int currentIndex;
+                int currentPart;
+                int nextSector;
+                int currentFile;
+                if (extended) {
+                    currentIndex = data.getInt(sectorStart);
+                    currentPart = data.getShort(sectorStart + 4) & 0xffff;
+                    nextSector = medium(data, sectorStart + 6);
+                    currentFile = data.get(sectorStart + 9) & 0xff;
+                } else {
+                    currentIndex = data.getShort(sectorStart) & 0xffff;
+                    currentPart = data.getShort(sectorStart + 2) & 0xffff;
+                    nextSector = medium(data, sectorStart + 4);
+                    currentFile = data.get(sectorStart + 7) & 0xff;
+                }
+                if (currentIndex != fileId || currentPart != chunk || currentFile != fileType) {
+                    return null;
+                }
+                if (nextSector < 0) {
+                    return null;
+                }
+
+                ((Buffer) data).position(sectorStart + headerLength);
+                data.get(fileData, readerIndex, remaining);
+                readerIndex += remaining;
+                sectorId = nextSector;
+            }
+            return fileData;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static int medium(ByteBuffer buffer, int position) {
+        return ((buffer.get(position) & 0xff) << 16) + ((buffer.get(position + 1) & 0xff) << 8)
+                + (buffer.get(position + 2) & 0xff);
+    }
+
+    /**
+     * A single file mapped read-only in its entirety. The mapping is only replaced when a reader asks
+     * for bytes past its end and the underlying file has grown since.
+     */
+    private static final class MappedFile {
+
+        private final FileChannel channel;
+        private volatile MappedByteBuffer mapping;
+
+        MappedFile(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.mapping = map();
+        }
+
+        /**
+         * @param required the number of bytes the caller needs to be addressable.
+         * @return a private duplicate of the mapping covering at least {@code required} bytes,
+         * or null if the file is shorter than that.
+         */
+        ByteBuffer view(long required) throws IOException {
+            MappedByteBuffer current = mapping;
+            if (current.capacity() < required) {
+                current = remap(required);
+                if (current == null) {
+                    return null;
+                }
+            }
+            return current.duplicate();
+        }
+
+        private synchronized MappedByteBuffer remap(long required) throws IOException {
+            if (mapping.capacity() < required) {
+                if (channel.size() < required) {
+                    return null;
+                }
+                mapping = map();
+            }
+            return mapping;
+        }
+
+        private MappedByteBuffer map() throws IOException {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Cache file too large to map: " + size);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+}
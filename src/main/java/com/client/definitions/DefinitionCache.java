@@ -0,0 +1,161 @@
+package com.client.definitions;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity cache of decoded definitions keyed by their primitive int id.
+ *
+ * Entries live in an open-addressing (linear probing) table sized to at most half full, so lookups
+ * don't box the id or chase nodes. When the cache is full the entry to drop is chosen with the clock
+ * algorithm: every hit sets a reference bit, and the clock hand clears bits until it finds an entry
+ * that hasn't been used since the hand last passed it.
+ *
+ * Not thread safe: the {@code forID} methods using it decode from a shared stream, and must keep
+ * lookups to one thread at a time, as {@link ItemDefinition#forID} does by synchronizing.
+ */
+public final class DefinitionCache<T> {
+
+	private static final int EMPTY = Integer.MIN_VALUE;
+
+	private final int capacity;
+	private final int mask;
+	private final int[] keys;
+	private final Object[] values;
+	private final boolean[] referenced;
+	private int size;
+	private int hand;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param capacity the maximum number of definitions held at once.
+	 */
+	public DefinitionCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity " + capacity);
+		}
+		this.capacity = capacity;
+		int slots = Integer.highestOneBit(capacity * 2 - 1) << 1;
+		this.mask = slots - 1;
+		this.keys = new int[slots];
+		this.values = new Object[slots];
+		this.referenced = new boolean[slots];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	/**
+	 * @return the definition for the id, or null if it isn't cached.
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int key) {
+		for (int slot = slot(key); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				referenced[slot] = true;
+				hits++;
+				return (T) values[slot];
+			}
+		}
+		misses++;
+		return null;
+	}
+
+	public void put(int key, T value) {
+		int slot = slot(key);
+		for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				referenced[slot] = true;
+				return;
+			}
+		}
+		if (size == capacity) {
+			evict();
+			// Eviction may have shifted entries into the free slot found above
+			for (slot = slot(key); keys[slot] != EMPTY; slot = (slot + 1) & mask)
+				;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		referenced[slot] = false;
+		size++;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(values, null);
+		Arrays.fill(referenced, false);
+		size = 0;
+		hand = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	@Override
+	public String toString() {
+		long lookups = hits + misses;
+		return "DefinitionCache[size=" + size + "/" + capacity + ", hits=" + hits + ", misses=" + misses
+				+ ", hitRate=" + (lookups == 0 ? 0 : hits * 100 / lookups) + "%]";
+	}
+
+	private void evict() {
+		while (true) {
+			hand = (hand + 1) & mask;
+			if (keys[hand] == EMPTY) {
+				continue;
+			}
+			if (referenced[hand]) {
+				referenced[hand] = false;
+				continue;
+			}
+			remove(hand);
+			return;
+		}
+	}
+
+	/**
+	 * Removes the entry at the given slot, shifting later entries of the probe run back so that
+	 * lookups never stop early at the hole.
+	 */
+	private void remove(int slot) {
+		int hole = slot;
+		int next = slot;
+		while (true) {
+			next = (next + 1) & mask;
+			if (keys[next] == EMPTY) {
+				break;
+			}
+			int home = slot(keys[next]);
+			boolean reachable = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+			if (reachable) {
+				continue;
+			}
+			keys[hole] = keys[next];
+			values[hole] = values[next];
+			referenced[hole] = referenced[next];
+			hole = next;
+		}
+		keys[hole] = EMPTY;
+		values[hole] = null;
+		referenced[hole] = false;
+		size--;
+	}
+
+	private int slot(int key) {
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+}
@@ -5,8 +5,6 @@ import java.io.FileWriter;
 import java.util.Arrays;
 
 import com.client.*;
-import com.client.sound.SoundRequest;
-import com.client.sound.SoundRequestQueue;
 
 public final class GraphicsDefinition {
 
@@ -153,17 +151,6 @@ public final class GraphicsDefinition {
 		Model var6;
 		if (animationId != -1 && frameindex != -1) {
 			var6 = seqtype.bake_and_animate_spotanim(model, frameindex);
-			if (seqtype.frameSounds != null && seqtype.frameSounds.length > seqtype.framecount) {
-				int[] soundGroup = new int[]{seqtype.frameSounds[seqtype.framecount]};
-				if (soundGroup != null) {
-					for (int soundId : soundGroup) {
-						// You may adjust volume mapping here based on how your mixer handles it
-						// Queue download
-						Client.instance.onDemandFetcher.provide(6, soundId);
-						SoundRequestQueue.add(new SoundRequest(soundId, Math.max(1, 10 - com.client.sound.SoundPlayer.getVolume()), 0));
-					}
-				}
-			}
 		} else {
 			var6 = model.bake_shared_model(true);
 		}
@@ -10,8 +10,12 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.stream.IntStream;
+import java.util.zip.CRC32;
 
 import com.client.Configuration;
 import com.client.DrawingArea;
@@ -43,6 +47,11 @@ public final class ItemDefinition {
 		// Stream stream = new Stream(streamLoader.getArchiveData("obj.idx"));
 		stream = new Buffer(streamLoader.getArchiveData("obj.dat"));
 		final Buffer stream = new Buffer(streamLoader.getArchiveData("obj.idx"));
+		CRC32 crc = new CRC32();
+		crc.update(ItemDefinition.stream.buffer);
+		crc.update(stream.buffer);
+		crc.update(ByteBuffer.allocate(4).putInt(Configuration.CLIENT_VERSION).array());
+		configCrc = crc.getValue();
 		totalItems = stream.readUShort();
 		streamIndices = new int[totalItems + 20_000];
 		int i = 2;
@@ -51,10 +60,7 @@ public final class ItemDefinition {
 			i += stream.readUShort();
 		}
 
-		cache = new ItemDefinition[10];
-		for (int index = 0; index < 10; index++) {
-			cache[index] = new ItemDefinition();
-		}
+		cache = new DefinitionCache<>(CACHE_CAPACITY);
 		//dumpGameItemConfig();
 		//dumpItems2();
 		if (Configuration.dumpDataLists) {
@@ -71,23 +77,27 @@ public final class ItemDefinition {
 		}
 	}
 
-	public static ItemDefinition forID(int itemId) {
-		for (int j = 0; j < 10; j++) {
-			if (cache[j].id == itemId) {
-				return cache[j];
-			}
+	/**
+	 * Synchronized as items are decoded from the shared stream into the cache, and are looked up
+	 * from the start up and region loading pools as well as the game thread.
+	 */
+	public static synchronized ItemDefinition forID(int itemId) {
+		if (itemId == -1 || itemId > streamIndices.length)
+			itemId = 0;
+		ItemDefinition cached = cache.get(itemId);
+		if (cached != null) {
+			return cached;
 		}
 
-		if (itemId == -1)
-			itemId = 0;
-		if (newCustomItems(itemId) != null) {
-			return newCustomItems(itemId);
+		ItemDefinition customItem = newCustomItems(itemId);
+		if (customItem != null) {
+			cache.put(itemId, customItem);
+			return customItem;
 		}
-		if (itemId > streamIndices.length)
-			itemId = 0;
 
-		cacheIndex = (cacheIndex + 1) % 10;
-		ItemDefinition itemDef = cache[cacheIndex];
+		// Cached before decoding, the overrides below look the item up again
+		ItemDefinition itemDef = new ItemDefinition();
+		cache.put(itemId, itemDef);
 
 		stream.currentOffset = streamIndices[itemId];
 		itemDef.id = itemId;
@@ -2564,7 +2574,7 @@ public final class ItemDefinition {
 
 	public static void nullLoader() {
 		mruNodes2 = null;
-		mruNodes1 = null;
+		icons.clear();
 		streamIndices = null;
 		cache = null;
 		stream = null;
@@ -3207,16 +3217,15 @@ public final class ItemDefinition {
 	}
 
 	public static Sprite getSprite(int itemId, int itemAmount, int highlightColor, int var3, boolean var5) {
-		if (highlightColor == 0) {
-			Sprite sprite = (Sprite) mruNodes1.insertFromCache(itemId);
-			if (sprite != null && sprite.maxHeight != itemAmount && sprite.maxHeight != -1) {
-				sprite.unlink();
-				sprite = null;
-			}
-			if (sprite != null)
+		ItemDefinition itemDef = forID(itemId);
+		int iconKey = ItemIconCache.key(itemId, itemDef.stackVariant(itemAmount), highlightColor, var3, var5);
+		if (iconKey != -1) {
+			Sprite sprite = icons.get(iconKey, iconIdentity(), Rasterizer.brightness);
+			if (sprite != null) {
+				sprite.maxHeight = itemDef.stackIDs == null ? -1 : itemAmount;
 				return sprite;
+			}
 		}
-		ItemDefinition itemDef = forID(itemId);
 		if (itemDef.stackIDs == null)
 			itemAmount = -1;
 		if (itemAmount > 1) {
@@ -3257,7 +3266,7 @@ public final class ItemDefinition {
 		int i3 = DrawingArea.topY;
 		int j3 = DrawingArea.bottomY;
 		Rasterizer.aBoolean1464 = false;
-		DrawingArea.initDrawingArea(32, 32, sprite2.myPixels, new float[1024]);
+		DrawingArea.initDrawingArea(32, 32, sprite2.myPixels, ICON_DEPTH);
 		DrawingArea.method336(32, 0, 0, 0, 32);
 		Rasterizer.method364();
 		if (itemDef.placeholderTemplateId != -1) {
@@ -3303,12 +3312,6 @@ public final class ItemDefinition {
 			sprite.maxWidth = l5;
 			sprite.maxHeight = j6;
 		}
-		if (itemDef.certTemplateID != -1 && highlightColor == 0) {
-			mruNodes1.removeFromCache(sprite2, itemId);
-		}
-		if (itemDef.certTemplateID != -1 && highlightColor == 1) {
-			mruNodes1.removeFromCache(sprite2, itemId);
-		}
 		sprite2.outline(1);
 		if (highlightColor > 0) {
 			sprite2.outline(16777215);
@@ -3316,7 +3319,7 @@ public final class ItemDefinition {
 		if (var3 == 0) {
 			sprite2.shadow(3153952);
 		}
-		DrawingArea.initDrawingArea(j2, i2, ai1, new float[1024]);
+		DrawingArea.initDrawingArea(j2, i2, ai1, ICON_DEPTH);
 		DrawingArea.setDrawingArea(j3, k2, l2, i3);
 		Rasterizer.textureInt1 = k1;
 		Rasterizer.textureInt2 = l1;
@@ -3327,9 +3330,51 @@ public final class ItemDefinition {
 		else
 			sprite2.maxWidth = 32;
 		sprite2.maxHeight = itemAmount;
+		if (iconKey != -1) {
+			icons.put(iconKey, sprite2);
+		}
 		return sprite2;
 	}
 
+	/**
+	 * @return 0 for the base model, otherwise one more than the index of the stack model shown.
+	 */
+	private int stackVariant(int itemAmount) {
+		if (stackIDs == null || itemAmount <= 1) {
+			return 0;
+		}
+		int variant = 0;
+		for (int j1 = 0; j1 < 10; j1++)
+			if (itemAmount >= stackAmounts[j1] && stackAmounts[j1] != 0)
+				variant = j1 + 1;
+		return variant;
+	}
+
+	/**
+	 * Drops the item icons held in memory, e.g. when the brightness setting changes.
+	 */
+	public static void clearIconCache() {
+		icons.clear();
+	}
+
+	/**
+	 * @return a fingerprint of what item icons are rendered from: the item definitions and the model
+	 *         index.
+	 */
+	private static long iconIdentity() {
+		if (modelIndexCrc == -1) {
+			CRC32 crc = new CRC32();
+			try {
+				crc.update(Files.readAllBytes(Paths.get(Signlink.getCacheDirectory(), "main_file_cache.idx1")));
+			} catch (Exception e) {
+				// Without the index the icons can't be matched to the models, never reuse them
+				crc.update(Long.toString(System.nanoTime()).getBytes());
+			}
+			modelIndexCrc = crc.getValue();
+		}
+		return configCrc << 32 | modelIndexCrc;
+	}
+
 	public Model method201(int i) {
 		if (stackIDs != null && i > 1) {
 			int j = -1;
@@ -3403,7 +3448,10 @@ public final class ItemDefinition {
 	private short[] modifiedTextureColors;
 
 	public int id;
-	public static MRUNodes mruNodes1 = new MRUNodes(100);
+	private static final ItemIconCache icons = new ItemIconCache();
+	private static final float[] ICON_DEPTH = new float[1024];
+	private static long configCrc;
+	private static long modelIndexCrc = -1;
 	public static MRUNodes mruNodes2 = new MRUNodes(50);
 
 	public boolean membersObject;
@@ -3416,14 +3464,22 @@ public final class ItemDefinition {
 	public String groundActions[];
 	public int spriteTranslateX; // modelOffset1
 	public String name;
-	private static ItemDefinition[] cache;
+	/**
+	 * Number of decoded items kept around; the bank, Grand Exchange and loot tracker look up
+	 * hundreds of distinct items per frame.
+	 */
+	private static final int CACHE_CAPACITY = 4096;
+	private static DefinitionCache<ItemDefinition> cache;
+
+	public static DefinitionCache<ItemDefinition> getCache() {
+		return cache;
+	}
 	private int secondaryFemaleHeadPiece;
 	public int modelId;
 	public int primaryMaleHeadPiece;
 	public boolean stackable;
 	public String description;
 	public int certID;
-	private static int cacheIndex;
 	public int spriteScale;
 	private static Buffer stream;
 	public int contrast;
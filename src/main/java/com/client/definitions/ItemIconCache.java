@@ -0,0 +1,191 @@
+package com.client.definitions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.client.Sprite;
+import com.client.sign.Signlink;
+
+/**
+ * Two-tier cache of rendered 32x32 item icons for {@link ItemDefinition#getSprite}.
+ *
+ * Icons are keyed by item id, the stack variant picked by the amount and the highlight, shadow and
+ * scale options. The first tier keeps a few thousand icons in memory; the second is an append-only
+ * file in the cache directory holding every icon rendered so far, indexed when first used. Each
+ * brightness setting has a file of its own, so switching back and forth keeps both; a file is tied
+ * to the item definitions and model index it was rendered from, and is started over when they change.
+ */
+final class ItemIconCache {
+
+	private static final int MEMORY_CAPACITY = 2048;
+	private static final int ICON_SIZE = 32;
+	private static final int MAGIC = 0x49434f4e;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int RECORD_SIZE = 8 + ICON_SIZE * ICON_SIZE * 4;
+
+	private final DefinitionCache<Sprite> memory = new DefinitionCache<>(MEMORY_CAPACITY);
+	private final Map<Integer, Long> diskIndex = new HashMap<>();
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+	private RandomAccessFile disk;
+	private boolean diskFailed;
+	private long identity;
+	private double brightness;
+	private boolean opened;
+
+	/**
+	 * @param itemId         the requested item.
+	 * @param stackVariant   the stack model shown, see {@link ItemDefinition#stackVariant}.
+	 * @param highlightColor the outline option of {@code getSprite}.
+	 * @param shadow         the shadow option of {@code getSprite}.
+	 * @param scaled         whether the icon is drawn enlarged (note certificates).
+	 * @return the key of the icon, or -1 if it can't be cached.
+	 */
+	static int key(int itemId, int stackVariant, int highlightColor, int shadow, boolean scaled) {
+		if (itemId < 0 || itemId >= 1 << 23) {
+			return -1;
+		}
+		int highlight = highlightColor <= 0 ? 0 : highlightColor == 2 ? 2 : 1;
+		int variant = highlight | (shadow == 0 ? 4 : 0) | (scaled ? 8 : 0);
+		return itemId << 8 | stackVariant << 4 | variant;
+	}
+
+	/**
+	 * @param identity   what the icons are rendered from, the cache is emptied when it changes.
+	 * @param brightness the brightness the icons are rendered with, which picks the file.
+	 * @return the icon, or null if it hasn't been rendered yet.
+	 */
+	Sprite get(int key, long identity, double brightness) {
+		if (!opened || identity != this.identity || brightness != this.brightness) {
+			open(identity, brightness);
+		}
+		Sprite sprite = memory.get(key);
+		if (sprite == null && disk != null) {
+			sprite = read(key);
+			if (sprite != null) {
+				memory.put(key, sprite);
+			}
+		}
+		return sprite;
+	}
+
+	void put(int key, Sprite sprite) {
+		memory.put(key, sprite);
+		if (disk != null && sprite.myWidth == ICON_SIZE && sprite.myHeight == ICON_SIZE
+				&& !diskIndex.containsKey(key)) {
+			write(key, sprite);
+		}
+	}
+
+	/**
+	 * Drops the icons held in memory, the file is kept.
+	 */
+	void clear() {
+		memory.clear();
+	}
+
+	private void open(long identity, double brightness) {
+		boolean reopen = opened && brightness != this.brightness;
+		opened = true;
+		this.identity = identity;
+		this.brightness = brightness;
+		memory.clear();
+		diskIndex.clear();
+		if (diskFailed) {
+			return;
+		}
+		try {
+			if (disk != null && reopen) {
+				disk.close();
+				disk = null;
+			}
+			if (disk == null) {
+				String directory = Signlink.getCacheDirectory();
+				if (directory == null) {
+					diskFailed = true;
+					return;
+				}
+				disk = new RandomAccessFile(new File(directory, fileName(brightness)), "rw");
+			}
+			// The brightness is in the header too, for settings close enough to share a file name
+			long fileIdentity = identity * 31 + Double.doubleToLongBits(brightness);
+			if (disk.length() < HEADER_SIZE || !readHeader(fileIdentity)) {
+				disk.setLength(0);
+				disk.writeInt(MAGIC);
+				disk.writeInt(VERSION);
+				disk.writeLong(fileIdentity);
+				return;
+			}
+			long records = (disk.length() - HEADER_SIZE) / RECORD_SIZE;
+			// Drop a record cut short by the client closing mid-write
+			disk.setLength(HEADER_SIZE + records * RECORD_SIZE);
+			for (long index = 0; index < records; index++) {
+				long offset = HEADER_SIZE + index * RECORD_SIZE;
+				disk.seek(offset);
+				diskIndex.put(disk.readInt(), offset);
+			}
+			System.out.println("Indexed " + records + " cached item icons");
+		} catch (IOException e) {
+			disableDisk(e);
+		}
+	}
+
+	private static String fileName(double brightness) {
+		return "item_icons_" + Math.round(brightness * 100) + ".dat";
+	}
+
+	private boolean readHeader(long identity) throws IOException {
+		disk.seek(0);
+		return disk.readInt() == MAGIC && disk.readInt() == VERSION && disk.readLong() == identity;
+	}
+
+	private Sprite read(int key) {
+		Long offset = diskIndex.get(key);
+		if (offset == null) {
+			return null;
+		}
+		try {
+			disk.seek(offset);
+			disk.readFully(record.array());
+			record.clear();
+			record.getInt();
+			Sprite sprite = new Sprite(ICON_SIZE, ICON_SIZE);
+			sprite.maxWidth = record.getInt();
+			record.asIntBuffer().get(sprite.myPixels);
+			return sprite;
+		} catch (IOException e) {
+			disableDisk(e);
+			return null;
+		}
+	}
+
+	private void write(int key, Sprite sprite) {
+		try {
+			record.clear();
+			record.putInt(key);
+			record.putInt(sprite.maxWidth);
+			record.asIntBuffer().put(sprite.myPixels, 0, ICON_SIZE * ICON_SIZE);
+			long offset = disk.length();
+			disk.seek(offset);
+			disk.write(record.array());
+			diskIndex.put(key, offset);
+		} catch (IOException e) {
+			disableDisk(e);
+		}
+	}
+
+	private void disableDisk(IOException e) {
+		System.err.println("Item icon cache disabled: " + e.getMessage());
+		diskFailed = true;
+		diskIndex.clear();
+		try {
+			disk.close();
+		} catch (IOException ignored) {
+		}
+		disk = null;
+	}
+}
@@ -29,12 +29,12 @@
 		int[] field2032 = new int[]{1, 1, 1, 1, 1, 1};
 		int footprintSize;
 		public static NpcDefinition forID(int i) {
-			for (int j = 0; j < 20; j++)
-				if (cache[j].npcId == i)
-					return cache[j];
+			NpcDefinition cached = cache.get(i);
+			if (cached != null)
+				return cached;
 
-			anInt56 = (anInt56 + 1) % 20;
-			NpcDefinition entityDef = cache[anInt56] = new NpcDefinition();
+			NpcDefinition entityDef = new NpcDefinition();
+			cache.put(i, entityDef);
 			stream.currentOffset = streamIndices[i];
 			entityDef.npcId = i;
 			entityDef.readValues(stream);
@@ -950,9 +950,7 @@
 				i += stream.readUShort();
 			}
 
-			cache = new NpcDefinition[20];
-			for (int k = 0; k < 20; k++)
-				cache[k] = new NpcDefinition();
+			cache = new DefinitionCache<>(CACHE_CAPACITY);
 			for (int index = 0; index < totalAmount; index++) {
 				NpcDefinition ed = forID(index);
 				if (ed == null)
@@ -1522,7 +1520,6 @@
 		}
 
 		public int rotate90LeftAnimation;
-		public static int anInt56;
 		public int anInt57;
 		public int rotate180Animation;
 		public int anInt59;
@@ -1542,7 +1539,15 @@
 		public int standAnimation;
 		public long npcId;
 		public int getDegreesToTurn;
-		public static NpcDefinition[] cache;
+		/**
+		 * Number of decoded npcs kept around.
+		 */
+		private static final int CACHE_CAPACITY = 1024;
+		private static DefinitionCache<NpcDefinition> cache;
+
+		public static DefinitionCache<NpcDefinition> getCache() {
+			return cache;
+		}
 		public static Client clientInstance;
 		public int rotate90RightAnimation;
 		public boolean aBoolean84;
@@ -24,12 +24,12 @@ public final class ObjectDefinition {
 		if (i == 25913 || i == 25916 || i == 25917)
 			i = 15552;
 
-		for (int j = 0; j < 20; j++)
-			if (cache[j].id == i)
-				return cache[j];
+		ObjectDefinition cached = cache.get(i);
+		if (cached != null)
+			return cached;
 
-		cacheIndex = (cacheIndex + 1) % 20;
-		ObjectDefinition objectDef = cache[cacheIndex];
+		ObjectDefinition objectDef = new ObjectDefinition();
+		cache.put(i, objectDef);
 		stream.currentOffset = streamIndices[i];
 		objectDef.id = i;
 		objectDef.setDefaults();
@@ -545,9 +545,7 @@ public final class ObjectDefinition {
 			streamIndices[j] = i;
 			i += stream.readUShort();
 		}
-		cache = new ObjectDefinition[20];
-		for (int k = 0; k < 20; k++)
-			cache[k] = new ObjectDefinition();
+		cache = new DefinitionCache<>(CACHE_CAPACITY);
 	}
 
 	public boolean method577(int i) {
@@ -1136,7 +1134,6 @@ public final class ObjectDefinition {
 	public int interactType;
 	public int anInt768;
 	private boolean mergeNormals;
-	private static int cacheIndex;
 	private int height;
 	public int[] modelIds;
 	public int varpId;
@@ -1147,7 +1144,15 @@ public final class ObjectDefinition {
 	public boolean clipped;
 	public static MRUNodes mruNodes2 = new MRUNodes(30);
 	public int animation;
-	private static ObjectDefinition[] cache;
+	/**
+	 * Number of decoded objects kept around, enough for the objects of a loaded region and the minimap.
+	 */
+	private static final int CACHE_CAPACITY = 2048;
+	private static DefinitionCache<ObjectDefinition> cache;
+
+	public static DefinitionCache<ObjectDefinition> getCache() {
+		return cache;
+	}
 	private int anInt783;
 	private int[] modifiedModelColors;
 	public static MRUNodes mruNodes1 = new MRUNodes(500);
@@ -3,6 +3,7 @@ package com.client.graphics.interfaces;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -23,6 +24,7 @@ import com.client.TextDrawingArea;
 import com.client.definitions.AnimationDefinition;
 import com.client.definitions.ItemDefinition;
 import com.client.definitions.NpcDefinition;
+import com.client.definitions.VarBit;
 import com.client.graphics.interfaces.impl.DropdownMenu;
 import com.client.graphics.interfaces.impl.Interfaces;
 import com.client.graphics.interfaces.impl.Slider;
@@ -337,6 +339,73 @@ public class RSInterface {
 				aMRUNodes_238 = null; // We'll need this to reload interfaces in developer mode.
 			}
 			addInterface(emptyInterface);
+			indexScriptVarps();
+	}
+
+	/**
+	 * @return whether the scripts of any interface read the varp, so whether a change to it can
+	 * change what an interface shows.
+	 */
+	public static boolean readsVarp(int varp) {
+		return scriptVarps.get(varp);
+	}
+
+	private static void indexScriptVarps() {
+		scriptVarps.clear();
+		for (RSInterface rsInterface : interfaceCache) {
+			if (rsInterface == null || rsInterface.scripts == null) {
+				continue;
+			}
+			for (int[] script : rsInterface.scripts) {
+				if (script != null) {
+					indexScriptVarps(script);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Walks a script the way {@link Client}'s interpreter does, noting the varps it reads.
+	 */
+	private static void indexScriptVarps(int[] script) {
+		int counter = 0;
+		try {
+			while (counter < script.length) {
+				int instruction = script[counter++];
+				if (instruction == 0) {
+					return;
+				}
+				switch (instruction) {
+					case 5:
+					case 7:
+						scriptVarps.set(script[counter++]);
+						break;
+					case 13:
+						scriptVarps.set(script[counter]);
+						counter += 2;
+						break;
+					case 14:
+						int varbit = script[counter++];
+						if (VarBit.cache != null && varbit < VarBit.cache.length && VarBit.cache[varbit] != null) {
+							scriptVarps.set(VarBit.cache[varbit].configID);
+						}
+						break;
+					case 4:
+					case 10:
+						counter += 2;
+						break;
+					case 1:
+					case 2:
+					case 3:
+					case 6:
+					case 20:
+						counter++;
+						break;
+				}
+			}
+		} catch (IndexOutOfBoundsException e) {
+			// Malformed, the interpreter gives up on it too
+		}
 	}
 
 	public static int findOpenConfigFrame(int amount) {
@@ -3836,6 +3905,10 @@ public class RSInterface {
 	public static int iftype_loops_remaining;
 	public Sprite sprites[];
 	public static RSInterface interfaceCache[];
+	/**
+	 * See {@link #readsVarp}.
+	 */
+	private static final BitSet scriptVarps = new BitSet();
 	public int anIntArray212[];
 	public int contentType;// anInt214
 	public int spritesX[];
@@ -3895,6 +3968,14 @@ public class RSInterface {
 	public boolean aBoolean259;
 	public Sprite sprite2;
 	public int scrollMax;
+	/**
+	 * The client-side hardcodes that apply to this widget, worked out by the client on first draw.
+	 */
+	public int renderFlags;
+	/**
+	 * For lists scrolled by how many of their lines have text, the number of such lines.
+	 */
+	public int filledLines;
 	public int type;
 	public int anInt263;
 	private static final MRUNodes aMRUNodes_264 = new MRUNodes(30);
@@ -31,16 +31,23 @@ public class SpriteLoader {
 				cache = new SpriteLoader[totalSprites];
 				sprites = new Sprite[totalSprites];
 			}
+			SpriteLoader[] loaded = new SpriteLoader[totalSprites];
+			byte[][] spriteData = new byte[totalSprites][];
 			for (int i = 0; i < totalSprites; i++) {
 				int id = indexFile.readInt();
 				if (cache[id] == null) {
 					cache[id] = new SpriteLoader();
 				}
 				cache[id].readValues(indexFile, dataFile);
-				createSprite(cache[id]);
+				loaded[i] = cache[id];
+				spriteData[i] = loaded[i].spriteData;
 			}
 			indexFile.close();
 			dataFile.close();
+			Sprite[] decoded = SpritePack.load("sprites", SpritePack.crc(index.buffer, data.buffer), spriteData);
+			for (int i = 0; i < totalSprites; i++) {
+				createSprite(loaded[i], decoded[i]);
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -78,8 +85,9 @@ public class SpriteLoader {
 	/**
 	 * Creates a sprite out of the spriteData.
 	 * @param sprite
+	 * @param decoded the spriteData already decoded by {@link SpritePack}, null to decode it here
 	 */
-	public static void createSprite(SpriteLoader sprite) {
+	public static void createSprite(SpriteLoader sprite, Sprite decoded) {
 		if (Configuration.DUMP_SPRITES) {
 			File directory = new File(Signlink.getCacheDirectory() + "Sprites/dump/");
 			if (!directory.exists()) {
@@ -89,7 +97,7 @@ public class SpriteLoader {
 					new File(directory.getAbsolutePath() + System.getProperty("file.separator") + sprite.id + ".png"),
 					sprite.spriteData);
 		}
-		sprites[sprite.id] = new Sprite(sprite.spriteData);
+		sprites[sprite.id] = decoded != null ? decoded : new Sprite(sprite.spriteData);
 		sprites[sprite.id].anInt1442 = sprite.drawOffsetX;
 		sprites[sprite.id].anInt1443 = sprite.drawOffsetY;
 	}
@@ -146,23 +154,30 @@ public class SpriteLoader {
 				cache474 = new SpriteLoader[totalSprites];
 				sprites474 = new Sprite[totalSprites];
 			}
+			SpriteLoader[] loaded = new SpriteLoader[totalSprites];
+			byte[][] spriteData = new byte[totalSprites][];
 			for (int i = 0; i < totalSprites; i++) {
 				int id = indexFile.readInt();
 				if (cache474[id] == null) {
 					cache474[id] = new SpriteLoader();
 				}
 				cache474[id].readValues(indexFile, dataFile);
-				createSprite474(cache474[id]);
+				loaded[i] = cache474[id];
+				spriteData[i] = loaded[i].spriteData;
 			}
 			indexFile.close();
 			dataFile.close();
+			Sprite[] decoded = SpritePack.load("474_sprites", SpritePack.crc(index.buffer, data.buffer), spriteData);
+			for (int i = 0; i < totalSprites; i++) {
+				createSprite474(loaded[i], decoded[i]);
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
-	public static void createSprite474(SpriteLoader sprite) {
-		sprites474[sprite.id] = new Sprite(sprite.spriteData);
+	public static void createSprite474(SpriteLoader sprite, Sprite decoded) {
+		sprites474[sprite.id] = decoded != null ? decoded : new Sprite(sprite.spriteData);
 		sprites474[sprite.id].anInt1442 = sprite.drawOffsetX;
 		sprites474[sprite.id].anInt1443 = sprite.drawOffsetY;
 	}
@@ -35,16 +35,23 @@ public class SpriteLoader3 {
 				cache = new SpriteLoader3[totalSprites];
 				sprites = new Sprite[totalSprites];
 			}
+			SpriteLoader3[] loaded = new SpriteLoader3[totalSprites];
+			byte[][] spriteData = new byte[totalSprites][];
 			for (int i = 0; i < totalSprites; i++) {
 				int id = indexFile.readInt();
 				if (cache[id] == null) {
 					cache[id] = new SpriteLoader3();
 				}
 				cache[id].readValues(indexFile, dataFile);
-				createSprite(cache[id]);
+				loaded[i] = cache[id];
+				spriteData[i] = loaded[i].spriteData;
 			}
 			indexFile.close();
 			dataFile.close();
+			Sprite[] decoded = SpritePack.load("media_archive3", SpritePack.crc(index.buffer, data.buffer), spriteData);
+			for (int i = 0; i < totalSprites; i++) {
+				createSprite(loaded[i], decoded[i]);
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -86,8 +93,9 @@ public class SpriteLoader3 {
 	 * Creates a sprite out of the spriteData.
 	 * 
 	 * @param sprite
+	 * @param decoded the spriteData already decoded by {@link SpritePack}, null to decode it here
 	 */
-	public static void createSprite(SpriteLoader3 sprite) {
+	public static void createSprite(SpriteLoader3 sprite, Sprite decoded) {
 		if (Configuration.DUMP_SPRITES) {
 			File directory = new File(Signlink.getCacheDirectory() + "Sprites/dump/");
 			if (!directory.exists()) {
@@ -97,7 +105,7 @@ public class SpriteLoader3 {
 					new File(directory.getAbsolutePath() + System.getProperty("file.separator") + sprite.id + ".png"),
 					sprite.spriteData);
 		}
-		sprites[sprite.id] = new Sprite(sprite.spriteData);
+		sprites[sprite.id] = decoded != null ? decoded : new Sprite(sprite.spriteData);
 		sprites[sprite.id].anInt1442 = sprite.drawOffsetX;
 		sprites[sprite.id].anInt1443 = sprite.drawOffsetY;
 	}
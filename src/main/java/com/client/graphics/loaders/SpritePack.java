@@ -0,0 +1,203 @@
+package com.client.graphics.loaders;
+
+import java.awt.Image;
+import java.awt.Toolkit;
+import java.awt.image.PixelGrabber;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import com.client.Sprite;
+import com.client.sign.Signlink;
+
+/**
+ * Turns the PNGs of a sprite archive into sprites, decoding them once.
+ *
+ * The first time an archive is seen its images are decoded in parallel on a small worker pool, and
+ * the resulting pixels are written to a pack in the cache directory next to the CRC of the source.
+ * Later launches read the pack in one go and copy the pixels straight out of it, skipping image
+ * decoding altogether until the archive changes. The pack isn't memory-mapped, a mapping keeps the
+ * file locked on Windows and the pack couldn't be replaced when the archive changes.
+ */
+public final class SpritePack {
+
+	private static final int MAGIC = 0x53505250;
+	private static final int VERSION = 1;
+	private static final int THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+	private static final ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+		Thread thread = new Thread(r, "SpritePack-" + threadCounter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private SpritePack() {
+	}
+
+	/**
+	 * @param sources the files the images come from, for the CRC.
+	 * @return the CRC a pack of the sources is stored under.
+	 */
+	public static long crc(byte[]... sources) {
+		CRC32 crc = new CRC32();
+		crc.update(VERSION);
+		for (byte[] source : sources) {
+			if (source != null) {
+				crc.update(source);
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * @param name the pack's file name in the cache directory.
+	 * @param crc  the CRC of the source, see {@link #crc}.
+	 * @param pngs the encoded images, null entries give empty sprites.
+	 * @return a sprite for each image, as {@code new Sprite(byte[])} would make them.
+	 */
+	public static Sprite[] load(String name, long crc, byte[][] pngs) {
+		File file = new File(Signlink.getCacheDirectory() + "sprite_packs", name + ".pack");
+		Sprite[] sprites = read(file, crc, pngs.length);
+		if (sprites != null) {
+			return sprites;
+		}
+		sprites = decode(pngs);
+		write(file, crc, sprites);
+		return sprites;
+	}
+
+	private static Sprite[] decode(byte[][] pngs) {
+		Sprite[] sprites = new Sprite[pngs.length];
+		int chunk = Math.max(1, (pngs.length + THREAD_COUNT * 4 - 1) / (THREAD_COUNT * 4));
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int start = 0; start < pngs.length; start += chunk) {
+			final int from = start;
+			final int to = Math.min(pngs.length, start + chunk);
+			tasks.add(pool.submit(() -> {
+				for (int index = from; index < to; index++) {
+					if (pngs[index] != null) {
+						sprites[index] = decode(pngs[index]);
+					}
+				}
+			}));
+		}
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		return sprites;
+	}
+
+	/**
+	 * Decodes an image without {@link javax.swing.ImageIcon}, whose shared media tracker would make
+	 * the workers take turns.
+	 */
+	private static Sprite decode(byte[] png) {
+		try {
+			Image image = Toolkit.getDefaultToolkit().createImage(png);
+			PixelGrabber pixelgrabber = new PixelGrabber(image, 0, 0, -1, -1, true);
+			if (pixelgrabber.grabPixels() && pixelgrabber.getPixels() instanceof int[]) {
+				Sprite sprite = new Sprite(pixelgrabber.getWidth(), pixelgrabber.getHeight());
+				sprite.myPixels = (int[]) pixelgrabber.getPixels();
+				sprite.setTransparency(255, 0, 255);
+				return sprite;
+			}
+		} catch (Exception e) {
+			// Left to the regular path below, which reports it
+		}
+		return new Sprite(png);
+	}
+
+	private static Sprite[] read(File file, long crc, int count) {
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != crc
+					|| buffer.getInt() != count) {
+				return null;
+			}
+			Sprite[] sprites = new Sprite[count];
+			for (int index = 0; index < count; index++) {
+				int width = buffer.getInt();
+				int height = buffer.getInt();
+				int length = buffer.getInt();
+				if (length == -1) {
+					continue;
+				}
+				Sprite sprite = new Sprite(0, 0);
+				sprite.myWidth = sprite.maxWidth = width;
+				sprite.myHeight = sprite.maxHeight = height;
+				sprite.myPixels = length == -2 ? null : new int[length];
+				if (length > 0) {
+					IntBuffer pixels = buffer.asIntBuffer();
+					pixels.get(sprite.myPixels);
+					buffer.position(buffer.position() + length * 4);
+				}
+				sprites[index] = sprite;
+			}
+			return sprites;
+		} catch (Exception e) {
+			System.err.println("Unable to read sprite pack " + file.getName() + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static void write(File file, long crc, Sprite[] sprites) {
+		File directory = file.getParentFile();
+		if (!directory.exists() && !directory.mkdirs()) {
+			return;
+		}
+		File temp = new File(directory, file.getName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(crc);
+			out.writeInt(sprites.length);
+			for (Sprite sprite : sprites) {
+				if (sprite == null) {
+					out.writeInt(0);
+					out.writeInt(0);
+					out.writeInt(-1);
+					continue;
+				}
+				out.writeInt(sprite.myWidth);
+				out.writeInt(sprite.myHeight);
+				if (sprite.myPixels == null) {
+					out.writeInt(-2);
+					continue;
+				}
+				out.writeInt(sprite.myPixels.length);
+				for (int pixel : sprite.myPixels) {
+					out.writeInt(pixel);
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to write sprite pack " + file.getName() + ": " + e.getMessage());
+			temp.delete();
+			return;
+		}
+		if (file.exists()) {
+			file.delete();
+		}
+		if (!temp.renameTo(file)) {
+			temp.delete();
+		}
+	}
+}
@@ -52,6 +52,17 @@ public class AnimKeyFrameSet {
       keyframesetset = new AnimKeyFrameSet[4000];
    }
    public static void load(int group, byte[] fileData){
+      AnimKeyFrameSet keyframe = decode(group, fileData);
+      if (keyframe != null) {
+         keyframesetset[group] = keyframe;
+      }
+   }
+
+   /**
+    * Decodes a keyframe set without publishing it into {@link #keyframesetset}, so it can run off
+    * the game thread. Returns null if the file could not be unpacked.
+    */
+   public static AnimKeyFrameSet decode(int group, byte[] fileData){
       try {
          Buffer keyframe_buffer = new Buffer(fileData);
          if(keyframe_buffer.readUShort() != 420) {
@@ -68,29 +79,35 @@ public class AnimKeyFrameSet {
          int version = keyframe_buffer.readUnsignedByte();
          int base_id = keyframe_buffer.readUShort();
          System.out.println("Loading keyframeset " + group + ", base_id " + base_id + ", version " + version);
-         AnimKeyFrameSet keyframe = keyframesetset[group] = new AnimKeyFrameSet();
+         AnimKeyFrameSet keyframe = new AnimKeyFrameSet();
          keyframe.frameset_id = group;
          try {
             keyframe.base = new AnimBase(base_buffer, false, baseSize);
          } catch (RuntimeException e) {
-            keyframesetset[group] = null;
             System.err.println(e.getMessage());
             System.err.println("Error1 unpacking base for keyframe " + group);
             e.printStackTrace();
+            return null;
          }
          try {
             keyframe.decode(keyframe_buffer, version);
          } catch(RuntimeException exception) {
-            keyframesetset[group] = null;
             System.err.println("Error1 unpacking keyframes " + group + " file size from cache = " + fileData.length);
             exception.printStackTrace();
+            return null;
          }
+         return keyframe;
       } catch(Exception exception) {
          System.err.println("Error2 unpacking keyframes " + group);
          exception.printStackTrace();
+         return null;
       }
    }
 
+   public static void load(AnimKeyFrameSet keyframe) {
+      keyframesetset[keyframe.frameset_id] = keyframe;
+   }
+
 
    void decode(Buffer packet, int version) {
       int frame_size = packet.readInt();
@@ -0,0 +1,178 @@
+package com.client.model.rt7_anims;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The vertices of a skeletal model grouped by the bones and weights they're skinned with.
+ *
+ * Most vertices of a model share their bone set and weights with many others, so the blended
+ * skinning matrix is worked out once per group each keyframe and then applied to every vertex of
+ * the group. The palette only reads the model's bone arrays, so copies of a model share it, and
+ * applying it keeps its scratch state on the stack so it can be used from any thread.
+ */
+public final class SkinningPalette {
+   final int[][] source;
+   final int vertex_count;
+   final int[][] group_bones;
+   final float[][] group_weights;
+   /**
+    * The vertices of group {@code g} are {@code vertices[group_offsets[g]]} up to
+    * {@code vertices[group_offsets[g + 1]]}.
+    */
+   final int[] group_offsets;
+   final int[] vertices;
+
+   private SkinningPalette(int[][] source, int vertex_count, int[][] group_bones, float[][] group_weights, int[] group_offsets, int[] vertices) {
+      this.source = source;
+      this.vertex_count = vertex_count;
+      this.group_bones = group_bones;
+      this.group_weights = group_weights;
+      this.group_offsets = group_offsets;
+      this.vertices = vertices;
+   }
+
+   /**
+    * @param bone_origins the bones of each vertex, null or empty for vertices without any.
+    * @param bone_scales the weight of each bone, out of 255.
+    */
+   public static SkinningPalette build(int[][] bone_origins, int[][] bone_scales, int vertex_count) {
+      Map<Signature, Integer> groups = new HashMap<>();
+      int[] vertex_group = new int[vertex_count];
+      int[] group_sizes = new int[16];
+      int[][] bones = new int[16][];
+      int[][] scales = new int[16][];
+      int skinned = 0;
+
+      for(int vertex = 0; vertex < vertex_count; ++vertex) {
+         int[] origin = bone_origins[vertex];
+         if (origin == null || origin.length == 0) {
+            vertex_group[vertex] = -1;
+            continue;
+         }
+
+         Signature signature = new Signature(origin, bone_scales[vertex]);
+         Integer group = groups.get(signature);
+         if (group == null) {
+            group = groups.size();
+            groups.put(signature, group);
+            if (group == bones.length) {
+               group_sizes = Arrays.copyOf(group_sizes, group * 2);
+               bones = Arrays.copyOf(bones, group * 2);
+               scales = Arrays.copyOf(scales, group * 2);
+            }
+
+            bones[group] = origin;
+            scales[group] = bone_scales[vertex];
+         }
+
+         vertex_group[vertex] = group;
+         ++group_sizes[group];
+         ++skinned;
+      }
+
+      int group_count = groups.size();
+      int[] group_offsets = new int[group_count + 1];
+      for(int group = 0; group < group_count; ++group) {
+         group_offsets[group + 1] = group_offsets[group] + group_sizes[group];
+      }
+
+      int[] vertices = new int[skinned];
+      int[] cursors = Arrays.copyOf(group_offsets, group_count);
+      for(int vertex = 0; vertex < vertex_count; ++vertex) {
+         if (vertex_group[vertex] != -1) {
+            vertices[cursors[vertex_group[vertex]]++] = vertex;
+         }
+      }
+
+      float[][] group_weights = new float[group_count][];
+      for(int group = 0; group < group_count; ++group) {
+         group_weights[group] = new float[scales[group].length];
+         for(int bone = 0; bone < scales[group].length; ++bone) {
+            group_weights[group][bone] = (float)scales[group][bone] / 255.0F;
+         }
+      }
+
+      return new SkinningPalette(bone_origins, vertex_count, Arrays.copyOf(bones, group_count), group_weights, group_offsets, vertices);
+   }
+
+   /**
+    * @return whether this palette was built from the given bone arrays.
+    */
+   public boolean matches(int[][] bone_origins, int vertex_count) {
+      return this.source == bone_origins && this.vertex_count == vertex_count;
+   }
+
+   /**
+    * Moves every skinned vertex by the blend of its bones' skinning matrices at the keyframe.
+    */
+   public void apply(SkeletalAnimBase skeleton, int keyframe, int[] vertices_x, int[] vertices_y, int[] vertices_z) {
+      for(int group = 0; group < this.group_bones.length; ++group) {
+         int[] bones = this.group_bones[group];
+         float[] weights = this.group_weights[group];
+         // Only the upper 3x4 of the blended matrix moves a vertex, the last column is never read
+         float m0 = 0.0F, m1 = 0.0F, m2 = 0.0F;
+         float m4 = 0.0F, m5 = 0.0F, m6 = 0.0F;
+         float m8 = 0.0F, m9 = 0.0F, m10 = 0.0F;
+         float m12 = 0.0F, m13 = 0.0F, m14 = 0.0F;
+
+         for(int index = 0; index < bones.length; ++index) {
+            AnimationBone bone = skeleton.get_bone(bones[index]);
+            if (bone != null) {
+               float[] skinning = bone.get_skinning(keyframe).values;
+               float weight = weights[index];
+               m0 += skinning[0] * weight;
+               m1 += skinning[1] * weight;
+               m2 += skinning[2] * weight;
+               m4 += skinning[4] * weight;
+               m5 += skinning[5] * weight;
+               m6 += skinning[6] * weight;
+               m8 += skinning[8] * weight;
+               m9 += skinning[9] * weight;
+               m10 += skinning[10] * weight;
+               m12 += skinning[12] * weight;
+               m13 += skinning[13] * weight;
+               m14 += skinning[14] * weight;
+            }
+         }
+
+         for(int index = this.group_offsets[group]; index < this.group_offsets[group + 1]; ++index) {
+            int vertex = this.vertices[index];
+            float x = (float)vertices_x[vertex];
+            float y = (float)(-vertices_y[vertex]);
+            float z = (float)(-vertices_z[vertex]);
+            vertices_x[vertex] = (int)(m0 * x + m4 * y + m8 * z + m12);
+            vertices_y[vertex] = -((int)(m1 * x + m5 * y + m9 * z + m13));
+            vertices_z[vertex] = -((int)(m2 * x + m6 * y + m10 * z + m14));
+         }
+      }
+   }
+
+   private static final class Signature {
+      final int[] bones;
+      final int[] scales;
+      final int hash;
+
+      Signature(int[] bones, int[] scales) {
+         this.bones = bones;
+         this.scales = scales;
+         this.hash = Arrays.hashCode(bones) * 31 + Arrays.hashCode(scales);
+      }
+
+      @Override
+      public int hashCode() {
+         return this.hash;
+      }
+
+      @Override
+      public boolean equals(Object other) {
+         if (!(other instanceof Signature)) {
+            return false;
+         }
+
+         Signature signature = (Signature)other;
+         return this.hash == signature.hash && Arrays.equals(this.bones, signature.bones) && Arrays.equals(this.scales, signature.scales);
+      }
+   }
+}
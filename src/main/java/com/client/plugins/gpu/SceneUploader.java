@@ -1,301 +1,202 @@
 package com.client.plugins.gpu;
 
-import com.client.Model;
+import com.client.ScenePacker;
 import com.client.WorldController;
-import org.lwjgl.opengl.GL15;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL15.*;
 import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
 
 /**
  * Uploads scene geometry to GPU buffers
- * This is the core of RuneLite's GPU rendering - converts the scene into GPU-friendly format
+ * The geometry is packed by {@link ScenePacker}, which only repacks the regions that changed. Every
+ * region has a slot of its own in the vertex buffer, with some room to grow, so a changed region
+ * is uploaded into its slot alone; the buffer is only laid out again when a region outgrows its slot
+ * or the scene is replaced. Slots are ordered by plane, so the planes being drawn are the start of
+ * the buffer, and the unused end of a slot is zeroed into triangles with no area
  */
 public class SceneUploader {
-    
+
     private GpuPluginRunelite plugin;
-    
-    // Temporary buffers for geometry
-    private List<Float> vertexData = new ArrayList<>();
-    private List<Float> uvData = new ArrayList<>();
-    private List<Float> normalData = new ArrayList<>();
-    private List<Float> colorData = new ArrayList<>();
-    
-    // Maximum buffer size
-    private static final int MAX_VERTICES = 500000;
-    
+
+    private final ScenePacker packer = new ScenePacker();
+
+    // Interleaved vertex layout, see ScenePacker
+    private static final int STRIDE = ScenePacker.FLOATS_PER_VERTEX * 4;
+
+    private FloatBuffer uploadBuffer;
+    private int uploadedRevision = -1;
+    private WorldController layoutScene;
+
+    // Where each region's slot starts and how many vertices it holds
+    private int[][][] slotOffsets;
+    private int[][][] slotSizes;
+    // The packer revision each slot was uploaded at
+    private int[][][] slotRevisions;
+    // The vertex each plane's slots end at
+    private int[] planeEnds = new int[0];
+
     public SceneUploader(GpuPluginRunelite plugin) {
         this.plugin = plugin;
     }
-    
+
     /**
-     * Upload entire scene to GPU
+     * Upload the regions of the scene that changed since the last upload
      */
     public void upload(WorldController scene, int plane) {
         if (scene == null) return;
-        
-        // Clear buffers
-        vertexData.clear();
-        uvData.clear();
-        normalData.clear();
-        colorData.clear();
-        
+
         try {
-            // Upload ground tiles
-            uploadGroundTiles(scene, plane);
-            
-            // Upload models (game objects, NPCs, players, etc.)
-            uploadSceneModels(scene, plane);
-            
-            // Upload all buffered data to GPU
-            flushBuffers();
-            
+            packer.update(scene);
+
+            if (packer.getRevision() != uploadedRevision || scene != layoutScene) {
+                if (scene != layoutScene || !fitsSlots()) {
+                    layout(scene);
+                } else {
+                    uploadChangedRegions();
+                }
+                uploadedRevision = packer.getRevision();
+            }
+
+            plugin.setVertexCount(planeEnds.length == 0 ? 0 : planeEnds[Math.min(plane, planeEnds.length - 1)]);
+
         } catch (Exception e) {
             System.err.println("Error uploading scene: " + e.getMessage());
             e.printStackTrace();
         }
     }
-    
-    /**
-     * Upload ground tiles to GPU
-     */
-    private void uploadGroundTiles(WorldController scene, int plane) {
-        // Access the tile array from WorldController
-        // This matches your client's structure
-        
-        for (int x = 0; x < 104; x++) {
-            for (int y = 0; y < 104; y++) {
-                try {
-                    // Get tile at position
-                    // You'll need to adapt this to match your WorldController's tile access
-                    uploadTile(scene, plane, x, y);
-                } catch (Exception e) {
-                    // Skip problematic tiles
+
+    private boolean fitsSlots() {
+        for (int plane = 0; plane < packer.getPlaneCount(); plane++) {
+            for (int regionX = 0; regionX < packer.getRegionCountX(); regionX++) {
+                for (int regionY = 0; regionY < packer.getRegionCountY(); regionY++) {
+                    if (vertices(plane, regionX, regionY) > slotSizes[plane][regionX][regionY]) {
+                        return false;
+                    }
                 }
             }
         }
+        return true;
     }
-    
-    /**
-     * Upload a single tile
-     */
-    private void uploadTile(WorldController scene, int plane, int x, int y) {
-        // This needs to be adapted to your tile structure
-        // For now, create a simple ground quad
-        
-        int tileSize = 128; // OSRS tile size
-        float x1 = x * tileSize;
-        float y1 = y * tileSize;
-        float x2 = (x + 1) * tileSize;
-        float y2 = (y + 1) * tileSize;
-        float z = 0; // Ground level
-        
-        // Get tile height from scene
-        // You'll need to adapt this to your scene's height data
-        
-        // Simple ground color (grass-like)
-        float r = 0.2f;
-        float g = 0.5f;
-        float b = 0.1f;
-        float a = 1.0f;
-        
-        // Create two triangles for the tile (quad)
-        // Triangle 1
-        addVertex(x1, z, y1, 0, 0, 0, 1, 0, r, g, b, a);
-        addVertex(x2, z, y1, 1, 0, 0, 1, 0, r, g, b, a);
-        addVertex(x1, z, y2, 0, 1, 0, 1, 0, r, g, b, a);
-        
-        // Triangle 2
-        addVertex(x2, z, y1, 1, 0, 0, 1, 0, r, g, b, a);
-        addVertex(x2, z, y2, 1, 1, 0, 1, 0, r, g, b, a);
-        addVertex(x1, z, y2, 0, 1, 0, 1, 0, r, g, b, a);
-    }
-    
-    /**
-     * Upload scene models (objects, NPCs, players)
-     */
-    private void uploadSceneModels(WorldController scene, int plane) {
-        // This is where you'd iterate through all visible models in the scene
-        // You'll need to adapt this to your client's model system
-        
-        // Example structure (adapt to your client):
-        /*
-        for (Model model : scene.getVisibleModels()) {
-            uploadModel(model, modelX, modelY, modelZ, modelRotation);
-        }
-        */
-    }
-    
+
     /**
-     * Upload a single model to GPU buffers
+     * Give every region a slot a quarter bigger than it is now and upload the whole buffer
      */
-    public void uploadModel(Model model, int x, int y, int z, int rotation) {
-        if (model == null) return;
-        
-        try {
-            // Access model data
-            // Adapt these to match your Model class structure
-            int[] verticesX = model.verticesX;
-            int[] verticesY = model.verticesY;
-            int[] verticesZ = model.verticesZ;
-            
-            int[] trianglesX = model.trianglePointsX;
-            int[] trianglesY = model.trianglePointsY;
-            int[] trianglesZ = model.trianglePointsZ;
-            
-            short[] faceColors = model.faceColor;
-            
-            int triangleCount = model.triangleCount;
-            
-            // Upload each triangle
-            for (int i = 0; i < triangleCount; i++) {
-                int v1 = trianglesX[i];
-                int v2 = trianglesY[i];
-                int v3 = trianglesZ[i];
-                
-                // Get vertex positions
-                float x1 = verticesX[v1] + x;
-                float y1 = verticesY[v1] + y;
-                float z1 = verticesZ[v1] + z;
-                
-                float x2 = verticesX[v2] + x;
-                float y2 = verticesY[v2] + y;
-                float z2 = verticesZ[v2] + z;
-                
-                float x3 = verticesX[v3] + x;
-                float y3 = verticesY[v3] + y;
-                float z3 = verticesZ[v3] + z;
-                
-                // Get color
-                int color = faceColors != null && i < faceColors.length ? 
-                           faceColors[i] : 0x7FFF;
-                
-                float r = ((color >> 10) & 0x1F) / 31.0f;
-                float g = ((color >> 5) & 0x1F) / 31.0f;
-                float b = (color & 0x1F) / 31.0f;
-                
-                // Calculate normal
-                float nx = (y2 - y1) * (z3 - z1) - (z2 - z1) * (y3 - y1);
-                float ny = (z2 - z1) * (x3 - x1) - (x2 - x1) * (z3 - z1);
-                float nz = (x2 - x1) * (y3 - y1) - (y2 - y1) * (x3 - x1);
-                float len = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
-                if (len > 0) {
-                    nx /= len;
-                    ny /= len;
-                    nz /= len;
+    private void layout(WorldController scene) {
+        int planes = packer.getPlaneCount();
+        int regionsX = packer.getRegionCountX();
+        int regionsY = packer.getRegionCountY();
+        slotOffsets = new int[planes][regionsX][regionsY];
+        slotSizes = new int[planes][regionsX][regionsY];
+        slotRevisions = new int[planes][regionsX][regionsY];
+        planeEnds = new int[planes];
+        int offset = 0;
+        for (int plane = 0; plane < planes; plane++) {
+            for (int regionX = 0; regionX < regionsX; regionX++) {
+                for (int regionY = 0; regionY < regionsY; regionY++) {
+                    int vertices = vertices(plane, regionX, regionY);
+                    // Whole triangles, so the padding never joins up with the next slot
+                    int size = (vertices + vertices / 4 + 48) / 3 * 3;
+                    slotOffsets[plane][regionX][regionY] = offset;
+                    slotSizes[plane][regionX][regionY] = size;
+                    offset += size;
                 }
-                
-                // Add triangle vertices
-                addVertex(x1, y1, z1, 0, 0, nx, ny, nz, r, g, b, 1.0f);
-                addVertex(x2, y2, z2, 0, 0, nx, ny, nz, r, g, b, 1.0f);
-                addVertex(x3, y3, z3, 0, 0, nx, ny, nz, r, g, b, 1.0f);
             }
-            
-        } catch (Exception e) {
-            System.err.println("Error uploading model: " + e.getMessage());
+            planeEnds[plane] = offset;
         }
-    }
-    
-    /**
-     * Add a vertex to the buffer
-     */
-    private void addVertex(float x, float y, float z, 
-                          float u, float v,
-                          float nx, float ny, float nz,
-                          float r, float g, float b, float a) {
-        
-        // Check buffer size
-        if (vertexData.size() / 3 >= MAX_VERTICES) {
-            System.err.println("Vertex buffer full, flushing...");
-            flushBuffers();
+
+        FloatBuffer buffer = buffer(offset);
+        for (int plane = 0; plane < planes; plane++) {
+            for (int regionX = 0; regionX < regionsX; regionX++) {
+                for (int regionY = 0; regionY < regionsY; regionY++) {
+                    fillSlot(buffer, plane, regionX, regionY);
+                }
+            }
         }
-        
-        // Position
-        vertexData.add(x);
-        vertexData.add(y);
-        vertexData.add(z);
-        
-        // UV
-        uvData.add(u);
-        uvData.add(v);
-        
-        // Normal
-        normalData.add(nx);
-        normalData.add(ny);
-        normalData.add(nz);
-        
-        // Color
-        colorData.add(r);
-        colorData.add(g);
-        colorData.add(b);
-        colorData.add(a);
-    }
-    
-    /**
-     * Flush all buffered geometry to GPU
-     */
-    private void flushBuffers() {
-        if (vertexData.isEmpty()) return;
-        
-        int vertexCount = vertexData.size() / 3;
-        
-        // Convert lists to arrays
-        float[] vertices = toFloatArray(vertexData);
-        float[] uvs = toFloatArray(uvData);
-        float[] normals = toFloatArray(normalData);
-        float[] colors = toFloatArray(colorData);
-        
-        // Upload to GPU
+        buffer.flip();
+
         glBindVertexArray(plugin.getVaoHandle());
-        
-        // Vertex positions
         glBindBuffer(GL_ARRAY_BUFFER, plugin.getVertexBuffer());
-        glBufferData(GL_ARRAY_BUFFER, vertices, GL_DYNAMIC_DRAW);
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 0, 0);
+        glBufferData(GL_ARRAY_BUFFER, buffer, GL_DYNAMIC_DRAW);
+
+        // Position
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, STRIDE, 0);
         glEnableVertexAttribArray(0);
-        
-        // UVs
-        glBindBuffer(GL_ARRAY_BUFFER, plugin.getUvBuffer());
-        glBufferData(GL_ARRAY_BUFFER, uvs, GL_DYNAMIC_DRAW);
-        glVertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0);
+
+        // UV
+        glVertexAttribPointer(1, 2, GL_FLOAT, false, STRIDE, 3 * 4);
         glEnableVertexAttribArray(1);
-        
-        // Normals
-        glBindBuffer(GL_ARRAY_BUFFER, plugin.getNormalBuffer());
-        glBufferData(GL_ARRAY_BUFFER, normals, GL_DYNAMIC_DRAW);
-        glVertexAttribPointer(2, 3, GL_FLOAT, false, 0, 0);
+
+        // Normal
+        glVertexAttribPointer(2, 3, GL_FLOAT, false, STRIDE, 5 * 4);
         glEnableVertexAttribArray(2);
-        
-        // Colors (using attribute location 3)
-        int colorBuffer = glGenBuffers();
-        glBindBuffer(GL_ARRAY_BUFFER, colorBuffer);
-        glBufferData(GL_ARRAY_BUFFER, colors, GL_DYNAMIC_DRAW);
-        glVertexAttribPointer(3, 4, GL_FLOAT, false, 0, 0);
+
+        // Color
+        glVertexAttribPointer(3, 4, GL_FLOAT, false, STRIDE, 8 * 4);
         glEnableVertexAttribArray(3);
-        
+
         glBindVertexArray(0);
         glBindBuffer(GL_ARRAY_BUFFER, 0);
-        
-        // Update vertex count
-        plugin.setVertexCount(vertexCount);
-        
-        System.out.println("Uploaded " + vertexCount + " vertices to GPU");
+
+        layoutScene = scene;
+
+        System.out.println("Uploaded " + offset + " vertices to GPU");
+    }
+
+    /**
+     * Upload the regions packed since their slot was last written, each into its own slot
+     */
+    private void uploadChangedRegions() {
+        boolean bound = false;
+        for (int plane = 0; plane < packer.getPlaneCount(); plane++) {
+            for (int regionX = 0; regionX < packer.getRegionCountX(); regionX++) {
+                for (int regionY = 0; regionY < packer.getRegionCountY(); regionY++) {
+                    if (packer.getRegionRevision(plane, regionX, regionY) == slotRevisions[plane][regionX][regionY]) {
+                        continue;
+                    }
+                    if (!bound) {
+                        glBindBuffer(GL_ARRAY_BUFFER, plugin.getVertexBuffer());
+                        bound = true;
+                    }
+                    FloatBuffer buffer = buffer(slotSizes[plane][regionX][regionY]);
+                    fillSlot(buffer, plane, regionX, regionY);
+                    buffer.flip();
+                    glBufferSubData(GL_ARRAY_BUFFER, (long) slotOffsets[plane][regionX][regionY] * STRIDE, buffer);
+                }
+            }
+        }
+        if (bound) {
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+        }
     }
-    
+
     /**
-     * Convert List<Float> to float[]
+     * Put a region and the zeroes after it up to the end of its slot in the buffer
      */
-    private float[] toFloatArray(List<Float> list) {
-        float[] array = new float[list.size()];
-        for (int i = 0; i < list.size(); i++) {
-            array[i] = list.get(i);
+    private void fillSlot(FloatBuffer buffer, int plane, int regionX, int regionY) {
+        int end = buffer.position() + slotSizes[plane][regionX][regionY] * ScenePacker.FLOATS_PER_VERTEX;
+        buffer.put(packer.getRegion(plane, regionX, regionY));
+        while (buffer.position() < end) {
+            buffer.put(0F);
+        }
+        slotRevisions[plane][regionX][regionY] = packer.getRegionRevision(plane, regionX, regionY);
+    }
+
+    private FloatBuffer buffer(int vertices) {
+        int floats = vertices * ScenePacker.FLOATS_PER_VERTEX;
+        if (uploadBuffer == null || uploadBuffer.capacity() < floats) {
+            uploadBuffer = ByteBuffer.allocateDirect(floats * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
         }
-        return array;
+        uploadBuffer.clear();
+        return uploadBuffer;
+    }
+
+    private int vertices(int plane, int regionX, int regionY) {
+        return packer.getRegion(plane, regionX, regionY).limit() / ScenePacker.FLOATS_PER_VERTEX;
     }
-}
\ No newline at end of file
+}
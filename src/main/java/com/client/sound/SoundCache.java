@@ -1,11 +1,19 @@
 package com.client.sound;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import com.client.Client;
 
+/**
+ * Fetched sound effects, least recently played dropped first once they take up more than
+ * {@link #BUDGET} bytes.
+ */
 public class SoundCache {
-    private static final Map<Integer, byte[]> cache = new HashMap<>();
+    private static final int BUDGET = 8 * 1024 * 1024;
+
+    private static final LinkedHashMap<Integer, byte[]> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private static int size;
 
     public static void preload(int soundId) {
         if (!cache.containsKey(soundId)) {
@@ -14,7 +22,23 @@ public class SoundCache {
     }
 
     public static void store(int soundId, byte[] data) {
-        cache.put(soundId, data);
+        if (data == null || data.length > BUDGET) {
+            return;
+        }
+        byte[] previous = cache.put(soundId, data);
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += data.length;
+        Iterator<Map.Entry<Integer, byte[]>> iterator = cache.entrySet().iterator();
+        while (size > BUDGET && iterator.hasNext()) {
+            Map.Entry<Integer, byte[]> eldest = iterator.next();
+            if (eldest.getKey() == soundId) {
+                continue;
+            }
+            size -= eldest.getValue().length;
+            iterator.remove();
+        }
     }
 
     public static byte[] get(int soundId) {
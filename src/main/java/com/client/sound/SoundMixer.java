@@ -0,0 +1,199 @@
+package com.client.sound;
+
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Software mixer that plays every sound effect through one long-lived output line.
+ *
+ * Sounds are 8-bit unsigned mono PCM at 22050 Hz. Each one is assigned to one of a fixed number of
+ * voices; a single daemon thread sums the active voices with their volume into a short block and
+ * writes it to the line, whose buffer holds the next few blocks. When nothing is playing the thread
+ * waits, so an idle client doesn't keep the audio device busy.
+ */
+public final class SoundMixer {
+
+    public static final float SAMPLE_RATE = 22050.0f;
+
+    private static final int VOICES = 16;
+    /**
+     * Samples mixed per block, 20ms.
+     */
+    private static final int BLOCK = 441;
+    /**
+     * Blocks buffered by the line, which bounds the start latency of a sound.
+     */
+    private static final int BUFFERED_BLOCKS = 4;
+    /**
+     * Samples per client cycle, the unit of a sound's delay.
+     */
+    private static final int SAMPLES_PER_CYCLE = 441;
+
+    private static SoundMixer instance;
+
+    private final Object lock = new Object();
+    private final byte[][] voiceData = new byte[VOICES][];
+    private final int[] voicePosition = new int[VOICES];
+    private final int[] voiceEnd = new int[VOICES];
+    private final int[] voiceGain = new int[VOICES];
+    private final int[] voiceDelay = new int[VOICES];
+    private final int[] mix = new int[BLOCK];
+    private final byte[] block = new byte[BLOCK];
+    private int active;
+    private volatile boolean failed;
+
+    private SoundMixer() {
+    }
+
+    /**
+     * @return the mixer, its thread started on first use.
+     */
+    public static synchronized SoundMixer get() {
+        if (instance == null) {
+            instance = new SoundMixer();
+            Thread thread = new Thread(instance::run, "SoundMixer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts playing a sound.
+     *
+     * @param data   the sample data, not copied so it mustn't change while playing.
+     * @param offset the first sample.
+     * @param length the number of samples.
+     * @param gain   the volume from 0 (silent) to 256 (unchanged).
+     * @param delay  client cycles to wait before the sound starts.
+     */
+    public void play(byte[] data, int offset, int length, int gain, int delay) {
+        if (data == null || length <= 0 || gain <= 0 || failed) {
+            return;
+        }
+        synchronized (lock) {
+            int voice = -1;
+            for (int i = 0; i < VOICES; i++) {
+                if (voiceData[i] == null) {
+                    voice = i;
+                    break;
+                }
+            }
+            if (voice == -1) {
+                // Every voice is busy, cut the one closest to finishing
+                voice = 0;
+                for (int i = 1; i < VOICES; i++) {
+                    if (voiceEnd[i] - voicePosition[i] < voiceEnd[voice] - voicePosition[voice]) {
+                        voice = i;
+                    }
+                }
+                active--;
+            }
+            voiceData[voice] = data;
+            voicePosition[voice] = offset;
+            voiceEnd[voice] = offset + length;
+            voiceGain[voice] = Math.min(256, gain);
+            voiceDelay[voice] = Math.max(0, delay) * SAMPLES_PER_CYCLE;
+            active++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Stops every playing sound.
+     */
+    public void stopAll() {
+        synchronized (lock) {
+            for (int i = 0; i < VOICES; i++) {
+                voiceData[i] = null;
+            }
+            active = 0;
+        }
+    }
+
+    private void run() {
+        SourceDataLine line;
+        try {
+            line = openLine();
+        } catch (Exception e) {
+            failed = true;
+            System.err.println("Unable to open the sound line: " + e.getMessage());
+            return;
+        }
+        while (true) {
+            try {
+                synchronized (lock) {
+                    while (active == 0) {
+                        lock.wait();
+                    }
+                    mixBlock();
+                }
+                line.write(block, 0, BLOCK);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private SourceDataLine openLine() throws LineUnavailableException {
+        AudioFormat format = new AudioFormat(AudioFormat.Encoding.PCM_UNSIGNED, SAMPLE_RATE, 8, 1, 1,
+                SAMPLE_RATE, false);
+        DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
+        SourceDataLine line = (SourceDataLine) AudioSystem.getLine(info);
+        line.open(format, BLOCK * BUFFERED_BLOCKS);
+        line.start();
+        return line;
+    }
+
+    /**
+     * Sums the active voices into {@link #block}, retiring the ones that finish.
+     */
+    private void mixBlock() {
+        Arrays.fill(mix, 0);
+        for (int voice = 0; voice < VOICES; voice++) {
+            byte[] data = voiceData[voice];
+            if (data == null) {
+                continue;
+            }
+            int start = 0;
+            int delay = voiceDelay[voice];
+            if (delay > 0) {
+                if (delay >= BLOCK) {
+                    voiceDelay[voice] = delay - BLOCK;
+                    continue;
+                }
+                voiceDelay[voice] = 0;
+                start = delay;
+            }
+            int position = voicePosition[voice];
+            int count = Math.min(BLOCK - start, voiceEnd[voice] - position);
+            int gain = voiceGain[voice];
+            for (int i = 0; i < count; i++) {
+                mix[start + i] += ((data[position + i] & 0xff) - 128) * gain >> 8;
+            }
+            position += count;
+            if (position >= voiceEnd[voice]) {
+                voiceData[voice] = null;
+                active--;
+            } else {
+                voicePosition[voice] = position;
+            }
+        }
+        for (int i = 0; i < BLOCK; i++) {
+            int sample = mix[i];
+            if (sample < -128) {
+                sample = -128;
+            } else if (sample > 127) {
+                sample = 127;
+            }
+            block[i] = (byte) (sample + 128);
+        }
+    }
+}
@@ -3,13 +3,13 @@ package com.client.sound;
 import com.client.Client;
 import com.client.OnDemandData;
 
+import java.util.ArrayDeque;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Queue;
 
 public class SoundRequestQueue {
 
-    private static final Queue<SoundRequest> queuedSounds = new LinkedList<>();
+    private static final Queue<SoundRequest> queuedSounds = new ArrayDeque<>();
 
     public static void add(SoundRequest request) {
         if (request == null) return;